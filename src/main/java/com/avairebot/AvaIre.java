@@ -32,8 +32,12 @@ import com.avairebot.audio.GuildMusicManager;
 import com.avairebot.audio.LavalinkManager;
 import com.avairebot.audio.cache.AudioState;
 import com.avairebot.blacklist.Blacklist;
+import com.avairebot.bootstrap.BootstrapGraph;
 import com.avairebot.cache.CacheManager;
+import com.avairebot.cache.CacheRegistry;
 import com.avairebot.cache.CacheType;
+import com.avairebot.cache.adapters.MemoryAdapter;
+import com.avairebot.cache.adapters.TieredAdapter;
 import com.avairebot.chat.ConsoleColor;
 import com.avairebot.commands.CategoryDataContext;
 import com.avairebot.commands.CategoryHandler;
@@ -50,10 +54,12 @@ import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.serializer.PlaylistSongSerializer;
 import com.avairebot.database.transformers.PlaylistTransformer;
+import com.avairebot.exceptions.BootstrapException;
 import com.avairebot.exceptions.InvalidApplicationEnvironmentException;
 import com.avairebot.exceptions.InvalidPluginException;
 import com.avairebot.exceptions.InvalidPluginsPathException;
 import com.avairebot.handlers.EventEmitter;
+import com.avairebot.handlers.GuildDataUpdateHandler;
 import com.avairebot.handlers.MainEventHandler;
 import com.avairebot.handlers.PluginEventHandler;
 import com.avairebot.handlers.events.ApplicationShutdownEvent;
@@ -110,6 +116,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class AvaIre {
 
@@ -138,9 +145,9 @@ public class AvaIre {
     private final LevelManager levelManager;
     private final IntelligenceManager intelligenceManager;
     private final PluginManager pluginManager;
-    private final VoteManager voteManager;
-    private final MuteManager muteManger;
-    private final OnWatchManager onWatchManger;
+    private VoteManager voteManager;
+    private MuteManager muteManger;
+    private OnWatchManager onWatchManger;
     private final ShardEntityCounter shardEntityCounter;
     private final EventEmitter eventEmitter;
     private final BotAdmin botAdmins;
@@ -213,33 +220,25 @@ public class AvaIre {
             log.info("Enabling rest action context parsing and printing stack traces for optimal debugging");
         }
 
+        CacheRegistry.configure(config);
+
+        ((MemoryAdapter) cache.getAdapter(CacheType.MEMORY)).setMaximumWeight(
+            config.getLong("memory-cache.maximum-weight", MemoryAdapter.DEFAULT_MAXIMUM_WEIGHT)
+        );
+
+        TieredAdapter tieredAdapter = (TieredAdapter) cache.getAdapter(CacheType.TIERED);
+        tieredAdapter.setMaximumWeight(config.getLong("tiered-cache.maximum-weight", TieredAdapter.DEFAULT_MAXIMUM_WEIGHT));
+        tieredAdapter.setWriteBehind(config.getBoolean("tiered-cache.write-behind", false));
+
         log.info("Registering database, query builder, schema builder, and services");
         database = new DatabaseManager(this);
-
-        log.info("Registering database table migrations");
-        AutoloaderUtil.load(Constants.PACKAGE_MIGRATION_PATH, migration -> {
-            database.getMigrations().register((Migration) migration);
-        }, false);
-
-        log.info("Registering database table seeders");
-        AutoloaderUtil.load(Constants.PACKAGE_SEEDER_PATH, seeder -> {
-            database.getSeeder().register((Seeder) seeder);
-        }, true);
-
-        log.info("Registering default middlewares");
-        MiddlewareHandler.initialize(this);
-        MiddlewareHandler.register("hasRole", new HasRoleMiddleware(this));
-        MiddlewareHandler.register("hasAnyRole", new HasAnyRoleMiddleware(this));
-        MiddlewareHandler.register("hasVoted", new HasVotedTodayMiddleware(this));
-        MiddlewareHandler.register("isBotAdmin", new IsBotAdminMiddleware(this));
-        MiddlewareHandler.register("require", new RequirePermissionMiddleware(this));
-        MiddlewareHandler.register("requireOne", new RequireOnePermissionMiddleware(this));
-        MiddlewareHandler.register("hasDJLevel", new RequireDJLevelMiddleware(this));
-        MiddlewareHandler.register("throttle", new ThrottleMiddleware(this));
-        MiddlewareHandler.register("musicChannel", new IsMusicChannelMiddleware(this));
-        MiddlewareHandler.register("isDMMessage", new IsDMMessageMiddleware(this));
-        MiddlewareHandler.register("isOfficialPinewoodGuild", new IsOfficialPinewoodGuildMiddleware(this));
-        MiddlewareHandler.register("isValidPIAMember", new IsValidPIAMemberMiddleware(this));
+        intelligenceManager = new IntelligenceManager(this);
+        pluginManager = new PluginManager(this);
+        blacklist = new Blacklist(this);
+        shardEntityCounter = new ShardEntityCounter(this);
+        servlet = new WebServlet(config.getInt("web-servlet.port",
+            config.getInt("metrics.port", WebServlet.defaultPort)
+        ));
 
         String defaultPrefix = getConfig().getString("default-prefix", DiscordConstants.DEFAULT_COMMAND_PREFIX);
         if (getConfig().getString("system-prefix", DiscordConstants.DEFAULT_SYSTEM_PREFIX).equals(defaultPrefix)) {
@@ -248,202 +247,272 @@ public class AvaIre {
             System.exit(ExitCodes.EXIT_CODE_NORMAL);
         }
 
-        log.info("Registering default command categories");
-        CategoryHandler.addCategory(this, "Administration", defaultPrefix);
-        CategoryHandler.addCategory(this, "Automod", defaultPrefix);
-        CategoryHandler.addCategory(this, "OnWatch", defaultPrefix);
-        CategoryHandler.addCategory(this, "Help", defaultPrefix);
-        CategoryHandler.addCategory(this, "Fun", defaultPrefix);
-        CategoryHandler.addCategory(this, "Music", defaultPrefix);
-        CategoryHandler.addCategory(this, "Interaction", defaultPrefix);
-        CategoryHandler.addCategory(this, "GlobalMod", defaultPrefix);
-        CategoryHandler.addCategory(this, "Search", defaultPrefix);
-        CategoryHandler.addCategory(this, "Utility", defaultPrefix);
-        CategoryHandler.addCategory(this, "Pinewood", defaultPrefix);
-        CategoryHandler.addCategory(this, "Evaluations", defaultPrefix);
-        CategoryHandler.addCategory(this, "System", getConfig().getString(
-            "system-prefix", DiscordConstants.DEFAULT_SYSTEM_PREFIX
-        ));
-
-        log.info("Registering commands...");
-        if (settings.isMusicOnlyMode()) {
-            CommandHandler.register(new StatsCommand(this));
-            CommandHandler.register(new UptimeCommand(this));
-            CommandHandler.register(new SourceCommand(this));
-            CommandHandler.register(new ChangePrefixCommand(this));
-            AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH + ".help", command -> CommandHandler.register((Command) command));
-            AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH + ".music", command -> CommandHandler.register((Command) command));
-            AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH + ".system", command -> CommandHandler.register((Command) command));
-        } else {
-            AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH, command -> CommandHandler.register((Command) command));
-        }
-        log.info(String.format("\tRegistered %s commands successfully!", CommandHandler.getCommands().size()));
+        // The bootstrap stages are run as a graph, each stage is started as soon as all the
+        // stages it depends on has finished, so stages that doesn't depend on each other,
+        // like loading the language files and registering commands, runs in parallel, the
+        // command, category, job, and migration registries are concurrent collections
+        // since the stages filling them, and plugins, may register entries at once.
+        BootstrapGraph bootstrap = new BootstrapGraph();
+
+        bootstrap.stage("migrations", () -> {
+            log.info("Registering database table migrations");
+            AutoloaderUtil.load(Constants.PACKAGE_MIGRATION_PATH, migration -> {
+                database.getMigrations().register((Migration) migration);
+            }, false);
+        });
+
+        bootstrap.stage("seeders", () -> {
+            log.info("Registering database table seeders");
+            AutoloaderUtil.load(Constants.PACKAGE_SEEDER_PATH, seeder -> {
+                database.getSeeder().register((Seeder) seeder);
+            }, true);
+        });
+
+        bootstrap.stage("middlewares", () -> {
+            log.info("Registering default middlewares");
+            MiddlewareHandler.initialize(this);
+            MiddlewareHandler.register("hasRole", new HasRoleMiddleware(this));
+            MiddlewareHandler.register("hasAnyRole", new HasAnyRoleMiddleware(this));
+            MiddlewareHandler.register("hasVoted", new HasVotedTodayMiddleware(this));
+            MiddlewareHandler.register("isBotAdmin", new IsBotAdminMiddleware(this));
+            MiddlewareHandler.register("require", new RequirePermissionMiddleware(this));
+            MiddlewareHandler.register("requireOne", new RequireOnePermissionMiddleware(this));
+            MiddlewareHandler.register("hasDJLevel", new RequireDJLevelMiddleware(this));
+            MiddlewareHandler.register("throttle", new ThrottleMiddleware(this));
+            MiddlewareHandler.register("musicChannel", new IsMusicChannelMiddleware(this));
+            MiddlewareHandler.register("isDMMessage", new IsDMMessageMiddleware(this));
+            MiddlewareHandler.register("isOfficialPinewoodGuild", new IsOfficialPinewoodGuildMiddleware(this));
+            MiddlewareHandler.register("isValidPIAMember", new IsValidPIAMemberMiddleware(this));
+        });
+
+        bootstrap.stage("categories", () -> {
+            log.info("Registering default command categories");
+            CategoryHandler.addCategory(this, "Administration", defaultPrefix);
+            CategoryHandler.addCategory(this, "Automod", defaultPrefix);
+            CategoryHandler.addCategory(this, "OnWatch", defaultPrefix);
+            CategoryHandler.addCategory(this, "Help", defaultPrefix);
+            CategoryHandler.addCategory(this, "Fun", defaultPrefix);
+            CategoryHandler.addCategory(this, "Music", defaultPrefix);
+            CategoryHandler.addCategory(this, "Interaction", defaultPrefix);
+            CategoryHandler.addCategory(this, "GlobalMod", defaultPrefix);
+            CategoryHandler.addCategory(this, "Search", defaultPrefix);
+            CategoryHandler.addCategory(this, "Utility", defaultPrefix);
+            CategoryHandler.addCategory(this, "Pinewood", defaultPrefix);
+            CategoryHandler.addCategory(this, "Evaluations", defaultPrefix);
+            CategoryHandler.addCategory(this, "System", getConfig().getString(
+                "system-prefix", DiscordConstants.DEFAULT_SYSTEM_PREFIX
+            ));
+        });
+
+        bootstrap.stage("commands", () -> {
+            log.info("Registering commands...");
+            if (settings.isMusicOnlyMode()) {
+                CommandHandler.register(new StatsCommand(this));
+                CommandHandler.register(new UptimeCommand(this));
+                CommandHandler.register(new SourceCommand(this));
+                CommandHandler.register(new ChangePrefixCommand(this));
+                AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH + ".help", command -> CommandHandler.register((Command) command));
+                AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH + ".music", command -> CommandHandler.register((Command) command));
+                AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH + ".system", command -> CommandHandler.register((Command) command));
+            } else {
+                AutoloaderUtil.load(Constants.PACKAGE_COMMAND_PATH, command -> CommandHandler.register((Command) command));
+            }
+            log.info(String.format("\tRegistered %s commands successfully!", CommandHandler.getCommands().size()));
+        }, "categories", "middlewares");
+
+        bootstrap.stage("jobs", () -> {
+            log.info("Registering jobs...");
+            AutoloaderUtil.load(Constants.PACKAGE_JOB_PATH, job -> ScheduleHandler.registerJob((Job) job));
+            log.info(String.format("\tRegistered %s jobs successfully!", ScheduleHandler.entrySet().size()));
+        });
+
+        bootstrap.stage("i18n", () -> {
+            log.info("Preparing I18n");
+            I18n.start(this);
+        });
+
+        bootstrap.stage("rank-backgrounds", () -> {
+            log.info("Creating rank backgrounds");
+            RankBackgroundHandler.getInstance().start();
+        });
+
+        // Plugins can register their own commands, categories, middlewares, jobs, migrations,
+        // and AI services, so every stage that registers any of those must finish first.
+        bootstrap.stage("plugins", () -> {
+            log.info("Creating plugin manager and registering plugins...");
 
-        log.info("Registering jobs...");
-        AutoloaderUtil.load(Constants.PACKAGE_JOB_PATH, job -> ScheduleHandler.registerJob((Job) job));
-        log.info(String.format("\tRegistered %s jobs successfully!", ScheduleHandler.entrySet().size()));
+            try {
+                pluginManager.loadPlugins(this);
+
+                if (pluginManager.getPlugins().isEmpty()) {
+                    log.info("\tNo plugins was found");
+                } else {
+                    log.info(String.format("\t%s plugins was loaded, invoking all plugins", pluginManager.getPlugins().size()));
+                    for (PluginLoader plugin : pluginManager.getPlugins()) {
+                        int commands = CommandHandler.getCommands().size();
+                        int categories = CategoryHandler.getValues().size();
+                        int migrations = getDatabase().getMigrations().getMigrations().size();
+
+                        plugin.invokePlugin(this);
+
+                        log.info("\t\t\"{}\" has been enabled with {} Command(s), {} Command Categories, {} Database Migration(s)",
+                            plugin.getName(),
+                            CommandHandler.getCommands().size() - commands,
+                            CategoryHandler.getValues().size() - categories,
+                            getDatabase().getMigrations().getMigrations().size() - migrations
+                        );
+                    }
+                }
+            } catch (InvalidPluginsPathException | InvalidPluginException e) {
+                log.error(e.getMessage(), e);
+                System.exit(ExitCodes.EXIT_CODE_ERROR);
+            }
 
-        log.info("Preparing Intelligence Manager");
-        intelligenceManager = new IntelligenceManager(this);
+            if (settings.isGenerateJsonFileMode()) {
+                log.info("");
+                log.info("Preparations for generating the command file have finished!");
+                log.info("Generating file...");
 
-        log.info("Preparing I18n");
-        I18n.start(this);
+                LinkedHashMap<String, CategoryDataContext> map = CommandHandler.generateCommandMapFrom(null);
 
-        log.info("Creating rank backgrounds");
-        RankBackgroundHandler.getInstance().start();
+                try (FileWriter file = new FileWriter("commandMap.json")) {
+                    file.write(AvaIre.gson.toJson(map));
 
-        log.info("Creating plugin manager and registering plugins...");
-        pluginManager = new PluginManager(this);
+                    log.info("The `commandMap.json` file has been generated successfully!");
+                } catch (IOException e) {
+                    log.error("Something went wrong while trying to save the command map: {}", e.getMessage(), e);
+                    System.exit(ExitCodes.EXIT_CODE_ERROR);
+                }
 
-        try {
-            pluginManager.loadPlugins(this);
+                System.exit(ExitCodes.EXIT_CODE_NORMAL);
+            }
 
-            if (pluginManager.getPlugins().isEmpty()) {
-                log.info("\tNo plugins was found");
-            } else {
-                log.info(String.format("\t%s plugins was loaded, invoking all plugins", pluginManager.getPlugins().size()));
-                for (PluginLoader plugin : pluginManager.getPlugins()) {
-                    int commands = CommandHandler.getCommands().size();
-                    int categories = CategoryHandler.getValues().size();
-                    int migrations = getDatabase().getMigrations().getMigrations().size();
-
-                    plugin.invokePlugin(this);
-
-                    log.info("\t\t\"{}\" has been enabled with {} Command(s), {} Command Categories, {} Database Migration(s)",
-                        plugin.getName(),
-                        CommandHandler.getCommands().size() - commands,
-                        CategoryHandler.getValues().size() - categories,
-                        getDatabase().getMigrations().getMigrations().size() - migrations
-                    );
-                }
+            if (intelligenceManager.getService() == null) {
+                log.info("No default AI service has been registered, registering the DialogFlow service");
+                intelligenceManager.registerService(new DialogFlowService());
             }
-        } catch (InvalidPluginsPathException | InvalidPluginException e) {
-            log.error(e.getMessage(), e);
-            System.exit(ExitCodes.EXIT_CODE_ERROR);
-        }
+        }, "migrations", "seeders", "middlewares", "categories", "commands", "jobs", "i18n");
 
-        if (settings.isGenerateJsonFileMode()) {
-            log.info("");
-            log.info("Preparations for generating the command file have finished!");
-            log.info("Generating file...");
+        bootstrap.stage("database", () -> {
+            log.info("Connecting to database & Running migrations & Seeders");
+            database.getMigrations().up();
+            database.getSeeder().run();
 
-            LinkedHashMap<String, CategoryDataContext> map = CommandHandler.generateCommandMapFrom(null);
+            if (settings.usePluginsIndex()) {
+                log.info("Loads plugins from the plugin index");
+                pluginManager.loadPluginsFromIndex(avaire);
+            }
+        }, "plugins");
 
-            try (FileWriter file = new FileWriter("commandMap.json")) {
-                file.write(AvaIre.gson.toJson(map));
+        bootstrap.stage("blacklist", () -> {
+            log.info("Preparing blacklist and syncing the list with the database");
+            blacklist.syncBlacklistWithDatabase();
+        }, "database");
 
-                log.info("The `commandMap.json` file has been generated successfully!");
-            } catch (IOException e) {
-                log.error("Something went wrong while trying to save the command map: {}", e.getMessage(), e);
-                System.exit(ExitCodes.EXIT_CODE_ERROR);
+        bootstrap.stage("servlet", () -> {
+            log.info("Preparing and setting up web servlet");
+            if (getConfig().getBoolean("web-servlet.api-routes.leaderboard", true)) {
+                servlet.registerGet("/leaderboard/:id", new GetLeaderboardPlayers());
             }
 
-            System.exit(ExitCodes.EXIT_CODE_NORMAL);
-        }
-
-        if (intelligenceManager.getService() == null) {
-            log.info("No default AI service has been registered, registering the DialogFlow service");
-            intelligenceManager.registerService(new DialogFlowService());
-        }
+            if (getConfig().getBoolean("web-servlet.api-routes.players", true)) {
+                servlet.registerGet("/players/cleanup", new GetPlayerCleanup());
+            }
 
-        log.info("Connecting to database & Running migrations & Seeders");
-        database.getMigrations().up();
-        database.getSeeder().run();
+            if (getConfig().getBoolean("web-servlet.api-routes.guilds", true)) {
+                servlet.registerPost("/guilds/cleanup", new PostGuildCleanup());
+                servlet.registerGet("/guilds/cleanup", new GetGuildCleanup());
+                servlet.registerGet("/guilds/:ids/exists", new GetGuildsExists());
+                servlet.registerGet("/guilds/:ids", new GetGuilds());
+            }
 
-        if (settings.usePluginsIndex()) {
-            log.info("Loads plugins from the plugin index");
-            pluginManager.loadPluginsFromIndex(avaire);
-        }
+            if (getConfig().getBoolean("web-servlet.api-routes.stats", true)) {
+                servlet.registerGet("/stats", new GetStats());
+            }
 
-        log.info("Preparing blacklist and syncing the list with the database");
-        blacklist = new Blacklist(this);
-        blacklist.syncBlacklistWithDatabase();
+            log.info("Preparing and setting up metrics");
+            Metrics.setup(this);
+        }, "plugins");
+
+        bootstrap.stage("sentry", () -> {
+            String sentryDsn = config.getString("sentryDsn", "").trim();
+            if (sentryDsn.length() > 0) {
+                log.info("SentryDSN found, initializing Sentry.io");
+                SentryClient sentryClient = Sentry.init(sentryDsn);
+
+                sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_GUILD);
+                sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_CHANNEL);
+                sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_SHARD);
+                sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_AUTHOR);
+                sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_MESSAGE);
+
+                sentryClient.setEnvironment(getEnvironment().getName());
+                switch (getEnvironment()) {
+                    case PRODUCTION:
+                        sentryClient.setRelease(GitInfo.getGitInfo().commitId);
+                        break;
+
+                    default:
+                        sentryClient.setRelease(AppInfo.getAppInfo().version);
+                        break;
+                }
 
-        log.info("Preparing and setting up web servlet");
-        servlet = new WebServlet(config.getInt("web-servlet.port",
-            config.getInt("metrics.port", WebServlet.defaultPort)
-        ));
+                getSentryLogbackAppender().start();
+            } else {
+                getSentryLogbackAppender().stop();
+            }
+            if (config.getString("apiKeys.gitlabKey").length() > 0) {
+                log.info("GitLab API Key found, initializing Gitlab API");
+                gitLabApi = new GitLabApi("https://gitlab.com", config.getString("apiKeys.gitlabKey", ""));
+            }
+        });
 
-        if (getConfig().getBoolean("web-servlet.api-routes.leaderboard", true)) {
-            servlet.registerGet("/leaderboard/:id", new GetLeaderboardPlayers());
-        }
+        bootstrap.stage("vote-manager", () -> {
+            log.info("Preparing vote manager");
+            voteManager = new VoteManager(this);
+        }, "database");
 
-        if (getConfig().getBoolean("web-servlet.api-routes.players", true)) {
-            servlet.registerGet("/players/cleanup", new GetPlayerCleanup());
-        }
+        bootstrap.stage("mute-manager", () -> {
+            log.info("Preparing mute manager");
+            muteManger = new MuteManager(this);
+        }, "database");
 
-        if (getConfig().getBoolean("web-servlet.api-routes.guilds", true)) {
-            servlet.registerPost("/guilds/cleanup", new PostGuildCleanup());
-            servlet.registerGet("/guilds/cleanup", new GetGuildCleanup());
-            servlet.registerGet("/guilds/:ids/exists", new GetGuildsExists());
-            servlet.registerGet("/guilds/:ids", new GetGuilds());
-        }
+        bootstrap.stage("on-watch-manager", () -> {
+            log.info("Preparing on watch manager");
+            onWatchManger = new OnWatchManager(this);
+        }, "database");
 
-        if (getConfig().getBoolean("web-servlet.api-routes.stats", true)) {
-            servlet.registerGet("/stats", new GetStats());
-        }
+        bootstrap.stage("lavalink", () -> {
+            log.info("Preparing Lavalink");
+            AudioHandler.setAvaire(this);
+            LavalinkManager.LavalinkManagerHolder.lavalink.start(this);
 
-        log.info("Preparing and setting up metrics");
-        Metrics.setup(this);
-
-        String sentryDsn = config.getString("sentryDsn", "").trim();
-        if (sentryDsn.length() > 0) {
-            log.info("SentryDSN found, initializing Sentry.io");
-            SentryClient sentryClient = Sentry.init(sentryDsn);
-
-            sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_GUILD);
-            sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_CHANNEL);
-            sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_SHARD);
-            sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_AUTHOR);
-            sentryClient.addMdcTag(SentryConstants.SENTRY_MDC_TAG_MESSAGE);
-
-            sentryClient.setEnvironment(getEnvironment().getName());
-            switch (getEnvironment()) {
-                case PRODUCTION:
-                    sentryClient.setRelease(GitInfo.getGitInfo().commitId);
-                    break;
-
-                default:
-                    sentryClient.setRelease(AppInfo.getAppInfo().version);
-                    break;
+            try {
+                AudioConfiguration.ResamplingQuality.valueOf(
+                    getConfig().getString("audio-quality.resampling", "medium").toUpperCase()
+                );
+            } catch (IllegalArgumentException ignored) {
+                log.warn("Invalid audio resampling quality given, \"{}\" is not a valid quality name, using medium quality instead.",
+                    getConfig().getString("audio-quality.resampling", "medium")
+                );
+                config.set("audio-quality.resampling", "medium");
             }
-
-            getSentryLogbackAppender().start();
-        } else {
-            getSentryLogbackAppender().stop();
-        }
-        if (config.getString("apiKeys.gitlabKey").length() > 0) {
-            log.info("GitLab API Key found, initializing Gitlab API");
-            gitLabApi = new GitLabApi("https://gitlab.com", config.getString("apiKeys.gitlabKey", ""));
-        }
-        log.info("Preparing vote manager");
-        voteManager = new VoteManager(this);
-
-        log.info("Preparing mute manager");
-        muteManger = new MuteManager(this);
-
-        log.info("Preparing on watch manager");
-        onWatchManger = new OnWatchManager(this);
-
-        log.info("Preparing Lavalink");
-        AudioHandler.setAvaire(this);
-        LavalinkManager.LavalinkManagerHolder.lavalink.start(this);
+        }, "database");
 
         try {
-            AudioConfiguration.ResamplingQuality.valueOf(
-                getConfig().getString("audio-quality.resampling", "medium").toUpperCase()
-            );
-        } catch (IllegalArgumentException ignored) {
-            log.warn("Invalid audio resampling quality given, \"{}\" is not a valid quality name, using medium quality instead.",
-                getConfig().getString("audio-quality.resampling", "medium")
-            );
-            config.set("audio-quality.resampling", "medium");
+            bootstrap.run(config.getInt("bootstrap-threads", Runtime.getRuntime().availableProcessors()));
+        } catch (BootstrapException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
         }
 
         log.info("Creating bot instance and connecting to Discord network");
 
-        shardEntityCounter = new ShardEntityCounter(this);
-
         try {
             shardManager = buildShardManager();
         } catch (LoginException e) {
@@ -603,6 +672,8 @@ public class AvaIre {
             scheduledFuture.cancel(false);
         }
 
+        GuildDataUpdateHandler.flushAll(this);
+
         long shutdownDelay = 1500L;
 
         getLogger().info("Shutting down bot instance gracefully with exit code " + exitCode);
@@ -654,6 +725,10 @@ public class AvaIre {
         // can resume the music once the bot boots back up.
         cache.getAdapter(CacheType.FILE).put("audio.state", gson.toJson(audioStates), 60 * 60 * 3);
 
+        // Writes any tiered cache items that are still waiting
+        // to be written to the disk when write-behind is used.
+        ((TieredAdapter) cache.getAdapter(CacheType.TIERED)).writePendingItems();
+
         try {
             if (shutdownDelay > 5000L) {
                 // If the shutdown delay is anymore than 5 seconds, we just set it to a
@@ -679,6 +754,20 @@ public class AvaIre {
             job.cancel(true);
         }
 
+        if (!getDatabase().getExecutor().shutdown(5, TimeUnit.SECONDS)) {
+            getLogger().warn("Timed out while waiting for {} queued async database queries to finish.",
+                getDatabase().getExecutor().getQueueSize()
+            );
+        }
+
+        if (getDatabase().getWriter() != null && !getDatabase().getWriter().shutdown(5, TimeUnit.SECONDS)) {
+            getLogger().warn("Timed out while waiting for {} queued SQLite writes to finish.",
+                getDatabase().getWriter().getQueueSize()
+            );
+        }
+
+        getDatabase().getReplicas().close();
+
         try {
             getDatabase().getConnection().close();
         } catch (SQLException ex) {
@@ -99,7 +99,7 @@ public class RequestSong extends Intent {
     }
 
     private String getRandomSong(final String category) {
-        Object cacheItem = avaire.getCache().getAdapter(CacheType.FILE).remember("music-type." + category.toLowerCase(), 31536000, () -> {
+        Object cacheItem = avaire.getCache().getAdapter(CacheType.TIERED).remember("music-type." + category.toLowerCase(), 31536000, () -> {
             try {
                 String item = Jsoup.connect(
                     String.format("https://libraries.amped.fm/libraries/%s/musicbot", category)
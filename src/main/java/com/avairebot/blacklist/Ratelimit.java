@@ -21,13 +21,14 @@
 
 package com.avairebot.blacklist;
 
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.contracts.blacklist.PunishmentLevel;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.middleware.ThrottleMiddleware;
 import com.avairebot.time.Carbon;
 import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.RestActionUtil;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import net.dv8tion.jda.api.entities.MessageChannel;
@@ -64,10 +65,10 @@ public class Ratelimit {
     /**
      * The cache loader for holding all the ratelimiter rates.
      */
-    public static final LoadingCache<Long, Rate> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(hitTime, TimeUnit.MILLISECONDS)
-        .build(CacheLoader.from(Rate::new));
+    public static final LoadingCache<Long, Rate> cache = CacheRegistry.register("blacklist-ratelimit", new CacheSettings()
+        .expireAfterWrite(hitTime, TimeUnit.MILLISECONDS),
+        CacheLoader.from(Rate::new)
+    );
 
     /**
      * The slf4j logger instance.
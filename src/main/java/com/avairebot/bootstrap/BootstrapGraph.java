@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.bootstrap;
+
+import com.avairebot.exceptions.BootstrapException;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class BootstrapGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(BootstrapGraph.class);
+
+    private final Map<String, Node> stages = new LinkedHashMap<>();
+
+    /**
+     * Adds a new named stage to the bootstrap graph, the stage will only be run once all
+     * the stages it depends on has finished, every dependency must already have been
+     * added to the graph, which makes it impossible to create a dependency cycle.
+     *
+     * @param name         The name of the stage, used for logging and metrics.
+     * @param stage        The stage that should be run.
+     * @param dependencies The names of the stages that must finish before this stage is run.
+     * @return The bootstrap graph instance.
+     */
+    public BootstrapGraph stage(String name, BootstrapStage stage, String... dependencies) {
+        if (stages.containsKey(name)) {
+            throw new BootstrapException("A bootstrap stage called \"" + name + "\" has already been added");
+        }
+
+        for (String dependency : dependencies) {
+            if (!stages.containsKey(dependency)) {
+                throw new BootstrapException(String.format(
+                    "The \"%s\" bootstrap stage depends on \"%s\", which hasn't been added yet", name, dependency
+                ));
+            }
+        }
+
+        stages.put(name, new Node(name, stage, dependencies));
+
+        return this;
+    }
+
+    /**
+     * Runs every stage in the graph, stages are started as soon as all of their dependencies
+     * have finished, so independent stages are run in parallel, this method blocks until
+     * every stage has finished, or until a stage fails, in which case none of the
+     * stages depending on the failed stage will be run.
+     *
+     * @param threads The maximum amount of stages that can run at the same time.
+     * @throws BootstrapException If any of the stages failed, with the stage exception as the cause.
+     */
+    public void run(int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder()
+            .setNameFormat("bootstrap-%d")
+            .setDaemon(true)
+            .build()
+        );
+
+        long startedAt = System.nanoTime();
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+
+        try {
+            for (Node node : stages.values()) {
+                CompletableFuture<?>[] dependencies = new CompletableFuture[node.dependencies.length];
+                for (int i = 0; i < dependencies.length; i++) {
+                    dependencies[i] = futures.get(node.dependencies[i]);
+                }
+
+                futures.put(node.name, CompletableFuture.allOf(dependencies)
+                    .thenRunAsync(() -> runStage(node), executor)
+                );
+            }
+
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        } finally {
+            executor.shutdown();
+        }
+
+        long duration = System.nanoTime() - startedAt;
+        Metrics.bootstrapDuration.set(duration / 1_000_000_000D);
+
+        log.info("Finished all {} bootstrap stages in {} ms", stages.size(), TimeUnit.NANOSECONDS.toMillis(duration));
+    }
+
+    private void runStage(Node node) {
+        long startedAt = System.nanoTime();
+
+        try {
+            node.stage.run();
+        } catch (Exception e) {
+            throw new BootstrapException(node.name, e);
+        }
+
+        long duration = System.nanoTime() - startedAt;
+        Metrics.bootstrapStageDuration.labels(node.name).set(duration / 1_000_000_000D);
+
+        log.info("Finished the \"{}\" bootstrap stage in {} ms", node.name, TimeUnit.NANOSECONDS.toMillis(duration));
+    }
+
+    private RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new BootstrapException("unknown", cause);
+    }
+
+    private static class Node {
+
+        private final String name;
+        private final BootstrapStage stage;
+        private final String[] dependencies;
+
+        Node(String name, BootstrapStage stage, String[] dependencies) {
+            this.name = name;
+            this.stage = stage;
+            this.dependencies = dependencies;
+        }
+    }
+}
@@ -78,6 +78,27 @@ public class CacheManager extends CacheAdapter {
         return getAdapter(type).remember(token, seconds, closure);
     }
 
+    @Override
+    public Object remember(String token, int seconds, int refreshAhead, Supplier<Object> closure) {
+        return getAdapter(null).remember(token, seconds, refreshAhead, closure);
+    }
+
+    /**
+     * Get an item from the cache, or store the default value, refreshing
+     * the item in the background if it expires within the refresh
+     * ahead time, while the current value is returned.
+     *
+     * @param type         The cache type to store the value in.
+     * @param token        The cache item token
+     * @param seconds      The amount of seconds the item should be stored for
+     * @param refreshAhead The amount of seconds before the item expires it should be refreshed
+     * @param closure      The closure that should be invoked if the cache doesn't exists
+     * @return the object that exists in the cache, if the cache token is empty the result of the closure will be retruend instead.
+     */
+    public Object remember(CacheType type, String token, int seconds, int refreshAhead, Supplier<Object> closure) {
+        return getAdapter(type).remember(token, seconds, refreshAhead, closure);
+    }
+
     @Override
     public boolean forever(String token, Object value) {
         return getAdapter(null).forever(token, value);
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.avairebot.contracts.config.ConfigurationSection;
+import com.google.common.cache.CacheLoader;
+import io.prometheus.client.guava.cache.CacheMetricsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cache registry keeps track of all the Guava caches used by Ava, each cache is
+ * registered by name with its default settings, which can be overwritten through
+ * the "caches" section in the config, and changed at runtime by reconfiguring
+ * the cache, registered caches are also added to the cache metrics.
+ */
+public class CacheRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRegistry.class);
+
+    private static final Map<String, RegisteredCache<?, ?>> caches = new ConcurrentSkipListMap<>();
+
+    private static ConfigurationSection config = null;
+    private static CacheMetricsCollector metricsCollector = null;
+
+    /**
+     * Registers a new cache with the given name and default settings.
+     *
+     * @param name     The name of the cache.
+     * @param settings The default settings of the cache.
+     * @param <K>      The type of keys stored in the cache.
+     * @param <V>      The type of values stored in the cache.
+     * @return The registered cache.
+     * @throws IllegalArgumentException If a cache with the given name has already been registered.
+     */
+    public static synchronized <K, V> RegisteredCache<K, V> register(String name, CacheSettings settings) {
+        return register(new RegisteredCache<>(name, settings.copy(), applyConfig(name, settings), null));
+    }
+
+    /**
+     * Registers a new cache with the given name and default settings, using
+     * the given cache loader to load entries that are missing in the cache.
+     *
+     * @param name     The name of the cache.
+     * @param settings The default settings of the cache.
+     * @param loader   The cache loader used to load missing entries.
+     * @param <K>      The type of keys stored in the cache.
+     * @param <V>      The type of values stored in the cache.
+     * @return The registered loading cache.
+     * @throws IllegalArgumentException If a cache with the given name has already been registered.
+     */
+    public static synchronized <K, V> RegisteredLoadingCache<K, V> register(String name, CacheSettings settings, @Nonnull CacheLoader<? super K, V> loader) {
+        return register(new RegisteredLoadingCache<>(name, settings.copy(), applyConfig(name, settings), loader));
+    }
+
+    private static synchronized <T extends RegisteredCache<?, ?>> T register(T cache) {
+        if (caches.containsKey(cache.getName())) {
+            throw new IllegalArgumentException("A cache with the name \"" + cache.getName() + "\" has already been registered");
+        }
+
+        caches.put(cache.getName(), cache);
+
+        if (metricsCollector != null) {
+            metricsCollector.addCache(cache.getName(), cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Sets the config used to overwrite the default cache settings, caches that has
+     * already been registered are reconfigured using the settings from the config.
+     *
+     * @param config The config that holds the cache settings.
+     */
+    public static synchronized void configure(ConfigurationSection config) {
+        CacheRegistry.config = config;
+
+        for (RegisteredCache<?, ?> cache : caches.values()) {
+            CacheSettings settings = applyConfig(cache.getName(), cache.getDefaultSettings());
+            if (!settings.equals(cache.getSettings())) {
+                cache.reconfigure(settings);
+            }
+        }
+    }
+
+    /**
+     * Adds all the registered caches to the given metrics collector, caches
+     * registered afterwards are added to the collector as they're registered.
+     *
+     * @param collector The metrics collector the caches should be added to.
+     */
+    public static synchronized void registerMetrics(CacheMetricsCollector collector) {
+        metricsCollector = collector;
+
+        for (RegisteredCache<?, ?> cache : caches.values()) {
+            collector.addCache(cache.getName(), cache);
+        }
+    }
+
+    /**
+     * Gets the registered cache with the given name.
+     *
+     * @param name The name of the cache.
+     * @return Possibly-null, the registered cache with the given name.
+     */
+    @Nullable
+    public static RegisteredCache<?, ?> getCache(String name) {
+        return caches.get(name);
+    }
+
+    /**
+     * Gets all the registered caches, sorted by their name.
+     *
+     * @return All the registered caches.
+     */
+    public static Collection<RegisteredCache<?, ?>> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    private static CacheSettings applyConfig(String name, CacheSettings defaults) {
+        CacheSettings settings = defaults.copy();
+        if (config == null) {
+            return settings;
+        }
+
+        String path = "caches." + name + ".";
+        if (config.isSet(path + "maximum-size")) {
+            settings.maximumSize(config.getLong(path + "maximum-size", settings.getMaximumSize()));
+        }
+        if (config.isSet(path + "expire-after-access")) {
+            settings.expireAfterAccess(config.getLong(path + "expire-after-access", -1), TimeUnit.SECONDS);
+        }
+        if (config.isSet(path + "expire-after-write")) {
+            settings.expireAfterWrite(config.getLong(path + "expire-after-write", -1), TimeUnit.SECONDS);
+        }
+
+        if (!settings.equals(defaults)) {
+            log.debug("Using the cache settings from the config for the \"{}\" cache: {}", name, settings);
+        }
+        return settings;
+    }
+}
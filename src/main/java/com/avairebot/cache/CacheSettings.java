@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings used to build a {@link RegisteredCache registered cache}, the settings
+ * passed to the {@link CacheRegistry cache registry} are used as the defaults
+ * for the cache, which can then be overwritten through the config, or
+ * changed at runtime by {@link RegisteredCache#reconfigure(CacheSettings) reconfiguring} the cache.
+ */
+public class CacheSettings {
+
+    private long maximumSize = -1;
+    private Weigher<?, ?> weigher = null;
+    private long expireAfterAccess = -1;
+    private long expireAfterWrite = -1;
+    private int concurrencyLevel = -1;
+
+    /**
+     * Creates a new empty set of cache settings, caches built with
+     * empty settings will never evict or expire any entries.
+     */
+    public CacheSettings() {
+        //
+    }
+
+    private CacheSettings(CacheSettings settings) {
+        this.maximumSize = settings.maximumSize;
+        this.weigher = settings.weigher;
+        this.expireAfterAccess = settings.expireAfterAccess;
+        this.expireAfterWrite = settings.expireAfterWrite;
+        this.concurrencyLevel = settings.concurrencyLevel;
+    }
+
+    /**
+     * Sets the maximum amount of entries the cache can hold, if the cache has
+     * a weigher, this is instead the maximum combined weight of the entries.
+     *
+     * @param maximumSize The maximum size of the cache, or <code>-1</code> for no limit.
+     * @return The cache settings instance.
+     */
+    public CacheSettings maximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum combined weight of the entries in the cache, as
+     * well as the weigher used to calculate the weight of entries.
+     *
+     * @param maximumWeight The maximum weight of the cache.
+     * @param weigher       The weigher used to calculate the weight of entries.
+     * @param <K>           The type of keys stored in the cache.
+     * @param <V>           The type of values stored in the cache.
+     * @return The cache settings instance.
+     */
+    public <K, V> CacheSettings maximumWeight(long maximumWeight, Weigher<K, V> weigher) {
+        this.maximumSize = maximumWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * Sets how long entries should stay in the cache after they were last read or written.
+     *
+     * @param duration The duration, or <code>-1</code> to never expire entries after access.
+     * @param unit     The time unit of the duration.
+     * @return The cache settings instance.
+     */
+    public CacheSettings expireAfterAccess(long duration, TimeUnit unit) {
+        this.expireAfterAccess = duration < 0 ? -1 : unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Sets how long entries should stay in the cache after they were written.
+     *
+     * @param duration The duration, or <code>-1</code> to never expire entries after write.
+     * @param unit     The time unit of the duration.
+     * @return The cache settings instance.
+     */
+    public CacheSettings expireAfterWrite(long duration, TimeUnit unit) {
+        this.expireAfterWrite = duration < 0 ? -1 : unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Sets the concurrency level of the cache, the concurrency level
+     * is used to determine how many segments the cache is split into.
+     *
+     * @param concurrencyLevel The concurrency level of the cache.
+     * @return The cache settings instance.
+     */
+    public CacheSettings concurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+        return this;
+    }
+
+    /**
+     * Gets the maximum size of the cache, or the maximum weight if the cache has a weigher.
+     *
+     * @return The maximum size of the cache, or <code>-1</code> if the cache has no size limit.
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Checks if the cache entries are weighed, in which case the maximum
+     * size is the maximum combined weight of the cache entries.
+     *
+     * @return <code>True</code> if the cache entries are weighed, <code>False</code> otherwise.
+     */
+    public boolean isWeighed() {
+        return weigher != null;
+    }
+
+    /**
+     * Gets how long entries stays in the cache after they were last read or written.
+     *
+     * @param unit The time unit the duration should be returned in.
+     * @return The duration, or <code>-1</code> if entries doesn't expire after access.
+     */
+    public long getExpireAfterAccess(TimeUnit unit) {
+        return expireAfterAccess < 0 ? -1 : unit.convert(expireAfterAccess, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets how long entries stays in the cache after they were written.
+     *
+     * @param unit The time unit the duration should be returned in.
+     * @return The duration, or <code>-1</code> if entries doesn't expire after write.
+     */
+    public long getExpireAfterWrite(TimeUnit unit) {
+        return expireAfterWrite < 0 ? -1 : unit.convert(expireAfterWrite, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a copy of the cache settings, so the copy can be
+     * changed without changing the original settings.
+     *
+     * @return The copy of the cache settings.
+     */
+    public CacheSettings copy() {
+        return new CacheSettings(this);
+    }
+
+    /**
+     * Creates a cache builder using the cache settings, the cache
+     * builder will always record the statistics of the cache.
+     *
+     * @param <K> The type of keys stored in the cache.
+     * @param <V> The type of values stored in the cache.
+     * @return The cache builder using the cache settings.
+     */
+    @SuppressWarnings("unchecked")
+    <K, V> CacheBuilder<K, V> toBuilder() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+
+        if (concurrencyLevel > 0) {
+            builder.concurrencyLevel(concurrencyLevel);
+        }
+        if (expireAfterAccess >= 0) {
+            builder.expireAfterAccess(expireAfterAccess, TimeUnit.NANOSECONDS);
+        }
+        if (expireAfterWrite >= 0) {
+            builder.expireAfterWrite(expireAfterWrite, TimeUnit.NANOSECONDS);
+        }
+
+        if (maximumSize >= 0) {
+            if (weigher == null) {
+                return (CacheBuilder<K, V>) builder.maximumSize(maximumSize);
+            }
+            return builder.maximumWeight(maximumSize).weigher((Weigher<K, V>) weigher);
+        }
+        return (CacheBuilder<K, V>) builder;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CacheSettings)) {
+            return false;
+        }
+
+        CacheSettings settings = (CacheSettings) obj;
+        return maximumSize == settings.maximumSize
+            && weigher == settings.weigher
+            && expireAfterAccess == settings.expireAfterAccess
+            && expireAfterWrite == settings.expireAfterWrite
+            && concurrencyLevel == settings.concurrencyLevel;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maximumSize, weigher, expireAfterAccess, expireAfterWrite, concurrencyLevel);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheSettings{maximumSize=%s, weighed=%s, expireAfterAccess=%ss, expireAfterWrite=%ss}",
+            maximumSize, isWeighed(), getExpireAfterAccess(TimeUnit.SECONDS), getExpireAfterWrite(TimeUnit.SECONDS)
+        );
+    }
+}
@@ -23,6 +23,7 @@ package com.avairebot.cache;
 
 import com.avairebot.cache.adapters.FileAdapter;
 import com.avairebot.cache.adapters.MemoryAdapter;
+import com.avairebot.cache.adapters.TieredAdapter;
 import com.avairebot.contracts.cache.CacheAdapter;
 import com.avairebot.shared.ExitCodes;
 
@@ -45,7 +46,15 @@ public enum CacheType {
      * something that may have to be accessed a lot,
      * or things that has a short lifespan.
      */
-    MEMORY("Memory", true, MemoryAdapter.class);
+    MEMORY("Memory", true, MemoryAdapter.class),
+
+    /**
+     * Represents a tiered cache type, combines the memory and the
+     * file cache, so things that are requested a lot are kept in
+     * memory, while still being persisted throughout restarts,
+     * is great for storing things like API responses.
+     */
+    TIERED("Tiered", false, TieredAdapter.class);
 
     private static final EnumMap<CacheType, CacheAdapter> INSTANCES = new EnumMap<>(CacheType.class);
 
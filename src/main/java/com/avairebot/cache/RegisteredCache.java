@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.ForwardingCache;
+
+import javax.annotation.Nullable;
+
+/**
+ * A cache registered through the {@link CacheRegistry cache registry}, the registered cache
+ * forwards all calls to a Guava cache built from the current cache settings, when the
+ * cache is reconfigured, a new Guava cache is built using the new settings, and
+ * the entries from the old cache are copied over to the new cache.
+ * <p>
+ * Caches registered with a cache loader are registered as a
+ * {@link RegisteredLoadingCache registered loading cache} instead.
+ *
+ * @param <K> The type of keys stored in the cache.
+ * @param <V> The type of values stored in the cache.
+ */
+public class RegisteredCache<K, V> extends ForwardingCache<K, V> {
+
+    private final String name;
+    private final CacheSettings defaultSettings;
+    private final CacheLoader<? super K, V> loader;
+
+    private volatile CacheSettings settings;
+    private volatile Cache<K, V> cache;
+
+    /**
+     * Creates a new registered cache.
+     *
+     * @param name            The name of the cache.
+     * @param defaultSettings The default settings of the cache.
+     * @param settings        The settings the cache should be built with.
+     * @param loader          The loader used to load missing entries, or {@code null}.
+     */
+    RegisteredCache(String name, CacheSettings defaultSettings, CacheSettings settings, @Nullable CacheLoader<? super K, V> loader) {
+        this.name = name;
+        this.defaultSettings = defaultSettings;
+        this.loader = loader;
+        this.settings = settings;
+        this.cache = build(settings);
+    }
+
+    @Override
+    protected Cache<K, V> delegate() {
+        return cache;
+    }
+
+    /**
+     * Gets the name the cache was registered with.
+     *
+     * @return The name of the cache.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the default settings the cache was registered with, before
+     * any of the settings was overwritten through the config.
+     *
+     * @return The default settings of the cache.
+     */
+    public CacheSettings getDefaultSettings() {
+        return defaultSettings.copy();
+    }
+
+    /**
+     * Gets the settings the cache is currently built with.
+     *
+     * @return The current settings of the cache.
+     */
+    public CacheSettings getSettings() {
+        return settings.copy();
+    }
+
+    /**
+     * Rebuilds the cache using the given settings, the entries from the current
+     * cache are copied over to the rebuilt cache, if the rebuilt cache is
+     * smaller than the amount of entries, some entries will be evicted,
+     * copied entries will have their expiry times reset.
+     * <p>
+     * Entries written to the cache while it is being rebuilt may be lost.
+     *
+     * @param settings The new settings that the cache should use.
+     */
+    public synchronized void reconfigure(CacheSettings settings) {
+        Cache<K, V> rebuilt = build(settings);
+        rebuilt.putAll(cache.asMap());
+
+        Cache<K, V> previous = cache;
+
+        this.settings = settings.copy();
+        this.cache = rebuilt;
+
+        previous.invalidateAll();
+    }
+
+    private Cache<K, V> build(CacheSettings settings) {
+        if (loader == null) {
+            return settings.copy().<K, V>toBuilder().build();
+        }
+        return settings.copy().<K, V>toBuilder().build(loader);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache registered through the {@link CacheRegistry cache registry} with a cache
+ * loader, missing entries are loaded using the cache loader, the same as with
+ * a regular Guava {@link LoadingCache loading cache}.
+ *
+ * @param <K> The type of keys stored in the cache.
+ * @param <V> The type of values stored in the cache.
+ */
+public class RegisteredLoadingCache<K, V> extends RegisteredCache<K, V> implements LoadingCache<K, V> {
+
+    /**
+     * Creates a new registered loading cache.
+     *
+     * @param name            The name of the cache.
+     * @param defaultSettings The default settings of the cache.
+     * @param settings        The settings the cache should be built with.
+     * @param loader          The loader used to load missing entries.
+     */
+    RegisteredLoadingCache(String name, CacheSettings defaultSettings, CacheSettings settings, @Nonnull CacheLoader<? super K, V> loader) {
+        super(name, defaultSettings, settings, loader);
+    }
+
+    @Override
+    protected LoadingCache<K, V> delegate() {
+        return (LoadingCache<K, V>) super.delegate();
+    }
+
+    @Override
+    public V get(K key) throws ExecutionException {
+        return delegate().get(key);
+    }
+
+    @Override
+    public V getUnchecked(K key) {
+        return delegate().getUnchecked(key);
+    }
+
+    @Override
+    public ImmutableMap<K, V> getAll(Iterable<? extends K> keys) throws ExecutionException {
+        return delegate().getAll(keys);
+    }
+
+    @Override
+    @Deprecated
+    public V apply(K key) {
+        return delegate().apply(key);
+    }
+
+    @Override
+    public void refresh(K key) {
+        delegate().refresh(key);
+    }
+}
@@ -26,22 +26,78 @@ import com.avairebot.Constants;
 import com.avairebot.cache.CacheItem;
 import com.avairebot.contracts.cache.CacheAdapter;
 import com.avairebot.shared.ExitCodes;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
+import javax.annotation.Nullable;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
-
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * The file cache adapter stores cache items in append-only segment files inside the
+ * storage cache path, allowing Ava to store things that are persisted through
+ * restarts. Every write appends a record to the newest segment, while an
+ * in-memory index keeps track of the expiry time and position of the
+ * latest record for each key, so checking if a key exists never
+ * has to touch the disk, and reading a value only reads
+ * the bytes for that single value.
+ * <p>
+ * Overwritten, forgotten, and expired records are left in the segments until
+ * the segments are compacted, compacting the cache copies all the live
+ * records into a single segment, and deletes the old segments.
+ */
 public class FileAdapter extends CacheAdapter {
 
+    private static final Logger log = LoggerFactory.getLogger(FileAdapter.class);
+
+    private static final int SEGMENT_MAGIC = 0x41564143;
+    private static final int SEGMENT_HEADER_SIZE = 5;
+    private static final byte SEGMENT_FLAG_COMPACTED = 1;
+    private static final long MAXIMUM_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final long MINIMUM_COMPACTION_GARBAGE = 1024 * 1024;
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * The keys of the cache items that should be imported from the cache files used before
+     * the file cache was stored in segments, the old cache files are named after a hash
+     * of their key, so only the items with a known key can be imported, anything
+     * else found in the old cache files are deleted along with the files.
+     */
+    private static final String[] LEGACY_CACHE_KEYS = new String[]{
+        "audio.state", "deleted-plugins"
+    };
+
     private final File storagePath;
+    private final Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private final Object appendLock = new Object();
+    private final Object compactionLock = new Object();
+
+    private volatile Segment activeSegment;
 
     /**
      * Creates the new file cache adapter, the file cache adapter
@@ -49,216 +105,663 @@ public class FileAdapter extends CacheAdapter {
      * Ava to store things that are persisted through restarts.
      */
     public FileAdapter() {
-        storagePath = new File(Constants.STORAGE_PATH, "cache");
+        this(new File(Constants.STORAGE_PATH, "cache"));
+    }
+
+    /**
+     * Creates the new file cache adapter, storing the cache
+     * segments inside of the given storage path.
+     *
+     * @param storagePath The path the cache segments should be stored in.
+     */
+    FileAdapter(File storagePath) {
+        this.storagePath = storagePath;
 
         if (!storagePath.exists() && !storagePath.mkdirs()) {
-            LoggerFactory.getLogger(FileAdapter.class).error("Failed to create cache storage folder, exiting application...");
+            log.error("Failed to create cache storage folder, exiting application...");
+            System.exit(ExitCodes.EXIT_CODE_NORMAL);
+        }
+
+        try {
+            loadSegments();
+        } catch (IOException e) {
+            log.error("Failed to load the cache segments, exiting application...", e);
             System.exit(ExitCodes.EXIT_CODE_NORMAL);
         }
     }
 
     @Override
     public boolean put(String token, Object value, int seconds) {
-        return writeTo(generateCacheFile(token), value, seconds);
+        return write(token, value, System.currentTimeMillis() + (seconds * 1000L));
     }
 
-    @Override
-    public Object remember(String token, int seconds, Supplier<Object> closure) {
-        if (has(token)) {
-            return get(token);
-        }
-
-        try {
-            writeTo(generateCacheFile(token), closure.get(), seconds);
-
-            return get(token);
-        } catch (Exception e) {
-            AvaIre.getLogger().error(e.getMessage(), e);
-            return null;
-        }
+    /**
+     * Stores the given cache item in the file cache, using the key
+     * and expire time of the cache item.
+     *
+     * @param item The cache item that should be stored.
+     * @return true if the cache was save correctly, false otherwise.
+     */
+    public boolean putRaw(CacheItem item) {
+        return write(item.getKey(), item.getValue(), item.getTime());
     }
 
     @Override
     public boolean forever(String token, Object value) {
-        return writeTo(generateCacheFile(token), value, Integer.MAX_VALUE);
+        return write(token, value, -1);
     }
 
     @Override
     public Object get(String token) {
-        File cacheFile = generateCacheFile(token);
-        if (cacheFile == null || !cacheFile.exists()) {
+        CacheItem item = getRaw(token);
+        if (item == null) {
             return null;
         }
-
-        try {
-            CacheItem item = AvaIre.gson.fromJson(new String(Files.readAllBytes(cacheFile.toPath())), CacheItem.class);
-            if (item == null) {
-                return false;
-            }
-
-            if (item.getTime() > System.currentTimeMillis()) {
-                return item.getValue();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return null;
+        return item.getValue();
     }
 
     @Override
     public CacheItem getRaw(String token) {
-        File cacheFile = generateCacheFile(token);
-        if (cacheFile == null || !cacheFile.exists()) {
-            return null;
-        }
+        String key = normalize(token);
 
+        segmentLock.readLock().lock();
         try {
-            return AvaIre.gson.fromJson(new String(Files.readAllBytes(cacheFile.toPath())), CacheItem.class);
+            IndexEntry entry = index.get(key);
+            if (entry == null || entry.hasExpired()) {
+                return null;
+            }
+
+            return new CacheItem(key, AvaIre.gson.fromJson(
+                new String(readValue(entry), StandardCharsets.UTF_8), Object.class
+            ), entry.expiresAt);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Failed to read the \"{}\" cache item: {}", key, e.getMessage(), e);
             return null;
+        } finally {
+            segmentLock.readLock().unlock();
         }
     }
 
     @Override
     public boolean has(String token) {
-        File cacheFile = generateCacheFile(token);
-        if (cacheFile == null || !cacheFile.exists()) {
-            return false;
-        }
+        IndexEntry entry = index.get(normalize(token));
 
-        try {
-            CacheItem item = AvaIre.gson.fromJson(new String(Files.readAllBytes(cacheFile.toPath())), CacheItem.class);
-            if (item == null) {
-                return false;
-            }
-
-            return item.getTime() > System.currentTimeMillis();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return entry != null && !entry.hasExpired();
     }
 
     @Override
     public CacheItem forget(String token) {
-        File cacheFile = generateCacheFile(token);
-        if (cacheFile == null || !cacheFile.exists()) {
-            return null;
-        }
+        CacheItem item = getRaw(token);
+        String key = normalize(token);
 
-        try {
-            CacheItem item = AvaIre.gson.fromJson(new String(Files.readAllBytes(cacheFile.toPath())), CacheItem.class);
-            if (item == null) {
+        synchronized (appendLock) {
+            IndexEntry entry = index.remove(key);
+            if (entry == null) {
                 return null;
             }
-            cacheFile.delete();
 
-            return item;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+            markAsGarbage(entry.segment, entry.recordLength);
+            try {
+                IndexEntry tombstone = append(RECORD_DELETE, key, 0, new byte[0]);
+                markAsGarbage(tombstone.segment, tombstone.recordLength);
+            } catch (IOException e) {
+                log.error("Failed to write the \"{}\" cache deletion to disk: {}", key, e.getMessage(), e);
+            }
         }
+        return item;
     }
 
     @Override
     public boolean flush() {
-        deleteRecursively(storagePath, true);
+        synchronized (compactionLock) {
+            synchronized (appendLock) {
+                segmentLock.writeLock().lock();
+                try {
+                    index.clear();
+                    for (Segment segment : segments.values()) {
+                        segment.close();
+                        Files.deleteIfExists(segment.file.toPath());
+                    }
+                    segments.clear();
+
+                    activeSegment = createSegment(1, (byte) 0);
+                    return true;
+                } catch (IOException e) {
+                    log.error("Failed to flush the file cache: {}", e.getMessage(), e);
+                    return false;
+                } finally {
+                    segmentLock.writeLock().unlock();
+                }
+            }
+        }
+    }
 
-        return true;
+    /**
+     * Gets the cache keys currently in the file cache, the keys may
+     * include items that have expired, but not been removed yet.
+     *
+     * @return The cache keys currently in the file cache.
+     */
+    public Set<String> getCacheKeys() {
+        return Collections.unmodifiableSet(index.keySet());
     }
 
-    private void deleteRecursively(File folder, boolean isRoot) {
-        File[] files = folder.listFiles();
-        if (files != null) { //some JVMs return null for empty dirs
-            for (File f : files) {
-                if (f.isDirectory()) {
-                    deleteRecursively(f, false);
-                } else {
-                    f.delete();
-                }
+    /**
+     * Gets the amount of bytes used by overwritten, forgotten, or expired
+     * cache records, that can be reclaimed by compacting the cache.
+     *
+     * @return The amount of bytes that can be reclaimed by compacting the cache.
+     */
+    public long getGarbageSize() {
+        long now = System.currentTimeMillis();
+
+        long garbage = 0;
+        for (Segment segment : segments.values()) {
+            garbage += segment.garbage.get();
+        }
+        for (IndexEntry entry : index.values()) {
+            if (entry.hasExpired(now)) {
+                garbage += entry.recordLength;
             }
         }
+        return garbage;
+    }
 
-        if (!isRoot) {
-            folder.delete();
+    /**
+     * Gets the amount of bytes used by all the cache segments.
+     *
+     * @return The amount of bytes used by all the cache segments.
+     */
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments.values()) {
+            size += segment.size.get();
         }
+        return size;
     }
 
-    private boolean writeTo(File file, Object value, long seconds) {
-        try {
-            if (!file.exists() && !file.createNewFile()) {
+    /**
+     * Compacts the cache if at least half of the bytes stored in the cache segments
+     * belongs to overwritten, forgotten, or expired records, compacting the cache
+     * copies all the live records into a single segment, and then deletes the
+     * old segments, new cache items can still be stored and read while
+     * the cache is being compacted.
+     *
+     * @return <code>True</code> if the cache was compacted, <code>False</code> otherwise.
+     * @throws IOException If the compacted segment could not be written to disk.
+     */
+    public boolean compact() throws IOException {
+        synchronized (compactionLock) {
+            long garbage = getGarbageSize();
+            if (garbage < MINIMUM_COMPACTION_GARBAGE || garbage * 2 < getSize()) {
                 return false;
             }
-        } catch (IOException ignored) {
-        }
 
-        Map<String, Object> cacheItem = new HashMap<>();
-        cacheItem.put("time", System.currentTimeMillis() + (seconds * 1000));
-        cacheItem.put("value", value);
-        cacheItem.put("key", file.getName());
+            int compactedId;
+            synchronized (appendLock) {
+                compactedId = activeSegment.id;
+                activeSegment = createSegment(compactedId + 1, (byte) 0);
+            }
+
+            File compactedFile = new File(storagePath, compactedId + ".compact");
+            Segment compacted = new Segment(compactedId, compactedFile, FileChannel.open(compactedFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE
+            ));
+            compacted.writeHeader(SEGMENT_FLAG_COMPACTED);
 
-        FileWriter fw = null;
-        BufferedWriter bw = null;
+            long now = System.currentTimeMillis();
+            List<IndexEntry[]> moved = new ArrayList<>();
 
-        try {
-            fw = new FileWriter(file, false);
-            bw = new BufferedWriter(fw);
+            for (IndexEntry entry : index.values()) {
+                if (entry.segment > compactedId) {
+                    continue;
+                }
 
-            bw.write(AvaIre.gson.toJson(cacheItem) + "\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        } finally {
+                if (entry.hasExpired(now)) {
+                    index.remove(entry.key, entry);
+                    continue;
+                }
+
+                byte[] value;
+                segmentLock.readLock().lock();
+                try {
+                    if (index.get(entry.key) != entry) {
+                        continue;
+                    }
+                    value = readValue(entry);
+                } finally {
+                    segmentLock.readLock().unlock();
+                }
+
+                moved.add(new IndexEntry[]{entry, compacted.append(RECORD_PUT, entry.key, entry.expiresAt, value)});
+            }
+            compacted.channel.force(true);
+
+            segmentLock.writeLock().lock();
             try {
-                if (bw != null) {
-                    bw.close();
+                compacted.close();
+
+                Segment replaced = segments.get(compactedId);
+                replaced.close();
+                Files.move(compactedFile.toPath(), replaced.file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+                );
+
+                Segment segment = openSegment(compactedId, replaced.file);
+                segments.put(compactedId, segment);
+
+                for (IndexEntry[] entries : moved) {
+                    if (!index.replace(entries[0].key, entries[0], entries[1])) {
+                        segment.garbage.addAndGet(entries[1].recordLength);
+                    }
                 }
 
-                if (fw != null) {
-                    fw.close();
+                for (Segment oldSegment : new ArrayList<>(segments.values())) {
+                    if (oldSegment.id < compactedId) {
+                        segments.remove(oldSegment.id);
+                        oldSegment.close();
+                        Files.deleteIfExists(oldSegment.file.toPath());
+                    }
                 }
-            } catch (IOException ex) {
-                ex.printStackTrace();
+            } finally {
+                segmentLock.writeLock().unlock();
             }
+
+            log.debug("Compacted the file cache, reclaimed {} bytes", garbage);
+            return true;
         }
-        return true;
     }
 
-    private File generateCacheFile(String string) {
-        String cacheToken = encrypt(string);
-        if (cacheToken == null) {
-            return null;
+    private boolean write(String token, Object value, long expiresAt) {
+        String key = normalize(token);
+        byte[] bytes = AvaIre.gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+
+        synchronized (appendLock) {
+            try {
+                IndexEntry entry = append(RECORD_PUT, key, expiresAt, bytes);
+
+                IndexEntry previous = index.put(key, entry);
+                if (previous != null) {
+                    markAsGarbage(previous.segment, previous.recordLength);
+                }
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to write the \"{}\" cache item to disk: {}", key, e.getMessage(), e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Appends the record to the active segment, if the active segment has grown past
+     * the maximum segment size, a new segment is created before the record is
+     * appended, this must only be called while holding the append lock.
+     */
+    private IndexEntry append(byte type, String key, long expiresAt, byte[] value) throws IOException {
+        if (activeSegment.size.get() >= MAXIMUM_SEGMENT_SIZE) {
+            activeSegment = createSegment(activeSegment.id + 1, (byte) 0);
+        }
+        return activeSegment.append(type, key, expiresAt, value);
+    }
+
+    /**
+     * Reads the raw value bytes for the given index entry, this must only
+     * be called while holding the read lock for the segments.
+     */
+    private byte[] readValue(IndexEntry entry) throws IOException {
+        Segment segment = segments.get(entry.segment);
+        if (segment == null) {
+            throw new IOException("The cache segment " + entry.segment + " no longer exists");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(entry.valueLength);
+        segment.readFully(buffer, entry.valueOffset);
+
+        return buffer.array();
+    }
+
+    private void markAsGarbage(int segmentId, int bytes) {
+        Segment segment = segments.get(segmentId);
+        if (segment != null) {
+            segment.garbage.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Loads all the segments from the storage cache path, and rebuilds the in-memory
+     * index by replaying the records in each segment in the order they were
+     * written, segments from before the latest compaction are deleted.
+     */
+    private void loadSegments() throws IOException {
+        TreeMap<Integer, File> files = new TreeMap<>();
+        List<File> staleFiles = new ArrayList<>();
+
+        File[] children = storagePath.listFiles();
+        if (children != null) {
+            for (File file : children) {
+                String name = file.getName();
+
+                if (name.endsWith(".log")) {
+                    try {
+                        files.put(Integer.parseInt(name.substring(0, name.length() - 4)), file);
+                        continue;
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+
+                // Unfinished compactions, and the cache files from before the cache used
+                // segments are removed once the segments have been loaded, and
+                // the known items has been imported from the old cache files.
+                staleFiles.add(file);
+            }
+        }
+
+        Integer compactedId = null;
+        for (Map.Entry<Integer, File> file : files.descendingMap().entrySet()) {
+            if (readSegmentFlags(file.getValue()) == SEGMENT_FLAG_COMPACTED) {
+                compactedId = file.getKey();
+                break;
+            }
         }
 
-        File cachePath = new File(storagePath,
-            cacheToken.substring(0, 2) + File.separator
-                + cacheToken.substring(2, 4) + File.separator
-        );
+        for (Map.Entry<Integer, File> file : files.entrySet()) {
+            if (compactedId != null && file.getKey() < compactedId) {
+                Files.deleteIfExists(file.getValue().toPath());
+                continue;
+            }
+
+            Segment segment = openSegment(file.getKey(), file.getValue());
+            segments.put(segment.id, segment);
+            replay(segment);
+
+            activeSegment = segment;
+        }
 
-        if (!cachePath.exists()) {
-            cachePath.mkdirs();
+        if (activeSegment == null) {
+            activeSegment = createSegment(1, (byte) 0);
         }
 
-        return new File(cachePath, cacheToken.substring(4, cacheToken.length()));
+        if (!staleFiles.isEmpty()) {
+            importLegacyItems();
+
+            for (File file : staleFiles) {
+                deleteRecursively(file);
+            }
+        }
     }
 
-    private String encrypt(String string) {
+    /**
+     * Imports the cache items with a known key from the cache files used before the file
+     * cache was stored in segments, the items are only imported if they don't already
+     * exist in the segments, and haven't expired yet.
+     */
+    private void importLegacyItems() {
+        for (String key : LEGACY_CACHE_KEYS) {
+            File file = getLegacyCacheFile(key);
+            if (file == null || !file.isFile() || index.containsKey(key)) {
+                continue;
+            }
+
+            try {
+                CacheItem item = AvaIre.gson.fromJson(
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), CacheItem.class
+                );
+
+                if (item != null && item.getTime() > System.currentTimeMillis()) {
+                    write(key, item.getValue(), item.getTime());
+                }
+            } catch (IOException | JsonParseException e) {
+                log.warn("Failed to import the \"{}\" cache item from the old cache files: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the file the given key was stored in before the file cache was stored in segments,
+     * the old cache files were stored in folders named after the MD5 hash of their key.
+     *
+     * @param key The key of the cache item that the file should be returned for.
+     * @return either (1) the old cache file for the given key
+     *         or (2) <code>NULL</code> if the MD5 algorithm isn't available.
+     */
+    @Nullable
+    private File getLegacyCacheFile(String key) {
         try {
             MessageDigest md5 = MessageDigest.getInstance("MD5");
-            md5.update(string.trim().toLowerCase().getBytes());
-
-            byte[] digest = md5.digest();
+            md5.update(key.getBytes());
 
-            StringBuilder sb = new StringBuilder();
-            for (byte aDigest : digest) {
-                sb.append(Integer.toString((aDigest & 0xff) + 0x100, 16).substring(1));
+            StringBuilder hash = new StringBuilder();
+            for (byte digest : md5.digest()) {
+                hash.append(Integer.toString((digest & 0xff) + 0x100, 16).substring(1));
             }
 
-            return sb.toString();
+            return new File(storagePath, hash.substring(0, 2) + File.separator
+                + hash.substring(2, 4) + File.separator
+                + hash.substring(4)
+            );
         } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
             return null;
         }
     }
+
+    private void replay(Segment segment) throws IOException {
+        long position = SEGMENT_HEADER_SIZE;
+        long length = segment.channel.size();
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position + RECORD_HEADER_SIZE <= length) {
+            header.clear();
+            segment.readFully(header, position);
+            header.flip();
+
+            int payloadLength = header.getInt();
+            int checksum = header.getInt();
+            if (payloadLength < 11 || position + RECORD_HEADER_SIZE + payloadLength > length) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            segment.readFully(payload, position + RECORD_HEADER_SIZE);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload.array(), 0, payloadLength);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            payload.flip();
+            byte type = payload.get();
+            byte[] key = new byte[payload.getShort() & 0xFFFF];
+            payload.get(key);
+            long expiresAt = payload.getLong();
+
+            int recordLength = RECORD_HEADER_SIZE + payloadLength;
+            IndexEntry entry = new IndexEntry(
+                new String(key, StandardCharsets.UTF_8), expiresAt, segment.id,
+                position + RECORD_HEADER_SIZE + payload.position(), payload.remaining(), recordLength
+            );
+
+            IndexEntry previous = type == RECORD_PUT
+                ? index.put(entry.key, entry)
+                : index.remove(entry.key);
+
+            if (previous != null) {
+                markAsGarbage(previous.segment, previous.recordLength);
+            }
+            if (type != RECORD_PUT) {
+                segment.garbage.addAndGet(recordLength);
+            }
+
+            position += recordLength;
+        }
+
+        if (position < length) {
+            log.warn("Found a corrupt or incomplete record in the cache segment {}, discarding {} bytes",
+                segment.id, length - position
+            );
+            segment.channel.truncate(position);
+        }
+        segment.size.set(position);
+    }
+
+    private byte readSegmentFlags(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+
+            header.flip();
+            if (header.remaining() < SEGMENT_HEADER_SIZE || header.getInt() != SEGMENT_MAGIC) {
+                return 0;
+            }
+            return header.get();
+        }
+    }
+
+    private Segment createSegment(int id, byte flags) throws IOException {
+        File file = new File(storagePath, id + ".log");
+
+        Segment segment = new Segment(id, file, FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE
+        ));
+        segment.writeHeader(flags);
+        segments.put(id, segment);
+
+        return segment;
+    }
+
+    private Segment openSegment(int id, File file) throws IOException {
+        Segment segment = new Segment(id, file, FileChannel.open(file.toPath(),
+            StandardOpenOption.READ, StandardOpenOption.WRITE
+        ));
+
+        if (segment.channel.size() < SEGMENT_HEADER_SIZE) {
+            segment.writeHeader((byte) 0);
+        }
+        segment.size.set(segment.channel.size());
+
+        return segment;
+    }
+
+    private void deleteRecursively(File file) {
+        File[] files = file.listFiles();
+        if (files != null) { //some JVMs return null for empty dirs
+            for (File f : files) {
+                deleteRecursively(f);
+            }
+        }
+        file.delete();
+    }
+
+    private String normalize(String token) {
+        return token.trim().toLowerCase();
+    }
+
+    private static class IndexEntry {
+
+        private final String key;
+        private final long expiresAt;
+        private final int segment;
+        private final long valueOffset;
+        private final int valueLength;
+        private final int recordLength;
+
+        IndexEntry(String key, long expiresAt, int segment, long valueOffset, int valueLength, int recordLength) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+            this.segment = segment;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.recordLength = recordLength;
+        }
+
+        boolean hasExpired() {
+            return hasExpired(System.currentTimeMillis());
+        }
+
+        boolean hasExpired(long now) {
+            return expiresAt != -1 && expiresAt <= now;
+        }
+    }
+
+    private static class Segment {
+
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private final AtomicLong size = new AtomicLong(0);
+        private final AtomicLong garbage = new AtomicLong(0);
+
+        Segment(int id, File file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        void writeHeader(byte flags) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            header.putInt(SEGMENT_MAGIC).put(flags).flip();
+
+            writeFully(header, 0);
+            size.set(SEGMENT_HEADER_SIZE);
+        }
+
+        /**
+         * Appends the record to the end of the segment, appending records to the
+         * same segment from multiple threads at the same time isn't supported.
+         */
+        IndexEntry append(byte type, String key, long expiresAt, byte[] value) throws IOException {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length > 0xFFFF) {
+                throw new IOException("The cache key is too long, keys can be at most 65535 bytes");
+            }
+            int payloadLength = 11 + keyBytes.length + value.length;
+
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadLength);
+            record.position(RECORD_HEADER_SIZE);
+            record.put(type).putShort((short) keyBytes.length).put(keyBytes).putLong(expiresAt).put(value);
+
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), RECORD_HEADER_SIZE, payloadLength);
+            record.putInt(0, payloadLength).putInt(4, (int) crc.getValue());
+            record.flip();
+
+            long position = size.get();
+            writeFully(record, position);
+            size.set(position + record.limit());
+
+            return new IndexEntry(key, expiresAt, id,
+                position + record.limit() - value.length, value.length, record.limit()
+            );
+        }
+
+        void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Reached the end of the cache segment " + id + " while reading a record");
+                }
+                position += read;
+            }
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the cache segment {}: {}", id, e.getMessage());
+            }
+        }
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache.adapters;
+
+/**
+ * A count-min sketch used to estimate how often cache keys are requested, each key
+ * is tracked by four 4-bit counters spread over a table of longs, so the sketch
+ * only uses a few bytes per key the cache can hold, no matter how many
+ * different keys are requested through the cache.
+ * <p>
+ * Once enough keys has been recorded all the counters are halved, this ages the
+ * frequencies so keys that used to be popular, but are no longer requested,
+ * doesn't stay in the cache forever just because of their history.
+ * <p>
+ * The sketch isn't thread safe, the memory adapter only reads and updates
+ * the sketch while holding its eviction lock, requests are buffered
+ * by the adapter until the lock is held.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = new long[]{
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 22;
+
+    private long[] table;
+    private int counterMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * Creates a new frequency sketch sized for the given amount of keys.
+     *
+     * @param maximumSize The maximum amount of keys the sketch should be able to track.
+     */
+    FrequencySketch(long maximumSize) {
+        ensureCapacity(maximumSize);
+    }
+
+    /**
+     * Resizes the sketch so it can track the given amount of keys, resizing
+     * the sketch will reset the frequency of all the recorded keys.
+     *
+     * @param maximumSize The maximum amount of keys the sketch should be able to track.
+     */
+    void ensureCapacity(long maximumSize) {
+        int maximum = (int) Math.min(Math.max(maximumSize, 16), MAXIMUM_TABLE_SIZE);
+
+        table = new long[Integer.highestOneBit(maximum - 1) << 1];
+        counterMask = (table.length << 4) - 1;
+        sampleSize = maximum * 10;
+        size = 0;
+    }
+
+    /**
+     * Gets the estimated amount of times the given key has been recorded,
+     * the estimate is capped at 15, and may be higher than the real
+     * amount of times the key was recorded, but never lower.
+     *
+     * @param key The key that the frequency should be estimated for.
+     * @return The estimated frequency of the given key.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 15L));
+        }
+        return frequency;
+    }
+
+    /**
+     * Records a request for the given key, if the sample size is reached
+     * by the request, all the counters in the sketch will be halved.
+     *
+     * @param key The key that was requested.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = (index & 15) << 2;
+
+            if (((table[index >>> 4] >>> offset) & 15L) != 15L) {
+                table[index >>> 4] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long index = (hash + SEEDS[i]) * SEEDS[i];
+        index += index >>> 32;
+        return ((int) index) & counterMask;
+    }
+
+    private int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
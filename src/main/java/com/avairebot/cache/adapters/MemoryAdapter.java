@@ -21,56 +21,103 @@
 
 package com.avairebot.cache.adapters;
 
-import com.avairebot.AvaIre;
 import com.avairebot.cache.CacheItem;
 import com.avairebot.contracts.cache.CacheAdapter;
+import com.avairebot.metrics.Metrics;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.WeakHashMap;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * The memory cache adapter stores cache items directly in memory, the adapter
+ * is safe to use from multiple threads at the same time, and is bounded
+ * by a maximum weight, where most items weigh 1, while collections
+ * and maps weigh 1 plus the amount of elements they hold.
+ * <p>
+ * Expired items are removed when they're read, and when the cache grows past
+ * its maximum weight, the oldest items are evicted unless they're requested
+ * at least as often as the item that was just added, in which case the new
+ * item is dropped instead, the request frequencies are tracked using a
+ * {@link FrequencySketch frequency sketch}, so popular keys can't
+ * be pushed out of the cache by a lot of one-off lookups.
+ * <p>
+ * Requests are recorded in a set of small lossy read buffers picked by the
+ * requesting thread, instead of going to the frequency sketch directly, the
+ * buffers are drained into the sketch while holding the eviction lock, so
+ * reading from the cache never has to wait on a lock shared by every read.
+ */
 public class MemoryAdapter extends CacheAdapter {
 
-    private final Map<String, CacheItem> cache = new WeakHashMap<>();
+    /**
+     * The default maximum weight of the memory cache, used if no
+     * maximum weight has been set through the config.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 10000;
+
+    /**
+     * The amount of read buffers requests are spread across, and the amount
+     * of requests each buffer can hold before it should be drained, both
+     * values must be a power of two.
+     */
+    private static final int READ_BUFFER_COUNT = 16;
+    private static final int READ_BUFFER_SIZE = 32;
+
+    private final Map<String, Node> cache = new ConcurrentHashMap<>();
+    private final Queue<Node> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong weightedSize = new AtomicLong(0);
+    private final FrequencySketch sketch = new FrequencySketch(DEFAULT_MAXIMUM_WEIGHT);
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_COUNT];
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private volatile long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+
+    /**
+     * Creates the new memory cache adapter, using the
+     * default maximum weight for the cache.
+     */
+    public MemoryAdapter() {
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
 
     @Override
     public boolean put(String token, Object value, int seconds) {
-        cache.put(token, new CacheItem(token, value, System.currentTimeMillis() + (seconds * 1000)));
+        store(token, new CacheItem(token, value, System.currentTimeMillis() + (seconds * 1000L)));
         return true;
     }
 
-    @Override
-    public Object remember(String token, int seconds, Supplier<Object> closure) {
-        if (has(token)) {
-            return get(token);
-        }
-
-        try {
-            CacheItem item = new CacheItem(token, closure.get(), System.currentTimeMillis() + (seconds * 1000));
-            cache.put(token, item);
-
-            return item.getValue();
-        } catch (Exception e) {
-            AvaIre.getLogger().error(e.getMessage(), e);
-            return null;
-        }
+    /**
+     * Stores the given cache item in the memory cache, using the key
+     * and expire time of the cache item.
+     *
+     * @param item The cache item that should be stored.
+     * @return true if the cache was save correctly, false otherwise.
+     */
+    public boolean putRaw(CacheItem item) {
+        store(item.getKey(), item);
+        return true;
     }
 
     @Override
     public boolean forever(String token, Object value) {
-        cache.put(token, new CacheItem(token, value, -1));
+        store(token, new CacheItem(token, value, -1));
 
         return true;
     }
 
     @Override
     public Object get(String token) {
-        if (!has(token)) {
-            return null;
-        }
-
-        CacheItem item = getRaw(token);
+        CacheItem item = getItem(token);
         if (item == null) {
             return null;
         }
@@ -79,34 +126,286 @@ public class MemoryAdapter extends CacheAdapter {
 
     @Override
     public CacheItem getRaw(String token) {
-        if (!has(token)) {
-            return null;
-        }
-        return cache.getOrDefault(token, null);
+        return getItem(token);
     }
 
     @Override
     public boolean has(String token) {
-        return cache.containsKey(token) && cache.get(token).isExpired();
+        Node node = cache.get(token);
+        return node != null && !hasExpired(node);
     }
 
     @Override
     public CacheItem forget(String token) {
-        return cache.remove(token);
+        Node node = cache.remove(token);
+        if (node == null) {
+            return null;
+        }
+
+        weightedSize.addAndGet(-node.weight);
+        return node.item;
     }
 
     @Override
     public boolean flush() {
-        cache.clear();
+        for (Node node : cache.values()) {
+            if (cache.remove(node.key, node)) {
+                weightedSize.addAndGet(-node.weight);
+            }
+        }
+        evictionQueue.clear();
+
         return true;
     }
 
     /**
-     * Gets the cache keys currently in the memory cache.
+     * Gets the cache keys currently in the memory cache, the keys may
+     * include items that have expired, but not been removed yet.
      *
      * @return The cache keys currently in the memory cache.
      */
     public Set<String> getCacheKeys() {
         return cache.keySet();
     }
+
+    /**
+     * Gets the current combined weight of all the items in the memory cache.
+     *
+     * @return The current combined weight of all the items in the memory cache.
+     */
+    public long getWeightedSize() {
+        return weightedSize.get();
+    }
+
+    /**
+     * Gets the maximum weight the memory cache can hold before items are evicted.
+     *
+     * @return The maximum weight of the memory cache.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Sets the maximum weight the memory cache can hold, if the cache is already
+     * heavier than the new maximum weight, items will be evicted right away.
+     *
+     * @param maximumWeight The new maximum weight of the memory cache.
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("The maximum weight of the memory cache must be at least 1");
+        }
+
+        evictionLock.lock();
+        try {
+            this.maximumWeight = maximumWeight;
+            sketch.ensureCapacity(maximumWeight);
+
+            evict(null);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all the expired items from the memory cache, as well as any evicted or
+     * forgotten items that are still waiting in the eviction queue, expired items
+     * are also removed when they're read, so this is only needed for items
+     * that are never requested again after they have been stored.
+     */
+    public void cleanUp() {
+        for (Node node : cache.values()) {
+            if (hasExpired(node) && cache.remove(node.key, node)) {
+                weightedSize.addAndGet(-node.weight);
+                Metrics.memoryCacheEvictions.labels("expired").inc();
+            }
+        }
+        evictionQueue.removeIf(node -> cache.get(node.key) != node);
+    }
+
+    @Nullable
+    private CacheItem getItem(String token) {
+        recordRequest(token);
+
+        Node node = cache.get(token);
+        if (node == null) {
+            Metrics.memoryCacheRequests.labels("miss").inc();
+            return null;
+        }
+
+        if (hasExpired(node)) {
+            if (cache.remove(token, node)) {
+                weightedSize.addAndGet(-node.weight);
+                Metrics.memoryCacheEvictions.labels("expired").inc();
+            }
+            Metrics.memoryCacheRequests.labels("miss").inc();
+            return null;
+        }
+
+        Metrics.memoryCacheRequests.labels("hit").inc();
+        return node.item;
+    }
+
+    private void store(String token, CacheItem item) {
+        int weight = weigh(item.getValue());
+
+        cache.compute(token, (key, node) -> {
+            if (node == null) {
+                node = new Node(key);
+                evictionQueue.add(node);
+            }
+
+            weightedSize.addAndGet(weight - node.weight);
+            node.item = item;
+            node.weight = weight;
+
+            return node;
+        });
+        recordRequest(token);
+
+        if (weightedSize.get() > maximumWeight) {
+            evict(token);
+        }
+    }
+
+    /**
+     * Evicts items from the memory cache until the cache is within its maximum weight,
+     * items are evicted in the order they were added, except for when the candidate
+     * isn't requested more often than the item that would be evicted, in which case
+     * the candidate is evicted, and the item is moved to the back of the queue.
+     *
+     * @param candidate The key of the item that was just stored, or {@code null}.
+     */
+    private void evict(@Nullable String candidate) {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+
+            while (weightedSize.get() > maximumWeight) {
+                Node victim = evictionQueue.poll();
+                if (victim == null) {
+                    return;
+                }
+
+                if (cache.get(victim.key) != victim) {
+                    continue;
+                }
+
+                if (candidate != null && !candidate.equals(victim.key)) {
+                    Node candidateNode = cache.get(candidate);
+
+                    if (candidateNode != null && sketch.frequency(candidate) <= sketch.frequency(victim.key)) {
+                        evictionQueue.add(victim);
+                        victim = candidateNode;
+                    }
+                    candidate = null;
+                }
+
+                if (cache.remove(victim.key, victim)) {
+                    weightedSize.addAndGet(-victim.weight);
+                    Metrics.memoryCacheEvictions.labels("size").inc();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Records a request for the given key in the read buffer for the current thread,
+     * if the buffer is full the read buffers are drained into the frequency sketch,
+     * unless another thread is already holding the eviction lock.
+     *
+     * @param key The key that was requested.
+     */
+    private void recordRequest(String key) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (READ_BUFFER_COUNT - 1)];
+
+        if (buffer.offer(key) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drains all the read buffers into the frequency sketch, this
+     * must only be called while holding the eviction lock.
+     */
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(sketch);
+        }
+    }
+
+    private boolean hasExpired(Node node) {
+        CacheItem item = node.item;
+
+        return !item.lastForever() && item.getTime() <= System.currentTimeMillis();
+    }
+
+    private int weigh(Object value) {
+        if (value instanceof Collection) {
+            return 1 + ((Collection) value).size();
+        }
+
+        if (value instanceof Map) {
+            return 1 + ((Map) value).size();
+        }
+        return 1;
+    }
+
+    /**
+     * A fixed size lossy buffer of requested keys, if the buffer isn't drained before
+     * it wraps around, the oldest requests are overwritten, losing a few requests
+     * only makes the frequencies slightly less accurate, so that's preferred
+     * over making the requesting threads wait for the buffer to be drained.
+     */
+    private static final class ReadBuffer {
+
+        private final AtomicReferenceArray<String> keys = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicInteger writes = new AtomicInteger();
+
+        /**
+         * Adds the given key to the buffer.
+         *
+         * @param key The key that was requested.
+         * @return <code>True</code> if the buffer is full and should be drained, <code>False</code> otherwise.
+         */
+        boolean offer(String key) {
+            int index = writes.getAndIncrement() & (READ_BUFFER_SIZE - 1);
+            keys.lazySet(index, key);
+
+            return index == READ_BUFFER_SIZE - 1;
+        }
+
+        /**
+         * Records all the keys in the buffer in the given frequency
+         * sketch, and removes the keys from the buffer.
+         *
+         * @param sketch The frequency sketch the keys should be recorded in.
+         */
+        void drainTo(FrequencySketch sketch) {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                String key = keys.getAndSet(i, null);
+                if (key != null) {
+                    sketch.increment(key);
+                }
+            }
+        }
+    }
+
+    private static class Node {
+
+        private final String key;
+        private volatile CacheItem item;
+        private volatile int weight;
+
+        Node(String key) {
+            this.key = key;
+        }
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache.adapters;
+
+import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheItem;
+import com.avairebot.cache.CacheType;
+import com.avairebot.contracts.cache.CacheAdapter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The tiered cache adapter combines a bounded memory cache with the file cache, reads
+ * are served from the memory tier, and falls through to the file tier if the item
+ * isn't in memory, promoting the item back into the memory tier, so items are
+ * memory-fast while they're in use, while still surviving restarts.
+ * <p>
+ * Items are written to both tiers, by default the file tier is written to right
+ * away, if write-behind is enabled the file writes are instead queued up and
+ * written in the background, so multiple writes to the same key shortly
+ * after each other only results in a single write to the disk.
+ * <p>
+ * The items are stored in the file tier with a prefix, so the tiered
+ * cache can't read or flush items stored directly in the file cache.
+ */
+public class TieredAdapter extends CacheAdapter {
+
+    /**
+     * The default maximum weight of the memory tier, used if no
+     * maximum weight has been set through the config.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 1000;
+
+    private static final String FILE_PREFIX = "tiered:";
+    private static final long WRITE_BEHIND_DELAY = 1000;
+    private static final CacheItem DELETED = new CacheItem(null, null, 0);
+
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder()
+            .setNameFormat("avaire-tiered-cache-writer-%d")
+            .setDaemon(true)
+            .build()
+    );
+
+    private final MemoryAdapter memory = new MemoryAdapter();
+    private final FileAdapter fileTier;
+    private final Map<String, CacheItem> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+    private final AtomicLong generation = new AtomicLong(0);
+    private final Object writeLock = new Object();
+
+    private volatile boolean writeBehind = false;
+
+    /**
+     * Creates the new tiered cache adapter, the file tier is the adapter
+     * registered for the {@link CacheType#FILE file cache type}, while
+     * the memory tier is separate from the memory cache type.
+     */
+    public TieredAdapter() {
+        this(null);
+    }
+
+    /**
+     * Creates the new tiered cache adapter, using the given file
+     * cache adapter as the file tier instead of the adapter
+     * registered for the file cache type.
+     *
+     * @param fileTier The file cache adapter used as the file tier, or {@code null} to use the file cache type.
+     */
+    TieredAdapter(@Nullable FileAdapter fileTier) {
+        this.fileTier = fileTier;
+
+        memory.setMaximumWeight(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    @Override
+    public boolean put(String token, Object value, int seconds) {
+        return store(new CacheItem(normalize(token), serialize(value), System.currentTimeMillis() + (seconds * 1000L)));
+    }
+
+    @Override
+    public boolean forever(String token, Object value) {
+        return store(new CacheItem(normalize(token), serialize(value), -1));
+    }
+
+    @Override
+    public Object get(String token) {
+        CacheItem item = getRaw(token);
+        if (item == null) {
+            return null;
+        }
+        return item.getValue();
+    }
+
+    @Override
+    public CacheItem getRaw(String token) {
+        String key = normalize(token);
+
+        CacheItem item = memory.getRaw(key);
+        if (item != null) {
+            return item;
+        }
+
+        CacheItem pending = pendingWrites.get(key);
+        if (pending != null) {
+            return pending == DELETED || hasExpired(pending) ? null : pending;
+        }
+
+        long currentGeneration = generation.get();
+
+        CacheItem stored = getFileTier().getRaw(FILE_PREFIX + key);
+        if (stored == null) {
+            return null;
+        }
+
+        item = new CacheItem(key, stored.getValue(), stored.getTime());
+        memory.putRaw(item);
+
+        // If the item was changed while it was being read from the file tier, the
+        // promoted item might be outdated, so we remove it from the memory tier
+        // again, the next read will then load the item from the file tier.
+        if (generation.get() != currentGeneration) {
+            memory.forget(key);
+        }
+        return item;
+    }
+
+    @Override
+    public boolean has(String token) {
+        String key = normalize(token);
+        if (memory.has(key)) {
+            return true;
+        }
+
+        CacheItem pending = pendingWrites.get(key);
+        if (pending != null) {
+            return pending != DELETED && !hasExpired(pending);
+        }
+        return getFileTier().has(FILE_PREFIX + key);
+    }
+
+    @Override
+    public CacheItem forget(String token) {
+        String key = normalize(token);
+        CacheItem item = getRaw(key);
+
+        generation.incrementAndGet();
+        memory.forget(key);
+
+        if (writeBehind) {
+            pendingWrites.put(key, DELETED);
+            scheduleWrite();
+        } else {
+            getFileTier().forget(FILE_PREFIX + key);
+        }
+        return item;
+    }
+
+    @Override
+    public boolean flush() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            pendingWrites.clear();
+            memory.flush();
+
+            FileAdapter fileTier = getFileTier();
+            for (String key : fileTier.getCacheKeys()) {
+                if (key.startsWith(FILE_PREFIX)) {
+                    fileTier.forget(key);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks if write-behind is enabled, if write-behind is enabled, items
+     * are written to the file tier in the background, instead of right
+     * away when the item is stored in the cache.
+     *
+     * @return <code>True</code> if write-behind is enabled, <code>False</code> otherwise.
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Sets if the file tier should be written to in the background, if write-behind is
+     * disabled while there are items waiting to be written, the items are written
+     * to the file tier before write-behind is disabled.
+     *
+     * @param writeBehind <code>True</code> to enable write-behind, <code>False</code> to write to the file tier right away.
+     */
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+
+        if (!writeBehind) {
+            writePendingItems();
+        }
+    }
+
+    /**
+     * Sets the maximum weight the memory tier can hold, items evicted
+     * from the memory tier can still be read from the file tier.
+     *
+     * @param maximumWeight The new maximum weight of the memory tier.
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        memory.setMaximumWeight(maximumWeight);
+    }
+
+    /**
+     * Gets the amount of items that are waiting to be written to the file tier.
+     *
+     * @return The amount of items waiting to be written to the file tier.
+     */
+    public int getPendingWriteCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Writes all the items that are waiting to be written to the file tier, this
+     * is called in the background when write-behind is enabled, and should be
+     * called before the application shuts down, so no writes are lost.
+     */
+    public void writePendingItems() {
+        synchronized (writeLock) {
+            FileAdapter fileTier = getFileTier();
+
+            for (Map.Entry<String, CacheItem> entry : pendingWrites.entrySet()) {
+                CacheItem item = entry.getValue();
+
+                if (item == DELETED) {
+                    fileTier.forget(FILE_PREFIX + entry.getKey());
+                } else {
+                    fileTier.putRaw(new CacheItem(FILE_PREFIX + entry.getKey(), item.getValue(), item.getTime()));
+                }
+
+                // Only removes the pending item if it hasn't been replaced while it
+                // was being written, otherwise the newer item is written next time.
+                pendingWrites.remove(entry.getKey(), item);
+            }
+        }
+    }
+
+    private boolean store(CacheItem item) {
+        generation.incrementAndGet();
+        memory.putRaw(item);
+
+        if (writeBehind) {
+            pendingWrites.put(item.getKey(), item);
+            scheduleWrite();
+
+            return true;
+        }
+        return getFileTier().putRaw(new CacheItem(FILE_PREFIX + item.getKey(), item.getValue(), item.getTime()));
+    }
+
+    private void scheduleWrite() {
+        if (!writeScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        writer.schedule(() -> {
+            writeScheduled.set(false);
+            writePendingItems();
+        }, WRITE_BEHIND_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Converts the value to the same types the file tier returns when the value is read,
+     * so the value is the same whether it's read from the memory or the file tier,
+     * numbers will for example always be returned as doubles.
+     */
+    private Object serialize(Object value) {
+        return AvaIre.gson.fromJson(AvaIre.gson.toJson(value), Object.class);
+    }
+
+    private boolean hasExpired(CacheItem item) {
+        return !item.lastForever() && item.getTime() <= System.currentTimeMillis();
+    }
+
+    private String normalize(String token) {
+        return token.trim().toLowerCase();
+    }
+
+    private FileAdapter getFileTier() {
+        if (fileTier != null) {
+            return fileTier;
+        }
+        return (FileAdapter) CacheType.FILE.getAdapter();
+    }
+}
@@ -22,11 +22,12 @@
 package com.avairebot.commands;
 
 import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Message;
 
 import javax.annotation.Nonnull;
@@ -34,10 +35,9 @@ import java.util.concurrent.TimeUnit;
 
 public class Category {
 
-    public static final Cache<Object, Object> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Object, Object> cache = CacheRegistry.register("categoryPrefixes", new CacheSettings()
         .expireAfterWrite(2500, TimeUnit.MILLISECONDS)
-        .build();
+    );
 
     private final AvaIre avaire;
     private final String name;
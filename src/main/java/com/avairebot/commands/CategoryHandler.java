@@ -27,12 +27,12 @@ import com.avairebot.shared.DiscordConstants;
 import com.avairebot.utilities.RandomUtil;
 
 import javax.annotation.Nonnull;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class CategoryHandler {
 
-    private static final List<Category> VALUES = new ArrayList<>();
+    private static final List<Category> VALUES = new CopyOnWriteArrayList<>();
 
     static {
         VALUES.add(new Category(
@@ -40,7 +40,7 @@ public class CategoryHandler {
         ).setGlobal(true));
     }
 
-    public static boolean addCategory(@Nonnull AvaIre avaire, @Nonnull String name, @Nonnull String defaultPrefix) {
+    public static synchronized boolean addCategory(@Nonnull AvaIre avaire, @Nonnull String name, @Nonnull String defaultPrefix) {
         for (Category category : VALUES) {
             if (category.getName().equalsIgnoreCase(name)) {
                 return false;
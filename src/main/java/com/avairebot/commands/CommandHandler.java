@@ -38,12 +38,13 @@ import net.dv8tion.jda.internal.utils.Checks;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("WeakerAccess")
 public class CommandHandler {
 
-    private static final Set<CommandContainer> COMMANDS = new HashSet<>();
+    private static final Set<CommandContainer> COMMANDS = ConcurrentHashMap.newKeySet();
 
     /**
      * Get command container from the given command instance.
@@ -23,6 +23,8 @@ package com.avairebot.commands.administration;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandHandler;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.commands.utility.RankCommand;
@@ -31,6 +33,7 @@ import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.controllers.PlayerController;
+import com.avairebot.database.controllers.RankIndexController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.level.LevelManager;
@@ -38,7 +41,6 @@ import com.avairebot.utilities.MentionableUtil;
 import com.avairebot.utilities.NumberUtil;
 import com.avairebot.utilities.RandomUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.User;
 import org.slf4j.Logger;
@@ -55,10 +57,9 @@ import java.util.concurrent.TimeUnit;
 
 public class AdministrateExperienceCommand extends Command {
 
-    public static final Cache<String, String> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<String, String> cache = CacheRegistry.register("experience-confirmations", new CacheSettings()
         .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(AdministrateExperienceCommand.class);
 
@@ -348,6 +349,7 @@ public class AdministrateExperienceCommand extends Command {
                 });
 
             PlayerController.forgetCacheForGuild(context.getGuild().getIdLong());
+            RankIndexController.forgetCache(context.getGuild().getIdLong());
 
             context.makeSuccess(context.i18n("success.syncEveryone"))
                 .queue();
@@ -395,6 +397,7 @@ public class AdministrateExperienceCommand extends Command {
                 });
 
             PlayerController.forgetCacheForGuild(context.getGuild().getIdLong());
+            RankIndexController.forgetCache(context.getGuild().getIdLong());
 
             context.makeSuccess(context.i18n("success.everything"))
                 .queue();
@@ -413,6 +416,8 @@ public class AdministrateExperienceCommand extends Command {
                 .where("user_id", player.getUserId())
                 .where("guild_id", player.getGuildId())
                 .update(statement -> statement.set("experience", player.getExperience()));
+
+            RankIndexController.setExperience(player.getGuildId(), player.getUserId(), player.getExperience());
         } catch (SQLException e) {
             log.error("Failed to update player transformer for {} in {} server, error: {}",
                 player.getUserId(), player.getGuildId(), e.getMessage(), e
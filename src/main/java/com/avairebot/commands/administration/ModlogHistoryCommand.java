@@ -110,6 +110,7 @@ public class ModlogHistoryCommand extends Command {
 
         try {
             Collection items = avaire.getDatabase().newQueryBuilder(Constants.LOG_TABLE_NAME)
+                .useReplica(true)
                 .where("guild_id", context.getGuild().getId())
                 .where("target_id", user.getId())
                 .where("pardon", 0)
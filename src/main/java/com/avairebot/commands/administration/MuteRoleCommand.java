@@ -23,6 +23,8 @@ package com.avairebot.commands.administration;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
@@ -31,7 +33,6 @@ import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.time.Carbon;
 import com.avairebot.utilities.MentionableUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.GuildChannel;
 import net.dv8tion.jda.api.entities.ChannelType;
@@ -48,10 +49,9 @@ import java.util.concurrent.TimeUnit;
 
 public class MuteRoleCommand extends Command {
 
-    public static final Cache<Long, Long> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, Long> cache = CacheRegistry.register("muterole", new CacheSettings()
         .expireAfterWrite(150, TimeUnit.SECONDS)
-        .build();
+    );
 
     public MuteRoleCommand(AvaIre avaire) {
         super(avaire, false);
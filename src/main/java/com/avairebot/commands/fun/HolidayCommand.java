@@ -22,6 +22,8 @@
 package com.avairebot.commands.fun;
 
 import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.commands.CommandPriority;
 import com.avairebot.contracts.commands.Command;
@@ -32,7 +34,6 @@ import com.avairebot.requests.service.HolidayService;
 import com.avairebot.utilities.ColorUtil;
 import com.avairebot.utilities.RestActionUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 
 import java.time.LocalDate;
 import java.util.Collections;
@@ -42,9 +43,9 @@ import java.util.function.Consumer;
 
 public class HolidayCommand extends Command {
 
-    private static Cache<String, List<HolidayService.Holiday>> cache = CacheBuilder.newBuilder()
+    private static Cache<String, List<HolidayService.Holiday>> cache = CacheRegistry.register("holidays", new CacheSettings()
         .expireAfterWrite(1, TimeUnit.DAYS)
-        .build();
+    );
 
     public HolidayCommand(AvaIre avaire) {
         super(avaire);
@@ -185,7 +185,7 @@ public class MemeCommand extends Command {
     }
 
     private void loadMemesIntoMemory() {
-        Map<String, Map<String, String>> cachedMemes = (Map<String, Map<String, String>>) avaire.getCache().getAdapter(CacheType.FILE).get("meme.types");
+        Map<String, Map<String, String>> cachedMemes = (Map<String, Map<String, String>>) avaire.getCache().getAdapter(CacheType.TIERED).get("meme.types");
         List<String> keys = new ArrayList<>(cachedMemes.keySet());
         Collections.sort(keys);
 
@@ -87,7 +87,7 @@ public class RipCommand extends Command {
     }
 
     private String getTotalRespects() {
-        return avaire.getCache().remember("rip.total", 10, () -> {
+        return avaire.getCache().remember("rip.total", 10, 2, () -> {
             try {
                 return NumberUtil.formatNicely(
                     avaire.getDatabase().newQueryBuilder(Constants.STATISTICS_TABLE_NAME).get().first()
@@ -23,6 +23,8 @@ package com.avairebot.commands.onwatch;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
@@ -31,7 +33,6 @@ import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.time.Carbon;
 import com.avairebot.utilities.MentionableUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Role;
 
 import javax.annotation.Nonnull;
@@ -43,10 +44,9 @@ import java.util.concurrent.TimeUnit;
 
 public class WatchRoleCommand extends Command {
 
-    public static final Cache<Long, Long> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, Long> cache = CacheRegistry.register("watchrole", new CacheSettings()
         .expireAfterWrite(150, TimeUnit.SECONDS)
-        .build();
+    );
 
     public WatchRoleCommand(AvaIre avaire) {
         super(avaire, false);
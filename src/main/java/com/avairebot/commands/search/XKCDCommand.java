@@ -128,7 +128,7 @@ public class XKCDCommand extends Command {
     }
 
     private int getLatestComicNumber() {
-        return ((Double) avaire.getCache().getAdapter(CacheType.FILE).remember("xkcd.latest", 720, () -> {
+        return ((Double) avaire.getCache().getAdapter(CacheType.TIERED).remember("xkcd.latest", 720, 60, () -> {
             try {
                 Connection.Response response = Jsoup.connect("https://xkcd.com/info.0.json")
                     .ignoreContentType(true).execute();
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands.system;
+
+import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
+import com.avairebot.cache.RegisteredCache;
+import com.avairebot.commands.CommandMessage;
+import com.avairebot.contracts.commands.SystemCommand;
+import com.avairebot.utilities.NumberUtil;
+import com.google.common.cache.CacheStats;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CacheCommand extends SystemCommand {
+
+    public CacheCommand(AvaIre avaire) {
+        super(avaire);
+    }
+
+    @Override
+    public String getName() {
+        return "Cache Command";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Shows the caches registered in the cache registry, and allows changing their sizes and expiry times, or invalidating them, while the bot is running, changes are lost when the bot restarts.";
+    }
+
+    @Override
+    public List<String> getUsageInstructions() {
+        return Arrays.asList(
+            "`:command` - Lists all the registered caches.",
+            "`:command <cache>` - Shows the settings and statistics for the cache.",
+            "`:command <cache> invalidate` - Removes all the entries from the cache.",
+            "`:command <cache> size <size>` - Sets the maximum size of the cache.",
+            "`:command <cache> expire-access <seconds>` - Sets the expire after access time of the cache.",
+            "`:command <cache> expire-write <seconds>` - Sets the expire after write time of the cache."
+        );
+    }
+
+    @Override
+    public List<String> getExampleUsage() {
+        return Arrays.asList(
+            "`:command guilds` - Shows the settings and statistics for the guilds cache.",
+            "`:command guilds size 50000` - Limits the guilds cache to 50,000 guilds.",
+            "`:command players expire-access -1` - Stops players from expiring after they were accessed."
+        );
+    }
+
+    @Override
+    public List<String> getTriggers() {
+        return Arrays.asList("cache", "caches");
+    }
+
+    @Override
+    public boolean onCommand(CommandMessage context, String[] args) {
+        if (args.length == 0) {
+            return listCaches(context);
+        }
+
+        RegisteredCache<?, ?> cache = CacheRegistry.getCache(args[0]);
+        if (cache == null) {
+            return sendErrorMessage(context, "errors.invalidProperty", "cache", "cache name");
+        }
+
+        if (args.length == 1) {
+            return showCache(context, cache);
+        }
+
+        if (args[1].equalsIgnoreCase("invalidate")) {
+            long size = cache.size();
+            cache.invalidateAll();
+
+            context.makeSuccess("The **:cache** cache has been invalidated, removed :size entries.")
+                .set("cache", cache.getName())
+                .set("size", NumberUtil.formatNicely(size))
+                .queue();
+
+            return true;
+        }
+
+        if (args.length < 3) {
+            return sendErrorMessage(context, "errors.missingArgument", "value");
+        }
+
+        long value;
+        try {
+            value = Long.parseLong(args[2]);
+        } catch (NumberFormatException e) {
+            return sendErrorMessage(context, "errors.invalidProperty", "value", "number");
+        }
+
+        CacheSettings settings = cache.getSettings();
+        switch (args[1].toLowerCase()) {
+            case "size":
+                settings.maximumSize(Math.max(-1, value));
+                break;
+
+            case "expire-access":
+                settings.expireAfterAccess(value, TimeUnit.SECONDS);
+                break;
+
+            case "expire-write":
+                settings.expireAfterWrite(value, TimeUnit.SECONDS);
+                break;
+
+            default:
+                return sendErrorMessage(context, "errors.invalidProperty", "setting", "cache setting");
+        }
+
+        cache.reconfigure(settings);
+
+        return showCache(context, cache);
+    }
+
+    private boolean listCaches(CommandMessage context) {
+        StringBuilder builder = new StringBuilder();
+        for (RegisteredCache<?, ?> cache : CacheRegistry.getCaches()) {
+            long maximumSize = cache.getSettings().getMaximumSize();
+
+            builder.append(String.format("`%s` %s / %s entries, %s hit rate\n",
+                cache.getName(),
+                NumberUtil.formatNicely(cache.size()),
+                maximumSize < 0 ? "∞" : NumberUtil.formatNicely(maximumSize),
+                formatPercentage(cache.stats().hitRate())
+            ));
+        }
+
+        context.makeInfo(builder.toString().trim())
+            .setTitle("Registered Caches")
+            .queue();
+
+        return true;
+    }
+
+    private boolean showCache(CommandMessage context, RegisteredCache<?, ?> cache) {
+        CacheSettings settings = cache.getSettings();
+        CacheStats stats = cache.stats();
+
+        context.makeInfo(String.join("\n", Arrays.asList(
+            "**Entries:** " + NumberUtil.formatNicely(cache.size()),
+            "**Maximum " + (settings.isWeighed() ? "Weight" : "Size") + ":** " + formatLimit(settings.getMaximumSize()),
+            "**Expire After Access:** " + formatDuration(settings.getExpireAfterAccess(TimeUnit.SECONDS)),
+            "**Expire After Write:** " + formatDuration(settings.getExpireAfterWrite(TimeUnit.SECONDS)),
+            "",
+            "**Hits:** " + NumberUtil.formatNicely(stats.hitCount()) + " (" + formatPercentage(stats.hitRate()) + ")",
+            "**Misses:** " + NumberUtil.formatNicely(stats.missCount()),
+            "**Evictions:** " + NumberUtil.formatNicely(stats.evictionCount())
+        )))
+            .setTitle("The " + cache.getName() + " cache")
+            .queue();
+
+        return true;
+    }
+
+    private String formatLimit(long limit) {
+        return limit < 0 ? "No limit" : NumberUtil.formatNicely(limit);
+    }
+
+    private String formatDuration(long seconds) {
+        return seconds < 0 ? "Never" : NumberUtil.formatNicely(seconds) + " seconds";
+    }
+
+    private String formatPercentage(double rate) {
+        return NumberUtil.formatNicelyWithDecimals(rate * 100) + "%";
+    }
+}
@@ -22,13 +22,14 @@
 package com.avairebot.commands.system;
 
 import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.SystemCommand;
 import com.avairebot.database.migrate.migrations.CreateGuildTypeTableMigration;
 import com.avairebot.utilities.RandomUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,10 +41,9 @@ import java.util.concurrent.TimeUnit;
 
 public class ResetStatusTypesCommand extends SystemCommand {
 
-    public static final Cache<String, String> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<String, String> cache = CacheRegistry.register("reset-status-confirmations", new CacheSettings()
         .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(ResetStatusTypesCommand.class);
 
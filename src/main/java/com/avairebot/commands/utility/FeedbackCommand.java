@@ -23,13 +23,14 @@ package com.avairebot.commands.utility;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.chat.PlaceholderMessage;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.factories.MessageFactory;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.MessageChannel;
 import net.dv8tion.jda.api.entities.TextChannel;
@@ -42,10 +43,9 @@ import java.util.concurrent.TimeUnit;
 
 public class FeedbackCommand extends Command {
 
-    public static final Cache<Long, String> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, String> cache = CacheRegistry.register("feedback", new CacheSettings()
         .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    );
 
     public FeedbackCommand(AvaIre avaire) {
         super(avaire);
@@ -32,11 +32,10 @@ import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
-import com.avairebot.utilities.CacheUtil;
+import com.avairebot.database.controllers.RankIndexController;
+import com.avairebot.level.RankIndex;
 import com.avairebot.utilities.NumberUtil;
 import com.avairebot.utilities.RestActionUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import org.slf4j.Logger;
@@ -45,20 +44,11 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
 
 @CacheFingerprint(name = "leaderboard-command")
 public class GlobalLeaderboardCommand extends Command {
 
-    public static final Cache<String, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(300, TimeUnit.SECONDS)
-        .build();
-
     private static final Logger log = LoggerFactory.getLogger(GlobalLeaderboardCommand.class);
 
     public GlobalLeaderboardCommand(AvaIre avaire) {
@@ -110,7 +100,7 @@ public class GlobalLeaderboardCommand extends Command {
 
     @Override
     public boolean onCommand(CommandMessage context, String[] args) {
-        if (cache.asMap().containsKey("leaderboard")) {
+        if (RankIndexController.hasGlobalRankIndex()) {
             return handleCommand(context, args, null);
         }
 
@@ -124,8 +114,8 @@ public class GlobalLeaderboardCommand extends Command {
     }
 
     private boolean handleCommand(@Nonnull CommandMessage context, @Nonnull String[] args, @Nullable Message loadingMessage) {
-        Collection collection = loadTop100From();
-        if (collection == null || collection.isEmpty()) {
+        RankIndex rankIndex = RankIndexController.fetchGlobalRankIndex(avaire);
+        if (rankIndex == null || rankIndex.size() == 0) {
             if (loadingMessage != null) {
                 loadingMessage.delete().queue(null, RestActionUtil.ignore);
             }
@@ -134,19 +124,21 @@ public class GlobalLeaderboardCommand extends Command {
         }
 
         List<String> messages = new ArrayList<>();
-        SimplePaginator<DataRow> paginator = new SimplePaginator<>(collection.getItems(), 10);
+        SimplePaginator<RankIndex.Entry> paginator = new SimplePaginator<>(rankIndex.getRange(0, 100), 10);
         if (args.length > 0) {
             paginator.setCurrentPage(NumberUtil.parseInt(args[0], 1));
         }
 
-        paginator.forEach((index, key, row) -> {
-            Member member = context.getGuild().getMemberById(row.getLong("user_id"));
-            String username = row.getString("username") + "#" + row.getString("discriminator");
+        Map<Long, String> usernames = loadUsernamesForMissingMembers(context, paginator);
+
+        paginator.forEach((index, key, entry) -> {
+            Member member = context.getGuild().getMemberById(entry.getUserId());
+            String username = usernames.getOrDefault(entry.getUserId(), String.valueOf(entry.getUserId()));
             if (member != null) {
                 username = member.getUser().getName() + "#" + member.getUser().getDiscriminator();
             }
 
-            long experience = row.getLong("total", 100);
+            long experience = entry.getExperience();
 
             messages.add(context.i18n("line")
                 .replace(":num", "" + (index + 1))
@@ -160,23 +152,17 @@ public class GlobalLeaderboardCommand extends Command {
             .setTitle("\uD83C\uDFC6 " + context.i18n("title"))
             .requestedBy(context.getMember());
 
-        Collection userRank = loadUserRank(context);
-        if (userRank != null && !userRank.isEmpty()) {
-            int rank = userRank.first().getInt("rank", -1);
-            if (++rank > 0) {
-                Collection userXp = loadUserXp(context);
-                if (userXp != null && !userXp.isEmpty()) {
-                    long experience = userXp.first().getLong("total");
-                    message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
-                            .replace(":num", NumberUtil.formatNicely(rank))
-                            .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
-                            .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(experience)))
-                            .replace(":experience", NumberUtil.formatNicely(experience - 100))
-                            + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
-                        false
-                    );
-                }
-            }
+        int rank = rankIndex.getRank(context.getAuthor().getIdLong());
+        if (rank > 0) {
+            long experience = rankIndex.getExperience(context.getAuthor().getIdLong());
+            message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
+                    .replace(":num", NumberUtil.formatNicely(rank))
+                    .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
+                    .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(experience)))
+                    .replace(":experience", NumberUtil.formatNicely(experience - 100))
+                    + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
+                false
+            );
         }
 
         if (message.build().getFields().isEmpty()) {
@@ -193,57 +179,37 @@ public class GlobalLeaderboardCommand extends Command {
         return true;
     }
 
-    private Collection loadTop100From() {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "leaderboard", () -> {
-            try {
-                return avaire.getDatabase().query("SELECT " +
-                    "`user_id`, `username`, `discriminator`, (sum(`global_experience`) - (count(`user_id`) * 100)) + 100 as `total` " +
-                    "FROM `experiences` " +
-                    "WHERE `active` = 1 " +
-                    "GROUP BY `user_id` " +
-                    "ORDER BY `total` DESC " +
-                    "LIMIT 100;"
-                );
-            } catch (SQLException e) {
-                log.error("Failed to fetch global leaderboard data", e);
-
-                return Collection.EMPTY_COLLECTION;
+    private Map<Long, String> loadUsernamesForMissingMembers(CommandMessage context, SimplePaginator<RankIndex.Entry> paginator) {
+        List<Long> missingMembers = new ArrayList<>();
+        paginator.forEach((index, key, entry) -> {
+            if (context.getGuild().getMemberById(entry.getUserId()) == null) {
+                missingMembers.add(entry.getUserId());
             }
         });
-    }
 
-    private Collection loadUserRank(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "user.rank." + context.getAuthor().getId(), () -> {
-            try {
-                return avaire.getDatabase().query(String.format(
-                    "SELECT COUNT(*) AS rank FROM (" +
-                        "    SELECT `user_id` FROM `experiences` WHERE `active` = 1 GROUP BY `user_id` HAVING SUM(`global_experience`) > (" +
-                        "        SELECT SUM(`global_experience`) FROM `experiences` WHERE `user_id` = '%s' AND `active` = 1" +
-                        "    )" +
-                        ") t;",
-                    context.getAuthor().getId()
-                ));
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-
-                return Collection.EMPTY_COLLECTION;
-            }
-        });
-    }
+        Map<Long, String> usernames = new HashMap<>();
+        if (missingMembers.isEmpty()) {
+            return usernames;
+        }
 
-    private Collection loadUserXp(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "user.xp." + context.getAuthor().getId(), () -> {
-            try {
-                return avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .selectRaw("(sum(`global_experience`) - (count(`user_id`) * 100)) + 100 as `total`")
-                    .where("user_id", context.getAuthor().getIdLong())
-                    .where("active", 1)
-                    .get();
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-
-                return Collection.EMPTY_COLLECTION;
+        try {
+            Collection collection = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                .useReplica(true)
+                .select("user_id", "username", "discriminator")
+                .where(builder -> {
+                    for (Long userId : missingMembers) {
+                        builder.orWhere("user_id", String.valueOf(userId));
+                    }
+                })
+                .get();
+
+            for (DataRow row : collection) {
+                usernames.putIfAbsent(row.getLong("user_id"), row.getString("username") + "#" + row.getString("discriminator"));
             }
-        });
+        } catch (SQLException e) {
+            log.error("Failed to fetch global leaderboard usernames", e);
+        }
+
+        return usernames;
     }
 }
@@ -23,6 +23,8 @@ package com.avairebot.commands.utility;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.chat.PlaceholderMessage;
 import com.avairebot.chat.SimplePaginator;
 import com.avairebot.commands.CommandHandler;
@@ -34,30 +36,26 @@ import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.controllers.RankIndexController;
 import com.avairebot.database.transformers.GuildTransformer;
-import com.avairebot.utilities.CacheUtil;
+import com.avairebot.level.RankIndex;
 import com.avairebot.utilities.NumberUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Member;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 @CacheFingerprint(name = "leaderboard-command")
 public class LeaderboardCommand extends Command {
 
-    public static final Cache<String, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<String, Collection> cache = CacheRegistry.register("leaderboard", new CacheSettings()
         .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(GlobalLeaderboardCommand.class);
 
@@ -122,28 +120,29 @@ public class LeaderboardCommand extends Command {
             );
         }
 
-        Collection collection = loadTop100From(context);
-        if (collection == null || collection.isEmpty()) {
+        RankIndex rankIndex = RankIndexController.fetchRankIndex(avaire, context.getGuild().getIdLong());
+        if (rankIndex == null || rankIndex.size() == 0) {
             context.makeWarning(context.i18n("noData")).queue();
             return false;
         }
 
         List<String> messages = new ArrayList<>();
-        SimplePaginator<DataRow> paginator = new SimplePaginator<>(collection.getItems(), 10);
+        SimplePaginator<RankIndex.Entry> paginator = new SimplePaginator<>(rankIndex.getRange(0, 100), 10);
         if (args.length > 0) {
             paginator.setCurrentPage(NumberUtil.parseInt(args[0], 1));
         }
 
         long zeroExperience = avaire.getLevelManager().getExperienceFromLevel(transformer, 0) - 100;
+        Map<Long, String> usernames = loadUsernamesForMissingMembers(context, paginator);
 
-        paginator.forEach((index, key, row) -> {
-            Member member = context.getGuild().getMemberById(row.getLong("user_id"));
-            String username = row.getString("username") + "#" + row.getString("discriminator");
+        paginator.forEach((index, key, entry) -> {
+            Member member = context.getGuild().getMemberById(entry.getUserId());
+            String username = usernames.getOrDefault(entry.getUserId(), String.valueOf(entry.getUserId()));
             if (member != null) {
                 username = member.getUser().getName() + "#" + member.getUser().getDiscriminator();
             }
 
-            long experience = row.getLong("experience", 100);
+            long experience = entry.getExperience();
 
             messages.add(context.i18n("line")
                 .replace(":num", "" + (index + 1))
@@ -162,21 +161,18 @@ public class LeaderboardCommand extends Command {
             )
             .requestedBy(context.getMember());
 
-        Collection userRank = loadUserRank(context);
-        if (userRank != null && !userRank.isEmpty()) {
-            int rank = userRank.first().getInt("rank", -1);
-            if (++rank > 0) {
-                message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
-                        .replace(":num", NumberUtil.formatNicely(rank))
-                        .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
-                        .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(
-                            context.getGuildTransformer(), context.getPlayerTransformer().getExperience() + zeroExperience
-                        )))
-                        .replace(":experience", NumberUtil.formatNicely(context.getPlayerTransformer().getExperience() - 100))
-                        + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
-                    false
-                );
-            }
+        int rank = rankIndex.getRank(context.getAuthor().getIdLong());
+        if (rank > 0) {
+            message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
+                    .replace(":num", NumberUtil.formatNicely(rank))
+                    .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
+                    .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(
+                        context.getGuildTransformer(), context.getPlayerTransformer().getExperience() + zeroExperience
+                    )))
+                    .replace(":experience", NumberUtil.formatNicely(context.getPlayerTransformer().getExperience() - 100))
+                    + "\n\n" + paginator.generateFooter(context.getGuild(), generateCommandTrigger(context.getMessage())),
+                false
+            );
         }
 
         if (message.build().getFields().isEmpty()) {
@@ -189,43 +185,38 @@ public class LeaderboardCommand extends Command {
         return true;
     }
 
-    private Collection loadTop100From(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, asKey(context, false), () -> {
-            try {
-                return avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .where("guild_id", context.getGuild().getId())
-                    .where("active", 1)
-                    .orderBy("experience", "desc")
-                    .take(100)
-                    .get();
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for server: " + context.getGuild().getId(), e);
-
-                return Collection.EMPTY_COLLECTION;
+    private Map<Long, String> loadUsernamesForMissingMembers(CommandMessage context, SimplePaginator<RankIndex.Entry> paginator) {
+        List<Long> missingMembers = new ArrayList<>();
+        paginator.forEach((index, key, entry) -> {
+            if (context.getGuild().getMemberById(entry.getUserId()) == null) {
+                missingMembers.add(entry.getUserId());
             }
         });
-    }
 
-    private Collection loadUserRank(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, asKey(context, true), () -> {
-            try {
-                return avaire.getDatabase().query(String.format(
-                    "SELECT COUNT(*) AS rank FROM (" +
-                        "    SELECT `user_id` FROM `experiences` WHERE `guild_id` = '%s' AND `active` = 1 GROUP BY `user_id` HAVING SUM(`experience`) > (" +
-                        "        SELECT SUM(`experience`) FROM `experiences` WHERE `user_id` = '%s' AND `guild_id` = '%s' AND `active` = 1" +
-                        "    )" +
-                        ") t;",
-                    context.getGuild().getId(), context.getAuthor().getId(), context.getGuild().getId()
-                ));
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-
-                return Collection.EMPTY_COLLECTION;
+        Map<Long, String> usernames = new HashMap<>();
+        if (missingMembers.isEmpty()) {
+            return usernames;
+        }
+
+        try {
+            Collection collection = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                .useReplica(true)
+                .select("user_id", "username", "discriminator")
+                .where("guild_id", context.getGuild().getId())
+                .where(builder -> {
+                    for (Long userId : missingMembers) {
+                        builder.orWhere("user_id", String.valueOf(userId));
+                    }
+                })
+                .get();
+
+            for (DataRow row : collection) {
+                usernames.put(row.getLong("user_id"), row.getString("username") + "#" + row.getString("discriminator"));
             }
-        });
-    }
+        } catch (SQLException e) {
+            log.error("Failed to fetch leaderboard usernames for server: " + context.getGuild().getId(), e);
+        }
 
-    private String asKey(CommandMessage context, boolean isUser) {
-        return context.getGuild().getId() + (isUser ? "." + context.getAuthor().getId() : "");
+        return usernames;
     }
 }
@@ -282,18 +282,20 @@ public class RankBackgroundCommand extends Command {
         }
 
         try {
-            avaire.getDatabase().newQueryBuilder(Constants.PURCHASES_TABLE_NAME)
-                .insert(statement -> {
-                    statement.set("user_id", context.getAuthor().getIdLong());
-                    statement.set("type", background.getPurchaseType());
-                    statement.set("type_id", background.getId());
-                });
-
-            avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                .where("user_id", context.getAuthor().getIdLong())
-                .update(statement -> {
-                    statement.setRaw("points", "`points` - " + background.getCost());
-                });
+            avaire.getDatabase().transaction(transaction -> {
+                transaction.newQueryBuilder(Constants.PURCHASES_TABLE_NAME)
+                    .insert(statement -> {
+                        statement.set("user_id", context.getAuthor().getIdLong());
+                        statement.set("type", background.getPurchaseType());
+                        statement.set("type_id", background.getId());
+                    });
+
+                transaction.newQueryBuilder(Constants.VOTES_TABLE_NAME)
+                    .where("user_id", context.getAuthor().getIdLong())
+                    .update(statement -> {
+                        statement.setRaw("points", "`points` - " + background.getCost());
+                    });
+            });
 
             if (voteEntity != null) {
                 voteEntity.setVotePoints(votePoints - background.getCost());
@@ -30,9 +30,9 @@ import com.avairebot.commands.administration.LevelCommand;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
-import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.PlayerController;
+import com.avairebot.database.controllers.RankIndexController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.factories.MessageFactory;
@@ -40,11 +40,9 @@ import com.avairebot.imagegen.RankBackground;
 import com.avairebot.imagegen.RankBackgroundHandler;
 import com.avairebot.imagegen.renders.RankBackgroundRender;
 import com.avairebot.language.I18n;
-import com.avairebot.utilities.CacheUtil;
+import com.avairebot.level.RankIndex;
 import com.avairebot.utilities.MentionableUtil;
 import com.avairebot.utilities.NumberUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.entities.Guild;
@@ -60,17 +58,10 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 public class RankCommand extends Command {
 
-    public static final Cache<Long, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(120, TimeUnit.SECONDS)
-        .build();
-
     private static final Logger log = LoggerFactory.getLogger(RankCommand.class);
 
     public RankCommand(AvaIre avaire) {
@@ -317,6 +308,7 @@ public class RankCommand extends Command {
                     ? context.getPlayerTransformer() : PlayerController.fetchPlayer(avaire, context.getMessage(), author);
 
                 DataRow data = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                    .useReplica(true)
                     .selectRaw("sum(`global_experience`) - (count(`user_id`) * 100) as `total`")
                     .where("user_id", author.getId())
                     .where("active", 1)
@@ -324,7 +316,7 @@ public class RankCommand extends Command {
 
                 long total = data == null ? (player == null ? 0 : player.getExperience()) : data.getLong("total");
 
-                return new DatabaseProperties(player, total, getScore(context, author.getId()));
+                return new DatabaseProperties(player, total, getScore(context, author.getIdLong()));
             } catch (SQLException e) {
                 log.error("Error getting player experience : {}", e.getMessage(), e);
                 return null;
@@ -332,23 +324,17 @@ public class RankCommand extends Command {
         });
     }
 
-    private String getScore(CommandMessage context, String userId) throws SQLException {
-        Collection users = (Collection) CacheUtil.getUncheckedUnwrapped(cache, context.getGuild().getIdLong(), () ->
-            avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                .select("user_id as id")
-                .orderBy("experience", "desc")
-                .where("guild_id", context.getGuild().getId())
-                .where("active", 1)
-                .get()
-        );
-
-        for (int i = 0; i < users.size(); i++) {
-            if (Objects.equals(users.get(i).getString("id"), userId)) {
-                return "" + (i + 1);
-            }
+    private String getScore(CommandMessage context, long userId) {
+        RankIndex index = RankIndexController.fetchRankIndex(avaire, context.getGuild().getIdLong());
+        if (index == null) {
+            return context.i18n("unranked");
         }
 
-        return context.i18n("unranked");
+        int rank = index.getRank(userId);
+        if (rank < 1) {
+            return context.i18n("unranked");
+        }
+        return "" + rank;
     }
 
     private long getUsersInGuild(Guild guild) {
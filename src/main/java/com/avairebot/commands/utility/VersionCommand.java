@@ -125,9 +125,9 @@ public class VersionCommand extends Command {
 
     @SuppressWarnings("unchecked")
     private PlaceholderMessage addAndFormatLatestCommits(CommandMessage context, PlaceholderMessage message) {
-        if (avaire.getCache().getAdapter(CacheType.FILE).has("github.commits")) {
+        if (avaire.getCache().getAdapter(CacheType.TIERED).has("github.commits")) {
             List<LinkedTreeMap<String, Object>> items = (List<LinkedTreeMap<String, Object>>) avaire.getCache()
-                .getAdapter(CacheType.FILE).get("github.commits");
+                .getAdapter(CacheType.TIERED).get("github.commits");
 
             StringBuilder commitChanges = new StringBuilder();
             for (int i = 0; i < 5; i++) {
@@ -147,7 +147,7 @@ public class VersionCommand extends Command {
     }
 
     private SemanticVersion getLatestVersion() {
-        Object version = avaire.getCache().getAdapter(CacheType.FILE).remember("github.version", 1800, () -> {
+        Object version = avaire.getCache().getAdapter(CacheType.TIERED).remember("github.version", 1800, 120, () -> {
             try {
                 return Jsoup.connect("https://raw.githubusercontent.com/avaire/avaire/master/build.gradle")
                     .execute().body().split("version = '")[1].split("'")[0];
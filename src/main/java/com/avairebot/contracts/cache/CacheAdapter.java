@@ -22,11 +22,30 @@
 package com.avairebot.contracts.cache;
 
 import com.avairebot.cache.CacheItem;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 
 public abstract class CacheAdapter {
 
+    private static final Logger log = LoggerFactory.getLogger(CacheAdapter.class);
+
+    private static final ExecutorService refreshService = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder()
+            .setNameFormat("avaire-cache-refresh-thread-%d")
+            .setDaemon(true)
+            .build()
+    );
+
+    private final Map<String, CompletableFuture<Object>> loaders = new ConcurrentHashMap<>();
+
     /**
      * Store an item in the cache for a given number of seconds.
      *
@@ -38,14 +57,44 @@ public abstract class CacheAdapter {
     public abstract boolean put(String token, Object value, int seconds);
 
     /**
-     * Get an item from the cache, or store the default value.
+     * Get an item from the cache, or store the default value, if multiple threads
+     * requests the same missing item at the same time, the closure is only
+     * invoked once, and all the threads will get the same result.
      *
      * @param token   The cache item token
      * @param seconds The amount of seconds the item should be stored for
      * @param closure The closure that should be invoked if the cache doesn't exists
      * @return the object that exists in the cache, if the cache token is empty the result of the closure will be retruend instead.
      */
-    public abstract Object remember(String token, int seconds, Supplier<Object> closure);
+    public Object remember(String token, int seconds, Supplier<Object> closure) {
+        return remember(token, seconds, 0, closure);
+    }
+
+    /**
+     * Get an item from the cache, or store the default value, if the item expires within
+     * the given refresh ahead time, the closure is invoked in the background to
+     * refresh the item, while the current value is returned, so popular
+     * items can be refreshed without anyone waiting for the closure.
+     *
+     * @param token        The cache item token
+     * @param seconds      The amount of seconds the item should be stored for
+     * @param refreshAhead The amount of seconds before the item expires it should be refreshed
+     * @param closure      The closure that should be invoked if the cache doesn't exists
+     * @return the object that exists in the cache, if the cache token is empty the result of the closure will be retruend instead.
+     */
+    public Object remember(String token, int seconds, int refreshAhead, Supplier<Object> closure) {
+        CacheItem item = getRaw(token);
+        if (item == null) {
+            return load(token, seconds, closure, false);
+        }
+
+        if (refreshAhead > 0 && !item.lastForever()
+            && item.getTime() - (refreshAhead * 1000L) <= System.currentTimeMillis()
+            && !loaders.containsKey(token)) {
+            refreshService.submit(() -> load(token, seconds, closure, true));
+        }
+        return item.getValue();
+    }
 
     /**
      * Store an item in the cache indefinitely.
@@ -94,4 +143,49 @@ public abstract class CacheAdapter {
      * @return true if the cache was emptied, false otherwise.
      */
     public abstract boolean flush();
+
+    /**
+     * Invokes the closure and stores the result in the cache, if the closure is
+     * already being invoked for the given token by another thread, this will
+     * wait for that thread to finish, and return the same result instead.
+     *
+     * @param token   The cache item token
+     * @param seconds The amount of seconds the item should be stored for
+     * @param closure The closure that should be invoked to get the value
+     * @param refresh Whether the closure should be invoked even if the item exists
+     * @return the result of the closure, or null if the closure threw an exception.
+     */
+    private Object load(String token, int seconds, Supplier<Object> closure, boolean refresh) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+
+        CompletableFuture<Object> loader = loaders.putIfAbsent(token, future);
+        if (loader != null) {
+            return loader.join();
+        }
+
+        try {
+            // Another thread may have stored the item between the cache
+            // lookup and this thread starting to load the item.
+            CacheItem cached = refresh ? null : getRaw(token);
+            if (cached != null) {
+                future.complete(cached.getValue());
+                return cached.getValue();
+            }
+
+            Object value = closure.get();
+            put(token, value, seconds);
+
+            // Adapters may convert the value when it is stored, so the stored
+            // value is returned if possible, that way the result is the
+            // same whether the value was loaded or already cached.
+            CacheItem item = getRaw(token);
+            future.complete(item == null ? value : item.getValue());
+        } catch (Exception e) {
+            log.error("Failed to load the \"{}\" cache item: {}", token, e.getMessage(), e);
+            future.complete(null);
+        } finally {
+            loaders.remove(token, future);
+        }
+        return future.join();
+    }
 }
@@ -22,6 +22,8 @@
 package com.avairebot.contracts.commands;
 
 import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandContainer;
 import com.avairebot.commands.CommandHandler;
 import com.avairebot.commands.CommandMessage;
@@ -32,7 +34,6 @@ import com.avairebot.metrics.Metrics;
 import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.MentionableUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.Permission;
@@ -57,10 +58,9 @@ public abstract class InteractionCommand extends Command {
      *
      * @see Metrics#setup(AvaIre) Metrics setup.
      */
-    public static final Cache<String, Lottery> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<String, Lottery> cache = CacheRegistry.register("interaction-lottery", new CacheSettings()
         .expireAfterAccess(5, TimeUnit.MINUTES)
-        .build();
+    );
 
     /**
      * Creates a new interaction command instance.
@@ -25,10 +25,13 @@ import com.avairebot.contracts.database.grammar.AlterGrammar;
 import com.avairebot.contracts.database.grammar.Grammarable;
 import com.avairebot.contracts.database.grammar.TableGrammar;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.query.CompiledQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.metrics.Metrics;
 import com.mysql.jdbc.exceptions.jdbc4.MySQLNonTransientConnectionException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +39,8 @@ import javax.annotation.Nullable;
 import javax.annotation.WillClose;
 import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.WillNotClose;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -53,42 +58,58 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     protected DatabaseManager dbm = null;
 
     /**
-     * Represents our prepared query statements and their statement
-     * type, allowing us to quickly render and compile statements.
+     * Represents our pool of database connections, connections are borrowed
+     * from the pool when a query is sent to the database, and returned
+     * to the pool again once they're closed, allowing queries from
+     * different threads to run in parallel with each other.
      */
-    protected Map<PreparedStatement, StatementInterface> preparedStatements = new HashMap<>();
+    protected volatile HikariDataSource dataSource;
 
     /**
-     * Represents our current database connection, this is
-     * used to send queries to the database, as well as
-     * fetch, and persist data.
+     * The name of the read replica the database is used for, if the
+     * value is <code>NULL</code> the database is the primary.
      */
-    protected Connection connection;
+    private String replicaName = null;
 
     /**
-     * Represents the last connection state the
-     * last time the connection was checked.
+     * Sets the Database Manager instance to the database.
+     *
+     * @param dbm The database manager class instance.
      */
-    private boolean lastState;
+    public Database(DatabaseManager dbm) {
+        this.dbm = dbm;
+    }
 
     /**
-     * Represents the last time in milliseconds the state of the connection
-     * was checked, if the connection was checked less then a few seconds
-     * before, the last state will be returned instead, preventing
-     * checking the actually database by querying it every time.
+     * Marks the database as a read replica with the given name, replicas uses a read-only
+     * connection pool named after the replica, so they can be told apart from the
+     * primary database pool, this must be called before the pool is opened.
+     *
+     * @param name The name of the read replica.
      */
-    private long lastChecked;
+    public final void setReplicaName(@Nullable String name) {
+        this.replicaName = name;
+    }
 
     /**
-     * Sets the Database Manager instance to the database.
+     * Gets the name of the read replica the database is used for.
      *
-     * @param dbm The database manager class instance.
+     * @return either (1) the name of the read replica
+     *         or (2) <code>NULL</code> if the database is the primary.
      */
-    public Database(DatabaseManager dbm) {
-        this.dbm = dbm;
+    @Nullable
+    public final String getReplicaName() {
+        return replicaName;
+    }
 
-        lastState = false;
-        lastChecked = 0L;
+    /**
+     * Checks if the database is a read replica.
+     *
+     * @return either (1) <code>TRUE</code> if the database is a read replica
+     *         or (2) <code>FALSE</code> if the database is the primary.
+     */
+    public final boolean isReplica() {
+        return replicaName != null;
     }
 
     /**
@@ -124,10 +145,12 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     public abstract String prepareDataValueString(String str);
 
     /**
-     * Attempts to close the database connection.
+     * Attempts to close the database connection pool, closing all the
+     * idle connections, and any active connections once they're
+     * returned to the pool.
      *
-     * @return either (1) <code>TRUE</code> if the database connection was closed successfully
-     *         or (2) <code>FALSE</code> if the connection is already close, or an exception was thrown
+     * @return either (1) <code>TRUE</code> if the database connection pool was closed successfully
+     *         or (2) <code>FALSE</code> if the connection pool is already closed, or was never opened
      * @throws SQLException if a database access error occurs,
      *                      this method is called on a closed <code>Statement</code>, the given
      *                      SQL statement produces anything other than a single
@@ -135,90 +158,136 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
     public final boolean close() throws SQLException {
-        if (connection == null) {
-            log.warn("Could not close connection, it is null.");
+        if (dataSource == null) {
+            log.warn("Could not close connection pool, it is null.");
             return false;
         }
 
-        try {
-            connection.close();
-            lastState = false;
-            lastChecked = 0L;
-
-            return true;
-        } catch (SQLException e) {
-            log.warn("Could not close connection, SQLException: " + e.getMessage(), e);
+        if (dataSource.isClosed()) {
+            return false;
         }
-        return false;
+
+        dataSource.close();
+
+        return true;
     }
 
     /**
-     * Returns the current database connection, if the connection is not open/active, it
-     * will attempt to open the connection for you.
+     * Borrows a connection from the connection pool, if the pool is not open yet
+     * it will attempt to open the pool for you. The connection <strong>must</strong>
+     * be closed once you're done with it so it is returned to the pool again,
+     * the easiest way to do this is by using a try-with-resources block.
      *
-     * @return the database connection
-     * @throws SQLException if a database access error occurs,
-     *                      this method is called on a closed <code>Statement</code>, the given
-     *                      SQL statement produces anything other than a single
-     *                      <code>ResultSet</code> object, the method is called on a
-     *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
+     * @return a connection borrowed from the connection pool
+     * @throws SQLException        if a database access error occurs, or the pool could not be opened
+     * @throws SQLTimeoutException if no connection became available within the acquire timeout
      */
-    public synchronized Connection getConnection() throws SQLException {
+    public Connection getConnection() throws SQLException {
         if (!isOpen()) {
-            open();
-            lastState = true;
+            synchronized (this) {
+                if (!isOpen() && !open()) {
+                    throw new SQLException("Failed to open the database connection pool.");
+                }
+            }
         }
 
-        return connection;
+        return dataSource.getConnection();
     }
 
     /**
-     * Checks to see if the database connection is still valid.
+     * Checks to see if the database connection pool is open.
      *
-     * @return either (1) <code>TRUE</code> if the database connection is open and valid
-     *         or (2) <code>FALSE</code> if the database connection is closed
+     * @return either (1) <code>TRUE</code> if the database connection pool is open
+     *         or (2) <code>FALSE</code> if the database connection pool is closed
      */
     public final boolean isOpen() {
-        return isOpen(2);
+        return dataSource != null && !dataSource.isClosed();
     }
 
     /**
-     * Checks to see if the database connection is still valid.
+     * Checks to see if the database connection pool is open, and that
+     * it is able to hand out a valid connection to the database.
      *
      * @param seconds The amount of time to wait for the connection for.
      * @return either (1) <code>TRUE</code> if the database connection is open and valid
      *         or (2) <code>FALSE</code> if the database connection is closed
      */
-    public final synchronized boolean isOpen(int seconds) {
-        if (connection != null) {
-            // Returns the last state if the connection was checked less than three seconds ago.
-            if (System.currentTimeMillis() - 5000 < lastChecked) {
-                return lastState;
+    public final boolean isOpen(int seconds) {
+        if (!isOpen()) {
+            return false;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(seconds);
+        } catch (SQLException e) {
+            if (e instanceof MySQLNonTransientConnectionException) {
+                log.warn("Failed to check if the database connection is open due to a non transient connection exception!", e);
             }
+            // If the exception type is anything else, we just ignore it.
+        }
 
-            try {
-                if (connection.isClosed()) {
-                    return false;
-                }
+        return false;
+    }
 
-                lastState = connection.isValid(seconds);
-                lastChecked = System.currentTimeMillis() - (lastState ? 0L : 250L);
+    /**
+     * Creates the connection pool configuration for the given JDBC URL, the pool
+     * limits, timeouts, and leak detection threshold are loaded from the
+     * <code>database.pool</code> section of the configuration, pools
+     * created for read replicas are marked as read-only.
+     *
+     * @param url The JDBC URL that the pool should create connections for.
+     * @return The connection pool configuration for the given URL.
+     */
+    protected HikariConfig createPoolConfiguration(String url) {
+        HikariConfig config = new HikariConfig();
+
+        config.setPoolName("avaire-" + getClass().getSimpleName().toLowerCase()
+            + (isReplica() ? "-replica-" + replicaName : "")
+        );
+        config.setJdbcUrl(url);
+        config.setReadOnly(isReplica());
+
+        config.setMaximumPoolSize(Math.max(1, getPoolOption("maximum-size", 10)));
+        config.setMinimumIdle(Math.max(0, getPoolOption("minimum-idle", 2)));
+        config.setConnectionTimeout(Math.max(250L, getPoolOption("acquire-timeout", 10000L)));
+        config.setValidationTimeout(Math.max(250L, getPoolOption("validation-timeout", 3000L)));
+        config.setIdleTimeout(getPoolOption("idle-timeout", 600000L));
+        config.setMaxLifetime(getPoolOption("max-lifetime", 1800000L));
+        config.setLeakDetectionThreshold(getPoolOption("leak-detection-threshold", 0L));
+
+        return config;
+    }
 
-                return lastState;
-            } catch (SQLException e) {
-                if (e instanceof MySQLNonTransientConnectionException) {
-                    log.warn("Failed to check if the database connection is open due to a non transient connection exception!", e);
-                }
-                // If the exception type is anything else, we just ignore it.
-            }
+    /**
+     * Opens the connection pool using the given pool configuration, if the
+     * pool fails to create its initial connections the pool is closed,
+     * and the failure is re-thrown as an SQL exception.
+     *
+     * @param config The connection pool configuration that should be used.
+     * @throws SQLException if the pool failed to establish a connection to the database.
+     */
+    protected void openPool(HikariConfig config) throws SQLException {
+        try {
+            dataSource = new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+
+            throw new SQLException("Failed to create the database connection pool: " + cause.getMessage(), cause);
         }
+    }
 
-        return false;
+    private int getPoolOption(String name, int def) {
+        return dbm.getConfig().getInt("database.pool." + name, def);
+    }
+
+    private long getPoolOption(String name, long def) {
+        return dbm.getConfig().getLong("database.pool." + name, def);
     }
 
     /**
-     * Queries the database with the given query, the
-     * query should be a <code>SELECT</code> query.
+     * Queries the database with the given query, the query should be a <code>SELECT</code>
+     * query. The connection used for the query is returned to the pool before this
+     * method returns, so the result is a disconnected copy of the result set.
      *
      * @param query The query to run.
      * @return the current result as a <code>ResultSet</code> object or
@@ -227,18 +296,15 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      *                      closed <code>Statement</code>
      */
     @Nullable
-    @WillCloseWhenClosed
     public final ResultSet query(String query) throws SQLException {
         return handleQuery(() -> {
-            queryValidation(getStatement(query));
-
-            Statement statement = createPreparedStatement(query);
-            statement.closeOnCompletion();
+            try (Connection connection = getConnection();
+                 ResultSet resultSet = query(connection, query)) {
+                CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+                rowSet.populate(resultSet);
 
-            if (statement.execute(query)) {
-                return statement.getResultSet();
+                return rowSet;
             }
-            throw new SQLException("The query failed to execute successfully: " + query);
         });
     }
 
@@ -253,71 +319,120 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      *                      closed <code>Statement</code>
      */
     @Nullable
-    @WillCloseWhenClosed
     public final ResultSet query(QueryBuilder query) throws SQLException {
-        return query(query.toSQL());
+        CompiledQuery compiledQuery = compile(dbm, query, QueryType.SELECT);
+
+        return handleQuery(() -> {
+            try (Connection connection = getConnection();
+                 ResultSet resultSet = query(connection, compiledQuery)) {
+                CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+                rowSet.populate(resultSet);
+
+                return rowSet;
+            }
+        });
     }
 
     /**
-     * Queries the database with the given prepared statement.
+     * Queries the database with the given query using the given connection, the query
+     * should be a <code>SELECT</code> query. The statement created for the query is
+     * closed along with the result set, the connection is left open.
      *
-     * @param query The prepared statement to run.
-     * @return the current result as a <code>ResultSet</code> object or
-     *         <code>null</code> if the result is an update count or there are no more results
+     * @param connection The connection the query should be sent through.
+     * @param query      The query to run.
+     * @return the current result as a <code>ResultSet</code> object
      * @throws SQLException if a database access error occurs or this method is called on a
      *                      closed <code>Statement</code>
      */
-    @Nullable
-    @WillNotClose
-    public final ResultSet query(PreparedStatement query) throws SQLException {
-        ResultSet output = query(query, preparedStatements.get(query));
+    @WillCloseWhenClosed
+    public final ResultSet query(@WillNotClose Connection connection, String query) throws SQLException {
+        queryValidation(getStatement(query));
 
-        preparedStatements.remove(query);
+        PreparedStatement statement = createPreparedStatement(connection, query);
+        statement.closeOnCompletion();
 
-        return output;
+        if (statement.execute()) {
+            return statement.getResultSet();
+        }
+
+        statement.close();
+        throw new SQLException("The query failed to execute successfully: " + query);
     }
 
     /**
-     * Queries the database with the given prepared statement.
+     * Queries the database with the given compiled query using the given connection, the
+     * values from the compiled query is bound to the prepared statement before it is
+     * executed, the query should be a <code>SELECT</code> query. The statement
+     * created for the query is closed along with the result set, the
+     * connection is left open.
      *
-     * @param query     The prepared statement to run.
-     * @param statement The query statement.
-     * @return the current result as a <code>ResultSet</code> object or
-     *         <code>null</code> if the result is an update count or there are no more results
+     * @param connection The connection the query should be sent through.
+     * @param query      The compiled query to run.
+     * @return the current result as a <code>ResultSet</code> object
      * @throws SQLException if a database access error occurs or this method is called on a
      *                      closed <code>Statement</code>
      */
-    @Nullable
-    @WillNotClose
-    public final ResultSet query(PreparedStatement query, StatementInterface statement) throws SQLException {
-        return handleQuery(() -> {
-            queryValidation(statement);
-
-            if (query.execute()) {
-                return query.getResultSet();
-            }
-            throw new SQLException("The query failed to execute successfully: " + query);
-        });
+    @WillCloseWhenClosed
+    public final ResultSet query(@WillNotClose Connection connection, CompiledQuery query) throws SQLException {
+        return query(connection, query, 0);
     }
 
     /**
-     * Prepares a query as a prepared statement before executing it.
+     * Opens a forward-only cursor for the given compiled query using the given connection,
+     * the rows are fetched from the database in batches of the given fetch size while
+     * the result set is being read, instead of loading the entire result at once.
+     * The connection must be kept open until the result set has been closed.
      *
-     * @param query The query to prepare.
-     * @return The JDBC prepared statement object for the given query.
+     * @param connection The connection the query should be sent through.
+     * @param query      The compiled query to run.
+     * @param fetchSize  The amount of rows that should be fetched from the database at a time.
+     * @return the forward-only cursor as a <code>ResultSet</code> object
      * @throws SQLException if a database access error occurs or this method is called on a
      *                      closed <code>Statement</code>
      */
-    @WillNotClose
-    public final Statement prepare(String query) throws SQLException {
-        StatementInterface statement = getStatement(query);
-        Statement ps = createPreparedStatement(query);
+    @WillCloseWhenClosed
+    public final ResultSet cursor(@WillNotClose Connection connection, CompiledQuery query, int fetchSize) throws SQLException {
+        return query(connection, query, Math.max(fetchSize, 1));
+    }
+
+    @WillCloseWhenClosed
+    private ResultSet query(@WillNotClose Connection connection, CompiledQuery query, int fetchSize) throws SQLException {
+        queryValidation(getStatement(query.getQuery()));
+
+        PreparedStatement statement = createPreparedStatement(connection, query.getQuery());
+        statement.closeOnCompletion();
+
+        if (fetchSize > 0) {
+            statement.setMaxRows(0);
+            statement.setFetchSize(fetchSize);
+        }
+
+        try {
+            query.bind(statement);
 
-        if (ps instanceof PreparedStatement) {
-            preparedStatements.put((PreparedStatement) ps, statement);
+            if (statement.execute()) {
+                return statement.getResultSet();
+            }
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
         }
 
-        return ps;
+        statement.close();
+        throw new SQLException("The query failed to execute successfully: " + query.getQuery());
+    }
+
+    /**
+     * Prepares a query as a prepared statement using the given connection.
+     *
+     * @param connection The connection the statement should be created for.
+     * @param query      The query to prepare.
+     * @return The JDBC prepared statement object for the given query.
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    public final PreparedStatement prepare(@WillNotClose Connection connection, String query) throws SQLException {
+        return createPreparedStatement(connection, query);
     }
 
     /**
@@ -344,7 +459,10 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     public final List<Long> insert(String query) throws SQLException {
         List<Long> keys = new ArrayList<>();
 
-        try (PreparedStatement pstmt = createPreparedStatement(query, 1)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = createPreparedStatement(connection, query, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.executeUpdate();
+
             ResultSet key = pstmt.getGeneratedKeys();
             if (key.next()) {
                 keys.add(key.getLong(1));
@@ -354,66 +472,31 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         }
     }
 
-    /**
-     * Executes the provided SQL statement as a <code>PreparedStatement</code> object,
-     * which must be an SQL Data Manipulation Language (DML) statement, such as <code>INSERT</code>, <code>UPDATE</code> or
-     * <code>DELETE</code>; or an SQL statement that returns nothing, such as a DDL statement.
-     * <p>
-     * After the query has been executed, all the auto-generated keys created as a result of executing the
-     * provided query will be retrieved. If the <code>Statement</code> object did not generate any keys, an
-     * empty <code>List</code> object is returned.
-     * <p>
-     * <B>Note:</B>If the columns which represent the auto-generated keys were not specified,
-     * the JDBC driver implementation will determine the columns which best represent the auto-generated keys.
-     *
-     * @param query The query to run
-     * @return the list of auto-generated keys
-     * @throws SQLException if a database access error occurs,
-     *                      this method is called on a closed <code>Statement</code>, the given
-     *                      SQL statement produces anything other than a single
-     *                      <code>ResultSet</code> object, the method is called on a
-     *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
-     */
-    @WillNotClose
-    public final ArrayList<Long> insert(PreparedStatement query) throws SQLException {
-        preparedStatements.remove(query);
-
-        ArrayList<Long> keys = new ArrayList<>();
-        ResultSet key = query.getGeneratedKeys();
-        if (key.next()) {
-            keys.add(key.getLong(1));
-        }
-
-        return keys;
-    }
-
     @Nullable
     private ResultSet handleQuery(SupplierWithSQL<ResultSet> callback) throws SQLException {
         try {
             return callback.get();
         } catch (MySQLNonTransientConnectionException e) {
             if (e.getMessage().contains("connection closed")) {
-                log.error("Attempted to run a query after the connection was closed, closing and re-opening the connection.", e);
-
-                // The connection should already be closed, we're just forcefully close the
-                // connection here so that the database manage can see that connection is
-                // closed, and so the connection can be reopened on the next request.
-                close();
+                // The connection pool will evict the broken connection on its own once it
+                // is returned to the pool, so the next request will be given a fresh
+                // connection without us having to re-open anything here.
+                log.error("Attempted to run a query after the connection was closed, the connection will be evicted from the pool.", e);
             }
             return null;
         }
     }
 
-    protected Statement createPreparedStatement(String query) throws SQLException {
+    protected PreparedStatement createPreparedStatement(Connection connection, String query) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        return getConnection().prepareStatement(query);
+        return connection.prepareStatement(query);
     }
 
-    private PreparedStatement createPreparedStatement(String query, int autoGeneratedKeys) throws SQLException {
+    private PreparedStatement createPreparedStatement(Connection connection, String query, int autoGeneratedKeys) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        return getConnection().prepareStatement(query, autoGeneratedKeys);
+        return connection.prepareStatement(query, autoGeneratedKeys);
     }
 
     protected String setupAndRun(TableGrammar grammar, QueryBuilder builder, DatabaseManager manager, Map<String, Boolean> options) {
@@ -423,6 +506,15 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         return grammar.format(builder);
     }
 
+    protected CompiledQuery setupAndCompile(TableGrammar grammar, QueryBuilder builder, DatabaseManager manager) {
+        Map<String, Boolean> options = new HashMap<>();
+        options.put("parameterized", true);
+
+        String query = setupAndRun(grammar, builder, manager, options);
+
+        return new CompiledQuery(query, grammar.getBindings());
+    }
+
     protected String setupAndRun(AlterGrammar grammar, Blueprint blueprint, DatabaseManager manager, Map<String, Boolean> options) {
         grammar.setDBM(manager);
         grammar.setOptions(options);
@@ -433,6 +525,7 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     public enum QueryType {
         SELECT,
         INSERT,
+        UPSERT,
         UPDATE,
         DELETE,
         CREATE
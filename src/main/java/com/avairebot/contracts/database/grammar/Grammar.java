@@ -23,12 +23,21 @@ package com.avairebot.contracts.database.grammar;
 
 import com.avairebot.database.DatabaseManager;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public abstract class Grammar {
 
+    /**
+     * The numeric pattern, used to check if a value is a
+     * number, and can be used in queries without quotes.
+     */
+    private static final Pattern numericPattern = Pattern.compile("[-+]?\\d*\\.?\\d+");
+
     /**
      * A list a SQL operators, this is used to compare and
      * validate operators to make sure they're valid.
@@ -56,6 +65,13 @@ public abstract class Grammar {
      */
     protected String query;
 
+    /**
+     * The list of values that should be bound to the placeholders
+     * in the query, values are only added to the bindings if
+     * the grammar is generating a parameterized query.
+     */
+    protected final List<Object> bindings = new ArrayList<>();
+
     public void setDBM(DatabaseManager dbm) {
         this.dbm = dbm;
     }
@@ -68,6 +84,63 @@ public abstract class Grammar {
         return query;
     }
 
+    public List<Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Checks to see if the grammar should generate a parameterized query, parameterized
+     * queries uses placeholders(?) for all the values in the query, and adds the
+     * values to the bindings list instead of formatting them into the query.
+     *
+     * @return either (1) <code>TRUE</code> if the query should be parameterized
+     *         or (2) <code>FALSE</code> if the values should be formatted into the query
+     */
+    protected boolean isParameterized() {
+        return options != null && options.getOrDefault("parameterized", false);
+    }
+
+    /**
+     * Adds the given value to the list of bindings, and returns the
+     * placeholder that should be used for the value in the query.
+     *
+     * @param value The value that should be bound to the placeholder.
+     * @return the placeholder for the value.
+     */
+    protected String addBinding(Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            bindings.add(value);
+        } else {
+            bindings.add(value.toString());
+        }
+
+        return "?";
+    }
+
+    /**
+     * Adds the given value to the list of bindings, and returns the placeholder
+     * that should be used for the value in the query, numeric strings are
+     * bound as numbers so they're compared the same way they would be if
+     * they had been formatted into the query without any quotes.
+     *
+     * @param value The value that should be bound to the placeholder.
+     * @return the placeholder for the value.
+     */
+    protected String addNumericBinding(Object value) {
+        String string = value.toString();
+        if (value instanceof Number || !isNumeric(string)) {
+            return addBinding(value);
+        }
+
+        try {
+            bindings.add(Long.parseLong(string));
+        } catch (NumberFormatException e) {
+            bindings.add(new BigDecimal(string));
+        }
+
+        return "?";
+    }
+
     /**
      * Checks to see if a string is numeric, this will help
      * determine how to format values into the query.
@@ -77,7 +150,7 @@ public abstract class Grammar {
      *         or (2) <code>FALSE</code> if the provided string isn't numeric
      */
     protected boolean isNumeric(String string) {
-        return string.matches("[-+]?\\d*\\.?\\d+");
+        return numericPattern.matcher(string).matches();
     }
 
     /**
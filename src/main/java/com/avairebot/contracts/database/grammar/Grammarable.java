@@ -23,6 +23,7 @@ package com.avairebot.contracts.database.grammar;
 
 import com.avairebot.contracts.database.Database;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.query.CompiledQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 
@@ -81,4 +82,16 @@ public interface Grammarable {
      * @return The database query that was generated by the blueprint.
      */
     String update(DatabaseManager manager, QueryBuilder query, @Nullable Map<String, Boolean> options);
+
+    /**
+     * Compiles the query builder into a parameterized query for the given query type, the
+     * compiled query uses placeholders(?) in place of all the values, allowing queries
+     * of the same shape to re-use the same prepared statements.
+     *
+     * @param manager The database manager instance.
+     * @param query   The query builder that should be used for generating the query.
+     * @param type    The type of query that should be compiled.
+     * @return The compiled query with the placeholders and their bindings.
+     */
+    CompiledQuery compile(DatabaseManager manager, QueryBuilder query, Database.QueryType type);
 }
@@ -21,6 +21,8 @@
 
 package com.avairebot.contracts.database.grammar;
 
+import com.avairebot.database.query.QueryBuilder;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,4 +40,26 @@ public abstract class InsertGrammar extends TableGrammar {
     public InsertGrammar() {
         query = "INSERT INTO ";
     }
+
+    /**
+     * Gets the list of columns that should be updated when an upsert query runs into
+     * an existing row, if no update columns was given to the query builder, all
+     * the inserted columns that are not part of the conflict keys are used.
+     *
+     * @param builder The query builder the upsert query is generated for.
+     * @return The list of columns that should be updated on conflict.
+     */
+    protected List<String> getConflictUpdateColumns(QueryBuilder builder) {
+        if (builder.getConflictUpdates() != null) {
+            return builder.getConflictUpdates();
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String key : keyset) {
+            if (!builder.getConflictKeys().contains(key)) {
+                columns.add(key);
+            }
+        }
+        return columns;
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.contracts.database.query;
+
+import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.query.QueryBuilder;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowClosure {
+
+    /**
+     * Runs the row closure function with the next row read from the
+     * database cursor, used by {@link QueryBuilder#each(RowClosure) each}.
+     *
+     * @param row The data row for the current row.
+     * @throws SQLException If an error occurred while handling the row.
+     */
+    void run(DataRow row) throws SQLException;
+}
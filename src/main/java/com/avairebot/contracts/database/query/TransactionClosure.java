@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.contracts.database.query;
+
+import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.Transaction;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface TransactionClosure {
+
+    /**
+     * Runs the transaction closure function with the transaction created by the
+     * {@link DatabaseManager#transaction(TransactionClosure) database transaction method},
+     * if the closure throws an exception every query in the transaction is rolled back.
+     * <p>
+     * The closure may be run on the SQLite writer thread, so it must stay synchronous,
+     * and only run its queries through the transaction it is given.
+     *
+     * @param transaction The transaction that the queries should be run on.
+     * @throws SQLException If an error occurred while running the queries.
+     */
+    void run(Transaction transaction) throws SQLException;
+}
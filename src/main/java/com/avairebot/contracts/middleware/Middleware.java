@@ -22,13 +22,14 @@
 package com.avairebot.contracts.middleware;
 
 import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.metrics.Metrics;
 import com.avairebot.middleware.MiddlewareStack;
 import com.avairebot.plugin.JavaPlugin;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Message;
 
 import javax.annotation.Nonnull;
@@ -44,10 +45,9 @@ public abstract class Middleware {
      *
      * @see Metrics#setup(AvaIre) Metrics setup.
      */
-    public static final Cache<Long, Boolean> messageCache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, Boolean> messageCache = CacheRegistry.register("middlewareThrottleMessages", new CacheSettings()
         .expireAfterWrite(2500, TimeUnit.MILLISECONDS)
-        .build();
+    );
 
     /**
      * The AvaIre class instance, this is used to access
@@ -21,10 +21,11 @@
 
 package com.avairebot.contracts.plugin;
 
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.plugin.PluginRepository;
 import com.avairebot.plugin.PluginSource;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -32,10 +33,9 @@ import java.util.concurrent.TimeUnit;
 
 public interface PluginSourceManager {
 
-    Cache<String, List<PluginRelease>> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    Cache<String, List<PluginRelease>> cache = CacheRegistry.register("plugin-releases", new CacheSettings()
         .expireAfterWrite(30, TimeUnit.MINUTES)
-        .build();
+    );
 
     /**
      * Gets the plugin source used for the current source manager.
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.contracts.config.ConfigurationSection;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+
+public class DatabaseExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy policy;
+
+    /**
+     * Creates the database executor, the executor is used to run all the async
+     * database queries on its own thread pool, separated from the scheduler
+     * jobs, so a slow job can't starve queries that users are waiting on.
+     *
+     * @param config The configuration the executor settings should be loaded from.
+     */
+    DatabaseExecutor(ConfigurationSection config) {
+        int threads = Math.max(1, config.getInt("database.async.threads", 4));
+        int queueSize = Math.max(1, config.getInt("database.async.queue-size", 2048));
+
+        policy = RejectionPolicy.fromName(
+            config.getString("database.async.rejection-policy", "caller-runs")
+        );
+
+        executor = new ThreadPoolExecutor(
+            threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            new ThreadFactoryBuilder()
+                .setNameFormat("database-async-%d")
+                .setDaemon(true)
+                .build(),
+            new RejectionHandler()
+        ) {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable runnable) {
+                Metrics.databaseAsyncQueueSize.set(getQueue().size());
+            }
+        };
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits the given task to the database executor, if the queue is full the task
+     * will be handled according to the configured rejection policy, which will
+     * either (1) run the task on the calling thread, (2) discard the task,
+     * or (3) throw a {@link RejectedExecutionException}.
+     *
+     * @param task The database task that should be run asynchronously.
+     * @throws RejectedExecutionException If the queue is full and the abort policy is used.
+     */
+    public void submit(@Nonnull Runnable task) {
+        executor.execute(new QueuedTask(task));
+        Metrics.databaseAsyncQueueSize.set(executor.getQueue().size());
+    }
+
+    /**
+     * Gets the number of tasks that are currently waiting in the queue.
+     *
+     * @return The number of queued database tasks.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the number of tasks that are currently being run by the executor.
+     *
+     * @return The number of database tasks currently running.
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Gets the rejection policy used when the queue is full.
+     *
+     * @return The rejection policy used when the queue is full.
+     */
+    public RejectionPolicy getRejectionPolicy() {
+        return policy;
+    }
+
+    /**
+     * Stops accepting new tasks and waits for the tasks that are already
+     * queued to finish, up to the given amount of time.
+     *
+     * @param timeout The maximum amount of time to wait.
+     * @param unit    The unit of the timeout argument.
+     * @return either (1) <code>true</code> if all the queued tasks finished
+     *         or (2) <code>false</code> if the timeout elapsed first.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public enum RejectionPolicy {
+
+        /**
+         * Runs the rejected task on the thread that submitted it, slowing
+         * the caller down until the executor has caught up again.
+         */
+        CALLER_RUNS("caller-runs"),
+
+        /**
+         * Drops the rejected task and logs a warning.
+         */
+        DISCARD("discard"),
+
+        /**
+         * Throws a {@link RejectedExecutionException} back to the caller.
+         */
+        ABORT("abort");
+
+        private final String name;
+
+        RejectionPolicy(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the rejection policy matching the given name, if no
+         * policy matches the name, caller runs will be returned.
+         *
+         * @param name The name of the rejection policy.
+         * @return The rejection policy matching the given name.
+         */
+        public static RejectionPolicy fromName(String name) {
+            for (RejectionPolicy policy : values()) {
+                if (policy.getName().equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+
+            log.warn("Invalid database async rejection policy \"{}\" given, using \"{}\" instead.",
+                name, CALLER_RUNS.getName()
+            );
+
+            return CALLER_RUNS;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private class RejectionHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            Metrics.databaseAsyncRejected.labels(policy.getName()).inc();
+
+            if (executor.isShutdown()) {
+                log.warn("Database executor has been shutdown, running async query on the calling thread instead.");
+                runnable.run();
+                return;
+            }
+
+            switch (policy) {
+                case CALLER_RUNS:
+                    runnable.run();
+                    break;
+
+                case DISCARD:
+                    log.warn("Database executor queue is full, discarding async query. ({} queued, {} active)",
+                        executor.getQueue().size(), executor.getActiveCount()
+                    );
+                    break;
+
+                case ABORT:
+                    throw new RejectedExecutionException(String.format(
+                        "Database executor queue is full (%s queued, %s active)",
+                        executor.getQueue().size(), executor.getActiveCount()
+                    ));
+            }
+        }
+    }
+
+    private static class QueuedTask implements Runnable {
+
+        private final Runnable task;
+        private final long queuedAt;
+
+        QueuedTask(Runnable task) {
+            this.task = task;
+            this.queuedAt = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            Metrics.databaseAsyncWaitTime.observe((System.nanoTime() - queuedAt) / 1E9D);
+
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("An exception was thrown while running an async database task: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -22,13 +22,17 @@
 package com.avairebot.database;
 
 import com.avairebot.AvaIre;
+import com.avairebot.contracts.config.ConfigurationSection;
 import com.avairebot.contracts.database.BatchQueryFunction;
 import com.avairebot.contracts.database.Database;
+import com.avairebot.contracts.database.query.ChunkClosure;
+import com.avairebot.contracts.database.query.TransactionClosure;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.connections.MySQL;
 import com.avairebot.database.connections.SQLite;
 import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.migrate.Migrations;
+import com.avairebot.database.query.CompiledQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Schema;
 import com.avairebot.database.seeder.SeederManager;
@@ -38,10 +42,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import javax.annotation.Nullable;
 import javax.annotation.WillClose;
 import java.sql.*;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -53,27 +57,43 @@ public class DatabaseManager {
     private final Schema schema;
     private final Migrations migrations;
     private final SeederManager seeder;
+    private final DatabaseExecutor executor;
+    private final ReplicaManager replicas;
+    private final QueryProfiler profiler;
 
-    private final AtomicInteger batchIncrementer;
-    private final Set<Integer> runningBatchRequests;
+    private final AtomicInteger activeTransactions;
 
     private int queryRetries = 5;
-    private Database connection = null;
+    private volatile Database connection = null;
+    private volatile SQLiteWriter writer = null;
 
     public DatabaseManager(AvaIre avaire) {
         this.avaire = avaire;
         this.schema = new Schema(this);
         this.migrations = new Migrations(this);
         this.seeder = new SeederManager();
+        this.executor = new DatabaseExecutor(getConfig());
+        this.replicas = new ReplicaManager(this);
+        this.profiler = new QueryProfiler(getConfig());
 
-        this.batchIncrementer = new AtomicInteger(0);
-        this.runningBatchRequests = new HashSet<>();
+        this.activeTransactions = new AtomicInteger(0);
     }
 
     public AvaIre getAvaire() {
         return avaire;
     }
 
+    /**
+     * Gets the configuration the database settings are loaded from, the database
+     * components read their settings through this method instead of going
+     * through the application instance directly.
+     *
+     * @return The configuration the database settings are loaded from.
+     */
+    public ConfigurationSection getConfig() {
+        return avaire.getConfig();
+    }
+
     public Schema getSchema() {
         return schema;
     }
@@ -86,31 +106,68 @@ public class DatabaseManager {
         return seeder;
     }
 
-    public Database getConnection() throws SQLException, DatabaseException {
-        if (connection == null) {
-            switch (avaire.getConfig().getString("database.type", "invalid").toLowerCase()) {
-                case "mysql":
-                    connection = new MySQL(this);
-                    break;
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
 
-                case "sqlite":
-                    connection = new SQLite(this);
-                    break;
+    public ReplicaManager getReplicas() {
+        return replicas;
+    }
 
-                default:
-                    throw new DatabaseException("Invalid database type given, failed to create a new database connection.");
-            }
-        }
+    public QueryProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Gets the SQLite writer, the writer is only used for SQLite databases that are
+     * stored in a file, and only if the single writer option is enabled.
+     *
+     * @return either (1) the SQLite writer that all the writes are sent through
+     *         or (2) <code>NULL</code> if writes are sent straight to the database.
+     */
+    @Nullable
+    public SQLiteWriter getWriter() {
+        return writer;
+    }
 
-        if (connection.isOpen()) {
+    public Database getConnection() throws SQLException, DatabaseException {
+        Database connection = this.connection;
+        if (connection != null && connection.isOpen()) {
             return connection;
         }
 
-        if (!connection.open()) {
-            throw new DatabaseException("Failed to connect to the database.");
-        }
+        synchronized (this) {
+            if (this.connection == null) {
+                switch (getConfig().getString("database.type", "invalid").toLowerCase()) {
+                    case "mysql":
+                        this.connection = new MySQL(this);
+                        break;
+
+                    case "sqlite":
+                        this.connection = new SQLite(this);
+                        break;
+
+                    default:
+                        throw new DatabaseException("Invalid database type given, failed to create a new database connection.");
+                }
+            }
+
+            if (this.connection.isOpen()) {
+                return this.connection;
+            }
+
+            if (!this.connection.open()) {
+                throw new DatabaseException("Failed to connect to the database.");
+            }
 
-        return connection;
+            if (writer == null && this.connection instanceof SQLite
+                && ((SQLite) this.connection).getFile() != null
+                && getConfig().getBoolean("database.sqlite.single-writer", true)) {
+                writer = new SQLiteWriter(this);
+            }
+
+            return this.connection;
+        }
     }
 
     public void setRetries(int retries) {
@@ -167,7 +224,47 @@ public class DatabaseManager {
      */
     @WillClose
     public Collection query(QueryBuilder query) throws SQLException {
-        return query(query.toSQL());
+        CompiledQuery compiledQuery = compile(query, Database.QueryType.SELECT);
+
+        log.debug("query(QueryBuilder query) was called with the following SQL query.\nSQL: " + compiledQuery);
+        MDC.put("query", compiledQuery.getQuery());
+
+        if (query.isUsingReplica()) {
+            Collection result = runReplicaQuery(compiledQuery.getQuery(), (database, connection) -> database.query(connection, compiledQuery));
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return runQuery(compiledQuery, queryRetries);
+    }
+
+    /**
+     * Executes the given SQL statement on one of the read replicas, which returns a single
+     * <code>Collection</code> object, if there are no healthy read replicas, or the
+     * replica is unreachable, the query is sent to the primary database instead.
+     *
+     * @param query an SQL statement to be sent to the database, typically a
+     *              static SQL <code>SELECT</code> statement
+     * @return a <code>Collection</code> object that contains the data produced
+     *         by the given query; never <code>null</code>
+     * @throws SQLException if a database access error occurs,
+     *                      this method is called on a closed <code>Statement</code>, the given
+     *                      SQL statement produces anything other than a single
+     *                      <code>ResultSet</code> object, the method is called on a
+     *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
+     */
+    @WillClose
+    public Collection queryFromReplica(String query) throws SQLException {
+        log.debug("queryFromReplica(String query) was called with the following SQL query.\nSQL: " + query);
+        MDC.put("query", query);
+
+        Collection result = runReplicaQuery(query, (database, connection) -> database.query(connection, query));
+        if (result != null) {
+            return result;
+        }
+
+        return runQuery(query, queryRetries);
     }
 
     /**
@@ -213,7 +310,12 @@ public class DatabaseManager {
      */
     @WillClose
     public int queryUpdate(QueryBuilder query) throws SQLException {
-        return queryUpdate(query.toSQL());
+        CompiledQuery compiledQuery = compile(query, null);
+
+        log.debug("queryUpdate(QueryBuilder query) was called with the following SQL query.\nSQL: " + compiledQuery);
+        MDC.put("query", compiledQuery.getQuery());
+
+        return runQueryUpdate(compiledQuery, queryRetries);
     }
 
     /**
@@ -262,20 +364,16 @@ public class DatabaseManager {
      */
     @WillClose
     public Set<Integer> queryInsert(QueryBuilder queryBuilder) throws SQLException {
-        String query = queryBuilder.toSQL();
-        log.debug("queryInsert(QueryBuilder queryBuilder) was called with the following SQL query.\nSQL: " + query);
+        CompiledQuery compiledQuery = compile(queryBuilder, null);
+        log.debug("queryInsert(QueryBuilder queryBuilder) was called with the following SQL query.\nSQL: " + compiledQuery);
         Metrics.databaseQueries.labels("INSERT").inc();
-        MDC.put("query", query);
-
-        if (query == null) {
-            throw new SQLException("null query was generated, null can not be used as a valid query");
-        }
+        MDC.put("query", compiledQuery.getQuery());
 
-        if (!query.toUpperCase().startsWith("INSERT INTO")) {
+        if (!compiledQuery.getQuery().toUpperCase().startsWith("INSERT INTO")) {
             throw new DatabaseException("queryInsert was called with a query without an INSERT statement!");
         }
 
-        return runQueryInsert(queryBuilder, queryRetries);
+        return runQueryInsert(compiledQuery, queryRetries);
     }
 
     /**
@@ -283,7 +381,8 @@ public class DatabaseManager {
      * up a batch request which is then invoked at the end of the {@code queryFunction}, the
      * {@code queryFunction} should only add batches to the prepared statement, the actual
      * executing of the batch request, committing the query, and rolling back in case of
-     * errors is all done by the queryBatch method.
+     * errors is all done by the queryBatch method, the batch is run in a transaction
+     * of its own, see {@link #transaction(TransactionClosure)} for more details.
      * <p>
      * <strong>Example:</strong>
      * <pre><code>
@@ -313,22 +412,199 @@ public class DatabaseManager {
      *                             the currently running {@code Statement}
      */
     public void queryBatch(String query, BatchQueryFunction<PreparedStatement> queryFunction) throws SQLException {
-        runQueryBatch(query, queryFunction, batchIncrementer.getAndIncrement(), queryRetries);
+        log.debug("queryBatch(String query) was called with the following SQL query.\nSQL: " + query);
+
+        transaction(transaction -> transaction.queryBatch(query, queryFunction));
+    }
+
+    /**
+     * Runs the given closure in a transaction, the transaction checks out a connection of its own
+     * from the pool, so every query sent through the transaction is isolated from queries run
+     * by other threads at the same time. If the closure finishes without any exceptions the
+     * transaction is committed, otherwise every query in the transaction is rolled back.
+     * <p>
+     * If the transaction fails because of a deadlock, or a lock wait timeout, the transaction is
+     * rolled back and the closure is run again, so the closure should only have side effects
+     * outside of the database once the transaction has finished.
+     * <p>
+     * For SQLite databases using the {@link SQLiteWriter single writer}, the closure is run
+     * on the writer thread, as part of the group of writes the writer is committing, so the
+     * closure must stay synchronous, and only use the transaction it is given, writes made
+     * through the database manager from inside the closure are run on the same connection
+     * right away, while queries waiting on other threads to write would block the writer.
+     * <p>
+     * <strong>Example:</strong>
+     * <pre><code>
+     * databaseManager.transaction(transaction -> {
+     *     transaction.newQueryBuilder("purchases")
+     *         .insert(statement -> statement.set("user_id", userId));
+     *
+     *     transaction.newQueryBuilder("votes")
+     *         .where("user_id", userId)
+     *         .update(statement -> statement.setRaw("points", "`points` - 10"));
+     * });
+     * // Both queries have been committed at this point, or neither of them if one failed.
+     * </code></pre>
+     *
+     * @param closure The closure that should be run in the transaction.
+     * @throws SQLException if a database access error occurs, the closure throws an
+     *                      exception, or the transaction failed to commit after
+     *                      all the deadlock retries were used up
+     */
+    public void transaction(TransactionClosure closure) throws SQLException {
+        runTransaction(closure, queryRetries);
+    }
+
+    /**
+     * Executes the SQL statement generated by the query builder using a forward-only cursor, reading
+     * the result in chunks of the given size, each chunk is passed to the chunk closure before the
+     * next chunk is read, so only a single chunk of the result is kept in memory at a time.
+     * <p>
+     * The rows are fetched from the database using the fetch size set on the query builder, or
+     * the default fetch size if no fetch size have been set, the connection used by the cursor
+     * is returned to the connection pool once every chunk has been read, or an error occurs.
+     * Query builders using a read replica will stream the rows from the replica instead.
+     * <p>
+     * Since the cursor holds on to its connection until every chunk has been read, any queries
+     * run from inside the chunk closure will need a second connection from the pool, which
+     * will block forever on pools with a single connection, like in-memory SQLite databases,
+     * collect the changes in the closure, and write them once this method returns instead.
+     *
+     * @param query     a QueryBuilder instance that should be sent to the database, typically a
+     *                  static SQL <code>SELECT</code> statement
+     * @param chunkSize The maximum amount of rows in each chunk, if the chunk size is 0 or
+     *                  less, the fetch size will be used as the chunk size instead.
+     * @param closure   The closure that should be called with each chunk.
+     * @throws SQLException if a database access error occurs, the chunk closure throws an
+     *                      exception, or the method is called on a closed <code>Statement</code>
+     */
+    public void queryChunk(QueryBuilder query, int chunkSize, ChunkClosure closure) throws SQLException {
+        CompiledQuery compiledQuery = compile(query, Database.QueryType.SELECT);
+
+        log.debug("queryChunk(QueryBuilder query, int chunkSize) was called with the following SQL query.\nSQL: " + compiledQuery);
+        MDC.put("query", compiledQuery.getQuery());
+
+        int fetchSize = query.getFetchSize() > 0
+            ? query.getFetchSize()
+            : Math.max(getConfig().getInt("database.fetch-size", 500), 1);
+
+        if (chunkSize <= 0) {
+            chunkSize = fetchSize;
+        }
+
+        Database database = getConnection();
+        Connection replicaConnection = null;
+
+        if (query.isUsingReplica()) {
+            Database replica = replicas.next();
+            if (replica != null) {
+                try {
+                    replicaConnection = replica.getConnection();
+                    database = replica;
+                } catch (SQLException e) {
+                    if (!replicas.handleFailure(replica, e)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        // The time spent running the chunk closure is left out of the query time, so
+        // slow chunk processing doesn't make the query itself look slow.
+        long startedAt = System.nanoTime();
+        int rows = 0;
+
+        try (Connection connection = replicaConnection != null ? replicaConnection : database.getConnection();
+             ResultSet resultSet = database.cursor(connection, compiledQuery, fetchSize)) {
+            while (true) {
+                Collection chunk = new Collection(resultSet, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                rows += chunk.size();
+
+                long closureStartedAt = System.nanoTime();
+                closure.run(chunk);
+                startedAt += System.nanoTime() - closureStartedAt;
+
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+        }
+
+        profiler.record(compiledQuery.getQuery(), startedAt, rows);
+    }
+
+    /**
+     * Checks if there are any transactions, including batch queries, running right now.
+     *
+     * @return {@code True} if there are transactions running, {@code False} otherwise.
+     */
+    public boolean hasRunningTransactions() {
+        return activeTransactions.get() > 0;
     }
 
     /**
      * Checks if there are any running batch query requests running right now.
      *
      * @return {@code True} if there are batch requests running, {@code False} otherwise.
+     * @deprecated Batch queries are run as transactions, use {@link #hasRunningTransactions()} instead.
      */
+    @Deprecated
     public boolean hasRunningBatchQueries() {
-        return !runningBatchRequests.isEmpty();
+        return hasRunningTransactions();
+    }
+
+    /**
+     * Runs the given query on the next healthy read replica, if the replica turns out to
+     * be unreachable it is marked as unhealthy, and <code>NULL</code> is returned so
+     * the caller can send the query to the primary database instead.
+     *
+     * @param sql   The SQL of the query, used to profile the query.
+     * @param query The query that should be run on the replica.
+     * @return either (1) the result of the query
+     *         or (2) <code>NULL</code> if the query should be sent to the primary database.
+     * @throws SQLException if the query failed for any other reason than a connection failure
+     */
+    @Nullable
+    private Collection runReplicaQuery(String sql, ReplicaQuery query) throws SQLException {
+        Database replica = replicas.next();
+        if (replica == null) {
+            Metrics.databaseReplicaQueries.labels("primary").inc();
+            return null;
+        }
+
+        long startedAt = System.nanoTime();
+        try (Connection connection = replica.getConnection();
+             ResultSet resultSet = query.run(replica, connection)) {
+            Metrics.databaseReplicaQueries.labels("replica").inc();
+
+            Collection collection = new Collection(resultSet);
+            profiler.record(sql, startedAt, collection.size());
+
+            return collection;
+        } catch (SQLException e) {
+            if (!replicas.handleFailure(replica, e)) {
+                throw e;
+            }
+            Metrics.databaseReplicaQueries.labels("fallback").inc();
+            return null;
+        }
     }
 
     @WillClose
     private Collection runQuery(String query, int retriesLeft) throws SQLException {
-        try (ResultSet resultSet = getConnection().query(query)) {
-            return new Collection(resultSet);
+        Database database = getConnection();
+        long startedAt = System.nanoTime();
+
+        try (Connection connection = database.getConnection();
+             ResultSet resultSet = database.query(connection, query)) {
+            Collection collection = new Collection(resultSet);
+            profiler.record(query, startedAt, collection.size());
+
+            return collection;
         } catch (MySQLTransactionRollbackException e) {
             if (--retriesLeft > 0) {
                 return runQuery(query, --retriesLeft);
@@ -339,14 +615,59 @@ public class DatabaseManager {
         }
     }
 
+    @WillClose
+    private Collection runQuery(CompiledQuery query, int retriesLeft) throws SQLException {
+        Database database = getConnection();
+        long startedAt = System.nanoTime();
+
+        try (Connection connection = database.getConnection();
+             ResultSet resultSet = database.query(connection, query)) {
+            Collection collection = new Collection(resultSet);
+            profiler.record(query.getQuery(), startedAt, collection.size());
+
+            return collection;
+        } catch (MySQLTransactionRollbackException e) {
+            if (--retriesLeft > 0) {
+                return runQuery(query, retriesLeft);
+            }
+            throw new MySQLTransactionRollbackException(
+                e.getMessage(), e.getSQLState(), e.getErrorCode()
+            );
+        }
+    }
+
     @WillClose
     private int runQueryUpdate(String query, int retriesLeft) throws SQLException {
-        try (Statement stmt = getConnection().prepare(query)) {
-            if (stmt instanceof PreparedStatement) {
-                return ((PreparedStatement) stmt).executeUpdate();
+        Database database = getConnection();
+
+        SQLiteWriter writer = this.writer;
+        if (writer != null) {
+            return writer.submit(connection -> executeUpdate(database, connection, query));
+        }
+
+        try (Connection connection = database.getConnection()) {
+            return executeUpdate(database, connection, query);
+        } catch (MySQLTransactionRollbackException e) {
+            if (--retriesLeft > 0) {
+                return runQueryUpdate(query, retriesLeft);
             }
+            throw new MySQLTransactionRollbackException(
+                e.getMessage(), e.getSQLState(), e.getErrorCode()
+            );
+        }
+    }
+
+    @WillClose
+    private int runQueryUpdate(CompiledQuery query, int retriesLeft) throws SQLException {
+        Database database = getConnection();
+
+        SQLiteWriter writer = this.writer;
+        if (writer != null) {
+            return writer.submit(connection -> executeUpdate(database, connection, query));
+        }
 
-            return stmt.executeUpdate(query);
+        try (Connection connection = database.getConnection()) {
+            return executeUpdate(database, connection, query);
         } catch (MySQLTransactionRollbackException e) {
             if (--retriesLeft > 0) {
                 return runQueryUpdate(query, retriesLeft);
@@ -359,17 +680,36 @@ public class DatabaseManager {
 
     @WillClose
     private Set<Integer> runQueryInsert(String query, int retriesLeft) throws SQLException {
-        try (PreparedStatement stmt = getConnection().getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.executeUpdate();
+        Database database = getConnection();
 
-            Set<Integer> ids = new HashSet<>();
+        SQLiteWriter writer = this.writer;
+        if (writer != null) {
+            return writer.submit(connection -> executeInsert(connection, query, null));
+        }
 
-            ResultSet keys = stmt.getGeneratedKeys();
-            while (keys.next()) {
-                ids.add(keys.getInt(1));
+        try (Connection connection = database.getConnection()) {
+            return executeInsert(connection, query, null);
+        } catch (MySQLTransactionRollbackException e) {
+            if (--retriesLeft > 0) {
+                return runQueryInsert(query, retriesLeft);
             }
+            throw new MySQLTransactionRollbackException(
+                e.getMessage(), e.getSQLState(), e.getErrorCode()
+            );
+        }
+    }
 
-            return ids;
+    @WillClose
+    private Set<Integer> runQueryInsert(CompiledQuery query, int retriesLeft) throws SQLException {
+        Database database = getConnection();
+
+        SQLiteWriter writer = this.writer;
+        if (writer != null) {
+            return writer.submit(connection -> executeInsert(connection, query.getQuery(), query));
+        }
+
+        try (Connection connection = database.getConnection()) {
+            return executeInsert(connection, query.getQuery(), query);
         } catch (MySQLTransactionRollbackException e) {
             if (--retriesLeft > 0) {
                 return runQueryInsert(query, retriesLeft);
@@ -380,32 +720,38 @@ public class DatabaseManager {
         }
     }
 
-    @WillClose
-    private Set<Integer> runQueryInsert(QueryBuilder queryBuilder, int retriesLeft) throws SQLException {
-        String query = queryBuilder.toSQL();
-
-        try (PreparedStatement stmt = getConnection().getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            int preparedIndex = 1;
-            for (Map<String, Object> row : queryBuilder.getItems()) {
-                for (Map.Entry<String, Object> item : row.entrySet()) {
-                    if (item.getValue() == null) {
-                        continue;
-                    }
+    private int executeUpdate(Database database, Connection connection, String query) throws SQLException {
+        try (PreparedStatement stmt = database.prepare(connection, query)) {
+            long startedAt = System.nanoTime();
+            int rows = stmt.executeUpdate();
 
-                    String value = item.getValue().toString();
+            profiler.record(query, startedAt, rows);
 
-                    if (value.startsWith("RAW:") ||
-                        value.equalsIgnoreCase("true") ||
-                        value.equalsIgnoreCase("false") ||
-                        value.matches("[-+]?\\d*\\.?\\d+")) {
-                        continue;
-                    }
+            return rows;
+        }
+    }
 
-                    stmt.setString(preparedIndex++, value);
-                }
+    private int executeUpdate(Database database, Connection connection, CompiledQuery query) throws SQLException {
+        try (PreparedStatement stmt = database.prepare(connection, query.getQuery())) {
+            query.bind(stmt);
+
+            long startedAt = System.nanoTime();
+            int rows = stmt.executeUpdate();
+            profiler.record(query.getQuery(), startedAt, rows);
+
+            return rows;
+        }
+    }
+
+    private Set<Integer> executeInsert(Connection connection, String query, @Nullable CompiledQuery compiledQuery) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            if (compiledQuery != null) {
+                compiledQuery.bind(stmt);
             }
 
-            stmt.executeUpdate();
+            long startedAt = System.nanoTime();
+            int rows = stmt.executeUpdate();
+            profiler.record(query, startedAt, rows);
 
             Set<Integer> ids = new HashSet<>();
 
@@ -415,56 +761,124 @@ public class DatabaseManager {
             }
 
             return ids;
-        } catch (MySQLTransactionRollbackException e) {
-            if (--retriesLeft > 0) {
-                return runQueryInsert(query, retriesLeft);
-            }
-            throw new MySQLTransactionRollbackException(
-                e.getMessage(), e.getSQLState(), e.getErrorCode()
-            );
         }
     }
 
-    private void runQueryBatch(String query, BatchQueryFunction<PreparedStatement> queryFunction, int batchId, int retriesLeft) throws SQLException {
-        log.debug("Running batch query with the following values:\n - Query: {}\n - Batch ID: {}\n - Retries Left: {}",
-            query, batchId, retriesLeft
-        );
+    /**
+     * Compiles the given query builder into a parameterized query, using the
+     * query type from the query builder if no query type is given.
+     *
+     * @param queryBuilder The query builder that should be compiled
+     * @param type         The query type that should be used, or <code>NULL</code>
+     * @return The compiled query, never <code>NULL</code>.
+     * @throws SQLException if the query builder failed to compile into a query
+     */
+    CompiledQuery compile(QueryBuilder queryBuilder, @Nullable Database.QueryType type) throws SQLException {
+        CompiledQuery query = type == null ? queryBuilder.compile() : queryBuilder.compile(type);
+        if (query == null) {
+            throw new SQLException("null query was generated, null can not be used as a valid query");
+        }
+        return query;
+    }
 
-        Connection connection = getConnection().getConnection();
+    private void runTransaction(TransactionClosure closure, int retriesLeft) throws SQLException {
+        Database database = getConnection();
 
-        if (!runningBatchRequests.contains(batchId)) {
-            runningBatchRequests.add(batchId);
+        SQLiteWriter writer = this.writer;
+        if (writer != null) {
+            // The writer already runs every write in a transaction, and wraps each write in a
+            // savepoint, so the closure is rolled back on its own if it throws an exception,
+            // the closure is run on the writer thread, so it must not wait on other threads.
+            activeTransactions.incrementAndGet();
+            try {
+                writer.submit(connection -> {
+                    Transaction transaction = new Transaction(this, database, connection);
+                    try {
+                        closure.run(transaction);
+                    } finally {
+                        transaction.close();
+                    }
+                    return null;
+                });
+                Metrics.databaseTransactions.labels("committed").inc();
+            } catch (SQLException | RuntimeException e) {
+                Metrics.databaseTransactions.labels("rolled-back").inc();
+                throw e;
+            } finally {
+                activeTransactions.decrementAndGet();
+            }
+            return;
         }
 
-        try {
-            connection.setAutoCommit(false);
-
-            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-                queryFunction.run(preparedStatement);
+        activeTransactions.incrementAndGet();
 
-                preparedStatement.executeBatch();
-            }
-        } catch (SQLException e) {
-            log.error("An SQL exception was thrown while running a batch query: {}", query, e);
+        // The transaction gets a connection of its own from the pool, so disabling auto
+        // commit for the transaction won't affect any other queries running at the same time.
+        try (Connection connection = database.getConnection()) {
+            connection.setAutoCommit(false);
 
             try {
-                connection.rollback();
-            } catch (SQLException e1) {
-                log.error("An SQL exception was thrown while attempting to rollback a batch query: {}", query, e);
+                while (true) {
+                    Transaction transaction = new Transaction(this, database, connection);
+
+                    try {
+                        closure.run(transaction);
+
+                        connection.commit();
+                        Metrics.databaseTransactions.labels("committed").inc();
+
+                        return;
+                    } catch (SQLException e) {
+                        rollback(connection);
+
+                        if (isDeadlock(e) && --retriesLeft > 0) {
+                            log.debug("Transaction was rolled back because of a deadlock, retrying with {} retries left", retriesLeft);
+                            Metrics.databaseTransactions.labels("retried").inc();
+                            continue;
+                        }
+
+                        Metrics.databaseTransactions.labels("rolled-back").inc();
+                        throw e;
+                    } catch (RuntimeException e) {
+                        rollback(connection);
+                        Metrics.databaseTransactions.labels("rolled-back").inc();
+
+                        throw e;
+                    } finally {
+                        transaction.close();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(true);
             }
         } finally {
-            try {
-                connection.commit();
+            activeTransactions.decrementAndGet();
+        }
+    }
 
-                runningBatchRequests.remove(batchId);
-                if (runningBatchRequests.isEmpty()) {
-                    connection.setAutoCommit(true);
-                }
-            } catch (MySQLTransactionRollbackException e) {
-                if (--retriesLeft > 0) {
-                    runQueryBatch(query, queryFunction, batchId, retriesLeft);
-                }
-            }
+    private boolean isDeadlock(SQLException e) {
+        if (e instanceof MySQLTransactionRollbackException || e instanceof SQLTransactionRollbackException) {
+            return true;
         }
+
+        // 40001 is the standard SQL state for serialization failures, 1213 and 1205 are the
+        // MySQL deadlock and lock wait timeout errors, and 5 is SQLITE_BUSY for SQLite.
+        return "40001".equals(e.getSQLState())
+            || e.getErrorCode() == 1213
+            || e.getErrorCode() == 1205
+            || (connection instanceof SQLite && e.getErrorCode() == 5);
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.error("An SQL exception was thrown while attempting to rollback a transaction", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ReplicaQuery {
+        ResultSet run(Database database, Connection connection) throws SQLException;
     }
 }
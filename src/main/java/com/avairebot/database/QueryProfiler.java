@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.contracts.config.ConfigurationSection;
+import com.avairebot.metrics.Metrics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class QueryProfiler {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.avairebot.database.SlowQueryLog");
+
+    private static final Pattern valueListPattern = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern valueGroupsPattern = Pattern.compile("\\(\\?\\+\\)(\\s*,\\s*\\(\\?\\+\\))+");
+
+    private static final String otherFingerprint = "other";
+    private static final int maxFingerprintLength = 256;
+
+    private final Cache<String, String> fingerprints = CacheBuilder.newBuilder()
+        .maximumSize(2048)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .build();
+
+    private final Set<String> trackedFingerprints = ConcurrentHashMap.newKeySet();
+
+    private final int maxFingerprints;
+    private final boolean slowQueryLogEnabled;
+    private final long slowQueryThreshold;
+
+    /**
+     * Creates the query profiler, the profiler is used to time every query sent
+     * through the database manager, grouping the timings by the normalized
+     * shape of the query, and writing slow queries to the slow query log.
+     *
+     * @param config The configuration the profiler settings should be loaded from.
+     */
+    QueryProfiler(ConfigurationSection config) {
+        maxFingerprints = Math.max(1, config.getInt("database.profiling.max-fingerprints", 250));
+        slowQueryLogEnabled = config.getBoolean("database.profiling.slow-query-log", true);
+        slowQueryThreshold = TimeUnit.MILLISECONDS.toNanos(
+            Math.max(0, config.getLong("database.profiling.slow-query-threshold", 250))
+        );
+    }
+
+    /**
+     * Records the execution of the given query, observing the duration and the amount of rows
+     * in the metrics under the fingerprint of the query, if the query took longer than
+     * the slow query threshold it will also be written to the slow query log.
+     *
+     * @param query     The query that was executed.
+     * @param startedAt The {@link System#nanoTime()} from right before the query was executed.
+     * @param rows      The amount of rows that was returned or affected by the query.
+     */
+    public void record(String query, long startedAt, int rows) {
+        long duration = System.nanoTime() - startedAt;
+
+        String fingerprint = fingerprint(query);
+        String type = getQueryType(fingerprint);
+        String label = getFingerprintLabel(fingerprint);
+
+        Metrics.databaseQueryTime.labels(type, label).observe(duration / 1_000_000_000D);
+        Metrics.databaseQueryRows.labels(type, label).observe(Math.max(rows, 0));
+
+        if (slowQueryLogEnabled && duration >= slowQueryThreshold) {
+            slowQueryLog.info("{} ms, {} rows, called from {}: {}",
+                TimeUnit.NANOSECONDS.toMillis(duration), rows, getCallSite(), fingerprint
+            );
+        }
+    }
+
+    /**
+     * Gets the fingerprint for the given query, the fingerprint is the query with every string and
+     * number literal replaced with a question mark, lists of values collapsed into a single
+     * <code>(?+)</code> group, and all the whitespace collapsed into single spaces, so
+     * queries with the same shape share the same fingerprint regardless of their values.
+     *
+     * @param query The query that the fingerprint should be generated for.
+     * @return The normalized fingerprint for the given query.
+     */
+    public String fingerprint(String query) {
+        String fingerprint = fingerprints.getIfPresent(query);
+        if (fingerprint == null) {
+            fingerprint = normalize(query);
+            fingerprints.put(query, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String query) {
+        StringBuilder builder = new StringBuilder(query.length());
+
+        int length = query.length();
+        for (int i = 0; i < length; i++) {
+            char c = query.charAt(i);
+
+            if (c == '\'' || c == '"') {
+                i = skipStringLiteral(query, i, c);
+                builder.append('?');
+                continue;
+            }
+
+            if (c == '`') {
+                int end = query.indexOf('`', i + 1);
+                end = end < 0 ? length - 1 : end;
+                builder.append(query, i, end + 1);
+                i = end;
+                continue;
+            }
+
+            if (Character.isDigit(c) && !isPartOfIdentifier(builder)) {
+                while (i + 1 < length && (Character.isDigit(query.charAt(i + 1)) || query.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                builder.append('?');
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                if (builder.length() > 0 && builder.charAt(builder.length() - 1) != ' ') {
+                    builder.append(' ');
+                }
+                continue;
+            }
+
+            builder.append(c);
+        }
+
+        String fingerprint = builder.toString().trim();
+        if (fingerprint.endsWith(";")) {
+            fingerprint = fingerprint.substring(0, fingerprint.length() - 1).trim();
+        }
+
+        fingerprint = valueListPattern.matcher(fingerprint).replaceAll("(?+)");
+        return valueGroupsPattern.matcher(fingerprint).replaceAll("(?+)");
+    }
+
+    private static int skipStringLiteral(String query, int start, char quote) {
+        for (int i = start + 1; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                if (i + 1 < query.length() && query.charAt(i + 1) == quote) {
+                    i++;
+                    continue;
+                }
+                return i;
+            }
+        }
+        return query.length() - 1;
+    }
+
+    private static boolean isPartOfIdentifier(StringBuilder builder) {
+        if (builder.length() == 0) {
+            return false;
+        }
+
+        char previous = builder.charAt(builder.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+    }
+
+    private String getQueryType(String fingerprint) {
+        int index = fingerprint.indexOf(' ');
+        String type = (index < 0 ? fingerprint : fingerprint.substring(0, index)).toUpperCase();
+
+        switch (type) {
+            case "SELECT":
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+            case "REPLACE":
+                return type;
+
+            default:
+                return "OTHER";
+        }
+    }
+
+    private String getFingerprintLabel(String fingerprint) {
+        if (fingerprint.length() > maxFingerprintLength) {
+            fingerprint = fingerprint.substring(0, maxFingerprintLength);
+        }
+
+        if (trackedFingerprints.contains(fingerprint)) {
+            return fingerprint;
+        }
+
+        if (trackedFingerprints.size() >= maxFingerprints) {
+            return otherFingerprint;
+        }
+
+        trackedFingerprints.add(fingerprint);
+        return fingerprint;
+    }
+
+    private String getCallSite() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (!className.startsWith("com.avairebot.")
+                || className.startsWith("com.avairebot.contracts.database.")
+                || (className.startsWith("com.avairebot.database.") && !className.startsWith("com.avairebot.database.controllers."))) {
+                continue;
+            }
+            return element.toString();
+        }
+        return "unknown";
+    }
+}
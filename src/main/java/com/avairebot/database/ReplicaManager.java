@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.contracts.config.ConfigurationSection;
+import com.avairebot.contracts.database.Database;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.connections.SQLite;
+import com.avairebot.metrics.Metrics;
+import com.avairebot.scheduler.ScheduleHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaManager.class);
+
+    private final List<Replica> replicas;
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final int healthCheckTimeout;
+
+    private ScheduledFuture<?> healthCheck = null;
+
+    /**
+     * Creates the replica manager, loading all the read replicas from the
+     * <code>database.replicas</code> section of the config, if any
+     * replicas are configured the health check is started.
+     *
+     * @param dbm The database manager class instance.
+     */
+    ReplicaManager(DatabaseManager dbm) {
+        ConfigurationSection config = dbm.getConfig();
+
+        this.healthCheckTimeout = Math.max(1, config.getInt("database.replicas.health-check-timeout", 2));
+        this.replicas = config.getBoolean("database.replicas.enabled", false)
+            ? Collections.unmodifiableList(loadReplicas(dbm, config))
+            : Collections.emptyList();
+
+        if (replicas.isEmpty()) {
+            return;
+        }
+
+        log.info("Loaded {} database read replicas, starting health checks", replicas.size());
+
+        healthCheck = ScheduleHandler.getScheduler().scheduleWithFixedDelay(
+            this::checkHealth, 0,
+            Math.max(1, config.getInt("database.replicas.health-check-interval", 15)),
+            TimeUnit.SECONDS
+        );
+    }
+
+    /**
+     * Checks if the given exception was caused by the connection to the database
+     * failing, rather than by the query itself, like when the database is
+     * unreachable, or no connection could be borrowed from the pool.
+     *
+     * @param exception The exception that should be checked.
+     * @return either (1) <code>TRUE</code> if the exception was caused by a connection failure
+     *         or (2) <code>FALSE</code> if the exception was caused by something else.
+     */
+    public static boolean isConnectionFailure(SQLException exception) {
+        return exception instanceof SQLTransientConnectionException
+            || exception instanceof SQLNonTransientConnectionException
+            || (exception.getSQLState() != null && exception.getSQLState().startsWith("08"));
+    }
+
+    /**
+     * Gets the next healthy read replica, the replicas are picked using round-robin,
+     * replicas that failed their last health check are skipped until they're
+     * marked as healthy again by the next health check that succeeds.
+     *
+     * @return either (1) the next healthy read replica
+     *         or (2) <code>NULL</code> if there are no healthy read replicas.
+     */
+    @Nullable
+    public Database next() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+
+        int start = Math.floorMod(counter.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica.database;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Handles the given exception thrown by a query that was sent to the given replica,
+     * if the exception was caused by a connection failure the replica is marked as
+     * unhealthy, and the query should be sent to the primary database instead.
+     *
+     * @param database  The read replica the query was sent to.
+     * @param exception The exception that was thrown by the query.
+     * @return either (1) <code>TRUE</code> if the query should fall back to the primary database
+     *         or (2) <code>FALSE</code> if the exception should be re-thrown.
+     */
+    public boolean handleFailure(Database database, SQLException exception) {
+        if (!isConnectionFailure(exception)) {
+            return false;
+        }
+
+        for (Replica replica : replicas) {
+            if (replica.database == database) {
+                setHealthy(replica, false, exception);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of read replicas that are configured.
+     *
+     * @return The amount of read replicas.
+     */
+    public int size() {
+        return replicas.size();
+    }
+
+    /**
+     * Gets the amount of read replicas that passed their last health check.
+     *
+     * @return The amount of healthy read replicas.
+     */
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Stops the health check and closes the connection pools for all the read replicas.
+     */
+    public void close() {
+        if (healthCheck != null) {
+            healthCheck.cancel(false);
+        }
+
+        for (Replica replica : replicas) {
+            replica.healthy = false;
+            try {
+                replica.database.close();
+            } catch (SQLException e) {
+                log.error("Failed to close the \"{}\" database read replica: {}", replica.name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try {
+                if (!replica.database.isOpen() && !replica.database.open()) {
+                    setHealthy(replica, false, null);
+                    continue;
+                }
+
+                setHealthy(replica, replica.database.isOpen(healthCheckTimeout), null);
+            } catch (Exception e) {
+                setHealthy(replica, false, e);
+            }
+        }
+    }
+
+    private void setHealthy(Replica replica, boolean healthy, @Nullable Exception exception) {
+        Metrics.databaseReplicaHealthy.labels(replica.name).set(healthy ? 1 : 0);
+
+        if (replica.healthy == healthy) {
+            return;
+        }
+        replica.healthy = healthy;
+
+        if (healthy) {
+            log.info("The \"{}\" database read replica is healthy, sending read queries to it", replica.name);
+        } else {
+            log.warn("The \"{}\" database read replica is unreachable, falling back to the primary database: {}",
+                replica.name, exception == null ? "health check failed" : exception.getMessage()
+            );
+        }
+    }
+
+    private List<Replica> loadReplicas(DatabaseManager dbm, ConfigurationSection config) {
+        List<Replica> replicas = new ArrayList<>();
+        String type = config.getString("database.type", "invalid").toLowerCase();
+
+        List<Map<?, ?>> hosts = config.getMapList("database.replicas.hosts");
+        for (int i = 0; i < hosts.size(); i++) {
+            Map<?, ?> host = hosts.get(i);
+            String name = getOption(host, "name", String.valueOf(i + 1));
+
+            Database database;
+            switch (type) {
+                case "mysql":
+                    database = new MySQL(
+                        dbm,
+                        getOption(host, "hostname", config.getString("database.hostname")),
+                        Integer.parseInt(getOption(host, "port", "3306")),
+                        getOption(host, "database", config.getString("database.database")),
+                        getOption(host, "username", config.getString("database.username")),
+                        getOption(host, "password", config.getString("database.password"))
+                    );
+                    break;
+
+                case "sqlite":
+                    database = new SQLite(dbm, getOption(host, "filename", "database-replica.sqlite"));
+                    break;
+
+                default:
+                    log.warn("Read replicas are not supported for the \"{}\" database type, skipping replicas", type);
+                    return replicas;
+            }
+
+            database.setReplicaName(name);
+            replicas.add(new Replica(name, database));
+        }
+
+        return replicas;
+    }
+
+    private String getOption(Map<?, ?> host, String key, String def) {
+        Object value = host.get(key);
+        return value == null ? def : value.toString();
+    }
+
+    private static class Replica {
+
+        private final String name;
+        private final Database database;
+        private volatile boolean healthy = false;
+
+        Replica(String name, Database database) {
+            this.name = name;
+            this.database = database;
+        }
+    }
+}
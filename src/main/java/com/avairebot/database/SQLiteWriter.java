@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class SQLiteWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SQLiteWriter.class);
+
+    /**
+     * The write that is added to the queue when the writer is shutdown, this wakes
+     * up the writer thread if it's waiting for writes, without interrupting it,
+     * since interrupting the thread while it's running a group of writes
+     * would fail the connection lookup for the rest of the writes.
+     */
+    private static final PendingWrite<Void> SHUTDOWN = new PendingWrite<>(connection -> null);
+
+    private final DatabaseManager dbm;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final int batchSize;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private Connection activeConnection = null;
+
+    /**
+     * Creates the SQLite writer, the writer sends every write query through a single
+     * thread, grouping the writes waiting in the queue into a single transaction,
+     * SQLite only allows one writer at a time anyway, so this removes the lock
+     * contention between writers, and only syncs the file once per group.
+     *
+     * @param dbm The database manager instance.
+     */
+    SQLiteWriter(DatabaseManager dbm) {
+        this.dbm = dbm;
+        this.queue = new LinkedBlockingQueue<>();
+        this.batchSize = Math.max(1, dbm.getConfig().getInt("database.sqlite.writer-batch-size", 128));
+
+        thread = new Thread(this::run, "database-sqlite-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Submits the given write to the writer, and waits for the transaction the write
+     * was grouped into to be committed, writes submitted from the writer thread
+     * itself, like writes made while running a transaction closure, are run
+     * right away as part of the transaction that is currently running.
+     *
+     * @param write The write that should be run by the writer.
+     * @param <T>   The type of result returned by the write.
+     * @return The result of the write.
+     * @throws SQLException If the write, or the transaction it was grouped into, failed.
+     */
+    public <T> T submit(Write<T> write) throws SQLException {
+        if (Thread.currentThread() == thread) {
+            return write.run(activeConnection);
+        }
+
+        if (!running) {
+            throw new SQLException("The SQLite writer has been shutdown, and can't accept any more writes");
+        }
+
+        PendingWrite<T> pendingWrite = new PendingWrite<>(write);
+        queue.add(pendingWrite);
+        Metrics.databaseWriterQueueSize.set(queue.size());
+
+        // If the writer was shutdown while the write was being added to the queue
+        // the write might never be picked up, so we fail it right away instead.
+        if (!thread.isAlive() && queue.remove(pendingWrite)) {
+            throw new SQLException("The SQLite writer has been shutdown, and can't accept any more writes");
+        }
+
+        return pendingWrite.await();
+    }
+
+    /**
+     * Gets the amount of writes that are currently waiting in the queue.
+     *
+     * @return The amount of writes waiting to be run.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the writer once all the writes in the queue has been
+     * written, waiting up to the given amount of time.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The time unit of the timeout argument.
+     * @return <code>True</code> if the writer finished every write, <code>False</code> otherwise.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        running = false;
+        queue.add(SHUTDOWN);
+
+        try {
+            thread.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return !thread.isAlive();
+    }
+
+    private void run() {
+        List<PendingWrite<?>> writes = new ArrayList<>();
+
+        while (true) {
+            PendingWrite<?> write;
+            try {
+                // Once the writer has been shutdown the rest of the queue is drained without
+                // waiting for more writes, the shutdown write added to the queue makes
+                // sure the writer isn't left waiting for a write that never comes.
+                write = running ? queue.take() : queue.poll();
+            } catch (InterruptedException ignored) {
+                continue;
+            }
+
+            if (write == null) {
+                break;
+            }
+
+            writes.add(write);
+            queue.drainTo(writes, batchSize - 1);
+            writes.removeIf(pending -> pending == SHUTDOWN);
+            Metrics.databaseWriterQueueSize.set(queue.size());
+
+            if (!writes.isEmpty()) {
+                runGroup(writes);
+            }
+            writes.clear();
+        }
+    }
+
+    private void runGroup(List<PendingWrite<?>> writes) {
+        Metrics.databaseWriterBatchSize.observe(writes.size());
+
+        List<PendingWrite<?>> written = new ArrayList<>(writes.size());
+
+        try (Connection connection = dbm.getConnection().getConnection()) {
+            activeConnection = connection;
+            connection.setAutoCommit(false);
+
+            try {
+                // Each write is wrapped in a savepoint, so a single write failing only rolls
+                // back its own changes, instead of every write in the same group.
+                for (PendingWrite<?> write : writes) {
+                    Savepoint savepoint = connection.setSavepoint();
+
+                    try {
+                        write.run(connection);
+                        connection.releaseSavepoint(savepoint);
+                        written.add(write);
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback(savepoint);
+                        connection.releaseSavepoint(savepoint);
+                        write.fail(e);
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            } finally {
+                activeConnection = null;
+                connection.setAutoCommit(true);
+            }
+
+            for (PendingWrite<?> write : written) {
+                write.complete();
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.error("Failed to commit a group of {} writes to the SQLite database: {}", written.size(), e.getMessage(), e);
+
+            for (PendingWrite<?> write : writes) {
+                write.fail(e);
+            }
+        }
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.error("An SQL exception was thrown while attempting to rollback a group of writes", e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Write<T> {
+
+        /**
+         * Runs the write on the connection used by the writer, the connection is
+         * already in a transaction, and must not be committed or closed.
+         *
+         * @param connection The connection the write should be run on.
+         * @return The result of the write.
+         * @throws SQLException If the write failed.
+         */
+        T run(Connection connection) throws SQLException;
+    }
+
+    private static class PendingWrite<T> {
+
+        private final Write<T> write;
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile T result;
+        private volatile Exception exception;
+
+        PendingWrite(Write<T> write) {
+            this.write = write;
+        }
+
+        void run(Connection connection) throws SQLException {
+            result = write.run(connection);
+        }
+
+        void complete() {
+            latch.countDown();
+        }
+
+        void fail(Exception e) {
+            if (latch.getCount() == 0 || exception != null) {
+                return;
+            }
+            exception = e;
+            latch.countDown();
+        }
+
+        T await() throws SQLException {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (exception instanceof SQLException) {
+                throw (SQLException) exception;
+            }
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            return result;
+        }
+    }
+}
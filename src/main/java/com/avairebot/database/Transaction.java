@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.contracts.database.BatchQueryFunction;
+import com.avairebot.contracts.database.Database;
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.exceptions.DatabaseException;
+import com.avairebot.database.query.CompiledQuery;
+import com.avairebot.database.query.QueryBuilder;
+import com.avairebot.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import javax.annotation.WillClose;
+import java.sql.*;
+import java.util.HashSet;
+import java.util.Set;
+
+public class Transaction {
+
+    private static final Logger log = LoggerFactory.getLogger(Transaction.class);
+
+    private final DatabaseManager dbm;
+    private final Database database;
+    private final Connection connection;
+
+    private boolean closed = false;
+
+    /**
+     * Creates a new transaction for the given connection, the connection is checked out
+     * of the pool for the transaction alone, so queries from other threads will
+     * never join, commit, or rollback the queries sent through the transaction.
+     *
+     * @param dbm        The database manager instance.
+     * @param database   The database the connection belongs to.
+     * @param connection The connection the transaction should run on, with auto commit disabled.
+     */
+    Transaction(DatabaseManager dbm, Database database, Connection connection) {
+        this.dbm = dbm;
+        this.database = database;
+        this.connection = connection;
+    }
+
+    /**
+     * Creates a new query builder instance that is bound to the transaction, every query
+     * run through the query builder will be sent on the transaction connection, async
+     * queries are run right away instead, since they can't leave the transaction.
+     *
+     * @param table The table the query builder should be generated for.
+     * @return The query builder instance bound to the transaction.
+     */
+    public QueryBuilder newQueryBuilder(String table) {
+        return new QueryBuilder(dbm, table).useTransaction(this);
+    }
+
+    /**
+     * Executes the given query builder as a <code>SELECT</code> query on the transaction.
+     *
+     * @param query The query builder that should be executed.
+     * @return a <code>Collection</code> object that contains the data produced
+     *         by the given query; never <code>null</code>
+     * @throws SQLException if a database access error occurs, or the transaction has been closed
+     */
+    @WillClose
+    public Collection query(QueryBuilder query) throws SQLException {
+        CompiledQuery compiledQuery = dbm.compile(query, Database.QueryType.SELECT);
+
+        log.debug("query(QueryBuilder query) was called in a transaction with the following SQL query.\nSQL: " + compiledQuery);
+        MDC.put("query", compiledQuery.getQuery());
+
+        verifyOpen();
+
+        long startedAt = System.nanoTime();
+        try (ResultSet resultSet = database.query(connection, compiledQuery)) {
+            Collection collection = new Collection(resultSet);
+            dbm.getProfiler().record(compiledQuery.getQuery(), startedAt, collection.size());
+
+            return collection;
+        }
+    }
+
+    /**
+     * Executes the given SQL statement on the transaction.
+     *
+     * @param query an SQL statement to be sent to the database, typically a
+     *              static SQL <code>SELECT</code> statement
+     * @return a <code>Collection</code> object that contains the data produced
+     *         by the given query; never <code>null</code>
+     * @throws SQLException if a database access error occurs, or the transaction has been closed
+     */
+    @WillClose
+    public Collection query(String query) throws SQLException {
+        log.debug("query(String query) was called in a transaction with the following SQL query.\nSQL: " + query);
+        MDC.put("query", query);
+
+        verifyOpen();
+
+        long startedAt = System.nanoTime();
+        try (ResultSet resultSet = database.query(connection, query)) {
+            Collection collection = new Collection(resultSet);
+            dbm.getProfiler().record(query, startedAt, collection.size());
+
+            return collection;
+        }
+    }
+
+    /**
+     * Executes the given query builder as a Data Manipulation Language (DML) statement on the
+     * transaction, using the query type of the query builder, like <code>UPDATE</code>,
+     * <code>DELETE</code> or <code>UPSERT</code>.
+     *
+     * @param query The query builder that should be executed.
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     *         or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs, or the transaction has been closed
+     */
+    public int queryUpdate(QueryBuilder query) throws SQLException {
+        CompiledQuery compiledQuery = dbm.compile(query, null);
+
+        log.debug("queryUpdate(QueryBuilder query) was called in a transaction with the following SQL query.\nSQL: " + compiledQuery);
+        MDC.put("query", compiledQuery.getQuery());
+
+        verifyOpen();
+
+        try (PreparedStatement stmt = database.prepare(connection, compiledQuery.getQuery())) {
+            compiledQuery.bind(stmt);
+
+            long startedAt = System.nanoTime();
+            int rows = stmt.executeUpdate();
+            dbm.getProfiler().record(compiledQuery.getQuery(), startedAt, rows);
+
+            return rows;
+        }
+    }
+
+    /**
+     * Executes the given query builder as an <code>INSERT</code> statement on the
+     * transaction, returning the IDs of the inserted rows.
+     *
+     * @param query The query builder that should be executed.
+     * @return a set of IDs referring to the insert rows
+     * @throws SQLException if a database access error occurs, or the transaction has been closed
+     */
+    public Set<Integer> queryInsert(QueryBuilder query) throws SQLException {
+        CompiledQuery compiledQuery = dbm.compile(query, null);
+
+        log.debug("queryInsert(QueryBuilder query) was called in a transaction with the following SQL query.\nSQL: " + compiledQuery);
+        Metrics.databaseQueries.labels("INSERT").inc();
+        MDC.put("query", compiledQuery.getQuery());
+
+        if (!compiledQuery.getQuery().toUpperCase().startsWith("INSERT INTO")) {
+            throw new DatabaseException("queryInsert was called with a query without an INSERT statement!");
+        }
+
+        verifyOpen();
+
+        try (PreparedStatement stmt = connection.prepareStatement(compiledQuery.getQuery(), Statement.RETURN_GENERATED_KEYS)) {
+            compiledQuery.bind(stmt);
+
+            long startedAt = System.nanoTime();
+            int rows = stmt.executeUpdate();
+            dbm.getProfiler().record(compiledQuery.getQuery(), startedAt, rows);
+
+            Set<Integer> ids = new HashSet<>();
+
+            ResultSet keys = stmt.getGeneratedKeys();
+            while (keys.next()) {
+                ids.add(keys.getInt(1));
+            }
+
+            return ids;
+        }
+    }
+
+    /**
+     * Creates a prepared statement from the given query on the transaction, and passes it to
+     * the query function so the batch can be built, the batch is then executed as part
+     * of the transaction, and is committed along with the rest of the transaction.
+     *
+     * @param query         The query that should be used to create the prepared statement.
+     * @param queryFunction The query function that should add the batch values.
+     * @throws SQLException if a database access error occurs, or the transaction has been closed
+     */
+    public void queryBatch(String query, BatchQueryFunction<PreparedStatement> queryFunction) throws SQLException {
+        log.debug("queryBatch(String query) was called in a transaction with the following SQL query.\nSQL: " + query);
+        MDC.put("query", query);
+
+        verifyOpen();
+
+        long startedAt = System.nanoTime();
+        int rows = 0;
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            queryFunction.run(preparedStatement);
+
+            for (int updated : preparedStatement.executeBatch()) {
+                rows += Math.max(updated, 0);
+            }
+        }
+
+        dbm.getProfiler().record(query, startedAt, rows);
+    }
+
+    /**
+     * Checks if the transaction has been closed, a transaction is closed once it
+     * has been committed or rolled back, and can't be used for any more queries.
+     *
+     * @return either (1) <code>TRUE</code> if the transaction has been closed
+     *         or (2) <code>FALSE</code> if the transaction can still be used.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    private void verifyOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("The transaction has already been committed or rolled back, and can't be used for any more queries");
+        }
+    }
+}
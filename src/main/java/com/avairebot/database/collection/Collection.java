@@ -126,14 +126,12 @@ public class Collection implements Cloneable, Iterable<DataRow> {
             keys.put(meta.getColumnLabel(i), meta.getColumnClassName(i));
         }
 
-        while (result.next()) {
-            Map<String, Object> array = new HashMap<>();
-
-            for (String key : keys.keySet()) {
-                array.put(key, result.getString(key));
-            }
-
-            items.add(new DataRow(array));
+        // Each column is read once using its native type and stored in a typed column
+        // array, the data rows just points to their row in the column store so we
+        // don't have to create a map, and a string for every value in the result.
+        ColumnStore columns = ColumnStore.read(result, Integer.MAX_VALUE);
+        for (int row = 0; row < columns.size(); row++) {
+            items.add(new DataRow(columns, row));
         }
 
         if (!result.isClosed()) {
@@ -141,6 +139,33 @@ public class Collection implements Cloneable, Iterable<DataRow> {
         }
     }
 
+    /**
+     * Creates a new Collection instance from the next rows in the given ResultSet, reading
+     * at most the given amount of rows, the ResultSet is left open so the next rows
+     * can be read into another collection, used for reading results in chunks.
+     *
+     * @param result The ResultSet to read the next rows from.
+     * @param limit  The maximum amount of rows that should be read.
+     * @throws SQLException if a database access error occurs,
+     *                      this exception is thrown if the collection was unable to read
+     *                      form the database <code>ResultSet</code> object, or if the object
+     *                      didn't return a valid response.
+     */
+    public Collection(@Nonnull ResultSet result, int limit) throws SQLException {
+        this.keys = new HashMap<>();
+        this.items = new ArrayList<>();
+
+        ResultSetMetaData meta = result.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            keys.put(meta.getColumnLabel(i), meta.getColumnClassName(i));
+        }
+
+        ColumnStore columns = ColumnStore.read(result, limit);
+        for (int row = 0; row < columns.size(); row++) {
+            items.add(new DataRow(columns, row));
+        }
+    }
+
     /**
      * Gets all the <code>DataRow</code> items from the collection.
      *
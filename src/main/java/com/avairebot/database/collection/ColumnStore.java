@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.collection;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Stores the rows of a result set column by column, each column is read once
+ * using its native JDBC type, numbers and booleans are stored in primitive
+ * arrays, while everything else is stored as objects, the data rows
+ * created from a column store only keeps a reference to the store
+ * along with their row index, instead of a map of their own.
+ * <p>
+ * The string values for typed columns are only created when they're requested, using
+ * the same text format the database returns for the value. Databases with dynamic
+ * column types, like SQLite where the type is decided by each value rather than
+ * the column, have every column stored as strings, and columns where a value
+ * can't be read using the column type are turned into string columns.
+ */
+final class ColumnStore {
+
+    /**
+     * The initial amount of rows the columns can hold,
+     * the columns will grow as more rows are added.
+     */
+    private static final int initialCapacity = 16;
+
+    /**
+     * The format used to turn timestamps into strings, matching the
+     * format used by MySQL for <code>DATETIME</code> and
+     * <code>TIMESTAMP</code> values.
+     */
+    private static final DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final String[] labels;
+    private final ColumnType[] types;
+    private final Map<String, Integer> index;
+    private final Set<String> keys;
+
+    private final long[][] numbers;
+    private final double[][] decimals;
+    private final Object[][] objects;
+    private final BitSet[] nulls;
+
+    private int capacity = initialCapacity;
+    private int size = 0;
+
+    /**
+     * Creates a new column store for the given result set meta
+     * data, the store will be empty until rows are read.
+     *
+     * @param meta         The meta data for the result set the store is created for.
+     * @param dynamicTypes <code>TRUE</code> if the column types can change between rows.
+     * @throws SQLException if a database access error occurs.
+     */
+    private ColumnStore(ResultSetMetaData meta, boolean dynamicTypes) throws SQLException {
+        int columns = meta.getColumnCount();
+
+        this.labels = new String[columns];
+        this.types = new ColumnType[columns];
+        this.index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        this.numbers = new long[columns][];
+        this.decimals = new double[columns][];
+        this.objects = new Object[columns][];
+        this.nulls = new BitSet[columns];
+
+        for (int i = 0; i < columns; i++) {
+            labels[i] = meta.getColumnLabel(i + 1);
+            types[i] = dynamicTypes ? ColumnType.STRING : ColumnType.fromSqlType(meta.getColumnType(i + 1));
+            nulls[i] = new BitSet();
+
+            index.putIfAbsent(labels[i], i);
+
+            switch (types[i]) {
+                case LONG:
+                case BOOLEAN:
+                    numbers[i] = new long[capacity];
+                    break;
+
+                case DOUBLE:
+                    decimals[i] = new double[capacity];
+                    break;
+
+                default:
+                    objects[i] = new Object[capacity];
+            }
+        }
+
+        this.keys = Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Reads the next rows from the given result set into a new column
+     * store, stopping once the given amount of rows have been read.
+     *
+     * @param result The result set that should be read.
+     * @param limit  The maximum amount of rows that should be read.
+     * @return The column store holding the rows read from the result set.
+     * @throws SQLException if a database access error occurs.
+     */
+    static ColumnStore read(ResultSet result, int limit) throws SQLException {
+        ColumnStore store = new ColumnStore(result.getMetaData(), hasDynamicTypes(result));
+
+        while (store.size < limit && result.next()) {
+            store.readRow(result);
+        }
+
+        return store;
+    }
+
+    /**
+     * Checks if the database the result set was read from uses dynamic column types, where the
+     * result set meta data only describes the value of the current row, rather than every
+     * value in the column, like SQLite, which uses the type of each stored value.
+     *
+     * @param result The result set that should be checked.
+     * @return <code>TRUE</code> if the column types can change between rows, <code>FALSE</code> otherwise.
+     */
+    private static boolean hasDynamicTypes(ResultSet result) {
+        try {
+            Statement statement = result.getStatement();
+            if (statement == null) {
+                return false;
+            }
+
+            return "SQLite".equalsIgnoreCase(statement.getConnection().getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void readRow(ResultSet result) throws SQLException {
+        if (size == capacity) {
+            grow();
+        }
+
+        for (int i = 0; i < types.length; i++) {
+            int column = i + 1;
+
+            try {
+                readValue(result, i, column);
+            } catch (SQLException e) {
+                if (types[i] == ColumnType.STRING) {
+                    throw e;
+                }
+
+                // The value couldn't be read using the column type, like timestamps the driver
+                // can't parse, so the column is turned into a string column instead, the
+                // typed getters for the data rows will then parse the strings instead.
+                convertToStrings(i);
+                readValue(result, i, column);
+            }
+
+            if (result.wasNull()) {
+                nulls[i].set(size);
+            }
+        }
+
+        size++;
+    }
+
+    private void readValue(ResultSet result, int i, int column) throws SQLException {
+        switch (types[i]) {
+            case LONG:
+            case BOOLEAN:
+                numbers[i][size] = result.getLong(column);
+                break;
+
+            case DOUBLE:
+                decimals[i][size] = result.getDouble(column);
+                break;
+
+            case TIMESTAMP:
+                objects[i][size] = result.getTimestamp(column);
+                break;
+
+            default:
+                objects[i][size] = result.getString(column);
+        }
+    }
+
+    private void convertToStrings(int column) {
+        Object[] values = new Object[capacity];
+        for (int row = 0; row < size; row++) {
+            values[row] = getString(column, row);
+        }
+
+        types[column] = ColumnType.STRING;
+        numbers[column] = null;
+        decimals[column] = null;
+        objects[column] = values;
+    }
+
+    private void grow() {
+        capacity = capacity * 2;
+
+        for (int i = 0; i < types.length; i++) {
+            if (numbers[i] != null) {
+                numbers[i] = Arrays.copyOf(numbers[i], capacity);
+            }
+
+            if (decimals[i] != null) {
+                decimals[i] = Arrays.copyOf(decimals[i], capacity);
+            }
+
+            if (objects[i] != null) {
+                objects[i] = Arrays.copyOf(objects[i], capacity);
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of rows stored in the column store.
+     *
+     * @return The amount of rows stored in the column store.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the column labels for all the columns in the store,
+     * the labels are in the same order as the result set.
+     *
+     * @return The column labels for all the columns in the store.
+     */
+    String[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Gets the case-insensitive set of column names in the store.
+     *
+     * @return The case-insensitive set of column names in the store.
+     */
+    Set<String> keySet() {
+        return keys;
+    }
+
+    /**
+     * Gets the index of the column with the given name.
+     *
+     * @param name The name of the column, the name is case-insensitive.
+     * @return either (1) the index of the column with the given name
+     *         or (2) <code>-1</code> if no column exists with the given name.
+     */
+    int indexOf(String name) {
+        Integer column = index.get(name);
+
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * Gets the type of the column at the given index.
+     *
+     * @param column The index of the column.
+     * @return The type of the column, a column may be turned into a
+     *         string column while the result set is being read.
+     */
+    ColumnType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * Checks if the value stored in the given column for the given row is <code>NULL</code>.
+     *
+     * @param column The index of the column.
+     * @param row    The index of the row.
+     * @return <code>TRUE</code> if the value is <code>NULL</code>, <code>FALSE</code> otherwise.
+     */
+    boolean isNull(int column, int row) {
+        return nulls[column].get(row);
+    }
+
+    /**
+     * Gets the value stored in the given long or boolean column for the given row.
+     *
+     * @param column The index of the column.
+     * @param row    The index of the row.
+     * @return The value stored in the column.
+     */
+    long getLong(int column, int row) {
+        return numbers[column][row];
+    }
+
+    /**
+     * Gets the value stored in the given double column for the given row.
+     *
+     * @param column The index of the column.
+     * @param row    The index of the row.
+     * @return The value stored in the column.
+     */
+    double getDouble(int column, int row) {
+        return decimals[column][row];
+    }
+
+    /**
+     * Gets the value stored in the given timestamp column for the given row.
+     *
+     * @param column The index of the column.
+     * @param row    The index of the row.
+     * @return either (1) the timestamp stored in the column
+     *         or (2) <code>NULL</code> if the value is <code>NULL</code>.
+     */
+    @Nullable
+    Timestamp getTimestamp(int column, int row) {
+        return (Timestamp) objects[column][row];
+    }
+
+    /**
+     * Gets the value stored in the given column for the given row as a string, the string
+     * is created from the typed value using the same text format the database uses,
+     * so it matches what {@link ResultSet#getString(int)} returns for the value.
+     *
+     * @param column The index of the column.
+     * @param row    The index of the row.
+     * @return either (1) the value stored in the column as a string
+     *         or (2) <code>NULL</code> if the stored value is <code>NULL</code>.
+     */
+    @Nullable
+    String getString(int column, int row) {
+        if (isNull(column, row)) {
+            return null;
+        }
+
+        switch (types[column]) {
+            case LONG:
+            case BOOLEAN:
+                return Long.toString(numbers[column][row]);
+
+            case DOUBLE:
+                return formatDouble(decimals[column][row]);
+
+            case TIMESTAMP:
+                return formatTimestamp((Timestamp) objects[column][row]);
+
+            default:
+                return (String) objects[column][row];
+        }
+    }
+
+    private String formatDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.toString(value);
+        }
+
+        // MySQL doesn't use scientific notation or trailing zeros for its
+        // floating point values, so "1.5E7" becomes "15000000" instead.
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private String formatTimestamp(Timestamp timestamp) {
+        String text = timestamp.toLocalDateTime().format(timestampFormat);
+        if (timestamp.getNanos() == 0) {
+            return text;
+        }
+
+        String nanos = String.format("%09d", timestamp.getNanos());
+        int end = nanos.length();
+        while (nanos.charAt(end - 1) == '0') {
+            end--;
+        }
+
+        return text + "." + nanos.substring(0, end);
+    }
+
+    enum ColumnType {
+
+        LONG, BOOLEAN, DOUBLE, TIMESTAMP, STRING;
+
+        /**
+         * Gets the column type that should be used to store
+         * values of the given {@link java.sql.Types SQL type}.
+         *
+         * @param sqlType The SQL type from the result set meta data.
+         * @return The column type for the given SQL type.
+         */
+        static ColumnType fromSqlType(int sqlType) {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    return LONG;
+
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return BOOLEAN;
+
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return DOUBLE;
+
+                case Types.TIMESTAMP:
+                    return TIMESTAMP;
+
+                default:
+                    return STRING;
+            }
+        }
+    }
+}
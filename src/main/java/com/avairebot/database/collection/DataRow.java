@@ -28,6 +28,7 @@ import com.avairebot.utilities.NumberUtil;
 import com.google.gson.Gson;
 
 import javax.annotation.Nonnull;
+import java.sql.Timestamp;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Set;
@@ -36,8 +37,16 @@ import java.util.TreeMap;
 @SuppressWarnings("WeakerAccess")
 public class DataRow {
 
-    private final Map<String, Object> items;
     private final Map<String, String> decodedItems;
+    private final Map<String, Object> items;
+
+    /**
+     * The column store the data row reads its values from, this is only
+     * set if the data row was created from a result set, the data
+     * row will not have an items map in that case.
+     */
+    private final ColumnStore columns;
+    private final int row;
 
     /**
      * Creates a new data row object from the provided data row.
@@ -45,7 +54,7 @@ public class DataRow {
      * @param row The row to generate the data row from.
      */
     public DataRow(DataRow row) {
-        this(row.items);
+        this(row.getRaw());
     }
 
     /**
@@ -56,12 +65,28 @@ public class DataRow {
     public DataRow(Map<String, Object> items) {
         this.items = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         this.decodedItems = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.columns = null;
+        this.row = -1;
 
         for (Map.Entry<String, Object> item : items.entrySet()) {
             this.items.put(item.getKey(), item.getValue());
         }
     }
 
+    /**
+     * Creates a new data row object for the given row in the column store,
+     * the values are read directly from the typed columns in the store.
+     *
+     * @param columns The column store the data row should read from.
+     * @param row     The index of the row in the column store.
+     */
+    DataRow(ColumnStore columns, int row) {
+        this.items = null;
+        this.decodedItems = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.columns = columns;
+        this.row = row;
+    }
+
     /**
      * Gets a object from the data rows item list.
      *
@@ -82,6 +107,12 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public Object get(String name, Object def) {
+        if (columns != null) {
+            int column = columns.indexOf(name);
+
+            return column < 0 ? def : columns.getString(column, row);
+        }
+
         if (has(name)) {
             return items.get(name);
         }
@@ -109,6 +140,11 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public boolean getBoolean(String name, boolean def) {
+        int column = getLongColumn(name);
+        if (column >= 0) {
+            return columns.isNull(column, row) ? def : columns.getLong(column, row) == 1;
+        }
+
         Object value = get(name, def);
 
         if (isNull(value)) {
@@ -121,6 +157,10 @@ public class DataRow {
             return isEqual(str, "1", "true");
         }
 
+        if (value instanceof Number) {
+            return ((Number) value).longValue() == 1;
+        }
+
         return (boolean) value;
     }
 
@@ -144,6 +184,11 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public double getDouble(String name, double def) {
+        int column = getDoubleColumn(name);
+        if (column >= 0) {
+            return columns.isNull(column, row) ? def : columns.getDouble(column, row);
+        }
+
         Object value = get(name, def);
 
         if (isNull(value)) {
@@ -160,18 +205,8 @@ public class DataRow {
             }
         }
 
-        switch (getType(value)) {
-            case "Integer":
-                value = ((Integer) value).doubleValue();
-                break;
-
-            case "Long":
-                value = ((Long) value).doubleValue();
-                break;
-
-            case "Float":
-                value = ((Float) value).doubleValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
         }
 
         try {
@@ -201,6 +236,11 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public int getInt(String name, int def) {
+        int column = getLongColumn(name);
+        if (column >= 0) {
+            return columns.isNull(column, row) ? def : (int) columns.getLong(column, row);
+        }
+
         Object value = get(name, def);
 
         if (isNull(value)) {
@@ -213,18 +253,8 @@ public class DataRow {
             return NumberUtil.parseInt(str, def);
         }
 
-        switch (getType(value)) {
-            case "Double":
-                value = ((Double) value).intValue();
-                break;
-
-            case "Long":
-                value = ((Long) value).intValue();
-                break;
-
-            case "Float":
-                value = ((Float) value).intValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
         }
 
         try {
@@ -254,6 +284,11 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public long getLong(String name, long def) {
+        int column = getLongColumn(name);
+        if (column >= 0) {
+            return columns.isNull(column, row) ? def : columns.getLong(column, row);
+        }
+
         Object value = get(name, def);
 
         if (isNull(value)) {
@@ -270,18 +305,8 @@ public class DataRow {
             }
         }
 
-        switch (getType(value)) {
-            case "Double":
-                value = ((Double) value).longValue();
-                break;
-
-            case "Integer":
-                value = ((Integer) value).longValue();
-                break;
-
-            case "Float":
-                value = ((Float) value).longValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
         }
 
         try {
@@ -311,6 +336,11 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public float getFloat(String name, float def) {
+        int column = getDoubleColumn(name);
+        if (column >= 0) {
+            return columns.isNull(column, row) ? def : (float) columns.getDouble(column, row);
+        }
+
         Object value = get(name, def);
 
         if (isNull(value)) {
@@ -327,18 +357,8 @@ public class DataRow {
             }
         }
 
-        switch (getType(value)) {
-            case "Double":
-                value = ((Double) value).floatValue();
-                break;
-
-            case "Integer":
-                value = ((Integer) value).floatValue();
-                break;
-
-            case "Long":
-                value = ((Long) value).floatValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
         }
 
         try {
@@ -416,6 +436,14 @@ public class DataRow {
      *         or (2) the default value given.
      */
     public Carbon getTimestamp(String name, Carbon def) {
+        int column = getTimestampColumn(name);
+        if (column >= 0) {
+            Timestamp timestamp = columns.getTimestamp(column, row);
+            if (timestamp != null) {
+                return new Carbon().setTimestamp(timestamp.getTime() / 1000L);
+            }
+        }
+
         try {
             String time = getString(name);
             if (time == null) {
@@ -435,6 +463,10 @@ public class DataRow {
      * @return true if the index exists, otherwise it will return false.
      */
     public boolean has(String name) {
+        if (columns != null) {
+            return columns.indexOf(name) >= 0;
+        }
+
         return items.containsKey(name);
     }
 
@@ -444,15 +476,33 @@ public class DataRow {
      * @return All the keys from the data row.
      */
     public Set<String> keySet() {
+        if (columns != null) {
+            return columns.keySet();
+        }
+
         return items.keySet();
     }
 
     /**
-     * Gets the raw map object for the data row.
+     * Gets the raw map object for the data row, if the data row was created from
+     * a result set, a new map will be created from the column store every time
+     * this is called, without changing the data row itself, so the data
+     * row can safely be shared between threads.
      *
      * @return The raw data of the data row.
      */
     public Map<String, Object> getRaw() {
+        if (columns == null) {
+            return items;
+        }
+
+        Map<String, Object> items = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        String[] labels = columns.getLabels();
+        for (int column = labels.length - 1; column >= 0; column--) {
+            items.put(labels[column], columns.getString(column, row));
+        }
+
         return items;
     }
 
@@ -467,7 +517,60 @@ public class DataRow {
      * @return the JSON collection string
      */
     public String toJson() {
-        return AvaIre.gson.toJson(items);
+        return AvaIre.gson.toJson(getRaw());
+    }
+
+    /**
+     * Gets the index of the column with the given name if the data row is
+     * read from a column store, and the column is a long or boolean column.
+     *
+     * @param name The name of the column.
+     * @return either (1) the index of the column
+     *         or (2) <code>-1</code> if the row isn't read from a column store, or the column isn't a long column.
+     */
+    private int getLongColumn(String name) {
+        int column = columns == null ? -1 : columns.indexOf(name);
+        if (column < 0) {
+            return -1;
+        }
+
+        ColumnStore.ColumnType type = columns.getType(column);
+
+        return type == ColumnStore.ColumnType.LONG || type == ColumnStore.ColumnType.BOOLEAN ? column : -1;
+    }
+
+    /**
+     * Gets the index of the column with the given name if the data row is
+     * read from a column store, and the column is a double column.
+     *
+     * @param name The name of the column.
+     * @return either (1) the index of the column
+     *         or (2) <code>-1</code> if the row isn't read from a column store, or the column isn't a double column.
+     */
+    private int getDoubleColumn(String name) {
+        int column = columns == null ? -1 : columns.indexOf(name);
+        if (column < 0) {
+            return -1;
+        }
+
+        return columns.getType(column) == ColumnStore.ColumnType.DOUBLE ? column : -1;
+    }
+
+    /**
+     * Gets the index of the column with the given name if the data row is
+     * read from a column store, and the column is a timestamp column.
+     *
+     * @param name The name of the column.
+     * @return either (1) the index of the column
+     *         or (2) <code>-1</code> if the row isn't read from a column store, or the column isn't a timestamp column.
+     */
+    private int getTimestampColumn(String name) {
+        int column = columns == null ? -1 : columns.indexOf(name);
+        if (column < 0) {
+            return -1;
+        }
+
+        return columns.getType(column) == ColumnStore.ColumnType.TIMESTAMP ? column : -1;
     }
 
     private boolean isString(Object name) {
@@ -25,16 +25,18 @@ import com.avairebot.AvaIre;
 import com.avairebot.contracts.database.StatementInterface;
 import com.avairebot.contracts.database.connections.HostnameDatabase;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.grammar.mysql.*;
+import com.avairebot.database.query.CompiledQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.language.I18n;
 import com.avairebot.utilities.NumberUtil;
+import com.zaxxer.hikari.HikariConfig;
 
 import javax.annotation.Nonnull;
 import java.sql.*;
 import java.util.Map;
-import java.util.concurrent.Executors;
 
 public class MySQL extends HostnameDatabase {
 
@@ -91,12 +93,38 @@ public class MySQL extends HostnameDatabase {
             );
 
             if (initialize()) {
-                connection = DriverManager.getConnection(url, getUsername(), getPassword());
+                HikariConfig config = createPoolConfiguration(url);
+
+                config.setUsername(getUsername());
+                config.setPassword(getPassword());
 
                 // Sets a timeout of 20 seconds(This is an extremely long time, however the default
                 // is around 10 minutes so this should give some improvements with the threads
                 // not being blocked for ages due to hanging database queries.
-                connection.setNetworkTimeout(Executors.newCachedThreadPool(), 1000 * 20);
+                config.addDataSourceProperty("socketTimeout", String.valueOf(1000 * 20));
+
+                // Enables the prepared statement cache for each connection in the pool, the
+                // cache is keyed by the query with placeholders, so compiled queries from
+                // the query builder only has to be prepared once per connection.
+                int statementCacheSize = dbm.getAvaire().getConfig().getInt("database.pool.statement-cache-size", 250);
+                if (statementCacheSize > 0) {
+                    config.addDataSourceProperty("cachePrepStmts", "true");
+                    config.addDataSourceProperty("useServerPrepStmts", "true");
+                    config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+                    config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                }
+
+                // Allows queries to use a server-side cursor when a fetch size is set for
+                // the statement, so big results can be streamed in batches instead of
+                // being loaded into memory all at once, used by query builder cursors.
+                config.addDataSourceProperty("useCursorFetch", "true");
+
+                // Rewrites JDBC batches into multi-statement queries, so batched writes, like
+                // the experience and player profile syncs, are sent to the database in a
+                // single round trip instead of one round trip for every row.
+                config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+                openPool(config);
 
                 return true;
             }
@@ -162,8 +190,8 @@ public class MySQL extends HostnameDatabase {
 
     @Override
     public boolean hasTable(String table) {
-        try {
-            DatabaseMetaData md = getConnection().getMetaData();
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData md = connection.getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, new String[]{"TABLE"})) {
                 if (tables.next()) {
@@ -186,7 +214,8 @@ public class MySQL extends HostnameDatabase {
                 return false;
             }
 
-            try (Statement statement = getConnection().createStatement()) {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
                 statement.executeUpdate(String.format("DELETE FROM `%s`;", table));
             }
 
@@ -222,4 +251,22 @@ public class MySQL extends HostnameDatabase {
     public String update(DatabaseManager manager, QueryBuilder query, Map<String, Boolean> options) {
         return setupAndRun(new Update(), query, manager, options);
     }
+
+    @Override
+    public CompiledQuery compile(DatabaseManager manager, QueryBuilder query, QueryType type) {
+        switch (type) {
+            case SELECT:
+                return setupAndCompile(new Select(), query, manager);
+            case INSERT:
+                return setupAndCompile(new Insert(), query, manager);
+            case UPSERT:
+                return setupAndCompile(new Upsert(), query, manager);
+            case UPDATE:
+                return setupAndCompile(new Update(), query, manager);
+            case DELETE:
+                return setupAndCompile(new Delete(), query, manager);
+            default:
+                throw new DatabaseException("Invalid query type given, " + type + " queries can't be compiled from a query builder.");
+        }
+    }
 }
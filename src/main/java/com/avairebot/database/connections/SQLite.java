@@ -22,15 +22,18 @@
 package com.avairebot.database.connections;
 
 import com.avairebot.AvaIre;
+import com.avairebot.contracts.config.ConfigurationSection;
 import com.avairebot.contracts.database.StatementInterface;
 import com.avairebot.contracts.database.connections.FilenameDatabase;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.grammar.sqlite.*;
+import com.avairebot.database.query.CompiledQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.language.I18n;
 import com.avairebot.metrics.Metrics;
+import com.zaxxer.hikari.HikariConfig;
 
 import javax.annotation.Nonnull;
 import java.sql.*;
@@ -45,7 +48,7 @@ public class SQLite extends FilenameDatabase {
      * @param dbm The database manager class instance.
      */
     public SQLite(DatabaseManager dbm) {
-        this(dbm, dbm.getAvaire().getConfig().getString("database.filename", "database.sqlite"));
+        this(dbm, dbm.getConfig().getString("database.filename", "database.sqlite"));
     }
 
     /**
@@ -85,7 +88,29 @@ public class SQLite extends FilenameDatabase {
     public boolean open() throws SQLException {
         if (initialize()) {
             try {
-                connection = DriverManager.getConnection("jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath()));
+                HikariConfig config = createPoolConfiguration("jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath()));
+
+                if (getFile() == null) {
+                    // Every connection to an in-memory SQLite database gets a database of its
+                    // own, so we keep a single connection alive for the entire lifetime of
+                    // the pool to make sure every query is sent to the same database.
+                    config.setMaximumPoolSize(1);
+                    config.setMinimumIdle(1);
+                    config.setMaxLifetime(0);
+                }
+
+                if (getFile() != null) {
+                    applyPragmas(config);
+                }
+
+                if (isReplica()) {
+                    // SQLite connections can't have their read-only flag changed after they're
+                    // opened, so replica connections are made read-only with a pragma instead.
+                    config.setReadOnly(false);
+                    config.setConnectionInitSql("PRAGMA query_only = true");
+                }
+
+                openPool(config);
 
                 return true;
             } catch (SQLException ex) {
@@ -99,6 +124,34 @@ public class SQLite extends FilenameDatabase {
         return false;
     }
 
+    /**
+     * Applies the SQLite pragmas from the config to every connection created by the
+     * pool, the pragmas are passed to the SQLite driver as connection properties,
+     * so they are set before the connection is handed to the pool.
+     *
+     * @param config The pool configuration the pragmas should be added to.
+     */
+    private void applyPragmas(HikariConfig config) {
+        ConfigurationSection settings = dbm.getConfig();
+
+        if (settings.getBoolean("database.sqlite.wal", true)) {
+            config.addDataSourceProperty("journal_mode", "WAL");
+        }
+
+        config.addDataSourceProperty("synchronous",
+            settings.getString("database.sqlite.synchronous", "NORMAL").toUpperCase()
+        );
+
+        // Negative cache sizes are in kibibytes, positive sizes are in pages.
+        config.addDataSourceProperty("cache_size",
+            String.valueOf(-Math.max(settings.getInt("database.sqlite.cache-size", 16384), 0))
+        );
+
+        config.addDataSourceProperty("busy_timeout",
+            String.valueOf(Math.max(settings.getInt("database.sqlite.busy-timeout", 5000), 0))
+        );
+    }
+
     @Override
     protected void queryValidation(StatementInterface paramStatement) throws SQLException {
         // This does nothing for SQLite
@@ -116,13 +169,6 @@ public class SQLite extends FilenameDatabase {
         );
     }
 
-    @Override
-    public Connection getConnection() throws SQLException {
-        open();
-
-        return connection;
-    }
-
     @Override
     public StatementInterface getStatement(String query) throws SQLException {
         String[] statement = query.trim().split(" ", 2);
@@ -136,8 +182,8 @@ public class SQLite extends FilenameDatabase {
 
     @Override
     public boolean hasTable(String table) {
-        try {
-            DatabaseMetaData md = getConnection().getMetaData();
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData md = connection.getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, null)) {
                 if (tables.next()) {
@@ -160,7 +206,8 @@ public class SQLite extends FilenameDatabase {
                 return false;
             }
 
-            try (Statement statement = connection.createStatement()) {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
                 statement.executeQuery(String.format("DELETE FROM `%s`;", table));
             }
 
@@ -175,10 +222,10 @@ public class SQLite extends FilenameDatabase {
     }
 
     @Override
-    protected Statement createPreparedStatement(String query) throws SQLException {
+    protected PreparedStatement createPreparedStatement(Connection connection, String query) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        Statement statement = getConnection().createStatement();
+        PreparedStatement statement = connection.prepareStatement(query);
 
         statement.setQueryTimeout(5);
         statement.setMaxRows(25000);
@@ -210,4 +257,22 @@ public class SQLite extends FilenameDatabase {
     public String update(DatabaseManager manager, QueryBuilder query, Map<String, Boolean> options) {
         return setupAndRun(new Update(), query, manager, options);
     }
+
+    @Override
+    public CompiledQuery compile(DatabaseManager manager, QueryBuilder query, QueryType type) {
+        switch (type) {
+            case SELECT:
+                return setupAndCompile(new Select(), query, manager);
+            case INSERT:
+                return setupAndCompile(new Insert(), query, manager);
+            case UPSERT:
+                return setupAndCompile(new Upsert(), query, manager);
+            case UPDATE:
+                return setupAndCompile(new Update(), query, manager);
+            case DELETE:
+                return setupAndCompile(new Delete(), query, manager);
+            default:
+                throw new DatabaseException("Invalid query type given, " + type + " queries can't be compiled from a query builder.");
+        }
+    }
 }
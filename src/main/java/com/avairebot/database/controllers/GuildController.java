@@ -23,10 +23,11 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.Role;
@@ -43,10 +44,9 @@ import java.util.concurrent.TimeUnit;
 
 public class GuildController {
 
-    public static final Cache<Long, GuildTransformer> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, GuildTransformer> cache = CacheRegistry.register("guilds", new CacheSettings()
         .expireAfterAccess(5, TimeUnit.MINUTES)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(GuildController.class);
 
@@ -23,12 +23,16 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.level.ExperienceEntity;
+import com.avairebot.metrics.Metrics;
 import com.avairebot.utilities.CacheUtil;
+import com.google.common.cache.AbstractCache;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import net.dv8tion.jda.api.entities.Guild;
+import com.google.common.cache.CacheStats;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
 import org.slf4j.Logger;
@@ -37,16 +41,35 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class PlayerController {
 
-    public static final Cache<String, PlayerTransformer> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    /**
+     * The player cache, the players are indexed first by the guild ID, and then by the
+     * user ID, so all the cached players for a single guild can be forgotten at
+     * once, without having to scan through the cached players for every guild.
+     */
+    public static final Cache<Long, Cache<Long, PlayerTransformer>> cache = CacheRegistry.register("player-guilds", new CacheSettings()
         .expireAfterAccess(210, TimeUnit.SECONDS) // 3½ minute
-        .build();
-
-    private static final Map<Long, PlayerUpdateReference> playerQueue = new LinkedHashMap<>();
+    );
+
+    /**
+     * The combined stats for the player lookups across all the per-guild player caches,
+     * the stats of the registered player cache only covers the guild lookups, so
+     * the player lookups are recorded here instead, and are exported to the
+     * metrics as the "players" cache.
+     */
+    private static final PlayerCacheStats playerCacheStats = new PlayerCacheStats();
+
+    /**
+     * The player update queue, holding the latest username, discriminator, and avatar
+     * changes for each user that haven't been written to the database yet, if a
+     * user changes their profile multiple times before the queue is synced,
+     * only their latest change is kept and written to the database.
+     */
+    private static final ConcurrentHashMap<Long, PlayerUpdateReference> playerQueue = new ConcurrentHashMap<>();
     private static final Logger log = LoggerFactory.getLogger(PlayerController.class);
 
     private static final String[] requiredPlayerColumns = new String[]{
@@ -64,9 +87,14 @@ public class PlayerController {
             return null;
         }
 
-        return (PlayerTransformer) CacheUtil.getUncheckedUnwrapped(cache, asKey(message.getGuild(), user), () -> {
+        boolean[] loaded = new boolean[]{false};
+
+        PlayerTransformer player = (PlayerTransformer) CacheUtil.getUncheckedUnwrapped(getGuildCache(message.getGuild().getIdLong()), user.getIdLong(), () -> {
             log.debug("User cache for " + user.getId() + " was refreshed");
 
+            loaded[0] = true;
+            playerCacheStats.counter.recordMisses(1);
+
             try {
                 PlayerTransformer transformer = new PlayerTransformer(
                     user.getIdLong(),
@@ -96,6 +124,8 @@ public class PlayerController {
                                 .set("global_experience", 100);
                         });
 
+                    RankIndexController.setExperience(message.getGuild().getIdLong(), user.getIdLong(), 100);
+
                     return mergeWithExperienceEntity(avaire, transformer);
                 }
 
@@ -115,6 +145,10 @@ public class PlayerController {
                         .update(statement -> {
                             statement.set("active", true);
                         });
+
+                    RankIndexController.setExperience(
+                        message.getGuild().getIdLong(), user.getIdLong(), transformer.getExperience()
+                    );
                 }
 
                 return mergeWithExperienceEntity(avaire, transformer);
@@ -124,6 +158,12 @@ public class PlayerController {
                 return null;
             }
         });
+
+        if (!loaded[0]) {
+            playerCacheStats.counter.recordHits(1);
+        }
+
+        return player;
     }
 
     private static PlayerTransformer mergeWithExperienceEntity(AvaIre avaire, PlayerTransformer transformer) {
@@ -133,18 +173,66 @@ public class PlayerController {
         }
 
         transformer.incrementExperienceBy(
-            entities.stream().mapToInt(ExperienceEntity::getExperience).sum()
+            entities.stream().mapToInt(ExperienceEntity::getLocalExperience).sum()
         );
 
         return transformer;
     }
 
-    public static Map<Long, PlayerUpdateReference> getPlayerQueue() {
-        return playerQueue;
+    /**
+     * Gets the amount of users with profile changes waiting to be written to the database.
+     *
+     * @return The amount of users waiting in the player update queue.
+     */
+    public static int getPlayerQueueSize() {
+        return playerQueue.size();
+    }
+
+    /**
+     * Removes up to the given amount of users from the player update queue, returning
+     * their latest profile changes, changes made while the queue is being drained
+     * are kept in the queue and will be written to the database on the next sync.
+     *
+     * @param limit The max amount of users that should be removed from the queue.
+     * @return The profile changes for the users that were removed from the queue.
+     */
+    public static Map<Long, PlayerUpdateReference> drainPlayerQueue(int limit) {
+        Map<Long, PlayerUpdateReference> drained = new HashMap<>();
+        for (Long userId : playerQueue.keySet()) {
+            if (drained.size() >= limit) {
+                break;
+            }
+
+            PlayerUpdateReference reference = playerQueue.remove(userId);
+            if (reference != null) {
+                drained.put(userId, reference);
+                Metrics.playerUpdateBacklog.dec();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Puts the given profile changes back into the player update queue, used if the
+     * changes failed to be written to the database, if a user has made a newer
+     * change since the changes were drained, the newer change is kept instead.
+     *
+     * @param references The profile changes that should be put back into the queue.
+     */
+    public static void requeuePlayerUpdates(Map<Long, PlayerUpdateReference> references) {
+        for (Map.Entry<Long, PlayerUpdateReference> entry : references.entrySet()) {
+            if (playerQueue.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                Metrics.playerUpdateBacklog.inc();
+            }
+        }
     }
 
     public static void updateUserData(User user) {
-        playerQueue.put(user.getIdLong(), new PlayerUpdateReference(user));
+        if (playerQueue.put(user.getIdLong(), new PlayerUpdateReference(user)) == null) {
+            Metrics.playerUpdateBacklog.inc();
+        } else {
+            Metrics.playerUpdatesCoalesced.inc();
+        }
     }
 
     private static boolean isChanged(User user, PlayerTransformer transformer) {
@@ -154,33 +242,64 @@ public class PlayerController {
             || !transformer.getUsernameRaw().startsWith("base64:");
     }
 
-    private static String asKey(@Nonnull Guild guild, @Nonnull User user) {
-        return guild.getId() + ":" + user.getId();
+    @SuppressWarnings("unchecked")
+    private static Cache<Long, PlayerTransformer> getGuildCache(long guildId) {
+        return (Cache<Long, PlayerTransformer>) CacheUtil.getUncheckedUnwrapped(cache, guildId, () -> CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .expireAfterAccess(210, TimeUnit.SECONDS) // 3½ minute
+            .<Long, PlayerTransformer>build()
+        );
     }
 
-    public static void forgetCache(long userId) {
-        List<String> toRemove = new ArrayList<>();
-        for (String key : cache.asMap().keySet()) {
-            if (key.endsWith(":" + userId)) {
-                toRemove.add(key);
-            }
-        }
+    /**
+     * Gets the read-only cache view holding the combined stats for the player
+     * lookups across all the per-guild player caches, used for metrics.
+     *
+     * @return The cache view holding the combined stats for the player lookups.
+     */
+    public static Cache<Long, PlayerTransformer> getPlayerCacheStats() {
+        return playerCacheStats;
+    }
 
-        if (!toRemove.isEmpty()) {
-            cache.invalidateAll(toRemove);
+    public static void forgetCache(long userId) {
+        for (Cache<Long, PlayerTransformer> guildCache : cache.asMap().values()) {
+            guildCache.invalidate(userId);
         }
     }
 
     public static void forgetCacheForGuild(long guildId) {
-        List<String> toRemove = new ArrayList<>();
-        for (String key : cache.asMap().keySet()) {
-            if (key.startsWith(guildId + ":")) {
-                toRemove.add(key);
+        cache.invalidate(guildId);
+    }
+
+    /**
+     * A read-only cache view used to export the combined stats for the player lookups
+     * to the cache metrics, the size of the view is the total amount of players
+     * cached across all the per-guild player caches.
+     */
+    private static class PlayerCacheStats extends AbstractCache<Long, PlayerTransformer> {
+
+        private final SimpleStatsCounter counter = new SimpleStatsCounter();
+
+        @Override
+        public PlayerTransformer getIfPresent(Object key) {
+            // Players are only cached per guild, so there is no single player
+            // that could be returned for a user ID, the view is only used
+            // for exporting the stats of the player lookups.
+            return null;
+        }
+
+        @Override
+        public long size() {
+            long size = 0;
+            for (Cache<Long, PlayerTransformer> guildCache : cache.asMap().values()) {
+                size += guildCache.size();
             }
+            return size;
         }
 
-        if (!toRemove.isEmpty()) {
-            cache.invalidateAll(toRemove);
+        @Override
+        public CacheStats stats() {
+            return counter.snapshot();
         }
     }
 
@@ -23,12 +23,13 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.transformers.PlaylistTransformer;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +40,9 @@ import java.util.concurrent.TimeUnit;
 
 public class PlaylistController {
 
-    public static final Cache<Long, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, Collection> cache = CacheRegistry.register("playlists", new CacheSettings()
         .expireAfterAccess(5, TimeUnit.MINUTES)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(PlaylistController.class);
 
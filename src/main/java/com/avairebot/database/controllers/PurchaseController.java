@@ -23,11 +23,12 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.transformers.PurchasesTransformer;
 import com.avairebot.language.I18n;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,10 +41,9 @@ import java.util.concurrent.TimeUnit;
 
 public class PurchaseController {
 
-    public static final Cache<Long, PurchasesTransformer> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, PurchasesTransformer> cache = CacheRegistry.register("purchases", new CacheSettings()
         .expireAfterAccess(45, TimeUnit.MINUTES)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(PurchaseController.class);
 
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.controllers;
+
+import com.avairebot.AvaIre;
+import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
+import com.avairebot.level.RankIndex;
+import com.avairebot.utilities.CacheUtil;
+import com.google.common.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class RankIndexController {
+
+    /**
+     * The rank indexes for the guilds that have used any of the level commands recently,
+     * the cache is bounded by the total amount of ranked users across all the
+     * indexes, so a few very large guilds can't exhaust the memory, idle
+     * guilds are evicted after 15 minutes, and every index is rebuilt
+     * from the database at least once an hour to prevent drift.
+     * <p>
+     * The weight of an index is the amount of ranked users it had when it was loaded,
+     * users added afterwards are not re-weighed, but are covered by the hourly rebuild.
+     */
+    public static final Cache<Long, RankIndex> cache = CacheRegistry.register("rank-indexes", new CacheSettings()
+        .maximumWeight(1_000_000, (Long guildId, RankIndex index) -> Math.max(1, index.size()))
+        .expireAfterAccess(15, TimeUnit.MINUTES)
+        .expireAfterWrite(1, TimeUnit.HOURS)
+    );
+
+    private static final Logger log = LoggerFactory.getLogger(RankIndexController.class);
+    private static final Object globalRankIndexLock = new Object();
+
+    /**
+     * The global rank index, ranking every user by their combined experience across all
+     * the guilds they're active in, the index is built the first time it is used,
+     * and is then kept up to date as experience is synced with the database.
+     */
+    private static volatile RankIndex globalRankIndex;
+
+    /**
+     * The global experience increments made while the global rank index is being built, the
+     * records are read from the database in a single query, so increments synced after
+     * the query started are missing from the new index, and are replayed onto the
+     * new index before it replaces the current index, the increments and the
+     * swap are guarded by the global increment lock, so no increment is
+     * lost, or applied twice, while the indexes are swapped.
+     */
+    private static final ReadWriteLock globalIncrementLock = new ReentrantReadWriteLock();
+    private static Map<Long, Long> pendingGlobalIncrements = null;
+
+    /**
+     * Fetches the rank index for the given guild, if the guild doesn't have
+     * a loaded rank index, the index will be built from all the active
+     * experience records for the guild in the database.
+     *
+     * @param avaire  The main AvaIre application instance.
+     * @param guildId The ID of the guild that the rank index should be fetched for.
+     * @return Either (1) the rank index for the guild, or (2) <code>null</code>
+     * if the rank index failed to load.
+     */
+    @Nullable
+    @CheckReturnValue
+    public static RankIndex fetchRankIndex(AvaIre avaire, long guildId) {
+        try {
+            return (RankIndex) CacheUtil.getUncheckedUnwrapped(cache, guildId, () -> loadRankIndex(avaire, guildId));
+        } catch (RuntimeException e) {
+            log.error("Failed to build the rank index for guild {}, error: {}", guildId, e.getMessage(), e);
+
+            return null;
+        }
+    }
+
+    /**
+     * Gets the rank index for the given guild if it is already loaded.
+     *
+     * @param guildId The ID of the guild that the rank index should be returned for.
+     * @return Either (1) the loaded rank index for the guild, or (2) <code>null</code>
+     * if the guild doesn't currently have a loaded rank index.
+     */
+    @Nullable
+    public static RankIndex getLoadedRankIndex(long guildId) {
+        return cache.getIfPresent(guildId);
+    }
+
+    /**
+     * Sets the experience for the given user in the rank index for
+     * the given guild, if the guild has a loaded rank index.
+     *
+     * @param guildId    The ID of the guild that the user is ranked in.
+     * @param userId     The ID of the user whose experience should be set.
+     * @param experience The total amount of experience the user has in the guild.
+     */
+    public static void setExperience(long guildId, long userId, long experience) {
+        RankIndex index = getLoadedRankIndex(guildId);
+        if (index != null) {
+            index.put(userId, experience);
+        }
+    }
+
+    /**
+     * Increments the experience for the given user in the rank index for the given
+     * guild, if the guild has a loaded rank index, users that isn't ranked yet
+     * will be added with the default 100 experience plus the given amount.
+     *
+     * @param guildId The ID of the guild that the user is ranked in.
+     * @param userId  The ID of the user whose experience should be incremented.
+     * @param amount  The amount of experience that should be added to the user.
+     */
+    public static void incrementExperience(long guildId, long userId, long amount) {
+        RankIndex index = getLoadedRankIndex(guildId);
+        if (index != null) {
+            index.increment(userId, amount, 100);
+        }
+    }
+
+    /**
+     * Removes the given user from the rank index for the given
+     * guild, if the guild has a loaded rank index.
+     *
+     * @param guildId The ID of the guild that the user should be removed from.
+     * @param userId  The ID of the user that should be removed.
+     */
+    public static void removeUser(long guildId, long userId) {
+        RankIndex index = getLoadedRankIndex(guildId);
+        if (index != null) {
+            index.remove(userId);
+        }
+    }
+
+    /**
+     * Fetches the global rank index, if the global rank index haven't been loaded yet, it
+     * will be built from the global experience of all the active experience records.
+     *
+     * @param avaire The main AvaIre application instance.
+     * @return Either (1) the global rank index, or (2) <code>null</code>
+     * if the global rank index failed to load.
+     */
+    @Nullable
+    @CheckReturnValue
+    public static RankIndex fetchGlobalRankIndex(AvaIre avaire) {
+        RankIndex index = globalRankIndex;
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (globalRankIndexLock) {
+            if (globalRankIndex == null) {
+                try {
+                    buildGlobalRankIndex(avaire);
+                } catch (SQLException e) {
+                    log.error("Failed to build the global rank index, error: {}", e.getMessage(), e);
+                }
+            }
+            return globalRankIndex;
+        }
+    }
+
+    /**
+     * Checks if the global rank index has been loaded.
+     *
+     * @return <code>True</code> if the global rank index is loaded, <code>False</code> otherwise.
+     */
+    public static boolean hasGlobalRankIndex() {
+        return globalRankIndex != null;
+    }
+
+    /**
+     * Rebuilds the global rank index from the database, the current index will be
+     * used until the new index has been built, after which it is replaced,
+     * rebuilding the index removes any drift caused by experience
+     * records being deactivated or reactivated.
+     * <p>
+     * Experience synced while the index is being rebuilt is still added to the current
+     * index, and is replayed onto the new index before the indexes are swapped.
+     *
+     * @param avaire The main AvaIre application instance.
+     * @throws SQLException If the experience records failed to load from the database.
+     */
+    public static void rebuildGlobalRankIndex(AvaIre avaire) throws SQLException {
+        synchronized (globalRankIndexLock) {
+            buildGlobalRankIndex(avaire);
+        }
+    }
+
+    /**
+     * Increments the global experience for the given user,
+     * if the global rank index has been loaded.
+     *
+     * @param userId The ID of the user whose global experience should be incremented.
+     * @param amount The amount of experience that should be added to the user.
+     */
+    public static void incrementGlobalExperience(long userId, long amount) {
+        globalIncrementLock.readLock().lock();
+        try {
+            RankIndex index = globalRankIndex;
+            if (index != null) {
+                index.increment(userId, amount, 100);
+            }
+
+            Map<Long, Long> pending = pendingGlobalIncrements;
+            if (pending != null) {
+                pending.merge(userId, amount, Long::sum);
+            }
+        } finally {
+            globalIncrementLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the rank index for the given guild, the index will be
+     * rebuilt from the database the next time it is fetched.
+     *
+     * @param guildId The ID of the guild that the rank index should be forgotten for.
+     */
+    public static void forgetCache(long guildId) {
+        cache.invalidate(guildId);
+    }
+
+    private static RankIndex loadRankIndex(AvaIre avaire, long guildId) throws SQLException {
+        log.debug("Rank index for guild " + guildId + " is being built");
+
+        RankIndex index = new RankIndex();
+
+        // The experience records are streamed from the database so that only the
+        // rows currently being indexed are kept in memory, for guilds that has
+        // hundreds of thousands of ranked users this prevents loading every
+        // record into a collection before they're added to the index, the records
+        // are read from the primary database since the index has to include the
+        // experience that was just written by the bot, which replicas may lag behind on.
+        avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+            .select("user_id", "experience")
+            .where("guild_id", guildId)
+            .where("active", 1)
+            .fetchSize(1000)
+            .each(row -> index.put(row.getLong("user_id"), row.getLong("experience")));
+
+        return index;
+    }
+
+    /**
+     * Builds a new global rank index from the database, and replaces the current index with it,
+     * the global experience increments made while the index is being built are recorded,
+     * and replayed onto the new index before it replaces the current index, this
+     * must only be called while holding the global rank index lock.
+     *
+     * @param avaire The main AvaIre application instance.
+     * @throws SQLException If the experience records failed to load from the database.
+     */
+    private static void buildGlobalRankIndex(AvaIre avaire) throws SQLException {
+        Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+        globalIncrementLock.writeLock().lock();
+        try {
+            pendingGlobalIncrements = pending;
+        } finally {
+            globalIncrementLock.writeLock().unlock();
+        }
+
+        RankIndex index = null;
+        try {
+            index = loadGlobalRankIndex(avaire);
+        } finally {
+            globalIncrementLock.writeLock().lock();
+            try {
+                pendingGlobalIncrements = null;
+
+                if (index != null) {
+                    for (Map.Entry<Long, Long> increment : pending.entrySet()) {
+                        index.increment(increment.getKey(), increment.getValue(), 100);
+                    }
+                    globalRankIndex = index;
+                }
+            } finally {
+                globalIncrementLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static RankIndex loadGlobalRankIndex(AvaIre avaire) throws SQLException {
+        log.debug("Global rank index is being built");
+
+        RankIndex index = new RankIndex();
+
+        // Every user starts with 100 experience in each guild, so the global experience for a
+        // user is their combined global experience from all their active records, minus the
+        // 100 starting experience for every record but one, the records are streamed and
+        // summed up as they're read instead of grouping the entire table in the query,
+        // like the guild indexes, the records are read from the primary database.
+        avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+            .select("user_id", "global_experience")
+            .where("active", 1)
+            .fetchSize(1000)
+            .each(row -> index.increment(row.getLong("user_id"), row.getLong("global_experience") - 100, 100));
+
+        return index;
+    }
+}
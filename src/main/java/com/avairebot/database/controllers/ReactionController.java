@@ -23,12 +23,13 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.transformers.ReactionTransformer;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import org.slf4j.Logger;
@@ -42,10 +43,9 @@ import java.util.concurrent.TimeUnit;
 
 public class ReactionController {
 
-    public static final Cache<Long, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, Collection> cache = CacheRegistry.register("reaction-roles", new CacheSettings()
         .expireAfterAccess(5, TimeUnit.MINUTES)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(ReactionController.class);
 
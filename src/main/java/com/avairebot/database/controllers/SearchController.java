@@ -25,26 +25,22 @@ import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.audio.TrackRequestContext;
 import com.avairebot.audio.searcher.SearchProvider;
-import com.avairebot.contracts.database.Database;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.database.collection.Collection;
+import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.transformers.SearchResultTransformer;
-import com.avairebot.language.I18n;
-import com.avairebot.scheduler.ScheduleHandler;
 import com.avairebot.time.Carbon;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Base64;
-import java.util.Collections;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 public class SearchController {
@@ -63,13 +59,12 @@ public class SearchController {
             )
         );
 
-        cache = CacheBuilder.newBuilder()
-            .recordStats()
+        cache = CacheRegistry.register("music-search-results", new CacheSettings()
             .maximumSize(AvaIre.getInstance().getConfig()
                 .getInt("audio-cache.maximum-cache-size", 1000)
             )
             .expireAfterAccess(30, TimeUnit.MINUTES)
-            .build();
+        );
     }
 
     /**
@@ -110,19 +105,17 @@ public class SearchController {
         }
 
         try {
-            Collection result = AvaIre.getInstance().getDatabase().query(
-                createSearchQueryFromContext(context, maxCacheAgeInMilis)
-            );
+            Collection result = createSearchQueryFromContext(context, maxCacheAgeInMilis).get();
 
             if (result.isEmpty()) {
                 return null;
             }
 
-            ScheduleHandler.getScheduler().submit(() -> {
+            AvaIre.getInstance().getDatabase().getExecutor().submit(() -> {
                 try {
-                    AvaIre.getInstance().getDatabase().queryUpdate(
-                        createUpdateLookupQueryFromContext(context)
-                    );
+                    createLookupQueryFromContext(context).update(statement -> {
+                        statement.set("last_lookup_at", Carbon.now().toDateTimeString());
+                    });
                 } catch (SQLException e) {
                     log.error("Something went wrong while trying to update the last lookup date for a music cache record: {}", e.getMessage(), e);
                 }
@@ -155,27 +148,12 @@ public class SearchController {
         final Carbon time = Carbon.now();
 
         try {
-            // Creates the insert query using the proper formats
-            // and prepared values replaced into the query.
-            final String query = I18n.format(
-                "INSERT INTO `{0}` (`provider`, `query`, `result`, `created_at`) " +
-                    "SELECT * FROM (SELECT {1}, {2}, {3}, {4}) AS tmp " +
-                    "WHERE NOT EXISTS (" +
-                    " SELECT `provider`, `query` FROM `{0}` WHERE `provider` = {1} AND `query` = {2}" +
-                    ") LIMIT 1;",
-                Constants.MUSIC_SEARCH_CACHE_TABLE_NAME,
-                prepareStringForQuery(String.valueOf(context.getProvider().getId())),
-                prepareStringForQuery(context.getQuery()),
-                prepareStringForQuery("base64:" + new String(
-                    Base64.getEncoder().encode(
-                        new SearchResultTransformer.SerializableAudioPlaylist(playlist)
-                            .toString().getBytes()
-                    )
-                )),
-                prepareStringForQuery(time.toString())
-            );
-
-            AvaIre.getInstance().getDatabase().queryUpdate(query);
+            createUpsertQuery().upsert(statement -> {
+                statement.set("provider", context.getProvider().getId());
+                statement.set("query", context.getQuery());
+                statement.set("result", new SearchResultTransformer.SerializableAudioPlaylist(playlist).toString(), true);
+                statement.set("created_at", time.toString());
+            });
         } catch (SQLException e) {
             log.error("Failed to create audio track record for query \"{}\" using provider {}, error: {}",
                 context.getQuery(), context.getProvider().name(), e.getMessage(), e
@@ -186,41 +164,38 @@ public class SearchController {
             return;
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
+        AvaIre.getInstance().getDatabase().getExecutor().submit(() -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+
             try {
-                AvaIre.getInstance().getDatabase().queryBatch(I18n.format(
-                    "INSERT INTO `{0}` (`provider`, `query`, `result`, `created_at`) " +
-                        "SELECT * FROM (SELECT ?, ?, ?, ?) AS tmp " +
-                        "WHERE NOT EXISTS (" +
-                        " SELECT `provider`, `query` FROM `{0}` WHERE `provider` = ? AND `query` = ?" +
-                        ") LIMIT 1;",
-                    Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
-                ), (PreparedStatement statement) -> {
-                    for (AudioTrack track : playlist.getTracks()) {
-                        BasicAudioPlaylist audioPlaylist = new BasicAudioPlaylist(
-                            track.getInfo().title,
-                            Collections.singletonList(track),
-                            null,
-                            false
-                        );
-
-                        String serializedAudioPlaylist = new SearchResultTransformer.SerializableAudioPlaylist(audioPlaylist).toString();
-
-                        // Sets the search provider
-                        statement.setInt(1, SearchProvider.URL.getId());
-                        statement.setInt(5, SearchProvider.URL.getId());
-                        // Sets the search query
-                        statement.setString(2, track.getInfo().uri);
-                        statement.setString(6, track.getInfo().uri);
-
-                        statement.setString(3, "base64:" + new String(
-                            Base64.getEncoder().encode(serializedAudioPlaylist.getBytes())
-                        ));
-                        statement.setString(4, time.toString());
-
-                        statement.addBatch();
+                for (AudioTrack track : playlist.getTracks()) {
+                    BasicAudioPlaylist audioPlaylist = new BasicAudioPlaylist(
+                        track.getInfo().title,
+                        Collections.singletonList(track),
+                        null,
+                        false
+                    );
+
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("provider", SearchProvider.URL.getId());
+                    row.put("query", track.getInfo().uri);
+                    row.put("result", "base64:" + new String(
+                        Base64.getEncoder().encode(
+                            new SearchResultTransformer.SerializableAudioPlaylist(audioPlaylist).toString().getBytes()
+                        )
+                    ));
+                    row.put("created_at", time.toString());
+                    rows.add(row);
+
+                    // Each track result can be pretty big, so the rows are written in chunks to
+                    // keep the size of each multi-row statement within the packet limits.
+                    if (rows.size() >= 50) {
+                        createUpsertQuery().upsert(rows);
+                        rows.clear();
                     }
-                });
+                }
+
+                createUpsertQuery().upsert(rows);
             } catch (SQLException e) {
                 log.error("Failed to batch create {} audio tracks for query \"{}\" using provider {}, error: {}",
                     playlist.getTracks().size(), context.getQuery(), context.getProvider().name(), e.getMessage(), e
@@ -229,54 +204,28 @@ public class SearchController {
         });
     }
 
-    @SuppressWarnings("StringBufferReplaceableByString")
-    private static String createUpdateLookupQueryFromContext(TrackRequestContext context) throws SQLException {
-        StringBuilder updateQuery = new StringBuilder(StringUtils.chop(
-            AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME)
-                .toSQL(Database.QueryType.UPDATE)
-        ));
-
-        updateQuery
-            .append(" `last_lookup_at` = ")
-            .append(prepareStringForQuery(Carbon.now().toDateTimeString()));
-
-        updateQuery
-            .append(" WHERE `provider` = ")
-            .append(prepareStringForQuery(String.valueOf(context.getProvider().getId())));
-
-        updateQuery
-            .append(" AND `query` = ")
-            .append(prepareStringForQuery(context.getProvider().isSearchable()
-                ? context.getQuery().toLowerCase().trim()
-                : context.getQuery()
-            ));
-
-        return updateQuery.toString();
+    private static QueryBuilder createUpsertQuery() {
+        return AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME)
+            .onConflict("provider", "query")
+            .onConflictUpdate();
     }
 
-    @SuppressWarnings("ConstantConditions")
-    private static String createSearchQueryFromContext(TrackRequestContext context, long maxCacheAgeInMilis) throws SQLException {
-        String base = AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME)
+    private static QueryBuilder createLookupQueryFromContext(TrackRequestContext context) {
+        return AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.MUSIC_SEARCH_CACHE_TABLE_NAME)
             .where("provider", context.getProvider().getId())
-            .toSQL();
-
-        StringBuilder query = new StringBuilder(StringUtils.chop(base))
-            .append(" AND `query` = ")
-            .append(prepareStringForQuery(context.getProvider().isSearchable()
+            .where("query", context.getProvider().isSearchable()
                 ? context.getQuery().toLowerCase().trim()
                 : context.getQuery()
-            ));
+            );
+    }
+
+    private static QueryBuilder createSearchQueryFromContext(TrackRequestContext context, long maxCacheAgeInMilis) {
+        QueryBuilder query = createLookupQueryFromContext(context);
 
         if (maxCacheAgeInMilis > 0) {
-            query
-                .append(" AND `last_lookup_at` > ")
-                .append((Carbon.now().getTimestamp() * 1000L) - maxCacheAgeInMilis);
+            query.where("last_lookup_at", ">", (Carbon.now().getTimestamp() * 1000L) - maxCacheAgeInMilis);
         }
 
-        return query.toString();
-    }
-
-    private static String prepareStringForQuery(String str) throws SQLException {
-        return AvaIre.getInstance().getDatabase().getConnection().prepareDataValueString(str);
+        return query;
     }
 }
@@ -92,6 +92,12 @@ public class Insert extends InsertGrammar {
                     continue;
                 }
 
+                if (isParameterized()) {
+                    addPart("%s, ", addNumericBinding(value));
+
+                    continue;
+                }
+
                 if (isNumeric(value)) {
                     addPart(String.format("%s, ", value));
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.grammar.mysql;
+
+import com.avairebot.database.query.QueryBuilder;
+
+import java.util.List;
+
+public class Upsert extends Insert {
+
+    @Override
+    protected String finalize(QueryBuilder builder) {
+        addPart(" ON DUPLICATE KEY UPDATE");
+
+        List<String> columns = getConflictUpdateColumns(builder);
+        if (columns.isEmpty()) {
+            // MySQL doesn't have a "do nothing" clause, so instead we just assign
+            // one of the conflict keys to itself, leaving the row untouched.
+            String field = formatField(builder.getConflictKeys().isEmpty()
+                ? keyset.get(0) : builder.getConflictKeys().get(0)
+            );
+
+            addPart(" %s = %s", field, field);
+
+            return super.finalize(builder);
+        }
+
+        for (String column : columns) {
+            addPart(" %s = VALUES(%s),", formatField(column), formatField(column));
+        }
+        removeLast(1);
+
+        return super.finalize(builder);
+    }
+}
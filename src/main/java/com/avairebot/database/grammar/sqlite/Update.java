@@ -87,6 +87,12 @@ public class Update extends UpdateGrammar {
                     continue;
                 }
 
+                if (isParameterized()) {
+                    addPart(" %s = %s, ", formatKey, addBinding(value));
+
+                    continue;
+                }
+
                 addPart(String.format("%s = '%s', ", formatKey, value.replaceAll("'", "\'")));
             }
 
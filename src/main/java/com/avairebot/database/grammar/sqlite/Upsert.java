@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.grammar.sqlite;
+
+import com.avairebot.database.exceptions.DatabaseException;
+import com.avairebot.database.query.QueryBuilder;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+public class Upsert extends Insert {
+
+    @Override
+    protected String finalize(QueryBuilder builder) {
+        List<String> columns = getConflictUpdateColumns(builder);
+
+        if (builder.getConflictKeys().isEmpty()) {
+            if (!columns.isEmpty()) {
+                throw new DatabaseException("SQLite upsert queries requires conflict keys to update existing rows.");
+            }
+
+            addPart(" ON CONFLICT DO NOTHING");
+
+            return super.finalize(builder);
+        }
+
+        StringJoiner keys = new StringJoiner(", ");
+        for (String key : builder.getConflictKeys()) {
+            keys.add(formatField(key));
+        }
+        addPart(" ON CONFLICT (%s)", keys);
+
+        if (columns.isEmpty()) {
+            addPart(" DO NOTHING");
+
+            return super.finalize(builder);
+        }
+
+        addPart(" DO UPDATE SET");
+        for (String column : columns) {
+            addPart(" %s = excluded.%s,", formatField(column), formatField(column));
+        }
+        removeLast(1);
+
+        return super.finalize(builder);
+    }
+}
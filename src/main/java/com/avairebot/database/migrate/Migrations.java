@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Migrations {
 
@@ -47,7 +48,7 @@ public class Migrations {
     public Migrations(DatabaseManager dbm) {
         this.dbm = dbm;
 
-        this.migrations = new ArrayList<>();
+        this.migrations = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -59,7 +60,7 @@ public class Migrations {
      * @param migration the list of migrations that should be registered
      * @see com.avairebot.contracts.database.migrations.Migration
      */
-    public void register(Migration... migration) {
+    public synchronized void register(Migration... migration) {
         ENTIRE_LOOP:
         for (Migration migrate : migration) {
             for (MigrationContainer container : migrations) {
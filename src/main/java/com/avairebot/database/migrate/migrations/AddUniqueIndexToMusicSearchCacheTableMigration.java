@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.migrate.migrations;
+
+import com.avairebot.Constants;
+import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.schema.Schema;
+
+import java.sql.SQLException;
+
+public class AddUniqueIndexToMusicSearchCacheTableMigration implements Migration {
+
+    @Override
+    public String created_at() {
+        return "Sat, Oct 17, 2026 10:12 AM";
+    }
+
+    @Override
+    public boolean up(Schema schema) throws SQLException {
+        // MySQL already has a primary key on the provider and query columns,
+        // SQLite needs a unique index on the same columns so upsert
+        // queries can detect conflicts for existing records.
+        if (schema.getDbm().getConnection() instanceof MySQL) {
+            return true;
+        }
+
+        schema.getDbm().queryUpdate(String.format(
+            "DELETE FROM `%s` WHERE `rowid` NOT IN (SELECT MIN(`rowid`) FROM `%s` GROUP BY `provider`, `query`);",
+            Constants.MUSIC_SEARCH_CACHE_TABLE_NAME, Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+        ));
+
+        schema.getDbm().queryUpdate(String.format(
+            "CREATE UNIQUE INDEX IF NOT EXISTS `%s_provider_query_unique` ON `%s` (`provider`, `query`);",
+            Constants.MUSIC_SEARCH_CACHE_TABLE_NAME, Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+        ));
+
+        return true;
+    }
+
+    @Override
+    public boolean down(Schema schema) throws SQLException {
+        if (schema.getDbm().getConnection() instanceof MySQL) {
+            return true;
+        }
+
+        schema.getDbm().queryUpdate(String.format(
+            "DROP INDEX IF EXISTS `%s_provider_query_unique`;",
+            Constants.MUSIC_SEARCH_CACHE_TABLE_NAME
+        ));
+
+        return true;
+    }
+}
@@ -26,6 +26,7 @@ import com.avairebot.contracts.database.migrations.Migration;
 import com.avairebot.database.connections.MySQL;
 import com.avairebot.database.schema.Schema;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 
 public class CreateMusicPlaylistsTableMigration implements Migration {
@@ -37,7 +38,10 @@ public class CreateMusicPlaylistsTableMigration implements Migration {
 
     @Override
     public boolean up(Schema schema) throws SQLException {
-        boolean isMySQL = schema.getDbm().getConnection().getConnection() instanceof MySQL;
+        boolean isMySQL;
+        try (Connection connection = schema.getDbm().getConnection().getConnection()) {
+            isMySQL = connection instanceof MySQL;
+        }
 
         return schema.createIfNotExists(Constants.MUSIC_PLAYLIST_TABLE_NAME, table -> {
             table.Increments("id");
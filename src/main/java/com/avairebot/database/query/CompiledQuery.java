@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+public class CompiledQuery {
+
+    /**
+     * The SQL query with placeholders(?) in place of all the
+     * values, this is the shape of the query, queries with
+     * the same shape can re-use the same statements.
+     */
+    private final String query;
+
+    /**
+     * The list of values that should be bound to the placeholders
+     * in the query, in the same order they appear in the query.
+     */
+    private final List<Object> bindings;
+
+    /**
+     * Creates a new compiled query with the provided query and bindings.
+     *
+     * @param query    The SQL query with placeholders in place of the values
+     * @param bindings The values that should be bound to the placeholders
+     */
+    public CompiledQuery(String query, List<Object> bindings) {
+        this.query = query;
+        this.bindings = Collections.unmodifiableList(bindings);
+    }
+
+    /**
+     * Gets the SQL query with placeholders in place of the values.
+     *
+     * @return The SQL query with placeholders in place of the values.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the list of values that should be bound to the placeholders in the query.
+     *
+     * @return The list of values that should be bound to the placeholders in the query.
+     */
+    public List<Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Binds all the values to the placeholders in the given prepared statement,
+     * the prepared statement should be created using the compiled query.
+     *
+     * @param statement The prepared statement the values should be bound to
+     * @throws SQLException if a database access error occurs, or
+     *                      this method is called on a closed <code>PreparedStatement</code>
+     */
+    public void bind(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < bindings.size(); i++) {
+            statement.setObject(i + 1, bindings.get(i));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s", query, bindings);
+    }
+}
@@ -21,18 +21,21 @@
 
 package com.avairebot.database.query;
 
-import com.avairebot.contracts.database.Database;
 import com.avairebot.contracts.database.Database.QueryType;
 import com.avairebot.contracts.database.QueryClause;
 import com.avairebot.contracts.database.query.ChangeableClosure;
+import com.avairebot.contracts.database.query.ChunkClosure;
 import com.avairebot.contracts.database.query.ClauseConsumer;
+import com.avairebot.contracts.database.query.RowClosure;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.Transaction;
 import com.avairebot.database.collection.Collection;
-import com.avairebot.scheduler.ScheduleHandler;
+import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.exceptions.DatabaseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
+import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -71,6 +74,27 @@ public final class QueryBuilder {
      */
     private final List<Map<String, Object>> items = new ArrayList<>();
 
+    /**
+     * The amount of rows that should be fetched from the database at a time when the
+     * query is read using a cursor, if the value is set to -1 the default fetch size
+     * from the config will be used instead.
+     */
+    private int fetchSize = -1;
+
+    /**
+     * The list of columns that makes up the unique key that should be used to detect
+     * conflicts for upsert queries, the keys are only required by SQLite, MySQL
+     * will use any primary or unique key on the table instead.
+     */
+    private final List<String> conflictKeys = new ArrayList<>();
+
+    /**
+     * The list of columns that should be updated when an upsert query runs into an
+     * existing row, if the value is set to <code>NULL</code> all the inserted
+     * columns that are not part of the conflict keys will be updated.
+     */
+    private List<String> conflictUpdates = null;
+
     /**
      * The query type that's being preformed.
      */
@@ -99,6 +123,18 @@ public final class QueryBuilder {
      */
     private boolean async = false;
 
+    /**
+     * Determines if the query should be sent to a read replica, if no healthy
+     * read replicas are available the primary database is used instead.
+     */
+    private boolean replica = false;
+
+    /**
+     * The transaction the query should be sent through, if the value is set
+     * to <code>NULL</code> the query is sent through the database manager.
+     */
+    private Transaction transaction = null;
+
     /**
      * Creates a new Query Builder instance.
      *
@@ -265,6 +301,80 @@ public final class QueryBuilder {
         return skip;
     }
 
+    /**
+     * Sets the amount of rows that should be fetched from the database
+     * at a time when the query is read using a cursor, through the
+     * {@link #chunk(int, ChunkClosure) chunk} or {@link #each(RowClosure) each} methods.
+     *
+     * @param fetchSize The amount of rows to fetch at a time
+     * @return the query builder instance.
+     */
+    public QueryBuilder fetchSize(int fetchSize) {
+        this.fetchSize = Math.max(fetchSize, 1);
+
+        return this;
+    }
+
+    /**
+     * Gets the amount of rows that should be fetched from the database at a time when
+     * the query is read using a cursor, if the value is -1 it should be ignored.
+     *
+     * @return the fetch size.
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the columns that makes up the unique key that should be used to detect
+     * conflicts when the query is run as an {@link #upsert(Map[]) upsert} query.
+     *
+     * @param keys The columns that makes up the unique key.
+     * @return the query builder instance.
+     */
+    public QueryBuilder onConflict(String... keys) {
+        conflictKeys.clear();
+        conflictKeys.addAll(Arrays.asList(keys));
+
+        return this;
+    }
+
+    /**
+     * Gets the list of columns that makes up the unique
+     * key used to detect conflicts for upsert queries.
+     *
+     * @return the list of conflict keys.
+     */
+    public List<String> getConflictKeys() {
+        return conflictKeys;
+    }
+
+    /**
+     * Sets the columns that should be updated with the inserted values when an
+     * {@link #upsert(Map[]) upsert} query runs into an existing row, if no
+     * columns are given the existing row will be left untouched.
+     *
+     * @param columns The columns that should be updated on conflict.
+     * @return the query builder instance.
+     */
+    public QueryBuilder onConflictUpdate(String... columns) {
+        conflictUpdates = new ArrayList<>(Arrays.asList(columns));
+
+        return this;
+    }
+
+    /**
+     * Gets the list of columns that should be updated when an upsert query runs into an existing
+     * row, if the value is <code>NULL</code> it should be ignored by the grammar generator.
+     *
+     * @return either (1) the list of columns that should be updated on conflict
+     *         or (2) <code>NULL</code> if no update columns has been set.
+     */
+    @Nullable
+    public List<String> getConflictUpdates() {
+        return conflictUpdates;
+    }
+
     /**
      * Sets the amount of rows to take using the SQL <code>LIMIT</code>.
      *
@@ -720,6 +830,57 @@ public final class QueryBuilder {
         return this;
     }
 
+    /**
+     * Sets the read replica status for the query, if replica is set to true the query will be sent to
+     * one of the configured read replicas, only <code>select</code> queries are sent to replicas,
+     * replicas can lag behind the primary database, so queries reading data that was just
+     * written should not use a replica.
+     *
+     * @param replica The query read replica value.
+     * @return the query builder instance.
+     */
+    public QueryBuilder useReplica(boolean replica) {
+        this.replica = replica;
+
+        return this;
+    }
+
+    /**
+     * Checks if the query should be sent to a read replica, queries that
+     * are part of a transaction are never sent to a read replica.
+     *
+     * @return either (1) <code>TRUE</code> if the query should be sent to a read replica
+     *         or (2) <code>FALSE</code> if the query should be sent to the primary database.
+     */
+    public boolean isUsingReplica() {
+        return replica && transaction == null;
+    }
+
+    /**
+     * Binds the query to the given transaction, every query run through the query builder will
+     * be sent on the connection of the transaction, async queries are run right away on
+     * the calling thread instead, since they would otherwise leave the transaction.
+     *
+     * @param transaction The transaction the query should be sent through.
+     * @return the query builder instance.
+     */
+    public QueryBuilder useTransaction(@Nullable Transaction transaction) {
+        this.transaction = transaction;
+
+        return this;
+    }
+
+    /**
+     * Gets the transaction the query is bound to.
+     *
+     * @return either (1) the transaction the query is bound to
+     *         or (2) <code>NULL</code> if the query is sent through the database manager.
+     */
+    @Nullable
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
     /**
      * Creates the grammar instance and builds the SQL query, if an error occurs
      * while building the query <code>NULL</code> will be returned instead.
@@ -734,9 +895,13 @@ public final class QueryBuilder {
     /**
      * Creates the grammar instance and builds the SQL query using the given query type, if an
      * error occurs while building the query <code>NULL</code> will be returned instead.
+     * <p>
+     * Upsert queries can only be built as parameterized queries, use
+     * {@link #compile(QueryType)} to build upsert queries instead.
      *
      * @return either (1) the generated SQL query
      *         or (2) <code>NULL</code> if an error occurred.
+     * @throws DatabaseException if the given query type is {@link QueryType#UPSERT UPSERT}.
      */
     public String toSQL(QueryType type) {
         try {
@@ -749,6 +914,8 @@ public final class QueryBuilder {
                     return dbm.getConnection().update(dbm, this, null);
                 case DELETE:
                     return dbm.getConnection().delete(dbm, this, null);
+                case UPSERT:
+                    throw new DatabaseException("Upsert queries can't be built as plain SQL queries, use compile() to build a parameterized query instead.");
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -757,7 +924,36 @@ public final class QueryBuilder {
     }
 
     /**
-     * Runs the {@link Database#query(String)} method with the generated query.
+     * Creates the grammar instance and compiles the query builder into a parameterized
+     * query, using placeholders in place of all the values, if an error occurs
+     * while compiling the query <code>NULL</code> will be returned instead.
+     *
+     * @return either (1) the compiled query
+     *         or (2) <code>NULL</code> if an error occurred.
+     */
+    public CompiledQuery compile() {
+        return compile(type);
+    }
+
+    /**
+     * Creates the grammar instance and compiles the query builder into a parameterized query
+     * using the given query type, using placeholders in place of all the values, if an
+     * error occurs while compiling the query <code>NULL</code> will be returned instead.
+     *
+     * @return either (1) the compiled query
+     *         or (2) <code>NULL</code> if an error occurred.
+     */
+    public CompiledQuery compile(QueryType type) {
+        try {
+            return dbm.getConnection().compile(dbm, this, type);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Runs the {@link DatabaseManager#query(QueryBuilder)} method with the compiled query.
      *
      * @return a <code>Collection</code> object that contains the data produced
      *         by the given query; never <code>null</code>@exception
@@ -768,16 +964,47 @@ public final class QueryBuilder {
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
     public Collection get() throws SQLException {
-        String query = toSQL();
+        if (transaction != null) {
+            return transaction.query(this);
+        }
+        return dbm.query(this);
+    }
 
-        log.debug("QueryBuilder#get() was called with the following SQL query.\nSQL: " + query);
-        MDC.put("query", query);
+    /**
+     * Runs the {@link DatabaseManager#queryChunk(QueryBuilder, int, ChunkClosure)} method with the
+     * compiled query, reading the result using a forward-only cursor and passing the rows to
+     * the closure in chunks of the given size, only a single chunk is kept in memory at a time.
+     *
+     * @param size    The maximum amount of rows in each chunk.
+     * @param closure The closure that should be called with each chunk.
+     * @throws SQLException if a database access error occurs,
+     *                      this method is called on a closed <code>Statement</code>, or
+     *                      the chunk closure throws an exception
+     */
+    public void chunk(int size, ChunkClosure closure) throws SQLException {
+        type = QueryType.SELECT;
 
-        // Note: When parsing the result to a collection, we can't use the DBM query method since it auto closes the result,
-        // and the collection still needs to communicated with the result set to get meta data so it can build the keysets
-        // for the column names, this isn't possible if we close the result before parsing it to the collection, instead
-        // we use the direct connection and have the collection close the connection instead.
-        return new Collection(dbm.getConnection().query(query));
+        dbm.queryChunk(this, size, closure);
+    }
+
+    /**
+     * Reads the result using a forward-only cursor, passing the rows to the closure one at a
+     * time, the rows are read from the database in chunks of the fetch size, so only
+     * a single chunk of the result is kept in memory at a time.
+     *
+     * @param closure The closure that should be called with each row.
+     * @throws SQLException if a database access error occurs,
+     *                      this method is called on a closed <code>Statement</code>, or
+     *                      the row closure throws an exception
+     */
+    public void each(RowClosure closure) throws SQLException {
+        type = QueryType.SELECT;
+
+        dbm.queryChunk(this, 0, chunk -> {
+            for (DataRow row : chunk) {
+                closure.run(row);
+            }
+        });
     }
 
     /**
@@ -799,11 +1026,11 @@ public final class QueryBuilder {
 
         this.items.addAll(Collections.singletonList(statement.getItems()));
 
-        if (!async) {
-            return dbm.queryUpdate(this);
+        if (!isAsync()) {
+            return runUpdateQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
+        dbm.getExecutor().submit(() -> {
             try {
                 dbm.queryUpdate(this);
             } catch (SQLException e) {
@@ -845,11 +1072,11 @@ public final class QueryBuilder {
 
         this.items.addAll(Arrays.asList(items));
 
-        if (!async) {
-            return dbm.queryUpdate(this);
+        if (!isAsync()) {
+            return runUpdateQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
+        dbm.getExecutor().submit(() -> {
             try {
                 dbm.queryUpdate(this);
             } catch (SQLException e) {
@@ -878,11 +1105,11 @@ public final class QueryBuilder {
 
         this.items.addAll(Collections.singletonList(statement.getItems()));
 
-        if (!async) {
+        if (!isAsync()) {
             return runInsertQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
+        dbm.getExecutor().submit(() -> {
             try {
                 dbm.queryInsert(this);
             } catch (SQLException e) {
@@ -922,11 +1149,11 @@ public final class QueryBuilder {
 
         this.items.addAll(Arrays.asList(items));
 
-        if (!async) {
+        if (!isAsync()) {
             return runInsertQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
+        dbm.getExecutor().submit(() -> {
             try {
                 dbm.queryInsert(this);
             } catch (SQLException e) {
@@ -937,6 +1164,81 @@ public final class QueryBuilder {
         return new Collection();
     }
 
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder)} method as an
+     * upsert query with the current instance of the query builder, and the given items from
+     * the changeable closure, rows that already exists will be updated instead.
+     *
+     * @param closure The changeable closure that should be run.
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     *         or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int upsert(ChangeableClosure closure) throws SQLException {
+        ChangeableStatement statement = new ChangeableStatement(this);
+        closure.run(statement);
+
+        return upsert(Collections.singletonList(statement.getItems()));
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder)} method as an
+     * upsert query with the current instance of the query builder, all the given items are
+     * written using a single multi-row statement, rows that already exists, detected
+     * using the {@link #onConflict(String...) conflict keys}, will be updated
+     * with the {@link #onConflictUpdate(String...) update columns} instead.
+     *
+     * @param items The map of items that should be inserted or updated
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     *         or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int upsert(Map<String, Object>... items) throws SQLException {
+        return upsert(Arrays.asList(items));
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder)} method as an
+     * upsert query with the current instance of the query builder, all the given items are
+     * written using a single multi-row statement, rows that already exists, detected
+     * using the {@link #onConflict(String...) conflict keys}, will be updated
+     * with the {@link #onConflictUpdate(String...) update columns} instead.
+     *
+     * @param items The list of item maps that should be inserted or updated
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     *         or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int upsert(List<Map<String, Object>> items) throws SQLException {
+        type = QueryType.UPSERT;
+
+        this.items.addAll(items);
+
+        if (this.items.isEmpty()) {
+            return 0;
+        }
+
+        if (!isAsync()) {
+            return runUpdateQuery();
+        }
+
+        dbm.getExecutor().submit(() -> {
+            try {
+                dbm.queryUpdate(this);
+            } catch (SQLException e) {
+                log.error("Error thrown during async upsert query: " + compile(), e);
+            }
+        });
+
+        return 0;
+    }
+
     /**
      * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder) }
      * method with the current instance of the query builder.
@@ -950,11 +1252,11 @@ public final class QueryBuilder {
     public int delete() throws SQLException {
         type = QueryType.DELETE;
 
-        if (!async) {
-            return dbm.queryUpdate(this);
+        if (!isAsync()) {
+            return runUpdateQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
+        dbm.getExecutor().submit(() -> {
             try {
                 dbm.queryUpdate(this);
             } catch (SQLException e) {
@@ -985,6 +1287,34 @@ public final class QueryBuilder {
         return map;
     }
 
+    /**
+     * Checks if the query should be run async, queries that are bound to a
+     * transaction are never run async, since they must be sent on
+     * the transaction connection before it's committed.
+     *
+     * @return {@code True} if the query should be run async, {@code False} otherwise.
+     */
+    private boolean isAsync() {
+        return async && transaction == null;
+    }
+
+    /**
+     * Runs the update query, either through the transaction the
+     * query is bound to, or through the database manager.
+     *
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     *         or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    private int runUpdateQuery() throws SQLException {
+        if (transaction != null) {
+            return transaction.queryUpdate(this);
+        }
+        return dbm.queryUpdate(this);
+    }
+
     /**
      * Runs the insert query and builds a collection of IDs for
      * all the new rows that was created by the query.
@@ -995,7 +1325,9 @@ public final class QueryBuilder {
      *                      or the SQL statement returns a <code>ResultSet</code> object
      */
     private Collection runInsertQuery() throws SQLException {
-        Set<Integer> keys = dbm.queryInsert(this);
+        Set<Integer> keys = transaction != null
+            ? transaction.queryInsert(this)
+            : dbm.queryInsert(this);
         List<Map<String, Object>> collectionItems = new ArrayList<>();
 
         for (int id : keys) {
@@ -27,10 +27,7 @@ import com.avairebot.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.DatabaseMetaData;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -86,7 +83,10 @@ public class Schema {
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
     public boolean hasColumn(String table, String column) throws SQLException {
-        return getMetaData().getColumns(null, null, table, column).next();
+        try (Connection connection = dbm.getConnection().getConnection();
+             ResultSet columns = connection.getMetaData().getColumns(null, null, table, column)) {
+            return columns.next();
+        }
     }
 
     /**
@@ -107,15 +107,10 @@ public class Schema {
         Map<String, Boolean> options = new HashMap<>();
         options.put("ignoreExistingTable", true);
         String query = dbm.getConnection().create(dbm, blueprint, options);
-        Statement stmt = dbm.getConnection().prepare(query);
 
         log.debug("Schema create was called with: {}", query);
 
-        if (stmt instanceof PreparedStatement) {
-            return !((PreparedStatement) stmt).execute();
-        }
-
-        return !stmt.execute(query);
+        return executeStatement(query);
     }
 
     /**
@@ -139,15 +134,10 @@ public class Schema {
         Map<String, Boolean> options = new HashMap<>();
         options.put("ignoreExistingTable", false);
         String query = dbm.getConnection().create(dbm, blueprint, options);
-        Statement stmt = dbm.getConnection().prepare(query);
 
         log.debug("Schema createIfNotExists was called with: {}", query);
 
-        if (stmt instanceof PreparedStatement) {
-            return !((PreparedStatement) stmt).execute();
-        }
-
-        return !stmt.execute(query);
+        return executeStatement(query);
     }
 
     /**
@@ -258,9 +248,10 @@ public class Schema {
     public boolean alterQuery(String query) throws SQLException {
         log.debug("alertQuery(String query) was called with the following SQL query.\nSQL: " + query);
 
-        Statement stmt = dbm.getConnection().getConnection().createStatement();
-
-        return !stmt.execute(query);
+        try (Connection connection = dbm.getConnection().getConnection();
+             Statement stmt = connection.createStatement()) {
+            return !stmt.execute(query);
+        }
     }
 
     /**
@@ -276,12 +267,19 @@ public class Schema {
     }
 
     /**
-     * Gets the database meta data object from the default database connection.
+     * Prepares and executes the given query using a connection borrowed from
+     * the connection pool, the connection is returned to the pool again
+     * once the query has finished executing.
      *
-     * @return The database meta data object.
-     * @throws SQLException
+     * @param query The query that should be executed
+     * @return <code>TRUE</code> if the query didn't produce a result set, <code>FALSE</code> otherwise.
+     * @throws SQLException if a database access error occurs, or the
+     *                      query fails to execute
      */
-    private DatabaseMetaData getMetaData() throws SQLException {
-        return dbm.getConnection().getConnection().getMetaData();
+    private boolean executeStatement(String query) throws SQLException {
+        try (Connection connection = dbm.getConnection().getConnection();
+             PreparedStatement stmt = dbm.getConnection().prepare(connection, query)) {
+            return !stmt.execute();
+        }
     }
 }
@@ -26,6 +26,7 @@ import com.avairebot.audio.DJGuildLevel;
 import com.avairebot.contracts.database.transformers.Transformer;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.utilities.NumberUtil;
+import com.google.common.base.Suppliers;
 import com.google.gson.internal.LinkedTreeMap;
 import com.google.gson.reflect.TypeToken;
 import net.dv8tion.jda.api.entities.Guild;
@@ -33,27 +34,44 @@ import net.dv8tion.jda.api.entities.TextChannel;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class GuildTransformer extends Transformer {
 
     private static final GuildTypeTransformer partnerTypeTransformer = new PartnerGuildTypeTransformer();
 
-    private final Map<String, String> aliases = new HashMap<>();
-    private final Map<String, String> prefixes = new HashMap<>();
-    private final Map<String, String> selfAssignableRoles = new HashMap<>();
-    private final Map<Integer, String> levelRoles = new HashMap<>();
-    private final Map<String, Map<String, String>> modules = new HashMap<>();
-
-    private final List<ChannelTransformer> channels = new ArrayList<>();
-    private final List<String> badWordsExact = new ArrayList<>();
-    private final List<String> badWordsWildcard = new ArrayList<>();
-
-    private final List<String> piaWordsExact = new ArrayList<>();
-    private final List<String> piaWordsWildcard = new ArrayList<>();
-
-    private final Set<Long> levelExemptChannels = new HashSet<>();
-    private final Set<Long> levelExemptRoles = new HashSet<>();
+    private static final Type stringMapType = new TypeToken<HashMap<String, String>>() {
+    }.getType();
+    private static final Type stringListType = new TypeToken<ArrayList<String>>() {
+    }.getType();
+    private static final Type modulesType = new TypeToken<HashMap<String, Map<String, String>>>() {
+    }.getType();
+    private static final Type channelsType = new TypeToken<HashMap<String, Object>>() {
+    }.getType();
+
+    // The JSON columns are only decoded the first time they're used, most guilds are loaded
+    // into the cache just to check a prefix or a channel, so decoding every single column
+    // up front would waste a lot of time on data that is never looked at.
+    private final Supplier<Map<String, String>> aliases;
+    private final Supplier<Map<String, String>> prefixes;
+    private final Supplier<Map<String, String>> selfAssignableRoles;
+    private final Supplier<Map<Integer, String>> levelRoles;
+    private final Supplier<Map<String, Map<String, String>>> modules;
+
+    private final Supplier<Map<String, ChannelTransformer>> channels;
+    private final Supplier<List<String>> badWordsExact;
+    private final Supplier<List<String>> badWordsWildcard;
+
+    private final Supplier<List<String>> piaWordsExact;
+    private final Supplier<List<String>> piaWordsWildcard;
+
+    private final Supplier<Set<Long>> levelExemptChannels;
+    private final Supplier<Set<Long>> levelExemptRoles;
 
     private final GuildTypeTransformer guildType;
     private boolean partner;
@@ -93,6 +111,19 @@ public class GuildTransformer extends Transformer {
 
         partner = guild.getRegion().isVip();
         guildType = partner ? partnerTypeTransformer : new GuildTypeTransformer(data);
+
+        aliases = lazy(null, GuildTransformer::decodeLowercaseKeys);
+        prefixes = lazy(null, GuildTransformer::decodeLowercaseKeys);
+        selfAssignableRoles = lazy(null, GuildTransformer::decodeLowercaseValues);
+        levelRoles = lazy(null, GuildTransformer::decodeLevelRoles);
+        modules = lazy(null, GuildTransformer::decodeModules);
+        channels = lazy(null, this::decodeChannels);
+        badWordsExact = lazy(null, GuildTransformer::decodeList);
+        badWordsWildcard = lazy(null, GuildTransformer::decodeList);
+        piaWordsExact = lazy(null, GuildTransformer::decodeList);
+        piaWordsWildcard = lazy(null, GuildTransformer::decodeList);
+        levelExemptChannels = lazy(null, GuildTransformer::decodeIdSet);
+        levelExemptRoles = lazy(null, GuildTransformer::decodeIdSet);
     }
 
     public GuildTransformer(Guild guild, DataRow data) {
@@ -137,144 +168,23 @@ public class GuildTransformer extends Transformer {
             if (!partner) {
                 partner = data.getBoolean("partner", false);
             }
-
-            if (data.getString("aliases", null) != null) {
-                HashMap<String, String> dbAliases = AvaIre.gson.fromJson(
-                    data.getString("aliases"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbAliases.entrySet()) {
-                    aliases.put(item.getKey().toLowerCase(), item.getValue());
-                }
-            }
-
-            if (data.getString("filter_exact", null) != null) {
-                ArrayList<String> dbFilter = AvaIre.gson.fromJson(
-                    data.getString("filter_exact"),
-                    new TypeToken<ArrayList<String>>(){}.getType());
-
-                badWordsExact.addAll(dbFilter);
-            }
-            if (data.getString("filter_wildcard", null) != null) {
-                ArrayList<String> dbFilter = AvaIre.gson.fromJson(
-                    data.getString("filter_wildcard"),
-                    new TypeToken<ArrayList<String>>(){}.getType());
-
-                badWordsWildcard.addAll(dbFilter);
-            }
-
-            if (data.getString("piaf_exact", null) != null) {
-                ArrayList<String> dbFilter = AvaIre.gson.fromJson(
-                    data.getString("piaf_exact"),
-                    new TypeToken<ArrayList<String>>(){}.getType());
-
-                piaWordsExact.addAll(dbFilter);
-            }
-            if (data.getString("piaf_wildcard", null) != null) {
-                ArrayList<String> dbFilter = AvaIre.gson.fromJson(
-                    data.getString("piaf_wildcard"),
-                    new TypeToken<ArrayList<String>>(){}.getType());
-
-                piaWordsWildcard.addAll(dbFilter);
-            }
-
-            if (data.getString("prefixes", null) != null) {
-                HashMap<String, String> dbPrefixes = AvaIre.gson.fromJson(
-                    data.getString("prefixes"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbPrefixes.entrySet()) {
-                    prefixes.put(item.getKey().toLowerCase(), item.getValue());
-                }
-            }
-
-            if (data.getString("claimable_roles", null) != null) {
-                HashMap<String, String> dbSelfAssignableRoles = AvaIre.gson.fromJson(
-                    data.getString("claimable_roles"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbSelfAssignableRoles.entrySet()) {
-                    selfAssignableRoles.put(item.getKey(), item.getValue().toLowerCase());
-                }
-            }
-
-            if (data.getString("level_roles", null) != null) {
-                HashMap<String, String> dbLevelRoles = AvaIre.gson.fromJson(
-                    data.getString("level_roles"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbLevelRoles.entrySet()) {
-                    levelRoles.put(NumberUtil.parseInt(item.getKey(), -1), item.getValue().toLowerCase());
-                }
-            }
-
-            if (data.getString("level_exempt_channels", null) != null) {
-                List<String> dbExemptExperienceChannels = AvaIre.gson.fromJson(
-                    data.getString("level_exempt_channels"),
-                    new TypeToken<List<String>>() {
-                    }.getType());
-
-                for (String channelId : dbExemptExperienceChannels) {
-                    try {
-                        levelExemptChannels.add(
-                            Long.parseLong(channelId)
-                        );
-                    } catch (NumberFormatException ignored) {
-                        //
-                    }
-                }
-            }
-
-            if (data.getString("level_exempt_roles", null) != null) {
-                List<String> dbExemptExperienceChannels = AvaIre.gson.fromJson(
-                    data.getString("level_exempt_roles"),
-                    new TypeToken<List<String>>() {
-                    }.getType());
-
-                for (String channelId : dbExemptExperienceChannels) {
-                    try {
-                        levelExemptRoles.add(
-                            Long.parseLong(channelId)
-                        );
-                    } catch (NumberFormatException ignored) {
-                        //
-                    }
-                }
-            }
-
-            if (data.getString("modules", null) != null) {
-                HashMap<String, Map<String, String>> dbModules = AvaIre.gson.fromJson(
-                    data.getString("modules"),
-                    new TypeToken<HashMap<String, Map<String, String>>>() {
-                    }.getType());
-
-                for (Map.Entry<String, Map<String, String>> item : dbModules.entrySet()) {
-                    modules.put(item.getKey(), item.getValue());
-                }
-            }
-
-            if (data.getString("channels", null) != null) {
-                HashMap<String, Object> dbChannels = AvaIre.gson.fromJson(
-                    data.getString("channels"),
-                    new TypeToken<HashMap<String, Object>>() {
-                    }.getType());
-
-                for (Map.Entry<String, Object> item : dbChannels.entrySet()) {
-                    // noinspection unchecked
-                    LinkedTreeMap<String, Object> value = (LinkedTreeMap<String, Object>) item.getValue();
-                    value.put("id", item.getKey());
-
-                    channels.add(new ChannelTransformer(new DataRow(value), this));
-                }
-            }
         }
 
         guildType = partner ? partnerTypeTransformer : new GuildTypeTransformer(data);
 
+        aliases = lazy(getJson("aliases"), GuildTransformer::decodeLowercaseKeys);
+        prefixes = lazy(getJson("prefixes"), GuildTransformer::decodeLowercaseKeys);
+        selfAssignableRoles = lazy(getJson("claimable_roles"), GuildTransformer::decodeLowercaseValues);
+        levelRoles = lazy(getJson("level_roles"), GuildTransformer::decodeLevelRoles);
+        modules = lazy(getJson("modules"), GuildTransformer::decodeModules);
+        channels = lazy(getJson("channels"), this::decodeChannels);
+        badWordsExact = lazy(getJson("filter_exact"), GuildTransformer::decodeList);
+        badWordsWildcard = lazy(getJson("filter_wildcard"), GuildTransformer::decodeList);
+        piaWordsExact = lazy(getJson("piaf_exact"), GuildTransformer::decodeList);
+        piaWordsWildcard = lazy(getJson("piaf_wildcard"), GuildTransformer::decodeList);
+        levelExemptChannels = lazy(getJson("level_exempt_channels"), GuildTransformer::decodeIdSet);
+        levelExemptRoles = lazy(getJson("level_exempt_roles"), GuildTransformer::decodeIdSet);
+
         reset();
     }
 
@@ -343,7 +253,7 @@ public class GuildTransformer extends Transformer {
     }
 
     public Map<Integer, String> getLevelRoles() {
-        return levelRoles;
+        return levelRoles.get();
     }
 
     public double getLevelModifier() {
@@ -355,11 +265,11 @@ public class GuildTransformer extends Transformer {
     }
 
     public Set<Long> getLevelExemptChannels() {
-        return levelExemptChannels;
+        return levelExemptChannels.get();
     }
 
     public Set<Long> getLevelExemptRoles() {
-        return levelExemptRoles;
+        return levelExemptRoles.get();
     }
 
     public String getAutorole() {
@@ -453,39 +363,39 @@ public class GuildTransformer extends Transformer {
 
 
     public Map<String, String> getSelfAssignableRoles() {
-        return selfAssignableRoles;
+        return selfAssignableRoles.get();
     }
 
     public Map<String, String> getPrefixes() {
-        return prefixes;
+        return prefixes.get();
     }
 
     public Map<String, String> getAliases() {
-        return aliases;
+        return aliases.get();
     }
 
     public List<String> getBadWordsExact() {
-        return badWordsExact;
+        return badWordsExact.get();
     }
 
     public List<String> getBadWordsWildcard() {
-        return badWordsWildcard;
+        return badWordsWildcard.get();
     }
 
     public List<String> getPIAWordsWildcard() {
-        return piaWordsWildcard;
+        return piaWordsWildcard.get();
     }
 
     public List<String> getPIAWordsExact() {
-        return piaWordsExact;
+        return piaWordsExact.get();
     }
 
-    public List<ChannelTransformer> getChannels() {
-        return channels;
+    public Collection<ChannelTransformer> getChannels() {
+        return channels.get().values();
     }
 
     public Map<String, Map<String, String>> getCategories() {
-        return modules;
+        return modules.get();
     }
 
     public String getDjRole() {
@@ -526,17 +436,14 @@ public class GuildTransformer extends Transformer {
 
     @CheckReturnValue
     public ChannelTransformer getChannel(String id, boolean createIfDontExists) {
-        for (ChannelTransformer channel : channels) {
-            if (channel.getId().equals(id)) {
-                return channel;
-            }
+        ChannelTransformer channel = channels.get().get(id);
+        if (channel != null || !createIfDontExists) {
+            return channel;
         }
 
-        if (createIfDontExists && createChannelTransformer(getId(), id)) {
-            return getChannel(id, false);
-        }
+        createChannelTransformer(getId(), id);
 
-        return null;
+        return getChannel(id, false);
     }
 
     public boolean createChannelTransformer(@Nonnull String guildId, @Nonnull String channelId) {
@@ -552,9 +459,8 @@ public class GuildTransformer extends Transformer {
 
         HashMap<String, Object> data = new HashMap<>();
         data.put("id", channelId);
-        channels.add(new ChannelTransformer(new DataRow(data), this));
 
-        return true;
+        return channels.get().putIfAbsent(channelId, new ChannelTransformer(new DataRow(data), this)) == null;
     }
 
     public boolean createChannelTransformer(TextChannel channel) {
@@ -563,14 +469,107 @@ public class GuildTransformer extends Transformer {
 
     public String channelsToJson() {
         Map<String, Object> objects = new HashMap<>();
-        if (channels.isEmpty()) {
+        if (channels.get().isEmpty()) {
             return null;
         }
 
-        for (ChannelTransformer transformer : channels) {
+        for (ChannelTransformer transformer : channels.get().values()) {
             objects.put(transformer.getId(), transformer.toMap());
         }
 
         return AvaIre.gson.toJson(objects);
     }
+
+    @Nullable
+    private String getJson(String column) {
+        return hasData() ? data.getString(column, null) : null;
+    }
+
+    private static <T> Supplier<T> lazy(@Nullable String json, Function<String, T> decoder) {
+        return Suppliers.memoize(() -> decoder.apply(json));
+    }
+
+    private static Map<String, String> decodeLowercaseKeys(@Nullable String json) {
+        Map<String, String> items = new HashMap<>();
+        if (json != null) {
+            Map<String, String> decoded = AvaIre.gson.fromJson(json, stringMapType);
+
+            for (Map.Entry<String, String> item : decoded.entrySet()) {
+                items.put(item.getKey().toLowerCase(), item.getValue());
+            }
+        }
+        return items;
+    }
+
+    private static Map<String, String> decodeLowercaseValues(@Nullable String json) {
+        Map<String, String> items = new HashMap<>();
+        if (json != null) {
+            Map<String, String> decoded = AvaIre.gson.fromJson(json, stringMapType);
+
+            for (Map.Entry<String, String> item : decoded.entrySet()) {
+                items.put(item.getKey(), item.getValue().toLowerCase());
+            }
+        }
+        return items;
+    }
+
+    private static Map<Integer, String> decodeLevelRoles(@Nullable String json) {
+        Map<Integer, String> items = new HashMap<>();
+        if (json != null) {
+            Map<String, String> decoded = AvaIre.gson.fromJson(json, stringMapType);
+
+            for (Map.Entry<String, String> item : decoded.entrySet()) {
+                items.put(NumberUtil.parseInt(item.getKey(), -1), item.getValue().toLowerCase());
+            }
+        }
+        return items;
+    }
+
+    private static Map<String, Map<String, String>> decodeModules(@Nullable String json) {
+        Map<String, Map<String, String>> items = new HashMap<>();
+        if (json != null) {
+            items.putAll(AvaIre.gson.fromJson(json, modulesType));
+        }
+        return items;
+    }
+
+    private static List<String> decodeList(@Nullable String json) {
+        List<String> items = new ArrayList<>();
+        if (json != null) {
+            items.addAll(AvaIre.gson.fromJson(json, stringListType));
+        }
+        return items;
+    }
+
+    private static Set<Long> decodeIdSet(@Nullable String json) {
+        Set<Long> items = new HashSet<>();
+        if (json != null) {
+            List<String> decoded = AvaIre.gson.fromJson(json, stringListType);
+
+            for (String id : decoded) {
+                try {
+                    items.add(Long.parseLong(id));
+                } catch (NumberFormatException ignored) {
+                    //
+                }
+            }
+        }
+        return items;
+    }
+
+    private Map<String, ChannelTransformer> decodeChannels(@Nullable String json) {
+        Map<String, ChannelTransformer> items = new ConcurrentHashMap<>();
+        if (json != null) {
+            Map<String, Object> decoded = AvaIre.gson.fromJson(json, channelsType);
+
+            for (Map.Entry<String, Object> item : decoded.entrySet()) {
+                // noinspection unchecked
+                LinkedTreeMap<String, Object> value = (LinkedTreeMap<String, Object>) item.getValue();
+                value.put("id", item.getKey());
+
+                items.put(item.getKey(), new ChannelTransformer(new DataRow(value), this));
+            }
+        }
+        return items;
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.exceptions;
+
+public class BootstrapException extends RuntimeException {
+
+    public BootstrapException(String stage, Throwable cause) {
+        super("The \"" + stage + "\" bootstrap stage failed: " + cause.getMessage(), cause);
+    }
+
+    public BootstrapException(String message) {
+        super(message);
+    }
+}
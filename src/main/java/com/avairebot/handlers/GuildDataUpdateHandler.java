@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.handlers;
+
+import com.avairebot.AvaIre;
+import com.avairebot.Constants;
+import com.avairebot.database.controllers.GuildController;
+import com.avairebot.scheduler.ScheduleHandler;
+import net.dv8tion.jda.api.entities.Guild;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class GuildDataUpdateHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GuildDataUpdateHandler.class);
+
+    private static final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Queues an update of the given data type for the given guild, the update is
+     * delayed until no changes have been queued for the guild during the quiet
+     * period, or until the max delay since the first queued change is reached,
+     * whichever comes first, all the changes queued for the guild during
+     * that time are then written to the database in a single query.
+     *
+     * @param avaire The main AvaIre application instance.
+     * @param guild  The guild that should have its data updated.
+     * @param type   The type of data that should be updated.
+     */
+    public static void queue(@Nonnull AvaIre avaire, @Nonnull Guild guild, @Nonnull DataType type) {
+        long quietPeriod = avaire.getConfig().getLong("database.guild-data-updates.quiet-period", 2000L);
+        long maxDelay = Math.max(quietPeriod, avaire.getConfig().getLong("database.guild-data-updates.max-delay", 10000L));
+
+        if (quietPeriod <= 0) {
+            write(avaire, guild, EnumSet.of(type));
+            return;
+        }
+
+        final long guildId = guild.getIdLong();
+
+        pending.compute(guildId, (id, update) -> {
+            long now = System.currentTimeMillis();
+            if (update == null) {
+                update = new PendingUpdate(now);
+            } else if (update.future != null) {
+                update.future.cancel(false);
+            }
+
+            update.types.add(type);
+
+            long delay = Math.max(0L, Math.min(quietPeriod, update.createdAt + maxDelay - now));
+            final PendingUpdate scheduled = update;
+            update.future = ScheduleHandler.getScheduler().schedule(
+                () -> flush(avaire, guildId, scheduled), delay, TimeUnit.MILLISECONDS
+            );
+
+            return update;
+        });
+    }
+
+    /**
+     * Writes all the pending updates to the database right away, this
+     * should be called before the application shuts down to make
+     * sure no pending guild data updates are lost.
+     *
+     * @param avaire The main AvaIre application instance.
+     */
+    public static void flushAll(@Nonnull AvaIre avaire) {
+        for (Map.Entry<Long, PendingUpdate> entry : pending.entrySet()) {
+            if (entry.getValue().future != null) {
+                entry.getValue().future.cancel(false);
+            }
+            flush(avaire, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Gets the amount of guilds that currently have pending updates.
+     *
+     * @return The amount of guilds with pending updates.
+     */
+    public static int getPendingCount() {
+        return pending.size();
+    }
+
+    private static void flush(AvaIre avaire, long guildId, PendingUpdate update) {
+        // Only the first task that removes the pending update from the map gets to write it,
+        // changes queued after the update was removed creates a new pending update, so
+        // the types of the update can no longer change once we get past this point.
+        if (!pending.remove(guildId, update)) {
+            return;
+        }
+
+        if (avaire.getShardManager() == null) {
+            return;
+        }
+
+        Guild guild = avaire.getShardManager().getGuildById(guildId);
+        if (guild == null) {
+            return;
+        }
+
+        write(avaire, guild, update.types);
+    }
+
+    private static void write(AvaIre avaire, Guild guild, Set<DataType> types) {
+        try {
+            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
+                .useAsync(true)
+                .where("id", guild.getId())
+                .update(statement -> {
+                    if (types.contains(DataType.ROLES)) {
+                        statement.set("roles_data", GuildController.buildRoleData(guild.getRoles()), true);
+                    }
+
+                    if (types.contains(DataType.CHANNELS)) {
+                        statement.set("channels_data", GuildController.buildChannelData(guild.getTextChannels()), true);
+                    }
+                });
+        } catch (SQLException e) {
+            log.error("Failed to update the {} data for guild {}, error: {}",
+                types, guild.getId(), e.getMessage(), e
+            );
+        }
+    }
+
+    public enum DataType {
+
+        /**
+         * The roles data column, holding the guilds roles as JSON.
+         */
+        ROLES,
+
+        /**
+         * The channels data column, holding the guilds text channels as JSON.
+         */
+        CHANNELS
+    }
+
+    private static class PendingUpdate {
+
+        private final long createdAt;
+        private final Set<DataType> types = EnumSet.noneOf(DataType.class);
+        private volatile ScheduledFuture<?> future;
+
+        PendingUpdate(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
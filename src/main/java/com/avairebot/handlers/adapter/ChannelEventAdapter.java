@@ -28,6 +28,7 @@ import com.avairebot.database.collection.Collection;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.controllers.ReactionController;
 import com.avairebot.database.transformers.GuildTransformer;
+import com.avairebot.handlers.GuildDataUpdateHandler;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.channel.text.TextChannelDeleteEvent;
 import net.dv8tion.jda.api.events.channel.voice.VoiceChannelDeleteEvent;
@@ -108,16 +109,7 @@ public class ChannelEventAdapter extends EventAdapter {
     }
 
     public void updateChannelData(Guild guild) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guild.getId())
-                .update(statement -> {
-                    statement.set("channels_data", GuildController.buildChannelData(guild.getTextChannels()), true);
-                });
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        GuildDataUpdateHandler.queue(avaire, guild, GuildDataUpdateHandler.DataType.CHANNELS);
     }
 
     private void setDatabaseColumnToNull(String guildId, String column) {
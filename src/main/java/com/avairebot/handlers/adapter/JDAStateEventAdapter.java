@@ -29,6 +29,8 @@ import com.avairebot.audio.VoiceConnectStatus;
 import com.avairebot.audio.cache.AudioCache;
 import com.avairebot.audio.cache.AudioState;
 import com.avairebot.audio.cache.AudioTrackSerializer;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.cache.CacheType;
 import com.avairebot.chat.MessageType;
 import com.avairebot.commands.CommandHandler;
@@ -43,7 +45,6 @@ import com.avairebot.language.I18n;
 import com.avairebot.time.Carbon;
 import com.avairebot.utilities.RoleUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import net.dv8tion.jda.api.JDA;
@@ -59,10 +60,9 @@ import java.util.concurrent.TimeUnit;
 
 public class JDAStateEventAdapter extends EventAdapter {
 
-    public static final Cache<Long, Long> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<Long, Long> cache = CacheRegistry.register("autorole", new CacheSettings()
         .expireAfterAccess(3, TimeUnit.MINUTES)
-        .build();
+    );
 
     private static final Logger log = LoggerFactory.getLogger(JDAStateEventAdapter.class);
 
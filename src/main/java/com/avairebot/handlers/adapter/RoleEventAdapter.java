@@ -26,6 +26,7 @@ import com.avairebot.Constants;
 import com.avairebot.contracts.handlers.EventAdapter;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.transformers.GuildTransformer;
+import com.avairebot.handlers.GuildDataUpdateHandler;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
 import net.dv8tion.jda.api.events.role.update.RoleUpdateNameEvent;
@@ -175,15 +176,6 @@ public class RoleEventAdapter extends EventAdapter {
 
 
     public void updateRoleData(Guild guild) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guild.getId())
-                .update(statement -> {
-                    statement.set("roles_data", GuildController.buildRoleData(guild.getRoles()), true);
-                });
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        GuildDataUpdateHandler.queue(avaire, guild, GuildDataUpdateHandler.DataType.ROLES);
     }
 }
@@ -25,14 +25,14 @@ public class ExperienceEntity {
 
     private final long userId;
     private final long guildId;
-    private final boolean excludeLocal;
-    private int experience;
+    private volatile int localExperience;
+    private volatile int globalExperience;
 
     ExperienceEntity(long userId, long guildId, int experience, boolean excludeLocal) {
         this.userId = userId;
         this.guildId = guildId;
-        this.experience = experience;
-        this.excludeLocal = excludeLocal;
+        this.localExperience = excludeLocal ? 0 : experience;
+        this.globalExperience = experience;
     }
 
     ExperienceEntity(long userId, long guildId, int experience) {
@@ -58,40 +58,54 @@ public class ExperienceEntity {
     }
 
     /**
-     * The amount of experience the user has in total for the set guild.
+     * The amount of experience the user has been rewarded in total, this is the
+     * same as the global experience, since every reward counts towards it.
      *
-     * @return The total amount of experience the user has for the set guild.
+     * @return The total amount of experience the user has been rewarded.
      */
     public int getExperience() {
-        return experience;
+        return globalExperience;
     }
 
     /**
-     * Sets the amount of experience that the user should be have after
-     * the experience entity is consumed and synced with the database.
+     * The amount of experience that should be added to the users local server based
+     * XP, rewards that were given after the user reached the max amount of XP in
+     * the guild are excluded from the local experience.
      *
-     * @param experience The amount of experience the user should have after
-     *                   the entity is synced with the database.
+     * @return The amount of experience that should be added to the local server based XP.
      */
-    public void setExperience(int experience) {
-        this.experience = experience;
+    public int getLocalExperience() {
+        return localExperience;
     }
 
     /**
-     * Determines if the local server based XP should be excluded from
-     * the update or not, if the user has reached the max amount of
-     * XP, there are no idea is giving them any more XP.
+     * The amount of experience that should be added to the users global XP.
      *
-     * @return Determins if the local server based XP should be excluded or not.
+     * @return The amount of experience that should be added to the global XP.
      */
-    public boolean isExcludeLocal() {
-        return excludeLocal;
+    public int getGlobalExperience() {
+        return globalExperience;
+    }
+
+    /**
+     * Adds the given amount of experience to the entity, the experience is always added
+     * to the global experience, and is added to the local experience as well unless
+     * the local server based XP should be excluded for the reward.
+     *
+     * @param amount       The amount of experience that should be added.
+     * @param excludeLocal Determines if the local server based XP should be excluded for the reward.
+     */
+    void addExperience(int amount, boolean excludeLocal) {
+        if (!excludeLocal) {
+            localExperience += amount;
+        }
+        globalExperience += amount;
     }
 
     @Override
     public String toString() {
-        return String.format("[userId:%s, guildId:%s, experience:%s]",
-            userId, guildId, experience
+        return String.format("[userId:%s, guildId:%s, localExperience:%s, globalExperience:%s]",
+            userId, guildId, localExperience, globalExperience
         );
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The experience queue holds all the experience that has been rewarded to users but
+ * haven't been synced with the database yet, the experience is keyed by the
+ * guild and user it was rewarded for, so rewarding the same user multiple
+ * times merges the experience into a single entity in place.
+ * <p>
+ * The queue is backed by a concurrent hash map, which locks each bin separately,
+ * so rewarding experience to different users never blocks each other, and
+ * draining the queue removes the entities one by one, any experience that
+ * is rewarded while the queue is being drained is either included in the
+ * drained entity, or added to a new entity for the next drain.
+ */
+public class ExperienceQueue {
+
+    private final ConcurrentHashMap<Key, ExperienceEntity> entities = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the given amount of experience to the queue for the given user in the given guild,
+     * if the user already has experience queued up, the amount is merged into the entity,
+     * the local and global experience is tracked separately, so rewards that excludes
+     * the local experience doesn't affect the local experience already queued up.
+     *
+     * @param userId       The ID of the user that should receive the experience.
+     * @param guildId      The ID of the guild the user received the experience in.
+     * @param amount       The amount of experience that should be given to the user.
+     * @param excludeLocal Determines if the local guild experience should be excluded from the update.
+     */
+    public void add(long userId, long guildId, int amount, boolean excludeLocal) {
+        entities.compute(new Key(userId, guildId), (key, entity) -> {
+            if (entity == null) {
+                return new ExperienceEntity(userId, guildId, amount, excludeLocal);
+            }
+
+            entity.addExperience(amount, excludeLocal);
+
+            return entity;
+        });
+    }
+
+    /**
+     * Gets the queued experience entity for the given user in the given guild.
+     *
+     * @param userId  The ID of the user that the entity should be returned for.
+     * @param guildId The ID of the guild that the entity should be returned for.
+     * @return Either (1) the queued experience entity, or (2) <code>null</code>
+     * if the user doesn't have any experience queued up in the guild.
+     */
+    @Nullable
+    public ExperienceEntity get(long userId, long guildId) {
+        return entities.get(new Key(userId, guildId));
+    }
+
+    /**
+     * Removes every experience entity from the queue, returning the removed entities,
+     * experience rewarded during the drain will be added to the queue again.
+     *
+     * @return The experience entities that were removed from the queue.
+     */
+    public List<ExperienceEntity> drain() {
+        List<ExperienceEntity> drained = new ArrayList<>(entities.size());
+        for (Key key : entities.keySet()) {
+            ExperienceEntity entity = entities.remove(key);
+            if (entity != null) {
+                drained.add(entity);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Checks if the queue is empty.
+     *
+     * @return <code>True</code> if the queue is empty, <code>False</code> otherwise.
+     */
+    public boolean isEmpty() {
+        return entities.isEmpty();
+    }
+
+    /**
+     * Gets the amount of experience entities in the queue.
+     *
+     * @return The amount of experience entities in the queue.
+     */
+    public int size() {
+        return entities.size();
+    }
+
+    private static final class Key {
+
+        private final long userId;
+        private final long guildId;
+
+        Key(long userId, long guildId) {
+            this.userId = userId;
+            this.guildId = guildId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) obj;
+
+            return userId == key.userId && guildId == key.guildId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(userId * 31 + guildId);
+        }
+    }
+}
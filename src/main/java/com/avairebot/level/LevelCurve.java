@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+/**
+ * A precomputed level curve for a single level modifier, holding the amount of
+ * experience needed to reach each level, and the minimum amount of experience
+ * that resolves to each level, up to the {@link #MAX_LEVEL max table level},
+ * so resolving levels for most users is an array lookup or a binary
+ * search instead of floating point square roots and powers.
+ */
+final class LevelCurve {
+
+    /**
+     * The highest level stored in the curve tables, levels and experience
+     * above this point are calculated using the level formulas instead.
+     */
+    static final int MAX_LEVEL = 2000;
+
+    private final long modifierBits;
+    private final long[] experience;
+    private final long[] levelThresholds;
+
+    LevelCurve(double modifier, long[] experience, long[] levelThresholds) {
+        this.modifierBits = Double.doubleToLongBits(modifier);
+        this.experience = experience;
+        this.levelThresholds = levelThresholds;
+    }
+
+    /**
+     * Checks if the curve was built for the given modifier.
+     *
+     * @param modifierBits The raw bits of the modifier, as returned by {@link Double#doubleToLongBits(double)}.
+     * @return <code>True</code> if the curve was built for the modifier, <code>False</code> otherwise.
+     */
+    boolean isFor(long modifierBits) {
+        return this.modifierBits == modifierBits;
+    }
+
+    /**
+     * Checks if the given level is within the curve tables.
+     *
+     * @param level The level that should be checked.
+     * @return <code>True</code> if the level is within the tables, <code>False</code> otherwise.
+     */
+    boolean hasLevel(long level) {
+        return level >= 0 && level <= MAX_LEVEL;
+    }
+
+    /**
+     * Checks if the given experience resolves to a level within the curve tables.
+     *
+     * @param xp The experience that should be checked.
+     * @return <code>True</code> if the experience is within the tables, <code>False</code> otherwise.
+     */
+    boolean hasExperience(long xp) {
+        return xp < levelThresholds[MAX_LEVEL];
+    }
+
+    /**
+     * Gets the amount of experience needed to reach the given level, the
+     * level must be within the tables, see {@link #hasLevel(long)}.
+     *
+     * @param level The level the experience should be fetched for.
+     * @return The minimum amount of experience needed to reach the given level.
+     */
+    long getExperience(long level) {
+        return experience[(int) level];
+    }
+
+    /**
+     * Gets the max level that can be reached with the given amount of experience,
+     * the experience must be within the tables, see {@link #hasExperience(long)}.
+     *
+     * @param xp The experience that should be resolved into the level.
+     * @return The max level that can be reached with the given amount of experience.
+     */
+    long getLevel(long xp) {
+        int low = 0;
+        int high = MAX_LEVEL;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (levelThresholds[middle] <= xp) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -31,12 +31,9 @@ import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.language.I18n;
 import com.avairebot.scheduler.ScheduleHandler;
-import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.NumberUtil;
 import com.avairebot.utilities.RandomUtil;
 import com.avairebot.utilities.RoleUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.Role;
@@ -50,32 +47,35 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class LevelManager {
 
     /**
-     * When a user sends a message, they are checked against the cache to see if they
-     * can be rewarded experience again, if they do have an entry in the cache,
+     * When a user sends a message, they are checked against the cooldowns to see if they
+     * can be rewarded experience again, if they're still on cooldown in the guild,
      * their message is ignored for the level manager and no experience will
      * be rewarded to them for that message.
      * <p>
-     * The cache will automatically delete keys after they have existed for 60 seconds.
+     * The cooldowns will automatically expire after 60 seconds.
      */
-    public static final Cache<Object, Object> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    private static final RewardCooldowns cooldowns = new RewardCooldowns(60, TimeUnit.SECONDS);
+
+    /**
+     * The precomputed level curves, the curves are stored in an open addressing table
+     * keyed by the modifier the curve was built for, so looking up the curve for
+     * a guild modifier doesn't need to box the modifier into a map key.
+     */
+    private static final AtomicReferenceArray<LevelCurve> curves = new AtomicReferenceArray<>(256);
 
     /**
      * The experience queue, users who have been rewarded experience will
      * be added to the queue, the queue is then consumed once a minute
      * to sync the database with the user data.
      */
-    private static final List<ExperienceEntity> experienceQueue = new CopyOnWriteArrayList<>();
+    private static final ExperienceQueue experienceQueue = new ExperienceQueue();
 
     /**
      * The experience modifier as an percentage.
@@ -169,7 +169,11 @@ public class LevelManager {
      * @return The minimum amount of experience needed to reach the given level.
      */
     public long getExperienceFromLevel(long level, double modifier) {
-        return (long) (((long) (A * Math.pow(level, 2)) + (B * level) + (C * (1 + modifier))) * (1 + modifier));
+        LevelCurve curve = getLevelCurve(modifier);
+        if (curve != null && curve.hasLevel(level)) {
+            return curve.getExperience(level);
+        }
+        return calculateExperienceFromLevel(level, modifier);
     }
 
     /**
@@ -207,9 +211,11 @@ public class LevelManager {
      * @return The max level that can be reached with the given amount of experience.
      */
     public long getLevelFromExperience(long xp, double modifier) {
-        double x = (-B + Math.sqrt(Math.pow(B, 2) - ((4 * A) * ((C * (1 + modifier)) - Math.ceil(xp / (1 + modifier)))))) / (2 * A);
-
-        return x < 0 ? 0 : (long) Math.floor(x);
+        LevelCurve curve = getLevelCurve(modifier);
+        if (curve != null && curve.hasExperience(xp)) {
+            return curve.getLevel(xp);
+        }
+        return calculateLevelFromExperience(xp, modifier);
     }
 
     /**
@@ -236,10 +242,9 @@ public class LevelManager {
             }
         }
 
-        CacheUtil.getUncheckedUnwrapped(cache, asKey(event), () -> {
+        if (cooldowns.tryAcquire(event.getGuild().getIdLong(), event.getAuthor().getIdLong())) {
             giveExperience(event.getMessage(), event.getMessage().getAuthor(), guild, player);
-            return 0;
-        });
+        }
     }
 
     /**
@@ -306,12 +311,12 @@ public class LevelManager {
             player.setExperience(getHardCap());
         }
 
-        experienceQueue.add(new ExperienceEntity(
+        experienceQueue.add(
             user.getIdLong(),
             message.getGuild().getIdLong(),
             amount,
             exclude
-        ));
+        );
 
         if (getLevelFromExperience(guild, player.getExperience() + zxp) > lvl) {
             long newLevel = getLevelFromExperience(guild, player.getExperience() + zxp);
@@ -401,7 +406,7 @@ public class LevelManager {
      *
      * @return The experience queue.
      */
-    public List<ExperienceEntity> getExperienceQueue() {
+    public ExperienceQueue getExperienceQueue() {
         return experienceQueue;
     }
 
@@ -413,9 +418,11 @@ public class LevelManager {
      * @return A list of experience entities that belongs to the given player transformer.
      */
     public List<ExperienceEntity> getExperienceEntities(@Nonnull PlayerTransformer transformer) {
-        return experienceQueue.stream()
-            .filter(entity -> entity.getUserId() == transformer.getUserId() && entity.getGuildId() == transformer.getGuildId())
-            .collect(Collectors.toList());
+        ExperienceEntity entity = experienceQueue.get(transformer.getUserId(), transformer.getGuildId());
+        if (entity == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(entity);
     }
 
     /**
@@ -456,7 +463,89 @@ public class LevelManager {
         );
     }
 
-    private Object asKey(MessageReceivedEvent event) {
-        return event.getGuild().getId() + ":" + event.getAuthor().getId();
+    /**
+     * Gets the precomputed level curve for the given modifier, building the curve if
+     * it doesn't exist yet, if the curve table is full, or the modifier is not a
+     * valid positive modifier, <code>null</code> will be returned instead.
+     *
+     * @param modifier The modifier the level curve should be returned for.
+     * @return Either (1) the level curve for the modifier, or (2) <code>null</code>
+     * if no level curve could be used for the given modifier.
+     */
+    @Nullable
+    private LevelCurve getLevelCurve(double modifier) {
+        if (!(modifier >= 0) || Double.isInfinite(modifier)) {
+            return null;
+        }
+
+        long bits = Double.doubleToLongBits(modifier);
+        int mask = curves.length() - 1;
+        int index = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9 >>> 24 & mask;
+
+        for (int i = 0; i < curves.length(); i++) {
+            LevelCurve curve = curves.get(index);
+            if (curve == null) {
+                curves.compareAndSet(index, null, createLevelCurve(modifier));
+                curve = curves.get(index);
+            }
+
+            if (curve.isFor(bits)) {
+                return curve;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Builds the level curve tables for the given modifier, the level thresholds are
+     * found by searching for the lowest amount of experience that the level formula
+     * resolves to each level, so looking levels up in the tables always gives the
+     * exact same result as {@link #calculateLevelFromExperience(long, double)}.
+     *
+     * @param modifier The modifier the level curve should be built for.
+     * @return The level curve for the given modifier.
+     */
+    private LevelCurve createLevelCurve(double modifier) {
+        long[] experience = new long[LevelCurve.MAX_LEVEL + 1];
+        long[] levelThresholds = new long[LevelCurve.MAX_LEVEL + 1];
+
+        levelThresholds[0] = Long.MIN_VALUE;
+        for (int level = 0; level <= LevelCurve.MAX_LEVEL; level++) {
+            experience[level] = calculateExperienceFromLevel(level, modifier);
+
+            if (level == 0) {
+                continue;
+            }
+
+            long low = Math.max(0, levelThresholds[level - 1]);
+            long step = 1;
+            while (calculateLevelFromExperience(low + step, modifier) < level) {
+                step <<= 1;
+            }
+
+            long high = low + step;
+            while (low < high) {
+                long middle = low + ((high - low) >>> 1);
+                if (calculateLevelFromExperience(middle, modifier) >= level) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            levelThresholds[level] = low;
+        }
+
+        return new LevelCurve(modifier, experience, levelThresholds);
+    }
+
+    long calculateExperienceFromLevel(long level, double modifier) {
+        return (long) (((long) (A * Math.pow(level, 2)) + (B * level) + (C * (1 + modifier))) * (1 + modifier));
+    }
+
+    long calculateLevelFromExperience(long xp, double modifier) {
+        double x = (-B + Math.sqrt(Math.pow(B, 2) - ((4 * A) * ((C * (1 + modifier)) - Math.ceil(xp / (1 + modifier)))))) / (2 * A);
+
+        return x < 0 ? 0 : (long) Math.floor(x);
     }
 }
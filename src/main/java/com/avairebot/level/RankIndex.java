@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory order-statistic index of the experience for all the ranked users
+ * in a single guild, the users are ordered by their experience from highest
+ * to lowest, with ties being ordered by their user ID, looking up the rank
+ * of a user, or the users at a given range of positions, can be done in
+ * logarithmic time instead of having to scan the entire leaderboard.
+ * <p>
+ * The index is backed by a treap where every node keeps track of the size of
+ * its subtree, the node priorities are derived from the user IDs, so the
+ * shape of the tree only depends on the users that are in the index.
+ */
+public class RankIndex {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node root;
+
+    /**
+     * Sets the experience for the given user, adding the user to
+     * the index if they're not already ranked in the guild.
+     *
+     * @param userId     The ID of the user that should be set.
+     * @param experience The total amount of experience the user has in the guild.
+     */
+    public synchronized void put(long userId, long experience) {
+        remove(userId);
+
+        Node node = new Node(userId, experience);
+        nodes.put(userId, node);
+
+        Node[] split = split(root, node, false);
+        root = merge(merge(split[0], node), split[1]);
+    }
+
+    /**
+     * Increments the experience for the given user by the given amount, if the user
+     * is not ranked in the guild yet, they will be added to the index using
+     * the default experience plus the given amount of experience.
+     *
+     * @param userId            The ID of the user that should be incremented.
+     * @param amount            The amount of experience that should be added to the user.
+     * @param defaultExperience The experience the user should start with if they're not in the index.
+     */
+    public synchronized void increment(long userId, long amount, long defaultExperience) {
+        Node node = nodes.get(userId);
+
+        put(userId, (node == null ? defaultExperience : node.experience) + amount);
+    }
+
+    /**
+     * Removes the given user from the index.
+     *
+     * @param userId The ID of the user that should be removed.
+     * @return <code>True</code> if the user was ranked and has been removed, <code>False</code> otherwise.
+     */
+    public synchronized boolean remove(long userId) {
+        Node node = nodes.remove(userId);
+        if (node == null) {
+            return false;
+        }
+
+        Node[] lower = split(root, node, false);
+        Node[] upper = split(lower[1], node, true);
+        root = merge(lower[0], upper[1]);
+
+        return true;
+    }
+
+    /**
+     * Gets the rank of the given user, where the user with
+     * the most experience in the guild has rank 1.
+     *
+     * @param userId The ID of the user that the rank should be returned for.
+     * @return Either (1) the rank of the user, starting at 1, or (2) <code>-1</code>
+     * if the user isn't ranked in the guild.
+     */
+    public synchronized int getRank(long userId) {
+        Node node = nodes.get(userId);
+        if (node == null) {
+            return -1;
+        }
+
+        int rank = 1;
+        Node current = root;
+        while (current != null) {
+            int comparison = compare(node, current);
+            if (comparison == 0) {
+                return rank + size(current.left);
+            }
+
+            if (comparison < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the total amount of experience the given user has.
+     *
+     * @param userId The ID of the user that the experience should be returned for.
+     * @return Either (1) the experience of the user, or (2) <code>-1</code>
+     * if the user isn't ranked in the index.
+     */
+    public synchronized long getExperience(long userId) {
+        Node node = nodes.get(userId);
+        return node == null ? -1 : node.experience;
+    }
+
+    /**
+     * Gets the users at the given range of positions, the positions are zero indexed,
+     * so the user with the most experience in the guild is at position zero.
+     *
+     * @param from The position of the first user that should be returned, inclusive.
+     * @param to   The position of the last user that should be returned, exclusive.
+     * @return The ranked users within the given range of positions, ordered by their rank.
+     */
+    @Nonnull
+    public synchronized List<Entry> getRange(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(size(root), to);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+
+        List<Entry> entries = new ArrayList<>(to - from);
+        collect(root, 0, from, to, entries);
+
+        return entries;
+    }
+
+    /**
+     * Gets the total amount of ranked users in the index.
+     *
+     * @return The total amount of ranked users in the index.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    private void collect(Node node, int offset, int from, int to, List<Entry> entries) {
+        if (node == null) {
+            return;
+        }
+
+        int position = offset + size(node.left);
+        if (from < position) {
+            collect(node.left, offset, from, to, entries);
+        }
+
+        if (position >= from && position < to) {
+            entries.add(new Entry(node.userId, node.experience));
+        }
+
+        if (position + 1 < to) {
+            collect(node.right, position + 1, from, to, entries);
+        }
+    }
+
+    /**
+     * Splits the given tree into two trees, the left tree containing every node that is
+     * ordered before the given key, or every node up to and including the key if
+     * the split is inclusive, with the right tree containing the rest.
+     */
+    private Node[] split(Node node, Node key, boolean inclusive) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        int comparison = compare(node, key);
+        if (comparison < 0 || (inclusive && comparison == 0)) {
+            Node[] split = split(node.right, key, inclusive);
+            node.right = split[0];
+            node.update();
+
+            return new Node[]{node, split[1]};
+        }
+
+        Node[] split = split(node.left, key, inclusive);
+        node.left = split[1];
+        node.update();
+
+        return new Node[]{split[0], node};
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+
+        return right;
+    }
+
+    private int compare(Node a, Node b) {
+        int comparison = Long.compare(b.experience, a.experience);
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Long.compare(a.userId, b.userId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    public static class Entry {
+
+        private final long userId;
+        private final long experience;
+
+        Entry(long userId, long experience) {
+            this.userId = userId;
+            this.experience = experience;
+        }
+
+        /**
+         * The ID of the ranked user.
+         *
+         * @return The ID of the ranked user.
+         */
+        public long getUserId() {
+            return userId;
+        }
+
+        /**
+         * The total amount of experience the user has in the guild.
+         *
+         * @return The total amount of experience the user has in the guild.
+         */
+        public long getExperience() {
+            return experience;
+        }
+    }
+
+    private static class Node {
+
+        private final long userId;
+        private final long experience;
+        private final int priority;
+
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(long userId, long experience) {
+            this.userId = userId;
+            this.experience = experience;
+
+            // Mixes the user ID bits so the priorities are evenly spread out
+            // even though Discord IDs are mostly made up of timestamps.
+            long hash = userId * 0x9E3779B97F4A7C15L;
+            this.priority = (int) (hash ^ (hash >>> 32));
+        }
+
+        void update() {
+            size = 1 + RankIndex.size(left) + RankIndex.size(right);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks when users can be rewarded experience again in each guild, the cooldowns are
+ * keyed directly by the guild and user IDs, so checking a cooldown doesn't need to
+ * build a string key, or allocate any objects, for every message that is sent.
+ * <p>
+ * The cooldowns are split into stripes that are locked separately, where each
+ * stripe is an open addressing hash table made up of primitive arrays, expired
+ * cooldowns are reused when the same user is rewarded again, and dropped
+ * when a stripe is resized, so the tables only grow with the amount
+ * of users that are actively receiving experience.
+ */
+public class RewardCooldowns {
+
+    private static final int STRIPES = 64;
+
+    private final long duration;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * Creates a new reward cooldowns table using the given cooldown duration.
+     *
+     * @param duration The duration of the cooldown.
+     * @param unit     The time unit of the duration.
+     */
+    public RewardCooldowns(long duration, TimeUnit unit) {
+        this.duration = unit.toNanos(duration);
+
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Attempts to start the cooldown for the given user in the given guild, if the user
+     * is already on cooldown in the guild, the existing cooldown is left untouched.
+     *
+     * @param guildId The ID of the guild the user should be put on cooldown in.
+     * @param userId  The ID of the user that should be put on cooldown.
+     * @return <code>True</code> if the cooldown was started and the user can be rewarded,
+     * <code>False</code> if the user is already on cooldown in the guild.
+     */
+    public boolean tryAcquire(long guildId, long userId) {
+        int hash = hash(guildId, userId);
+
+        return stripes[hash & (STRIPES - 1)].tryAcquire(guildId, userId, hash >>> 6, System.nanoTime());
+    }
+
+    /**
+     * Gets the amount of cooldowns that are currently stored, this
+     * includes expired cooldowns that haven't been dropped yet.
+     *
+     * @return The amount of stored cooldowns.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private static int hash(long guildId, long userId) {
+        long hash = (guildId * 0x9E3779B97F4A7C15L) ^ userId;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+
+        return (int) hash;
+    }
+
+    private class Stripe {
+
+        private long[] guilds = new long[16];
+        private long[] users = new long[16];
+        private long[] expires = new long[16];
+        private boolean[] used = new boolean[16];
+        private int size = 0;
+
+        synchronized boolean tryAcquire(long guildId, long userId, int hash, long now) {
+            int mask = used.length - 1;
+            int index = hash & mask;
+            int expired = -1;
+
+            while (used[index]) {
+                if (guilds[index] == guildId && users[index] == userId) {
+                    if (expires[index] - now > 0) {
+                        return false;
+                    }
+
+                    expires[index] = now + duration;
+                    return true;
+                }
+
+                if (expired < 0 && expires[index] - now <= 0) {
+                    expired = index;
+                }
+                index = (index + 1) & mask;
+            }
+
+            // Expired cooldowns can be taken over by other users, since the slot stays
+            // in use, none of the probe chains going through the slot are broken.
+            if (expired >= 0) {
+                guilds[expired] = guildId;
+                users[expired] = userId;
+                expires[expired] = now + duration;
+
+                return true;
+            }
+
+            if ((size + 1) * 4 > used.length * 3) {
+                resize(now);
+                return tryAcquire(guildId, userId, hash, now);
+            }
+
+            used[index] = true;
+            guilds[index] = guildId;
+            users[index] = userId;
+            expires[index] = now + duration;
+            size++;
+
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void resize(long now) {
+            int active = 0;
+            for (int i = 0; i < used.length; i++) {
+                if (used[i] && expires[i] - now > 0) {
+                    active++;
+                }
+            }
+
+            int capacity = 16;
+            while (capacity < active * 2 + 2) {
+                capacity <<= 1;
+            }
+
+            long[] oldGuilds = guilds;
+            long[] oldUsers = users;
+            long[] oldExpires = expires;
+            boolean[] oldUsed = used;
+
+            guilds = new long[capacity];
+            users = new long[capacity];
+            expires = new long[capacity];
+            used = new boolean[capacity];
+            size = 0;
+
+            int mask = capacity - 1;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (!oldUsed[i] || oldExpires[i] - now <= 0) {
+                    continue;
+                }
+
+                int index = (hash(oldGuilds[i], oldUsers[i]) >>> 6) & mask;
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+
+                used[index] = true;
+                guilds[index] = oldGuilds[i];
+                users[index] = oldUsers[i];
+                expires[index] = oldExpires[i];
+                size++;
+            }
+        }
+    }
+}
@@ -23,34 +23,19 @@ package com.avairebot.metrics;
 
 import ch.qos.logback.classic.LoggerContext;
 import com.avairebot.AvaIre;
-import com.avairebot.blacklist.Ratelimit;
-import com.avairebot.commands.Category;
-import com.avairebot.commands.administration.MuteRoleCommand;
-import com.avairebot.commands.utility.GlobalLeaderboardCommand;
-import com.avairebot.commands.utility.LeaderboardCommand;
-import com.avairebot.commands.utility.RankCommand;
-import com.avairebot.contracts.commands.InteractionCommand;
-import com.avairebot.contracts.middleware.Middleware;
-import com.avairebot.database.controllers.*;
-import com.avairebot.handlers.adapter.JDAStateEventAdapter;
-import com.avairebot.level.LevelManager;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.metrics.routes.GetMetrics;
-import com.avairebot.middleware.ThrottleMiddleware;
-import com.avairebot.scheduler.jobs.LavalinkGarbageNodeCollectorJob;
+import com.avairebot.utilities.ComponentIndex;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.guava.cache.CacheMetricsCollector;
 import io.prometheus.client.hotspot.DefaultExports;
 import io.prometheus.client.logback.InstrumentedAppender;
-import net.dv8tion.jda.api.events.Event;
-import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Modifier;
-import java.util.Set;
-
 public class Metrics {
 
     // ################################################################################
@@ -83,6 +68,17 @@ public class Metrics {
         .labelNames("type")
         .register();
 
+    public static final Gauge bootstrapDuration = Gauge.build()
+        .name("avaire_bootstrap_duration_seconds")
+        .help("Total number of seconds it took to run every bootstrap stage")
+        .register();
+
+    public static final Gauge bootstrapStageDuration = Gauge.build()
+        .name("avaire_bootstrap_stage_duration_seconds")
+        .help("Number of seconds each bootstrap stage took to run")
+        .labelNames("stage")
+        .register();
+
     public static final Gauge guilds = Gauge.build()
         .name("avaire_guilds_total")
         .help("Total number of guilds the bot is in")
@@ -204,6 +200,97 @@ public class Metrics {
         .labelNames("type")
         .register();
 
+    public static final Histogram databaseQueryTime = Histogram.build()
+        .name("avaire_database_query_duration_seconds")
+        .help("Query execution time grouped by the normalized shape of the query")
+        .labelNames("type", "fingerprint")
+        .buckets(0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+        .register();
+
+    public static final Histogram databaseQueryRows = Histogram.build()
+        .name("avaire_database_query_rows")
+        .help("Rows returned or affected by queries, grouped by the normalized shape of the query")
+        .labelNames("type", "fingerprint")
+        .buckets(0, 1, 5, 10, 25, 50, 100, 250, 500, 1000, 5000, 10000)
+        .register();
+
+    public static final Counter databaseTransactions = Counter.build()
+        .name("avaire_database_transactions_total")
+        .help("Total database transactions by how they finished")
+        .labelNames("result") // committed, retried, rolled-back
+        .register();
+
+    public static final Gauge databaseAsyncQueueSize = Gauge.build()
+        .name("avaire_database_async_queue_size")
+        .help("The amount of async database tasks waiting in the database executor queue")
+        .register();
+
+    public static final Histogram databaseAsyncWaitTime = Histogram.build()
+        .name("avaire_database_async_wait_duration_seconds")
+        .help("Time async database tasks spend in the queue before they start running")
+        .buckets(0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+        .register();
+
+    public static final Counter databaseAsyncRejected = Counter.build()
+        .name("avaire_database_async_rejected_total")
+        .help("Total async database tasks rejected by the full database executor queue")
+        .labelNames("policy")
+        .register();
+
+    public static final Gauge databaseWriterQueueSize = Gauge.build()
+        .name("avaire_database_writer_queue_size")
+        .help("The amount of writes waiting in the queue for the SQLite writer")
+        .register();
+
+    public static final Histogram databaseWriterBatchSize = Histogram.build()
+        .name("avaire_database_writer_batch_size")
+        .help("The amount of writes the SQLite writer grouped into a single transaction")
+        .buckets(1, 2, 5, 10, 25, 50, 100, 250, 500)
+        .register();
+
+    public static final Gauge databaseReplicaHealthy = Gauge.build()
+        .name("avaire_database_replica_healthy")
+        .help("If the database read replica passed its last health check, 1 for healthy, 0 for unreachable")
+        .labelNames("replica")
+        .register();
+
+    public static final Counter databaseReplicaQueries = Counter.build()
+        .name("avaire_database_replica_queries_total")
+        .help("Total read queries that asked for a read replica, by where they were sent")
+        .labelNames("target") // replica, primary, fallback
+        .register();
+
+    // Players
+
+    public static final Gauge playerUpdateBacklog = Gauge.build()
+        .name("avaire_player_update_backlog")
+        .help("The amount of users with username, discriminator, or avatar changes waiting to be written to the database")
+        .register();
+
+    public static final Counter playerUpdatesCoalesced = Counter.build()
+        .name("avaire_player_updates_coalesced_total")
+        .help("Total player profile changes that replaced a change already waiting to be written for the same user")
+        .register();
+
+    // Memory cache
+
+    public static final Counter memoryCacheRequests = Counter.build()
+        .name("avaire_memory_cache_requests_total")
+        .help("Total lookups against the memory cache adapter, by whether the item was found")
+        .labelNames("result") // hit, miss
+        .register();
+
+    public static final Counter memoryCacheEvictions = Counter.build()
+        .name("avaire_memory_cache_evictions_total")
+        .help("Total items removed from the memory cache adapter, by why they were removed")
+        .labelNames("cause") // size, expired
+        .register();
+
+    public static final Gauge memoryCacheWeight = Gauge.build()
+        .name("avaire_memory_cache_weight")
+        .help("The combined weight of the items in the memory cache adapter, updated once every minute")
+        .register();
+
     // Vote statistics
 
     public static final Counter dblVotes = Counter.build()
@@ -251,25 +338,11 @@ public class Metrics {
         DefaultExports.initialize();
         Metrics.initializeEventMetrics();
 
+        // Adds the caches registered through the cache registry, caches
+        // registered later on are added once they're registered.
         CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
-        cacheMetrics.addCache("levels", LevelManager.cache);
-        cacheMetrics.addCache("guilds", GuildController.cache);
-        cacheMetrics.addCache("players", PlayerController.cache);
-        cacheMetrics.addCache("purchases", PurchaseController.cache);
-        cacheMetrics.addCache("playlists", PlaylistController.cache);
-        cacheMetrics.addCache("categoryPrefixes", Category.cache);
-        cacheMetrics.addCache("reaction-roles", ReactionController.cache);
-        cacheMetrics.addCache("throttleCommands", ThrottleMiddleware.cache);
-        cacheMetrics.addCache("middlewareThrottleMessages", Middleware.messageCache);
-        cacheMetrics.addCache("autorole", JDAStateEventAdapter.cache);
-        cacheMetrics.addCache("muterole", MuteRoleCommand.cache);
-        cacheMetrics.addCache("rankScores", RankCommand.cache);
-        cacheMetrics.addCache("leaderboard", LeaderboardCommand.cache);
-        cacheMetrics.addCache("global-leaderboard", GlobalLeaderboardCommand.cache);
-        cacheMetrics.addCache("interaction-lottery", InteractionCommand.cache);
-        cacheMetrics.addCache("blacklist-ratelimit", Ratelimit.cache);
-        cacheMetrics.addCache("lavalink-destroy-cleanup", LavalinkGarbageNodeCollectorJob.cache);
-        cacheMetrics.addCache("music-search-results", SearchController.cache);
+        CacheRegistry.registerMetrics(cacheMetrics);
+        cacheMetrics.addCache("players", PlayerController.getPlayerCacheStats());
 
         if (!avaire.getConfig().getBoolean("web-servlet.metrics",
             avaire.getConfig().getBoolean("metrics.enabled", true)
@@ -285,14 +358,8 @@ public class Metrics {
     }
 
     private static void initializeEventMetrics() {
-        Set<Class<? extends Event>> types = new Reflections("net.dv8tion.jda.api.events")
-            .getSubTypesOf(Event.class);
-
-        for (Class<? extends Event> type : types) {
-            if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
-                continue;
-            }
-            jdaEvents.labels(type.getSimpleName()).inc(0D);
+        for (String name : ComponentIndex.getEventNames()) {
+            jdaEvents.labels(name).inc(0D);
         }
     }
 }
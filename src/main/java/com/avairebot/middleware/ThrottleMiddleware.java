@@ -23,6 +23,8 @@ package com.avairebot.middleware;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.commands.CommandMessage;
 import com.avairebot.contracts.commands.CacheFingerprint;
 import com.avairebot.contracts.middleware.Middleware;
@@ -34,7 +36,6 @@ import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.NumberUtil;
 import com.avairebot.utilities.RestActionUtil;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.api.entities.Message;
 
 import javax.annotation.Nonnull;
@@ -42,10 +43,9 @@ import java.util.concurrent.TimeUnit;
 
 public class ThrottleMiddleware extends Middleware {
 
-    public static final Cache<String, ThrottleEntity> cache = CacheBuilder.newBuilder()
-        .recordStats()
+    public static final Cache<String, ThrottleEntity> cache = CacheRegistry.register("throttleCommands", new CacheSettings()
         .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    );
 
     public ThrottleMiddleware(AvaIre avaire) {
         super(avaire);
@@ -22,6 +22,8 @@
 package com.avairebot.mute.automute;
 
 import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.contracts.blacklist.PunishmentLevel;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.transformers.GuildTransformer;
@@ -33,7 +35,6 @@ import com.avairebot.modlog.ModlogType;
 import com.avairebot.time.Carbon;
 import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.RestActionUtil;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import net.dv8tion.jda.api.entities.*;
@@ -71,10 +72,10 @@ public class MuteRatelimit {
     /**
      * The cache loader for holding all the ratelimiter rates.
      */
-    public static final LoadingCache<Long, Rate> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(hitTime, TimeUnit.MILLISECONDS)
-        .build(CacheLoader.from(Rate::new));
+    public static final LoadingCache<Long, Rate> cache = CacheRegistry.register("mute-ratelimit", new CacheSettings()
+        .expireAfterWrite(hitTime, TimeUnit.MILLISECONDS),
+        CacheLoader.from(Rate::new)
+    );
 
     /**
      * The slf4j logger instance.
@@ -257,7 +257,7 @@ public class PluginManager {
      */
     @SuppressWarnings("unchecked")
     public List<PluginHolder> getOfficialPluginsList() {
-        Object plugins = AvaIre.getInstance().getCache().getAdapter(CacheType.MEMORY).remember("plugins", 10800, () -> {
+        Object plugins = AvaIre.getInstance().getCache().getAdapter(CacheType.MEMORY).remember("plugins", 10800, 600, () -> {
             try {
                 Connection.Response execute = Jsoup.connect("https://raw.githubusercontent.com/avaire/plugins/master/plugins.json")
                     .ignoreContentType(true)
@@ -25,15 +25,15 @@ import com.avairebot.contracts.scheduler.Job;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.annotation.Nonnull;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 
 public class ScheduleHandler {
 
-    private static final Set<ScheduledFuture<?>> tasks = new HashSet<>();
+    private static final Set<ScheduledFuture<?>> tasks = ConcurrentHashMap.newKeySet();
     private static final ScheduledExecutorService schedulerService = Executors.newScheduledThreadPool(5, new ThreadFactoryBuilder()
         .setPriority(Thread.MAX_PRIORITY)
         .setNameFormat("job-schedule-%d")
@@ -26,13 +26,14 @@ import com.avairebot.Constants;
 import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.controllers.RankIndexController;
+import com.avairebot.database.query.QueryBuilder;
 import net.dv8tion.jda.api.entities.Guild;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -46,6 +47,11 @@ public class CleanupPlayerRecordsJob extends Job {
 
     private static final Logger log = LoggerFactory.getLogger(CleanupPlayerRecordsJob.class);
 
+    /**
+     * The amount of XP records that are checked, or updated, at a time.
+     */
+    private static final int CHUNK_SIZE = 1000;
+
     public CleanupPlayerRecordsJob(AvaIre avaire) {
         super(avaire, 0, 1, TimeUnit.HOURS);
     }
@@ -56,78 +62,96 @@ public class CleanupPlayerRecordsJob extends Job {
             return;
         }
 
-        List<InactiveUser> inactiveUsers = getInactiveUsers();
-        if (inactiveUsers.isEmpty()) {
-            return;
-        }
+        String query = String.format(
+            "UPDATE `%s` SET `active` = 0 WHERE `user_id` = ? AND `guild_id` = ?",
+            Constants.PLAYER_EXPERIENCE_TABLE_NAME
+        );
+
+        log.debug("Starting \"Player Cleanup\" job with query: " + query);
+
+        Guild[] guild = new Guild[1];
+        List<InactiveUser> inactiveUsers = new ArrayList<>();
 
         try {
-            String query = String.format(
-                "UPDATE `%s` SET `active` = 0 WHERE `user_id` = ? AND `guild_id` = ?",
-                Constants.PLAYER_EXPERIENCE_TABLE_NAME
-            );
-
-            log.debug("Starting \"Player Cleanup\" job with query: " + query);
-
-            avaire.getDatabase().queryBatch(query, statement -> {
-                for (InactiveUser entity : inactiveUsers) {
-                    statement.setString(1, entity.userId);
-                    statement.setString(2, entity.guildId);
-                    statement.addBatch();
-                }
+            // The XP records are streamed from the database using a cursor, so only a single
+            // chunk of records is ever kept in memory by the job, the inactive users are
+            // buffered and only updated once the cursor has been closed, since the cursor
+            // holds on to its connection until every chunk has been read, updating the
+            // records from the chunk closure would require a second connection.
+            createUsersQuery().chunk(CHUNK_SIZE, chunk -> {
+                inactiveUsers.addAll(getInactiveUsers(chunk, guild));
             });
 
+            for (int i = 0; i < inactiveUsers.size(); i += CHUNK_SIZE) {
+                List<InactiveUser> batch = inactiveUsers.subList(i, Math.min(i + CHUNK_SIZE, inactiveUsers.size()));
+
+                avaire.getDatabase().queryBatch(query, statement -> {
+                    for (InactiveUser entity : batch) {
+                        statement.setString(1, entity.userId);
+                        statement.setString(2, entity.guildId);
+                        statement.addBatch();
+                    }
+                });
+
+                for (InactiveUser entity : batch) {
+                    RankIndexController.removeUser(
+                        Long.parseLong(entity.guildId), Long.parseLong(entity.userId)
+                    );
+                }
+            }
+
             log.debug("Finished \"Player Cleanup\" job, updated {} records in the process", inactiveUsers.size());
         } catch (SQLException e) {
             log.error("An SQL exception was thrown while updating player experience: ", e);
         }
     }
 
-    private List<InactiveUser> getInactiveUsers() {
-        try {
-            List<InactiveUser> inactiveUsers = new ArrayList<>();
-            Guild guild = null;
-
-            for (DataRow dataRow : getUsersFromDatabase()) {
-                if (guild == null || !guild.getId().equalsIgnoreCase(dataRow.getString("guild_id"))) {
-                    try {
-                        guild = avaire.getShardManager().getGuildById(dataRow.getString("guild_id"));
-                    } catch (Exception ignored) {
-                        inactiveUsers.add(createInactiveUser(dataRow));
-                        continue;
-                    }
-                }
-
-                if (guild == null) {
-                    inactiveUsers.add(createInactiveUser(dataRow));
-                    continue;
-                }
-
+    /**
+     * Gets the inactive users from the given chunk of XP records, the guild holder is used to
+     * keep the last looked up guild between chunks, since the records are ordered by the
+     * guild ID, most records will belong to the same guild as the record before them.
+     *
+     * @param chunk The chunk of XP records that should be checked.
+     * @param guild The holder for the last guild that was looked up.
+     * @return The inactive users in the given chunk of XP records.
+     */
+    private List<InactiveUser> getInactiveUsers(Collection chunk, Guild[] guild) {
+        List<InactiveUser> inactiveUsers = new ArrayList<>();
+
+        for (DataRow dataRow : chunk) {
+            if (guild[0] == null || !guild[0].getId().equalsIgnoreCase(dataRow.getString("guild_id"))) {
                 try {
-                    if (guild.getMemberById(dataRow.getString("user_id")) == null) {
-                        inactiveUsers.add(createInactiveUser(dataRow));
-                    }
+                    guild[0] = avaire.getShardManager().getGuildById(dataRow.getString("guild_id"));
                 } catch (Exception ignored) {
                     inactiveUsers.add(createInactiveUser(dataRow));
+                    continue;
                 }
             }
 
-            return inactiveUsers;
-        } catch (SQLException e) {
-            log.error("Failed to fetch active users for cleanup, error: {}", e.getMessage(), e);
+            if (guild[0] == null) {
+                inactiveUsers.add(createInactiveUser(dataRow));
+                continue;
+            }
 
-            //noinspection unchecked
-            return Collections.EMPTY_LIST;
+            try {
+                if (guild[0].getMemberById(dataRow.getString("user_id")) == null) {
+                    inactiveUsers.add(createInactiveUser(dataRow));
+                }
+            } catch (Exception ignored) {
+                inactiveUsers.add(createInactiveUser(dataRow));
+            }
         }
+
+        return inactiveUsers;
     }
 
-    private Collection getUsersFromDatabase() throws SQLException {
+    private QueryBuilder createUsersQuery() {
         return avaire.getDatabase()
             .newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
             .select("user_id", "guild_id")
             .where("active", 1)
             .orderBy("guild_id")
-            .get();
+            .fetchSize(CHUNK_SIZE);
     }
 
     private InactiveUser createInactiveUser(DataRow row) {
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.scheduler.jobs;
+
+import com.avairebot.AvaIre;
+import com.avairebot.cache.CacheType;
+import com.avairebot.cache.adapters.FileAdapter;
+import com.avairebot.contracts.scheduler.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This job will periodically compact the file cache, reclaiming the disk space
+ * used by cache items that has been overwritten, forgotten, or has expired,
+ * the file cache is only compacted if at least half of its size is
+ * made up of records that can be reclaimed.
+ */
+public class CompactFileCacheJob extends Job {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactFileCacheJob.class);
+
+    public CompactFileCacheJob(AvaIre avaire) {
+        super(avaire, 30, 30, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void run() {
+        try {
+            ((FileAdapter) avaire.getCache().getAdapter(CacheType.FILE)).compact();
+        } catch (IOException e) {
+            log.error("Failed to compact the file cache, error: {}", e.getMessage(), e);
+        }
+    }
+}
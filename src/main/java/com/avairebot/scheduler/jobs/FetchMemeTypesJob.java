@@ -41,7 +41,7 @@ public class FetchMemeTypesJob extends Job {
     public FetchMemeTypesJob(AvaIre avaire) {
         super(avaire, 7, 7, TimeUnit.DAYS);
 
-        if (!avaire.getCache().getAdapter(CacheType.FILE).has(cacheToken)) {
+        if (!avaire.getCache().getAdapter(CacheType.TIERED).has(cacheToken)) {
             run();
         }
     }
@@ -65,7 +65,7 @@ public class FetchMemeTypesJob extends Job {
 
                     }
 
-                    avaire.getCache().getAdapter(CacheType.FILE).forever(cacheToken, cache);
+                    avaire.getCache().getAdapter(CacheType.TIERED).forever(cacheToken, cache);
                 });
         });
     }
@@ -39,7 +39,7 @@ public class GithubChangesJob extends Job {
     public GithubChangesJob(AvaIre avaire) {
         super(avaire, 90, 90, TimeUnit.MINUTES);
 
-        if (!avaire.getCache().getAdapter(CacheType.FILE).has(cacheToken)) {
+        if (!avaire.getCache().getAdapter(CacheType.TIERED).has(cacheToken)) {
             run();
         }
     }
@@ -51,7 +51,7 @@ public class GithubChangesJob extends Job {
                 .send((Consumer<Response>) response -> {
                     List service = (List) response.toService(List.class);
 
-                    avaire.getCache().getAdapter(CacheType.FILE).forever(cacheToken, service);
+                    avaire.getCache().getAdapter(CacheType.TIERED).forever(cacheToken, service);
                 });
         });
     }
@@ -23,9 +23,10 @@ package com.avairebot.scheduler.jobs;
 
 import com.avairebot.AvaIre;
 import com.avairebot.audio.LavalinkManager;
+import com.avairebot.cache.CacheRegistry;
+import com.avairebot.cache.CacheSettings;
 import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.utilities.CacheUtil;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import lavalink.client.io.Link;
@@ -37,14 +38,15 @@ import java.util.concurrent.TimeUnit;
 
 public class LavalinkGarbageNodeCollectorJob extends Job {
 
-    public static final LoadingCache<Long, Integer> cache = CacheBuilder.newBuilder()
-        .expireAfterWrite(30, TimeUnit.SECONDS)
-        .build(new CacheLoader<Long, Integer>() {
+    public static final LoadingCache<Long, Integer> cache = CacheRegistry.register("lavalink-destroy-cleanup", new CacheSettings()
+        .expireAfterWrite(30, TimeUnit.SECONDS),
+        new CacheLoader<Long, Integer>() {
             @Override
             public Integer load(@Nonnull Long key) throws Exception {
                 return 0;
             }
-        });
+        }
+    );
 
     public LavalinkGarbageNodeCollectorJob(AvaIre avaire) {
         super(avaire, 0, 5, TimeUnit.SECONDS);
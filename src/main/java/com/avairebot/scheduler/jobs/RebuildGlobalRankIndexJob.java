@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.scheduler.jobs;
+
+import com.avairebot.AvaIre;
+import com.avairebot.contracts.scheduler.Job;
+import com.avairebot.database.controllers.RankIndexController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This job will periodically rebuild the global rank index, if it has been
+ * loaded, the global experience is only incremented as experience is
+ * synced, so records that are marked as inactive, or are activated
+ * again, will only be reflected in the index once it's rebuilt.
+ */
+public class RebuildGlobalRankIndexJob extends Job {
+
+    private static final Logger log = LoggerFactory.getLogger(RebuildGlobalRankIndexJob.class);
+
+    public RebuildGlobalRankIndexJob(AvaIre avaire) {
+        super(avaire, 60, 60, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void run() {
+        if (!RankIndexController.hasGlobalRankIndex()) {
+            return;
+        }
+
+        try {
+            RankIndexController.rebuildGlobalRankIndex(avaire);
+        } catch (SQLException e) {
+            log.error("Failed to rebuild the global rank index, error: {}", e.getMessage(), e);
+        }
+    }
+}
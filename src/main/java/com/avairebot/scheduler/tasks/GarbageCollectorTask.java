@@ -34,6 +34,7 @@ import com.avairebot.contracts.commands.InteractionCommand;
 import com.avairebot.contracts.scheduler.Task;
 import com.avairebot.handlers.adapter.JDAStateEventAdapter;
 import com.avairebot.handlers.adapter.MessageEventAdapter;
+import com.avairebot.metrics.Metrics;
 import com.avairebot.scheduler.jobs.LavalinkGarbageNodeCollectorJob;
 import lavalink.client.io.Link;
 import lavalink.client.io.jda.JdaLink;
@@ -49,10 +50,12 @@ public class GarbageCollectorTask implements Task {
         // the list, allowing users to get the DM info message again.
         MessageEventAdapter.hasReceivedInfoMessageInTheLastMinute.clear();
 
-        // Remove cache entries from the memory cache adapter
-        // if the keys are still stored by has expired.
+        // Remove expired cache entries from the memory cache adapter that
+        // haven't been requested since they expired, entries that are
+        // requested are removed by the adapter once they're read.
         MemoryAdapter adapter = (MemoryAdapter) avaire.getCache().getAdapter(CacheType.MEMORY);
-        adapter.getCacheKeys().removeIf(key -> !adapter.has(key));
+        adapter.cleanUp();
+        Metrics.memoryCacheWeight.set(adapter.getWeightedSize());
 
         // Clean music managers and audio sessions by removing
         // them if they have expired or are unused.
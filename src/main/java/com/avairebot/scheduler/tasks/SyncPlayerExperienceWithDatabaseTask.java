@@ -24,12 +24,12 @@ package com.avairebot.scheduler.tasks;
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.contracts.scheduler.Task;
+import com.avairebot.database.controllers.RankIndexController;
 import com.avairebot.level.ExperienceEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 
 public class SyncPlayerExperienceWithDatabaseTask implements Task {
@@ -42,10 +42,9 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
             return;
         }
 
-        List<ExperienceEntity> experienceQueue;
-        synchronized (avaire.getLevelManager().getExperienceQueue()) {
-            experienceQueue = new ArrayList<>(avaire.getLevelManager().getExperienceQueue());
-            avaire.getLevelManager().getExperienceQueue().clear();
+        List<ExperienceEntity> experienceQueue = avaire.getLevelManager().getExperienceQueue().drain();
+        if (experienceQueue.isEmpty()) {
+            return;
         }
 
         try {
@@ -58,14 +57,22 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
 
             avaire.getDatabase().queryBatch(query, statement -> {
                 for (ExperienceEntity entity : experienceQueue) {
-                    statement.setInt(1, entity.isExcludeLocal() ? 0 : entity.getExperience());
-                    statement.setInt(2, entity.getExperience());
+                    statement.setInt(1, entity.getLocalExperience());
+                    statement.setInt(2, entity.getGlobalExperience());
                     statement.setString(3, String.valueOf(entity.getUserId()));
                     statement.setString(4, String.valueOf(entity.getGuildId()));
                     statement.addBatch();
                 }
             });
 
+            for (ExperienceEntity entity : experienceQueue) {
+                RankIndexController.incrementGlobalExperience(entity.getUserId(), entity.getGlobalExperience());
+
+                if (entity.getLocalExperience() != 0) {
+                    RankIndexController.incrementExperience(entity.getGuildId(), entity.getUserId(), entity.getLocalExperience());
+                }
+            }
+
             log.debug("Finished \"Player Experience\" task, updated {} records in the process", experienceQueue.size());
         } catch (SQLException e) {
             log.error("An SQL exception was thrown while updating player experience: ", e);
@@ -29,45 +29,64 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 
 public class SyncPlayerUpdateReferencesWithDatabaseTask implements Task {
 
+    /**
+     * The max amount of users whose profile changes are written in a single batch,
+     * large backlogs are split up into multiple batches so a single transaction
+     * doesn't hold on to locks for every changed row at the same time.
+     */
+    private static final int batchSize = 500;
+
     private static final Logger log = LoggerFactory.getLogger(SyncPlayerUpdateReferencesWithDatabaseTask.class);
 
     @Override
     public void handle(AvaIre avaire) {
-        if (PlayerController.getPlayerQueue().isEmpty()) {
+        // The backlog size is read before the queue is drained, so users who keep changing
+        // their profile while the sync is running can't keep the task running forever.
+        int backlog = PlayerController.getPlayerQueueSize();
+        if (backlog == 0) {
             return;
         }
 
-        Map<Long, PlayerController.PlayerUpdateReference> playerQueue;
-        synchronized (PlayerController.getPlayerQueue()) {
-            playerQueue = new HashMap<>(PlayerController.getPlayerQueue());
-            PlayerController.getPlayerQueue().clear();
-        }
-
         String query = String.format("UPDATE `%s` SET `avatar` = ?, `username` = ?, `discriminator` = ? WHERE `user_id` = ?",
             Constants.PLAYER_EXPERIENCE_TABLE_NAME
         );
 
-        log.debug("Starting \"Player Reference\" update task with query: " + query);
+        log.debug("Starting \"Player Reference\" update task for {} users with query: {}", backlog, query);
+
+        int updated = 0;
+        while (updated < backlog) {
+            Map<Long, PlayerController.PlayerUpdateReference> playerQueue = PlayerController.drainPlayerQueue(
+                Math.min(batchSize, backlog - updated)
+            );
 
-        try {
-            avaire.getDatabase().queryBatch(query, preparedStatement -> {
-                for (Map.Entry<Long, PlayerController.PlayerUpdateReference> entity : playerQueue.entrySet()) {
-                    preparedStatement.setString(1, entity.getValue().getAvatar());
-                    preparedStatement.setString(2, entity.getValue().getUsername());
-                    preparedStatement.setString(3, entity.getValue().getDiscriminator());
-                    preparedStatement.setString(4, entity.getKey().toString());
-                    preparedStatement.addBatch();
-                }
-            });
+            if (playerQueue.isEmpty()) {
+                break;
+            }
 
-            log.debug("Finished \"Player Reference\" task, updated {} records in the process", playerQueue.size());
-        } catch (SQLException e) {
-            log.error("An SQL exception was thrown while updating player references: ", e);
+            try {
+                avaire.getDatabase().queryBatch(query, preparedStatement -> {
+                    for (Map.Entry<Long, PlayerController.PlayerUpdateReference> entity : playerQueue.entrySet()) {
+                        preparedStatement.setString(1, entity.getValue().getAvatar());
+                        preparedStatement.setString(2, entity.getValue().getUsername());
+                        preparedStatement.setString(3, entity.getValue().getDiscriminator());
+                        preparedStatement.setString(4, entity.getKey().toString());
+                        preparedStatement.addBatch();
+                    }
+                });
+            } catch (SQLException e) {
+                log.error("An SQL exception was thrown while updating player references: ", e);
+
+                PlayerController.requeuePlayerUpdates(playerQueue);
+                return;
+            }
+
+            updated += playerQueue.size();
         }
+
+        log.debug("Finished \"Player Reference\" task, updated {} records in the process", updated);
     }
 }
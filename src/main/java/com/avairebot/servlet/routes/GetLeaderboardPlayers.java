@@ -119,6 +119,7 @@ public class GetLeaderboardPlayers extends SparkRoute {
         return (Collection) CacheUtil.getUncheckedUnwrapped(LeaderboardCommand.cache, guildId, () -> {
             try {
                 return AvaIre.getInstance().getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+                    .useReplica(true)
                     .where("guild_id", guildId)
                     .orderBy("experience", "desc")
                     .take(100)
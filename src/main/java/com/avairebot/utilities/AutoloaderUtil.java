@@ -23,7 +23,6 @@ package com.avairebot.utilities;
 
 import com.avairebot.AvaIre;
 import com.avairebot.contracts.reflection.Reflectional;
-import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +50,8 @@ public class AutoloaderUtil {
 
     /**
      * Loads all the classes in the given package path that implements the
-     * {@link Reflectional reflectional interface}, all classes found
+     * {@link Reflectional reflectional interface}, the classes are read from
+     * the {@link ComponentIndex component index} when possible, all classes found
      * will be instantiated and passed to the class constructor,
      * and the class will then be sent to the consumer
      * callback so it can be used.
@@ -67,7 +67,7 @@ public class AutoloaderUtil {
      *                            to the loaded class constructor.
      */
     public static void load(String path, Consumer<Reflectional> callback, boolean parseAvaIreInstance) {
-        Set<Class<? extends Reflectional>> types = new Reflections(path).getSubTypesOf(Reflectional.class);
+        Set<Class<? extends Reflectional>> types = ComponentIndex.getReflectionalTypes(path);
 
         for (Class<? extends Reflectional> reflectionClass : types) {
             if (reflectionClass.getPackage().getName().contains("contracts")) {
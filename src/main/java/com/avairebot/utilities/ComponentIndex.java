@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.utilities;
+
+import com.avairebot.contracts.reflection.Reflectional;
+import net.dv8tion.jda.api.events.Event;
+import org.reflections.Reflections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+public class ComponentIndex {
+
+    /**
+     * The path to the index of every class implementing the
+     * {@link Reflectional reflectional interface}.
+     */
+    public static final String REFLECTIONAL_INDEX = "META-INF/avaire/reflectional.idx";
+
+    /**
+     * The path to the index of every JDA event that can be dispatched.
+     */
+    public static final String EVENT_INDEX = "META-INF/avaire/jda-events.idx";
+
+    /**
+     * The package that is covered by the reflectional index, any package paths
+     * outside of this package, like plugin packages, are always scanned.
+     */
+    private static final String INDEXED_PACKAGE = "com.avairebot";
+
+    /**
+     * The package JDA events are scanned for in.
+     */
+    private static final String EVENTS_PACKAGE = "net.dv8tion.jda.api.events";
+
+    private static final Logger log = LoggerFactory.getLogger(ComponentIndex.class);
+
+    private static List<String> reflectionalIndex;
+    private static boolean reflectionalIndexLoaded = false;
+
+    /**
+     * Gets all the classes in the given package path that implements the {@link Reflectional
+     * reflectional interface}, the classes are loaded from the component index that is
+     * generated when the jar is built, if the index is missing, or the package path
+     * isn't covered by the index, the package path is scanned instead.
+     *
+     * @param path The package path the classes should be loaded from.
+     * @return The set of classes in the given package that implements the reflectional interface.
+     */
+    public static Set<Class<? extends Reflectional>> getReflectionalTypes(String path) {
+        List<String> index = getReflectionalIndex();
+        if (index == null || !(path.equals(INDEXED_PACKAGE) || path.startsWith(INDEXED_PACKAGE + "."))) {
+            return new Reflections(path).getSubTypesOf(Reflectional.class);
+        }
+
+        Set<Class<? extends Reflectional>> types = new HashSet<>();
+        for (String className : index) {
+            if (!className.startsWith(path + ".")) {
+                continue;
+            }
+
+            try {
+                types.add(Class.forName(className).asSubclass(Reflectional.class));
+            } catch (ClassNotFoundException | ClassCastException e) {
+                log.error("Failed to load indexed class {}, the component index might be out of date", className, e);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Gets the simple names of all the JDA events that can be dispatched, the names are
+     * loaded from the component index that is generated when the jar is built, if
+     * the index is missing the JDA events package is scanned instead.
+     *
+     * @return The set of simple names for every JDA event.
+     */
+    public static Set<String> getEventNames() {
+        List<String> index = readIndex(EVENT_INDEX);
+        if (index == null) {
+            index = scanEventTypes();
+        }
+
+        Set<String> names = new HashSet<>();
+        for (String className : index) {
+            names.add(className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1));
+        }
+        return names;
+    }
+
+    /**
+     * Generates the component index files, this is called by the
+     * <code>generateComponentIndex</code> Gradle task while
+     * the jar is being built, and should not be used at runtime.
+     *
+     * @param args The directory the index files should be written to.
+     * @throws IOException If the index files couldn't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("The output directory for the component index must be given");
+        }
+
+        Reflections.log = null;
+
+        List<String> reflectionalTypes = new ArrayList<>();
+        for (Class<? extends Reflectional> type : new Reflections(INDEXED_PACKAGE).getSubTypesOf(Reflectional.class)) {
+            reflectionalTypes.add(type.getName());
+        }
+
+        writeIndex(new File(args[0], REFLECTIONAL_INDEX), reflectionalTypes);
+        writeIndex(new File(args[0], EVENT_INDEX), scanEventTypes());
+    }
+
+    @Nullable
+    private static synchronized List<String> getReflectionalIndex() {
+        if (!reflectionalIndexLoaded) {
+            reflectionalIndex = readIndex(REFLECTIONAL_INDEX);
+            reflectionalIndexLoaded = true;
+
+            if (reflectionalIndex == null) {
+                log.debug("No component index was found, falling back to scanning for components");
+            }
+        }
+        return reflectionalIndex;
+    }
+
+    private static List<String> scanEventTypes() {
+        List<String> types = new ArrayList<>();
+        for (Class<? extends Event> type : new Reflections(EVENTS_PACKAGE).getSubTypesOf(Event.class)) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                continue;
+            }
+            types.add(type.getName());
+        }
+        return types;
+    }
+
+    @Nullable
+    private static List<String> readIndex(String resource) {
+        InputStream stream = ComponentIndex.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            return null;
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read the component index {}, falling back to scanning for components", resource, e);
+            return null;
+        }
+        return lines;
+    }
+
+    private static void writeIndex(File file, List<String> classNames) throws IOException {
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Failed to create the component index directory: " + file.getParentFile());
+        }
+
+        Collections.sort(classNames);
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Generated by the generateComponentIndex Gradle task, do not edit.");
+        lines.addAll(classNames);
+
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+}
@@ -254,33 +254,44 @@ public class VoteManager {
         }
 
         try {
-            Collection collection = avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                .where("user_id", userId).take(1).get();
-
             int finalPoints = points;
-            if (collection.isEmpty()) {
-                avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                    .insert(statement -> {
-                        statement.set("user_id", userId);
-                        statement.set("expires_in", voteLog.get(userId).getCarbon().toDayDateTimeString());
-                        statement.set("points", finalPoints);
-                        statement.set("points_total", finalPoints);
+            String expiresIn = voteLog.get(userId).getCarbon().toDayDateTimeString();
+
+            // The lookup and the insert or update are run in a single transaction, so the vote
+            // is either saved in full or not at all, and deadlocks are retried automatically.
+            Collection[] existing = new Collection[1];
+            avaire.getDatabase().transaction(transaction -> {
+                existing[0] = transaction.newQueryBuilder(Constants.VOTES_TABLE_NAME)
+                    .where("user_id", userId).take(1).get();
+
+                if (existing[0].isEmpty()) {
+                    transaction.newQueryBuilder(Constants.VOTES_TABLE_NAME)
+                        .insert(statement -> {
+                            statement.set("user_id", userId);
+                            statement.set("expires_in", expiresIn);
+                            statement.set("points", finalPoints);
+                            statement.set("points_total", finalPoints);
+                        });
+
+                    return;
+                }
+
+                transaction.newQueryBuilder(Constants.VOTES_TABLE_NAME)
+                    .where("user_id", userId)
+                    .update(statement -> {
+                        statement.set("expires_in", expiresIn);
+                        statement.setRaw("points", "`points` + " + finalPoints);
+                        statement.setRaw("points_total", "`points_total` + " + finalPoints);
                     });
+            });
 
+            Collection collection = existing[0];
+            if (collection.isEmpty()) {
                 voteLog.get(userId).setVotePoints(finalPoints);
 
                 return;
             }
 
-            avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                .useAsync(true)
-                .where("user_id", userId)
-                .update(statement -> {
-                    statement.set("expires_in", voteLog.get(userId).getCarbon().toDayDateTimeString());
-                    statement.setRaw("points", "`points` + " + finalPoints);
-                    statement.setRaw("points_total", "`points_total` + " + finalPoints);
-                });
-
             VoteCacheEntity voteEntity = voteLog.get(userId);
 
             voteEntity.setVotePoints(collection.first().getInt("points", 1) + finalPoints);
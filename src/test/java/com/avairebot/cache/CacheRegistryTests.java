@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache;
+
+import com.avairebot.BaseTest;
+import com.avairebot.config.MemoryConfiguration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.prometheus.client.Collector;
+import io.prometheus.client.guava.cache.CacheMetricsCollector;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRegistryTests extends BaseTest {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        CacheRegistry.configure(null);
+    }
+
+    @Test
+    public void testCachesAreRegisteredByName() {
+        String name = uniqueName();
+        RegisteredCache<Long, String> cache = CacheRegistry.register(name, new CacheSettings().maximumSize(10));
+
+        assertSame(cache, CacheRegistry.getCache(name));
+        assertTrue(CacheRegistry.getCaches().contains(cache));
+        assertEquals(name, cache.getName());
+        assertFalse(cache instanceof LoadingCache);
+    }
+
+    @Test
+    public void testCachesCanOnlyBeRegisteredOnce() {
+        String name = uniqueName();
+        CacheRegistry.register(name, new CacheSettings());
+
+        assertThrows(IllegalArgumentException.class, () -> CacheRegistry.register(name, new CacheSettings()));
+    }
+
+    @Test
+    public void testCachesWithALoaderLoadMissingEntries() {
+        LoadingCache<Long, String> cache = CacheRegistry.register(uniqueName(), new CacheSettings(), CacheLoader.from(key -> "value-" + key));
+
+        assertEquals("value-5", cache.getUnchecked(5L));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCacheStatsAreRecorded() {
+        Cache<Long, String> cache = CacheRegistry.register(uniqueName(), new CacheSettings());
+
+        assertNull(cache.getIfPresent(1L));
+        cache.put(1L, "value");
+        assertEquals("value", cache.getIfPresent(1L));
+
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void testRegisteredCachesAreAddedToTheMetrics() {
+        CacheMetricsCollector collector = new CacheMetricsCollector();
+        CacheRegistry.registerMetrics(collector);
+
+        // Caches registered after the metrics are set up are added as they're registered.
+        String name = uniqueName();
+        Cache<Long, String> cache = CacheRegistry.register(name, new CacheSettings());
+        cache.put(1L, "value");
+        cache.getIfPresent(1L);
+        cache.getIfPresent(2L);
+
+        assertEquals(1D, getSample(collector, "guava_cache_hit_total", name));
+        assertEquals(1D, getSample(collector, "guava_cache_miss_total", name));
+    }
+
+    @Test
+    public void testTheConfigOverwritesTheDefaultSettings() {
+        String name = uniqueName();
+        RegisteredCache<Long, String> cache = CacheRegistry.register(name, new CacheSettings()
+            .maximumSize(10)
+            .expireAfterWrite(5, TimeUnit.MINUTES)
+        );
+        cache.put(1L, "value");
+
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("caches." + name + ".maximum-size", 25);
+        CacheRegistry.configure(config);
+
+        assertEquals(25, cache.getSettings().getMaximumSize());
+        assertEquals(5, cache.getSettings().getExpireAfterWrite(TimeUnit.MINUTES));
+        assertEquals(10, cache.getDefaultSettings().getMaximumSize());
+        assertEquals("value", cache.getIfPresent(1L));
+
+        CacheRegistry.configure(null);
+
+        assertEquals(10, cache.getSettings().getMaximumSize());
+    }
+
+    @Test
+    public void testCachesRegisteredAfterTheConfigUseTheConfigSettings() {
+        String name = uniqueName();
+
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("caches." + name + ".expire-after-access", 30);
+        CacheRegistry.configure(config);
+
+        RegisteredCache<Long, String> cache = CacheRegistry.register(name, new CacheSettings());
+
+        assertEquals(30, cache.getSettings().getExpireAfterAccess(TimeUnit.SECONDS));
+    }
+
+    private double getSample(CacheMetricsCollector collector, String metric, String cache) {
+        for (Collector.MetricFamilySamples family : collector.collect()) {
+            for (Collector.MetricFamilySamples.Sample sample : family.samples) {
+                if (sample.name.equals(metric) && sample.labelValues.contains(cache)) {
+                    return sample.value;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private String uniqueName() {
+        return "registry-tests-" + counter.incrementAndGet();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache.adapters;
+
+import com.avairebot.BaseTest;
+import com.avairebot.cache.CacheItem;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileAdapterTests extends BaseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File storagePath;
+    private FileAdapter adapter;
+
+    @Before
+    public void setUp() throws IOException {
+        storagePath = folder.newFolder("cache");
+        adapter = new FileAdapter(storagePath);
+    }
+
+    @Test
+    public void testItemsCanBeStoredAndRead() {
+        assertTrue(adapter.forever("string", "Ava"));
+        assertTrue(adapter.put("list", Arrays.asList("a", "b", "c"), 60));
+
+        assertEquals("Ava", adapter.get("string"));
+        assertEquals(Arrays.asList("a", "b", "c"), adapter.get("list"));
+        assertTrue(adapter.has("string"));
+        assertTrue(adapter.has("list"));
+        assertNull(adapter.get("missing"));
+    }
+
+    @Test
+    public void testKeysAreNormalized() {
+        adapter.forever("  Some.Key ", "value");
+
+        assertEquals("value", adapter.get("some.key"));
+        assertEquals("value", adapter.get("SOME.KEY"));
+    }
+
+    @Test
+    public void testStoringAnItemOverwritesThePreviousValue() {
+        adapter.forever("key", "first");
+        adapter.forever("key", "second");
+
+        assertEquals("second", adapter.get("key"));
+        assertEquals(Collections.singleton("key"), adapter.getCacheKeys());
+    }
+
+    @Test
+    public void testExpiredItemsAreNotReturned() {
+        adapter.putRaw(new CacheItem("expired", "value", System.currentTimeMillis() - 1000));
+
+        assertFalse(adapter.has("expired"));
+        assertNull(adapter.get("expired"));
+        assertNull(adapter.getRaw("expired"));
+    }
+
+    @Test
+    public void testForgottenItemsAreRemoved() {
+        adapter.forever("key", "value");
+
+        CacheItem item = adapter.forget("key");
+        assertNotNull(item);
+        assertEquals("value", item.getValue());
+
+        assertFalse(adapter.has("key"));
+        assertNull(adapter.get("key"));
+        assertNull(adapter.forget("key"));
+    }
+
+    @Test
+    public void testItemsAreReplayedWhenTheCacheIsReopened() {
+        adapter.forever("kept", "value");
+        adapter.forever("overwritten", "first");
+        adapter.forever("overwritten", "second");
+        adapter.forever("forgotten", "value");
+        adapter.forget("forgotten");
+        adapter.putRaw(new CacheItem("expired", "value", System.currentTimeMillis() - 1000));
+
+        FileAdapter reopened = new FileAdapter(storagePath);
+
+        assertEquals("value", reopened.get("kept"));
+        assertEquals("second", reopened.get("overwritten"));
+        assertFalse(reopened.has("forgotten"));
+        assertFalse(reopened.has("expired"));
+    }
+
+    @Test
+    public void testFlushRemovesAllItems() {
+        adapter.forever("first", "value");
+        adapter.forever("second", "value");
+
+        assertTrue(adapter.flush());
+        assertTrue(adapter.getCacheKeys().isEmpty());
+        assertTrue(new FileAdapter(storagePath).getCacheKeys().isEmpty());
+    }
+
+    @Test
+    public void testCompactionIsSkippedWithoutEnoughGarbage() throws IOException {
+        adapter.forever("key", "first");
+        adapter.forever("key", "second");
+
+        assertFalse(adapter.compact());
+        assertEquals("second", adapter.get("key"));
+    }
+
+    @Test
+    public void testCompactionRemovesGarbageAndKeepsLiveItems() throws IOException {
+        char[] chars = new char[8 * 1024];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+
+        adapter.forever("kept", "value");
+        for (int i = 0; i < 300; i++) {
+            adapter.forever("overwritten", i + value);
+            adapter.forever("forgotten", value);
+            adapter.forget("forgotten");
+        }
+
+        long size = adapter.getSize();
+        assertTrue(adapter.getGarbageSize() > size / 2);
+
+        assertTrue(adapter.compact());
+        assertEquals(0, adapter.getGarbageSize());
+        assertTrue(adapter.getSize() < size / 100, "Compacted size should be much smaller, got " + adapter.getSize());
+
+        assertEquals("value", adapter.get("kept"));
+        assertEquals(299 + value, adapter.get("overwritten"));
+        assertFalse(adapter.has("forgotten"));
+
+        adapter.forever("written-after-compaction", "value");
+
+        FileAdapter reopened = new FileAdapter(storagePath);
+        assertEquals("value", reopened.get("kept"));
+        assertEquals(299 + value, reopened.get("overwritten"));
+        assertEquals("value", reopened.get("written-after-compaction"));
+        assertFalse(reopened.has("forgotten"));
+    }
+}
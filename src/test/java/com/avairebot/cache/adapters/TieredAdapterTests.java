@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.cache.adapters;
+
+import com.avairebot.BaseTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TieredAdapterTests extends BaseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileAdapter fileTier;
+    private TieredAdapter adapter;
+
+    @Before
+    public void setUp() throws IOException {
+        fileTier = new FileAdapter(folder.newFolder("cache"));
+        adapter = new TieredAdapter(fileTier);
+    }
+
+    @Test
+    public void testItemsAreWrittenToBothTiers() {
+        assertTrue(adapter.forever("key", "value"));
+
+        assertEquals("value", adapter.get("key"));
+        assertEquals("value", fileTier.get("tiered:key"));
+    }
+
+    @Test
+    public void testItemsMissingFromMemoryArePromotedFromTheFileTier() {
+        adapter.forever("key", "value");
+
+        // A new adapter starts with an empty memory tier, like after a restart.
+        TieredAdapter restarted = new TieredAdapter(fileTier);
+        assertEquals("value", restarted.get("key"));
+
+        // Once promoted the item is served from the memory tier, even
+        // if the item is no longer stored in the file tier.
+        fileTier.forget("tiered:key");
+        assertEquals("value", restarted.get("key"));
+        assertTrue(restarted.has("key"));
+    }
+
+    @Test
+    public void testValuesAreTheSameFromEitherTier() {
+        adapter.forever("number", 5);
+
+        assertEquals(5D, adapter.get("number"));
+        assertEquals(5D, new TieredAdapter(fileTier).get("number"));
+    }
+
+    @Test
+    public void testForgottenItemsAreRemovedFromBothTiers() {
+        adapter.forever("key", "value");
+
+        assertNotNull(adapter.forget("key"));
+
+        assertFalse(adapter.has("key"));
+        assertFalse(fileTier.has("tiered:key"));
+        assertNull(new TieredAdapter(fileTier).get("key"));
+    }
+
+    @Test
+    public void testWriteBehindQueuesFileWritesUntilTheyAreWritten() {
+        adapter.setWriteBehind(true);
+        adapter.forever("key", "first");
+        adapter.forever("key", "second");
+
+        assertEquals("second", adapter.get("key"));
+        assertEquals(1, adapter.getPendingWriteCount());
+        assertFalse(fileTier.has("tiered:key"));
+
+        adapter.writePendingItems();
+
+        assertEquals(0, adapter.getPendingWriteCount());
+        assertEquals("second", fileTier.get("tiered:key"));
+    }
+
+    @Test
+    public void testFlushOnlyRemovesTieredItemsFromTheFileTier() {
+        adapter.forever("key", "value");
+        fileTier.forever("unrelated", "value");
+
+        assertTrue(adapter.flush());
+
+        assertFalse(adapter.has("key"));
+        assertFalse(fileTier.has("tiered:key"));
+        assertTrue(fileTier.has("unrelated"));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.contracts.cache;
+
+import com.avairebot.BaseTest;
+import com.avairebot.cache.adapters.MemoryAdapter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheAdapterTests extends BaseTest {
+
+    private MemoryAdapter adapter;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        adapter = new MemoryAdapter();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRememberReturnsCachedItemsWithoutInvokingTheClosure() {
+        adapter.put("key", "cached", 60);
+
+        assertEquals("cached", adapter.remember("key", 60, () -> {
+            throw new IllegalStateException("The closure should not be invoked");
+        }));
+    }
+
+    @Test
+    public void testRememberStoresTheResultOfTheClosure() {
+        assertEquals("loaded", adapter.remember("key", 60, () -> "loaded"));
+
+        assertEquals("loaded", adapter.get("key"));
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentRemembersOnlyInvokeTheClosureOncePerKey() throws Exception {
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> adapter.remember("key", 60, () -> {
+                invocations.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "loaded";
+            })));
+        }
+
+        // Gives every thread time to reach the cache before the closure finishes.
+        Thread.sleep(250);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertEquals("loaded", result.get());
+        }
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    public void testDifferentKeysAreLoadedSeparately() {
+        AtomicInteger invocations = new AtomicInteger();
+
+        assertEquals(1, adapter.remember("first", 60, invocations::incrementAndGet));
+        assertEquals(2, adapter.remember("second", 60, invocations::incrementAndGet));
+        assertEquals(1, adapter.remember("first", 60, invocations::incrementAndGet));
+    }
+
+    @Test
+    public void testFailedLoadsReturnNullAndAreRetried() {
+        assertNull(adapter.remember("key", 60, () -> {
+            throw new IllegalStateException("The load failed");
+        }));
+        assertFalse(adapter.has("key"));
+
+        assertEquals("loaded", adapter.remember("key", 60, () -> "loaded"));
+    }
+
+    @Test(timeout = 10000)
+    public void testItemsAboutToExpireAreRefreshedInTheBackground() throws InterruptedException {
+        adapter.put("key", "old", 2);
+
+        assertEquals("old", adapter.remember("key", 60, 5, () -> "new"));
+
+        while (!"new".equals(adapter.get("key"))) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -22,12 +22,18 @@
 package com.avairebot.database;
 
 import com.avairebot.BaseTest;
+import com.avairebot.contracts.database.Database.QueryType;
+import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.fakes.FakeDatabaseManager;
 import com.avairebot.database.query.QueryBuilder;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class QueryBuilderTests extends BaseTest {
 
@@ -96,6 +102,34 @@ public class QueryBuilderTests extends BaseTest {
         );
     }
 
+    @Test
+    public void testUpsertQueriesAreBuildAsMultiRowInserts() {
+        QueryBuilder query = makeQuery().onConflict("id");
+
+        for (int i = 1; i <= 2; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("name", "test");
+            query.getItems().add(row);
+        }
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`) VALUES (?,?), (?,?) ON DUPLICATE KEY UPDATE `name` = VALUES(`name`);",
+            query.compile(QueryType.UPSERT).getQuery()
+        );
+    }
+
+    @Test
+    public void testUpsertQueriesCantBeBuildAsPlainSQL() {
+        QueryBuilder query = makeQuery().onConflict("id");
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        query.getItems().add(row);
+
+        assertThrows(DatabaseException.class, () -> query.toSQL(QueryType.UPSERT));
+    }
+
     private QueryBuilder makeQuery() {
         return dbm.newQueryBuilder("test");
     }
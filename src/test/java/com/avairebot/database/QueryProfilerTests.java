@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryProfilerTests extends BaseTest {
+
+    @Test
+    public void testNumberLiteralsAreReplaced() {
+        assertEquals(
+            "SELECT * FROM `users` WHERE `id` = ? AND `points` > ?",
+            QueryProfiler.normalize("SELECT * FROM `users` WHERE `id` = 88 AND `points` > 12.5")
+        );
+    }
+
+    @Test
+    public void testStringLiteralsAreReplaced() {
+        assertEquals(
+            "SELECT * FROM `users` WHERE `name` = ? OR `name` = ?",
+            QueryProfiler.normalize("SELECT * FROM `users` WHERE `name` = 'Senither' OR `name` = \"Ava\"")
+        );
+    }
+
+    @Test
+    public void testEscapedQuotesInStringLiteralsAreReplaced() {
+        assertEquals(
+            "UPDATE `guilds` SET `name` = ? WHERE `id` = ?",
+            QueryProfiler.normalize("UPDATE `guilds` SET `name` = 'It\\'s Ava''s place' WHERE `id` = 1")
+        );
+    }
+
+    @Test
+    public void testNumbersInIdentifiersAreKept() {
+        assertEquals(
+            "SELECT `column1`, col2 FROM `table3` WHERE `v4` = ?",
+            QueryProfiler.normalize("SELECT `column1`, col2 FROM `table3` WHERE `v4` = 4")
+        );
+    }
+
+    @Test
+    public void testWhitespaceIsCollapsed() {
+        assertEquals(
+            "SELECT * FROM `users` WHERE `id` = ?",
+            QueryProfiler.normalize("  SELECT *\n\tFROM `users`\n   WHERE `id`   =  5 ;  ")
+        );
+    }
+
+    @Test
+    public void testValueListsAreCollapsed() {
+        assertEquals(
+            "SELECT * FROM `users` WHERE `id` IN (?+)",
+            QueryProfiler.normalize("SELECT * FROM `users` WHERE `id` IN (1, 2, 3, 4, 5)")
+        );
+        assertEquals(
+            "SELECT * FROM `users` WHERE `id` IN (?+)",
+            QueryProfiler.normalize("SELECT * FROM `users` WHERE `id` IN (1)")
+        );
+    }
+
+    @Test
+    public void testInsertsWithDifferentAmountOfRowsShareFingerprints() {
+        String expected = "INSERT INTO `users` (`id`, `name`) VALUES (?+)";
+
+        assertEquals(expected, QueryProfiler.normalize("INSERT INTO `users` (`id`, `name`) VALUES (1, 'a')"));
+        assertEquals(expected, QueryProfiler.normalize("INSERT INTO `users` (`id`, `name`) VALUES (1, 'a'), (2, 'b')"));
+        assertEquals(expected, QueryProfiler.normalize("INSERT INTO `users` (`id`, `name`) VALUES (1, 'a'), (2, 'b'), (3, 'c');"));
+    }
+}
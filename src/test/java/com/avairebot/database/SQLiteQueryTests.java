@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.fakes.FakeSQLiteDatabaseManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SQLiteQueryTests extends BaseTest {
+
+    private FakeSQLiteDatabaseManager dbm;
+
+    @Before
+    public void setUp() throws SQLException {
+        dbm = new FakeSQLiteDatabaseManager();
+        dbm.queryUpdate("CREATE TABLE `users` (`id` INTEGER PRIMARY KEY, `name` VARCHAR(64), `points` INTEGER);");
+        dbm.queryUpdate("INSERT INTO `users` (`id`, `name`, `points`) VALUES (1, 'Senither', 10), (2, 'Ava', 20);");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        dbm.close();
+    }
+
+    @Test
+    public void testCompiledSelectQueriesRunOnSQLite() throws SQLException {
+        Collection result = dbm.newQueryBuilder("users")
+            .where("points", ">", 15)
+            .get();
+
+        assertEquals(1, result.size());
+        assertEquals("Ava", result.first().getString("name"));
+        assertEquals(20, result.first().getInt("points"));
+    }
+
+    @Test
+    public void testCompiledInsertQueriesRunOnSQLite() throws SQLException {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", 3);
+        item.put("name", "Alexis");
+        item.put("points", 30);
+
+        dbm.newQueryBuilder("users").insert(item);
+
+        Collection result = dbm.newQueryBuilder("users").where("id", 3).get();
+        assertEquals(1, result.size());
+        assertEquals("Alexis", result.first().getString("name"));
+    }
+
+    @Test
+    public void testCompiledUpdateQueriesRunOnSQLite() throws SQLException {
+        int rows = dbm.newQueryBuilder("users")
+            .where("name", "Senither")
+            .update(statement -> statement.set("points", 50));
+
+        assertEquals(1, rows);
+        assertEquals(50, dbm.newQueryBuilder("users").where("id", 1).get().first().getInt("points"));
+    }
+
+    @Test
+    public void testCompiledDeleteQueriesRunOnSQLite() throws SQLException {
+        assertEquals(1, dbm.newQueryBuilder("users").where("id", 2).delete());
+        assertEquals(1, dbm.newQueryBuilder("users").get().size());
+    }
+
+    @Test
+    public void testBoundValuesAreNotParsedAsSQL() throws SQLException {
+        dbm.newQueryBuilder("users")
+            .where("id", 1)
+            .update(statement -> statement.set("name", "Robert'); DROP TABLE `users`; --"));
+
+        Collection result = dbm.newQueryBuilder("users").where("name", "Robert'); DROP TABLE `users`; --").get();
+        assertEquals(1, result.size());
+        assertEquals(2, dbm.newQueryBuilder("users").get().size());
+    }
+
+    @Test
+    public void testValuesWithDifferentTypesThanTheFirstRowAreKept() throws SQLException {
+        dbm.queryUpdate("INSERT INTO `users` (`id`, `name`, `points`) VALUES (3, 'Alexis', 'many'), (4, 'Kai', 1.5);");
+
+        Collection result = dbm.query("SELECT * FROM `users` ORDER BY `id` ASC;");
+
+        assertEquals(4, result.size());
+        assertEquals(10, result.first().getInt("points"));
+        assertEquals("10", result.first().getString("points"));
+        assertEquals("many", result.get(2).getString("points"));
+        assertEquals("1.5", result.last().getString("points"));
+        assertEquals(1.5D, result.last().getDouble("points"));
+    }
+
+    @Test
+    public void testPlainQueriesStillRunOnSQLite() throws SQLException {
+        Collection result = dbm.query("SELECT * FROM `users` ORDER BY `id` DESC;");
+
+        assertEquals(2, result.size());
+        assertEquals("Ava", result.first().getString("name"));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import com.avairebot.database.fakes.FakeSQLiteDatabaseManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SQLiteWriterTests extends BaseTest {
+
+    private final String filename = "sqlite-writer-tests-" + System.nanoTime() + ".sqlite";
+
+    private FakeSQLiteDatabaseManager dbm;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws SQLException {
+        dbm = new FakeSQLiteDatabaseManager(filename);
+        dbm.queryUpdate("CREATE TABLE `users` (`id` INTEGER PRIMARY KEY, `name` VARCHAR(64));");
+
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        executor.shutdownNow();
+        dbm.close();
+
+        for (String suffix : Arrays.asList("", "-wal", "-shm")) {
+            new File(filename + suffix).delete();
+        }
+    }
+
+    @Test
+    public void testFileDatabasesSendWritesThroughTheWriter() {
+        assertNotNull(dbm.getWriter());
+    }
+
+    @Test(timeout = 10000)
+    public void testQueuedWritesAreGroupedIntoASingleTransaction() throws Exception {
+        Set<Connection> connections = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        List<Future<Integer>> writes = runWhileWriterIsBlocked(5, i -> dbm.getWriter().submit(connection -> {
+            connections.add(connection);
+
+            return insert(connection, i, "user-" + i);
+        }));
+
+        for (Future<Integer> write : writes) {
+            assertEquals(1, (int) write.get());
+        }
+
+        assertEquals(1, connections.size());
+        assertEquals(5, dbm.query("SELECT * FROM `users`;").size());
+    }
+
+    @Test(timeout = 10000)
+    public void testFailedWritesOnlyRollBackTheirOwnChanges() throws Exception {
+        List<Future<Integer>> writes = runWhileWriterIsBlocked(3, i -> dbm.getWriter().submit(connection -> {
+            insert(connection, i, "user-" + i);
+            if (i == 1) {
+                throw new SQLException("The second write failed");
+            }
+            return i;
+        }));
+
+        assertEquals(0, (int) writes.get(0).get());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> writes.get(1).get());
+        assertTrue(exception.getCause() instanceof SQLException);
+        assertEquals(2, (int) writes.get(2).get());
+
+        assertEquals(2, dbm.query("SELECT * FROM `users`;").size());
+        assertTrue(dbm.query("SELECT * FROM `users` WHERE `id` = 1;").isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testWritesNestedInsideATransactionRunInTheSameTransaction() throws SQLException {
+        dbm.transaction(transaction -> {
+            transaction.newQueryBuilder("users").insert(statement -> {
+                statement.set("id", 1);
+                statement.set("name", "Senither");
+            });
+
+            // Writes sent through the database manager are run right away on the
+            // writer thread, instead of waiting behind the running transaction.
+            dbm.newQueryBuilder("users").insert(statement -> {
+                statement.set("id", 2);
+                statement.set("name", "Ava");
+            });
+        });
+
+        assertEquals(2, dbm.query("SELECT * FROM `users`;").size());
+    }
+
+    @Test(timeout = 10000)
+    public void testWritesNestedInsideAFailedTransactionAreRolledBack() throws SQLException {
+        assertThrows(SQLException.class, () -> dbm.transaction(transaction -> {
+            dbm.newQueryBuilder("users").insert(statement -> {
+                statement.set("id", 1);
+                statement.set("name", "Senither");
+            });
+
+            throw new SQLException("The transaction failed");
+        }));
+
+        assertTrue(dbm.query("SELECT * FROM `users`;").isEmpty());
+    }
+
+    /**
+     * Blocks the writer thread with a write that waits until the given amount of writes
+     * has been added to the queue, so all the writes are grouped together by the writer.
+     */
+    private <T> List<Future<T>> runWhileWriterIsBlocked(int amount, IndexedWrite<T> write) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Void> blocker = executor.submit(() -> dbm.getWriter().submit(connection -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+
+        started.await();
+
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < amount; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> write.run(index)));
+
+            // The writes are added to the queue one at a time, so
+            // they're grouped by the writer in the same order.
+            while (dbm.getWriter().getQueueSize() < i + 1) {
+                Thread.sleep(5);
+            }
+        }
+
+        release.countDown();
+        blocker.get();
+
+        return futures;
+    }
+
+    private int insert(Connection connection, int id, String name) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(String.format(
+                "INSERT INTO `users` (`id`, `name`) VALUES (%s, '%s');", id, name
+            ));
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedWrite<T> {
+
+        T run(int index) throws SQLException;
+    }
+}
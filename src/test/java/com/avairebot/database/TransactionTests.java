@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import com.avairebot.database.fakes.FakeSQLiteDatabaseManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionTests extends BaseTest {
+
+    private FakeSQLiteDatabaseManager dbm;
+
+    @Before
+    public void setUp() throws SQLException {
+        dbm = new FakeSQLiteDatabaseManager();
+        dbm.setRetries(3);
+        dbm.queryUpdate("CREATE TABLE `users` (`id` INTEGER PRIMARY KEY, `name` VARCHAR(64));");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        dbm.close();
+    }
+
+    @Test
+    public void testTransactionsAreCommittedWhenTheClosureFinishes() throws SQLException {
+        dbm.transaction(transaction -> {
+            insert(transaction, 1, "Senither");
+            insert(transaction, 2, "Ava");
+        });
+
+        assertEquals(2, dbm.query("SELECT * FROM `users`;").size());
+        assertFalse(dbm.hasRunningTransactions());
+    }
+
+    @Test
+    public void testTransactionsAreRolledBackWhenTheClosureThrows() throws SQLException {
+        SQLException exception = assertThrows(SQLException.class, () -> dbm.transaction(transaction -> {
+            insert(transaction, 1, "Senither");
+
+            throw new SQLException("The transaction failed");
+        }));
+
+        assertEquals("The transaction failed", exception.getMessage());
+        assertTrue(dbm.query("SELECT * FROM `users`;").isEmpty());
+    }
+
+    @Test
+    public void testTransactionsAreRolledBackWhenTheClosureThrowsRuntimeExceptions() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> dbm.transaction(transaction -> {
+            insert(transaction, 1, "Senither");
+
+            throw new IllegalStateException("The transaction failed");
+        }));
+
+        assertTrue(dbm.query("SELECT * FROM `users`;").isEmpty());
+    }
+
+    @Test
+    public void testDeadlockedTransactionsAreRetried() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        dbm.transaction(transaction -> {
+            insert(transaction, 1, "Senither");
+
+            if (attempts.incrementAndGet() == 1) {
+                throw new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001");
+            }
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, dbm.query("SELECT * FROM `users`;").size());
+    }
+
+    @Test
+    public void testDeadlockedTransactionsFailOnceTheRetriesAreUsedUp() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(SQLTransactionRollbackException.class, () -> dbm.transaction(transaction -> {
+            insert(transaction, attempts.incrementAndGet(), "Senither");
+
+            throw new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertTrue(dbm.query("SELECT * FROM `users`;").isEmpty());
+    }
+
+    @Test
+    public void testOtherErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(SQLException.class, () -> dbm.transaction(transaction -> {
+            attempts.incrementAndGet();
+
+            transaction.query("SELECT * FROM `missing_table`;");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    private void insert(Transaction transaction, int id, String name) throws SQLException {
+        transaction.newQueryBuilder("users").insert(statement -> {
+            statement.set("id", id);
+            statement.set("name", name);
+        });
+    }
+}
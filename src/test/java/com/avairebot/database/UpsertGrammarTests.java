@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import com.avairebot.contracts.database.Database.QueryType;
+import com.avairebot.database.connections.SQLite;
+import com.avairebot.database.exceptions.DatabaseException;
+import com.avairebot.database.fakes.FakeDatabaseManager;
+import com.avairebot.database.query.CompiledQuery;
+import com.avairebot.database.query.QueryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpsertGrammarTests extends BaseTest {
+
+    private FakeDatabaseManager dbm;
+    private SQLite sqlite;
+
+    @Before
+    public void setUp() {
+        dbm = new FakeDatabaseManager();
+        sqlite = new SQLite(dbm, ":memory:");
+    }
+
+    @Test
+    public void testMySQLUpsertUpdatesEveryColumnExceptTheConflictKeys() {
+        CompiledQuery query = compileMySQL(makeQuery().onConflict("id"));
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON DUPLICATE KEY UPDATE `name` = VALUES(`name`), `points` = VALUES(`points`);",
+            query.getQuery()
+        );
+        assertEquals(Arrays.asList(1L, "first", 10L, 2L, "second", 20L), query.getBindings());
+    }
+
+    @Test
+    public void testMySQLUpsertOnlyUpdatesTheGivenColumns() {
+        CompiledQuery query = compileMySQL(makeQuery().onConflict("id").onConflictUpdate("points"));
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON DUPLICATE KEY UPDATE `points` = VALUES(`points`);",
+            query.getQuery()
+        );
+        assertEquals(Arrays.asList(1L, "first", 10L, 2L, "second", 20L), query.getBindings());
+    }
+
+    @Test
+    public void testMySQLUpsertWithoutUpdateColumnsLeavesExistingRowsUntouched() {
+        CompiledQuery query = compileMySQL(makeQuery().onConflict("id").onConflictUpdate());
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON DUPLICATE KEY UPDATE `id` = `id`;",
+            query.getQuery()
+        );
+    }
+
+    @Test
+    public void testSQLiteUpsertUpdatesEveryColumnExceptTheConflictKeys() {
+        CompiledQuery query = compileSQLite(makeQuery().onConflict("id"));
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON CONFLICT (`id`) DO UPDATE SET `name` = excluded.`name`, `points` = excluded.`points`;",
+            query.getQuery()
+        );
+        assertEquals(Arrays.asList("1", "first", "10", "2", "second", "20"), query.getBindings());
+    }
+
+    @Test
+    public void testSQLiteUpsertOnlyUpdatesTheGivenColumns() {
+        CompiledQuery query = compileSQLite(makeQuery().onConflict("id", "name").onConflictUpdate("points"));
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON CONFLICT (`id`, `name`) DO UPDATE SET `points` = excluded.`points`;",
+            query.getQuery()
+        );
+        assertEquals(Arrays.asList("1", "first", "10", "2", "second", "20"), query.getBindings());
+    }
+
+    @Test
+    public void testSQLiteUpsertWithoutUpdateColumnsDoesNothing() {
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON CONFLICT (`id`) DO NOTHING;",
+            compileSQLite(makeQuery().onConflict("id").onConflictUpdate()).getQuery()
+        );
+
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`,`points`) VALUES (?,?,?), (?,?,?) ON CONFLICT DO NOTHING;",
+            compileSQLite(makeQuery().onConflictUpdate()).getQuery()
+        );
+    }
+
+    @Test
+    public void testSQLiteUpsertRequiresConflictKeysToUpdateRows() {
+        assertThrows(DatabaseException.class, () -> compileSQLite(makeQuery()));
+    }
+
+    private CompiledQuery compileMySQL(QueryBuilder query) {
+        return query.compile(QueryType.UPSERT);
+    }
+
+    private CompiledQuery compileSQLite(QueryBuilder query) {
+        return sqlite.compile(dbm, query, QueryType.UPSERT);
+    }
+
+    private QueryBuilder makeQuery() {
+        QueryBuilder query = dbm.newQueryBuilder("test");
+
+        query.getItems().add(makeRow(1, "first", 10));
+        query.getItems().add(makeRow(2, "second", 20));
+
+        return query;
+    }
+
+    private Map<String, Object> makeRow(int id, String name, int points) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("name", name);
+        row.put("points", points);
+
+        return row;
+    }
+}
@@ -21,6 +21,8 @@
 
 package com.avairebot.database.fakes;
 
+import com.avairebot.config.MemoryConfiguration;
+import com.avairebot.contracts.config.ConfigurationSection;
 import com.avairebot.contracts.database.Database;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.exceptions.DatabaseException;
@@ -33,6 +35,11 @@ public class FakeDatabaseManager extends DatabaseManager {
         super(null);
     }
 
+    @Override
+    public ConfigurationSection getConfig() {
+        return new MemoryConfiguration();
+    }
+
     @Override
     public Database getConnection() throws SQLException, DatabaseException {
         return new FakeMySQLConnection(null);
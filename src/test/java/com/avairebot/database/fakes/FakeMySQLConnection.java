@@ -24,11 +24,14 @@ package com.avairebot.database.fakes;
 import com.avairebot.contracts.database.StatementInterface;
 import com.avairebot.contracts.database.connections.FilenameDatabase;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.grammar.mysql.Create;
 import com.avairebot.database.grammar.mysql.Delete;
 import com.avairebot.database.grammar.mysql.Insert;
 import com.avairebot.database.grammar.mysql.Update;
+import com.avairebot.database.grammar.mysql.Upsert;
 import com.avairebot.database.grammar.sqlite.Select;
+import com.avairebot.database.query.CompiledQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 
@@ -104,4 +107,22 @@ public class FakeMySQLConnection extends FilenameDatabase {
     public String update(DatabaseManager manager, QueryBuilder query, @Nullable Map<String, Boolean> options) {
         return setupAndRun(new Update(), query, manager, options);
     }
+
+    @Override
+    public CompiledQuery compile(DatabaseManager manager, QueryBuilder query, QueryType type) {
+        switch (type) {
+            case SELECT:
+                return setupAndCompile(new Select(), query, manager);
+            case INSERT:
+                return setupAndCompile(new Insert(), query, manager);
+            case UPSERT:
+                return setupAndCompile(new Upsert(), query, manager);
+            case UPDATE:
+                return setupAndCompile(new Update(), query, manager);
+            case DELETE:
+                return setupAndCompile(new Delete(), query, manager);
+            default:
+                throw new DatabaseException("Invalid query type given, " + type + " queries can't be compiled from a query builder.");
+        }
+    }
 }
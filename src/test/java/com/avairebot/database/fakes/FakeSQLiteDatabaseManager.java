@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.fakes;
+
+import com.avairebot.config.MemoryConfiguration;
+import com.avairebot.contracts.config.ConfigurationSection;
+import com.avairebot.database.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+public class FakeSQLiteDatabaseManager extends DatabaseManager {
+
+    private MemoryConfiguration config;
+
+    public FakeSQLiteDatabaseManager() {
+        this(":memory:");
+    }
+
+    public FakeSQLiteDatabaseManager(String filename) {
+        super(null);
+
+        getConfig().set("database.type", "sqlite");
+        getConfig().set("database.filename", filename);
+    }
+
+    @Override
+    public synchronized ConfigurationSection getConfig() {
+        // The config is created lazily since the database manager
+        // constructor loads its settings before this class is ready.
+        if (config == null) {
+            config = new MemoryConfiguration();
+        }
+        return config;
+    }
+
+    public synchronized void close() throws SQLException {
+        if (getWriter() != null) {
+            getWriter().shutdown(5, TimeUnit.SECONDS);
+        }
+        getConnection().close();
+    }
+}
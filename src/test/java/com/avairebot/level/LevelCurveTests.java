@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelCurveTests extends BaseTest {
+
+    private static final double[] modifiers = new double[]{
+        0D, LevelManager.getDefaultModifier(), 0.5D, 1.25D, 3D, 12.5D
+    };
+
+    private LevelManager levelManager;
+
+    @Before
+    public void setUp() {
+        levelManager = new LevelManager();
+    }
+
+    @Test
+    public void testExperienceFromLevelMatchesTheLevelFormula() {
+        for (double modifier : modifiers) {
+            for (long level = 0; level <= LevelCurve.MAX_LEVEL + 10; level++) {
+                assertEquals(
+                    levelManager.calculateExperienceFromLevel(level, modifier),
+                    levelManager.getExperienceFromLevel(level, modifier),
+                    "level " + level + " with modifier " + modifier
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testLevelFromExperienceMatchesTheLevelFormula() {
+        for (double modifier : modifiers) {
+            for (long level = 0; level <= LevelCurve.MAX_LEVEL + 10; level++) {
+                long experience = levelManager.calculateExperienceFromLevel(level, modifier);
+
+                for (long xp = experience - 3; xp <= experience + 3; xp++) {
+                    assertEquals(
+                        levelManager.calculateLevelFromExperience(xp, modifier),
+                        levelManager.getLevelFromExperience(xp, modifier),
+                        xp + " xp with modifier " + modifier
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLevelFromExperienceMatchesTheLevelFormulaBetweenLevels() {
+        for (double modifier : modifiers) {
+            for (long level = 0; level < LevelCurve.MAX_LEVEL; level++) {
+                long experience = levelManager.calculateExperienceFromLevel(level, modifier);
+                long xp = experience + (levelManager.calculateExperienceFromLevel(level + 1, modifier) - experience) / 2;
+
+                assertEquals(
+                    levelManager.calculateLevelFromExperience(xp, modifier),
+                    levelManager.getLevelFromExperience(xp, modifier),
+                    xp + " xp with modifier " + modifier
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testNegativeExperienceResolvesToLevelZero() {
+        for (double modifier : modifiers) {
+            assertEquals(0, levelManager.getLevelFromExperience(-1, modifier));
+            assertEquals(0, levelManager.getLevelFromExperience(Long.MIN_VALUE, modifier));
+        }
+    }
+}
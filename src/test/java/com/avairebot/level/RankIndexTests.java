@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankIndexTests extends BaseTest {
+
+    private RankIndex index;
+    private Map<Long, Long> experience;
+
+    @Before
+    public void setUp() {
+        index = new RankIndex();
+        experience = new HashMap<>();
+
+        Random random = new Random(1337);
+        for (long userId = 1; userId <= 2000; userId++) {
+            // A small experience range gives plenty of ties, which are ordered by the user ID.
+            put(userId, random.nextInt(500));
+        }
+    }
+
+    @Test
+    public void testRanksMatchTheSortedLeaderboard() {
+        List<Long> leaderboard = getSortedLeaderboard();
+
+        assertEquals(leaderboard.size(), index.size());
+        for (int i = 0; i < leaderboard.size(); i++) {
+            assertEquals(i + 1, index.getRank(leaderboard.get(i)), "user " + leaderboard.get(i));
+        }
+    }
+
+    @Test
+    public void testRangesMatchTheSortedLeaderboard() {
+        List<Long> leaderboard = getSortedLeaderboard();
+
+        assertRange(leaderboard, 0, 10);
+        assertRange(leaderboard, 10, 20);
+        assertRange(leaderboard, 995, 1005);
+        assertRange(leaderboard, 0, leaderboard.size());
+        assertRange(leaderboard, leaderboard.size() - 5, leaderboard.size() + 5);
+    }
+
+    @Test
+    public void testRanksAreUpdatedWhenUsersChange() {
+        Random random = new Random(7331);
+        for (int i = 0; i < 1000; i++) {
+            long userId = 1 + random.nextInt(2500);
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    put(userId, random.nextInt(500));
+                    break;
+
+                case 1:
+                    long amount = random.nextInt(50);
+                    index.increment(userId, amount, 100);
+                    experience.put(userId, experience.getOrDefault(userId, 100L) + amount);
+                    break;
+
+                default:
+                    assertEquals(experience.remove(userId) != null, index.remove(userId));
+                    break;
+            }
+        }
+
+        List<Long> leaderboard = getSortedLeaderboard();
+        for (int i = 0; i < leaderboard.size(); i++) {
+            assertEquals(i + 1, index.getRank(leaderboard.get(i)), "user " + leaderboard.get(i));
+        }
+        assertRange(leaderboard, 0, leaderboard.size());
+    }
+
+    @Test
+    public void testUnrankedUsersHaveNoRank() {
+        assertEquals(-1, index.getRank(9999));
+
+        index.remove(1);
+        assertEquals(-1, index.getRank(1));
+        assertFalse(index.remove(1));
+    }
+
+    @Test
+    public void testEmptyRangesAreReturnedForInvalidPositions() {
+        assertTrue(index.getRange(10, 10).isEmpty());
+        assertTrue(index.getRange(20, 10).isEmpty());
+        assertTrue(index.getRange(index.size(), index.size() + 10).isEmpty());
+        assertTrue(new RankIndex().getRange(0, 10).isEmpty());
+    }
+
+    private void put(long userId, long amount) {
+        index.put(userId, amount);
+        experience.put(userId, amount);
+    }
+
+    private List<Long> getSortedLeaderboard() {
+        List<Long> leaderboard = new ArrayList<>(experience.keySet());
+        leaderboard.sort(Comparator.comparing((Long userId) -> experience.get(userId)).reversed()
+            .thenComparing(userId -> userId)
+        );
+        return leaderboard;
+    }
+
+    private void assertRange(List<Long> leaderboard, int from, int to) {
+        List<RankIndex.Entry> range = index.getRange(from, to);
+        List<Long> expected = leaderboard.subList(from, Math.min(to, leaderboard.size()));
+
+        assertEquals(expected.size(), range.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals((long) expected.get(i), range.get(i).getUserId());
+            assertEquals((long) experience.get(expected.get(i)), range.get(i).getExperience());
+        }
+    }
+}
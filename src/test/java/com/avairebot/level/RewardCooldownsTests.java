@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RewardCooldownsTests extends BaseTest {
+
+    @Test
+    public void testUsersCantBeRewardedWhileOnCooldown() {
+        RewardCooldowns cooldowns = new RewardCooldowns(1, TimeUnit.MINUTES);
+
+        assertTrue(cooldowns.tryAcquire(1, 10));
+        assertFalse(cooldowns.tryAcquire(1, 10));
+        assertFalse(cooldowns.tryAcquire(1, 10));
+    }
+
+    @Test
+    public void testCooldownsAreTrackedPerGuildAndUser() {
+        RewardCooldowns cooldowns = new RewardCooldowns(1, TimeUnit.MINUTES);
+
+        assertTrue(cooldowns.tryAcquire(1, 10));
+        assertTrue(cooldowns.tryAcquire(1, 20));
+        assertTrue(cooldowns.tryAcquire(2, 10));
+        assertTrue(cooldowns.tryAcquire(10, 1));
+
+        assertFalse(cooldowns.tryAcquire(1, 20));
+        assertFalse(cooldowns.tryAcquire(2, 10));
+        assertFalse(cooldowns.tryAcquire(10, 1));
+        assertEquals(4, cooldowns.size());
+    }
+
+    @Test
+    public void testUsersCanBeRewardedAgainOnceTheCooldownExpires() throws InterruptedException {
+        RewardCooldowns cooldowns = new RewardCooldowns(50, TimeUnit.MILLISECONDS);
+
+        assertTrue(cooldowns.tryAcquire(1, 10));
+        assertFalse(cooldowns.tryAcquire(1, 10));
+
+        Thread.sleep(100);
+
+        assertTrue(cooldowns.tryAcquire(1, 10));
+        assertFalse(cooldowns.tryAcquire(1, 10));
+        assertEquals(1, cooldowns.size());
+    }
+
+    @Test
+    public void testExpiredCooldownSlotsAreReused() throws InterruptedException {
+        RewardCooldowns cooldowns = new RewardCooldowns(10, TimeUnit.MILLISECONDS);
+
+        for (int round = 0; round < 20; round++) {
+            for (long userId = 0; userId < 1000; userId++) {
+                assertTrue(cooldowns.tryAcquire(1, round * 1000L + userId));
+            }
+
+            Thread.sleep(20);
+        }
+
+        assertTrue(cooldowns.size() < 5000, "Expired cooldowns should be reused or dropped, got " + cooldowns.size());
+    }
+
+    @Test
+    public void testStillActiveCooldownsSurviveResizing() {
+        RewardCooldowns cooldowns = new RewardCooldowns(1, TimeUnit.MINUTES);
+
+        for (long userId = 0; userId < 10000; userId++) {
+            assertTrue(cooldowns.tryAcquire(1, userId));
+        }
+
+        for (long userId = 0; userId < 10000; userId++) {
+            assertFalse(cooldowns.tryAcquire(1, userId), "user " + userId);
+        }
+        assertEquals(10000, cooldowns.size());
+    }
+}